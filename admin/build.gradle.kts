@@ -0,0 +1,44 @@
+plugins {
+    application
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_11
+    targetCompatibility = JavaVersion.VERSION_11
+}
+
+// The data jobs are plain Java, so they are compiled in from :app's sources and run
+// here with admin credentials instead of from a device
+sourceSets {
+    main {
+        java {
+            srcDir(rootProject.file("app/src/main/java"))
+            include(
+                "com/matey/disciteomnesapp/admin/**",
+                "com/matey/disciteomnesapp/models/GroupStats.java",
+                "com/matey/disciteomnesapp/models/Task.java",
+                "com/matey/disciteomnesapp/data/AppliedWrites.java",
+                "com/matey/disciteomnesapp/data/AppliedWritesCleanup.java",
+                "com/matey/disciteomnesapp/data/DataStore.java",
+                "com/matey/disciteomnesapp/data/GroupStatsBackfill.java",
+                "com/matey/disciteomnesapp/data/GroupStatsDelta.java",
+                "com/matey/disciteomnesapp/data/GroupStatsMapper.java",
+                "com/matey/disciteomnesapp/data/GroupTasks.java",
+                "com/matey/disciteomnesapp/data/Increment.java",
+                "com/matey/disciteomnesapp/data/MaintenanceFlag.java",
+                "com/matey/disciteomnesapp/data/TaskIndex.java",
+                "com/matey/disciteomnesapp/data/TaskMapper.java",
+                "com/matey/disciteomnesapp/data/TaskMigration.java",
+            )
+        }
+    }
+}
+
+dependencies {
+    implementation(libs.firebase.admin)
+}
+
+// ./gradlew :admin:run --args="run-pending https://PROJECT.firebaseio.com"
+application {
+    mainClass.set("com.matey.disciteomnesapp.admin.DataMaintenance")
+}
@@ -0,0 +1,107 @@
+package com.matey.disciteomnesapp.admin;
+
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.MutableData;
+import com.google.firebase.database.ServerValue;
+import com.google.firebase.database.Transaction;
+import com.google.firebase.database.ValueEventListener;
+import com.matey.disciteomnesapp.data.DataStore;
+import com.matey.disciteomnesapp.data.Increment;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * DataStore backed by the Firebase Admin SDK, for the data jobs run by
+ * {@link DataMaintenance}.
+ *
+ * The Admin SDK's database API matches the Android one, so this mirrors the app's
+ * FirebaseDataStore; callbacks arrive on the SDK's event thread, as nothing here has a
+ * main thread to hand them to.
+ */
+public class AdminDataStore implements DataStore {
+
+    private final DatabaseReference root;
+
+    public AdminDataStore(DatabaseReference root) {
+        this.root = root;
+    }
+
+    @Override
+    public void read(String path, ValueCallback callback) {
+        root.child(path).addListenerForSingleValueEvent(new ValueEventListener() {
+            @Override
+            public void onDataChange(DataSnapshot snapshot) {
+                callback.onValue(snapshot.getValue());
+            }
+
+            @Override
+            public void onCancelled(DatabaseError error) {
+                callback.onError(error.getMessage());
+            }
+        });
+    }
+
+    @Override
+    public Registration listen(String path, ValueCallback callback) {
+        DatabaseReference ref = root.child(path);
+        ValueEventListener listener = ref.addValueEventListener(new ValueEventListener() {
+            @Override
+            public void onDataChange(DataSnapshot snapshot) {
+                callback.onValue(snapshot.getValue());
+            }
+
+            @Override
+            public void onCancelled(DatabaseError error) {
+                callback.onError(error.getMessage());
+            }
+        });
+        return () -> ref.removeEventListener(listener);
+    }
+
+    @Override
+    public void update(Map<String, Object> updates, Runnable onSuccess, Runnable onFailure) {
+        Map<String, Object> values = new HashMap<>(updates);
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+            if (entry.getValue() instanceof Increment) {
+                entry.setValue(ServerValue.increment(((Increment) entry.getValue()).delta));
+            }
+        }
+        root.updateChildren(values, (error, ref) -> {
+            if (error == null) {
+                onSuccess.run();
+            } else {
+                onFailure.run();
+            }
+        });
+    }
+
+    @Override
+    public void transaction(String path, Mutation mutation, TransactionCallback callback) {
+        root.child(path).runTransaction(new Transaction.Handler() {
+            @Override
+            public Transaction.Result doTransaction(MutableData data) {
+                Object next = mutation.apply(data.getValue());
+                if (next == Mutation.ABORT) return Transaction.abort();
+                data.setValue(next);
+                return Transaction.success(data);
+            }
+
+            @Override
+            public void onComplete(DatabaseError error, boolean committed, DataSnapshot snapshot) {
+                if (error != null) {
+                    callback.onError(error.getMessage());
+                } else {
+                    callback.onComplete(committed, snapshot != null ? snapshot.getValue() : null);
+                }
+            }
+        });
+    }
+
+    @Override
+    public String newKey(String path) {
+        return root.child(path).push().getKey();
+    }
+}
@@ -0,0 +1,108 @@
+package com.matey.disciteomnesapp.admin;
+
+import com.google.auth.oauth2.AccessToken;
+import com.google.auth.oauth2.GoogleCredentials;
+import com.google.firebase.FirebaseApp;
+import com.google.firebase.FirebaseOptions;
+import com.google.firebase.database.FirebaseDatabase;
+import com.matey.disciteomnesapp.data.AppliedWritesCleanup;
+import com.matey.disciteomnesapp.data.DataStore;
+import com.matey.disciteomnesapp.data.GroupStatsBackfill;
+import com.matey.disciteomnesapp.data.TaskMigration;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Data jobs that read or rewrite whole trees and so never run from the app. Run by hand
+ * from a workstation, with the project's service account:
+ *
+ *   GOOGLE_APPLICATION_CREDENTIALS=service-account.json \
+ *       ./gradlew :admin:run --args="run-pending https://PROJECT.firebaseio.com"
+ *
+ * run-pending runs the one-time jobs, while the app's writes are paused; each claims its
+ * meta/ flag first, so running it again, or twice at once, does nothing.
+ * prune-applied-writes is meant to run regularly (e.g. weekly) and needs no pause.
+ *
+ * With FIREBASE_DATABASE_EMULATOR_HOST set (e.g. localhost:9000) it runs against the
+ * Realtime Database emulator and needs no credentials.
+ */
+public final class DataMaintenance {
+
+    private static final long TIMEOUT_S = 600;
+
+    private DataMaintenance() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length != 2) usage();
+        String job = args[0];
+        if (!job.equals("run-pending") && !job.equals("prune-applied-writes")) usage();
+
+        FirebaseApp app = FirebaseApp.initializeApp(FirebaseOptions.builder()
+                .setCredentials(credentials())
+                .setDatabaseUrl(args[1])
+                .build());
+        boolean succeeded;
+        try {
+            DataStore dataStore = new AdminDataStore(FirebaseDatabase.getInstance(app).getReference());
+            if (job.equals("run-pending")) {
+                // In the order they depend on each other; finished ones only cost a flag read
+                succeeded = run("TaskMigration", done -> new TaskMigration(dataStore)
+                        .runIfNeeded(() -> done.complete(true), () -> done.complete(false)))
+                        && run("GroupStatsBackfill", done -> new GroupStatsBackfill(dataStore)
+                        .runIfNeeded(() -> done.complete(true), () -> done.complete(false)));
+            } else {
+                succeeded = run("AppliedWritesCleanup", done -> new AppliedWritesCleanup(dataStore)
+                        .run(() -> done.complete(true), () -> done.complete(false)));
+            }
+        } finally {
+            app.delete();
+        }
+        System.exit(succeeded ? 0 : 1);
+    }
+
+    private interface Job {
+        void start(Result done);
+    }
+
+    private static class Result {
+        private final CountDownLatch latch = new CountDownLatch(1);
+        private final AtomicBoolean succeeded = new AtomicBoolean();
+
+        void complete(boolean success) {
+            succeeded.set(success);
+            latch.countDown();
+        }
+    }
+
+    private static boolean run(String name, Job job) throws InterruptedException {
+        Result result = new Result();
+        job.start(result);
+        if (!result.latch.await(TIMEOUT_S, TimeUnit.SECONDS)) {
+            System.err.println(name + " timed out");
+            return false;
+        }
+        if (!result.succeeded.get()) {
+            System.err.println(name + " failed or another run holds its flag");
+            return false;
+        }
+        System.out.println(name + " done");
+        return true;
+    }
+
+    private static GoogleCredentials credentials() throws IOException {
+        if (System.getenv("FIREBASE_DATABASE_EMULATOR_HOST") != null) {
+            // The emulator accepts this token as an admin
+            return GoogleCredentials.create(new AccessToken("owner", null));
+        }
+        return GoogleCredentials.getApplicationDefault();
+    }
+
+    private static void usage() {
+        System.err.println("Usage: DataMaintenance run-pending|prune-applied-writes DATABASE_URL");
+        System.exit(2);
+    }
+}
@@ -0,0 +1,256 @@
+package com.matey.disciteomnesapp.data;
+
+import android.content.Context;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.FirebaseApp;
+import com.google.firebase.FirebaseOptions;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.FirebaseDatabase;
+import com.matey.disciteomnesapp.models.Task;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs concurrent completion toggles against the Realtime Database emulator, with the
+ * rules from database.rules.json, and checks that groupStats still matches a fresh
+ * count of the stored tasks.
+ *
+ * Needs the emulators running on the host: firebase emulators:start --only auth,database
+ */
+@RunWith(AndroidJUnit4.class)
+public class GroupStatsEmulatorTest {
+
+    private static final String HOST = "10.0.2.2"; // the host machine, seen from the Android emulator
+    private static final String PROJECT_ID = "demo-discite-omnes";
+    private static final String APP_NAME = "groupStatsEmulatorTest";
+    private static final String GROUP_ID = "statsTestGroup";
+    private static final int TASK_COUNT = 20;
+    private static final int CLIENTS = 4;
+    private static final int TOGGLES_PER_CLIENT = 50;
+    private static final long TIMEOUT_S = 30;
+
+    private DatabaseReference root;
+    private DataStore dataStore;
+
+    @Before
+    public void setUp() throws Exception {
+        FirebaseDatabase database = emulatorDatabase();
+        root = database.getReference();
+        dataStore = new FirebaseDataStore(root);
+
+        Map<String, Object> clear = new HashMap<>();
+        clear.put(GroupTasks.path(GROUP_ID), null);
+        clear.put(GroupStatsMapper.path(GROUP_ID), null);
+        Tasks.await(root.updateChildren(clear), TIMEOUT_S, TimeUnit.SECONDS);
+
+        CountDownLatch created = new CountDownLatch(1);
+        new BulkTaskUpdate(dataStore).create(tasks(), callback(created, new AtomicInteger()));
+        assertTrue(created.await(TIMEOUT_S, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void sameToggleFromEveryClient_isCountedOnce() throws Exception {
+        CountDownLatch done = new CountDownLatch(CLIENTS);
+        AtomicInteger failures = new AtomicInteger();
+        // Every client saw the tasks as created and completes all of them at the same time
+        for (int client = 0; client < CLIENTS; client++) {
+            new BulkTaskUpdate(dataStore).setCompleted(tasks(), true, callback(done, failures));
+        }
+        assertTrue(done.await(TIMEOUT_S, TimeUnit.SECONDS));
+
+        assertEquals(CLIENTS - 1, failures.get());
+        Map<String, Object> stats = readStats();
+        assertEquals((long) TASK_COUNT, stats.get("completed"));
+        assertEquals(recount(), stats);
+    }
+
+    @Test
+    public void randomConcurrentToggles_keepCountersConsistent() throws Exception {
+        CountDownLatch done = new CountDownLatch(CLIENTS * TOGGLES_PER_CLIENT);
+        AtomicInteger failures = new AtomicInteger();
+        Random random = new Random(42);
+
+        // Each client toggles from its own, possibly stale, view of the tasks
+        List<List<Task>> views = new ArrayList<>();
+        for (int client = 0; client < CLIENTS; client++) views.add(tasks());
+        for (int i = 0; i < TOGGLES_PER_CLIENT; i++) {
+            for (List<Task> view : views) {
+                Task task = view.get(random.nextInt(TASK_COUNT));
+                boolean completed = !task.completed;
+                new BulkTaskUpdate(dataStore).setCompleted(Collections.singletonList(task), completed,
+                        new BulkTaskUpdate.Callback() {
+                            @Override
+                            public void onSuccess(int taskCount) {
+                                task.completed = completed;
+                                done.countDown();
+                            }
+
+                            @Override
+                            public void onFailure() {
+                                // Rejected as stale: the other state is what the server holds
+                                task.completed = completed;
+                                failures.incrementAndGet();
+                                done.countDown();
+                            }
+                        });
+            }
+        }
+        assertTrue(done.await(TIMEOUT_S, TimeUnit.SECONDS));
+
+        assertTrue(failures.get() > 0);
+        assertEquals(recount(), readStats());
+    }
+
+    @Test
+    public void reassignAndDeleteOfStoredTasks_areAcceptedAndCounted() throws Exception {
+        AtomicInteger failures = new AtomicInteger();
+        // Half of them completed, so the rule on completed has stored values to compare with
+        CountDownLatch completed = new CountDownLatch(1);
+        new BulkTaskUpdate(dataStore).setCompleted(tasks().subList(0, TASK_COUNT / 2), true, callback(completed, failures));
+        assertTrue(completed.await(TIMEOUT_S, TimeUnit.SECONDS));
+
+        // Reassigned from the copies as created, which are stale by now
+        CountDownLatch reassigned = new CountDownLatch(1);
+        new BulkTaskUpdate(dataStore).reassign(tasks(), "u9", "User 9", callback(reassigned, failures));
+        assertTrue(reassigned.await(TIMEOUT_S, TimeUnit.SECONDS));
+        for (int i = 0; i < 2; i++) {
+            CountDownLatch deleted = new CountDownLatch(1);
+            new BulkTaskUpdate(dataStore).delete(tasks().subList(0, 5), callback(deleted, failures));
+            assertTrue(deleted.await(TIMEOUT_S, TimeUnit.SECONDS));
+        }
+
+        assertEquals(0, failures.get());
+        assertEquals("u9", read(GroupTasks.path(GROUP_ID, "t05") + "/assignedTo"));
+        assertEquals(Boolean.TRUE, read(GroupTasks.path(GROUP_ID, "t05") + "/completed"));
+        assertNull(read(GroupTasks.path(GROUP_ID, "t00")));
+        Map<String, Object> stats = readStats();
+        assertEquals((long) TASK_COUNT - 5, stats.get("total"));
+        assertEquals(recount(), stats);
+    }
+
+    /**
+     * Counters computed from scratch from the tasks now stored, as the backfill would.
+     */
+    private Map<String, Object> recount() throws InterruptedException {
+        Map<String, Object> groupTasks = new HashMap<>();
+        groupTasks.put(GROUP_ID, read(GroupTasks.path(GROUP_ID)));
+        Object value = GroupStatsBackfill.buildUpdates(groupTasks).get(GroupStatsMapper.path(GROUP_ID));
+        return normalize(value);
+    }
+
+    private Map<String, Object> readStats() throws InterruptedException {
+        return normalize(read(GroupStatsMapper.path(GROUP_ID)));
+    }
+
+    /**
+     * Counters that went back to 0 are left in place by increments; they count as absent.
+     */
+    private static Map<String, Object> normalize(Object value) {
+        Map<String, Object> result = new HashMap<>();
+        if (!(value instanceof Map)) return result;
+        for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+            Object child = entry.getValue();
+            if (child instanceof Map) {
+                Map<String, Object> nested = normalize(child);
+                if (!nested.isEmpty()) result.put(String.valueOf(entry.getKey()), nested);
+            } else if (child instanceof Number && ((Number) child).longValue() != 0) {
+                result.put(String.valueOf(entry.getKey()), ((Number) child).longValue());
+            }
+        }
+        return result;
+    }
+
+    private Object read(String path) throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        AtomicReference<Object> result = new AtomicReference<>();
+        dataStore.read(path, new DataStore.ValueCallback() {
+            @Override
+            public void onValue(Object value) {
+                result.set(value);
+                latch.countDown();
+            }
+
+            @Override
+            public void onError(String message) {
+                latch.countDown();
+            }
+        });
+        assertTrue(latch.await(TIMEOUT_S, TimeUnit.SECONDS));
+        return result.get();
+    }
+
+    private static BulkTaskUpdate.Callback callback(CountDownLatch done, AtomicInteger failures) {
+        return new BulkTaskUpdate.Callback() {
+            @Override
+            public void onSuccess(int taskCount) {
+                done.countDown();
+            }
+
+            @Override
+            public void onFailure() {
+                failures.incrementAndGet();
+                done.countDown();
+            }
+        };
+    }
+
+    private static List<Task> tasks() {
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < TASK_COUNT; i++) {
+            tasks.add(new Task(String.format("t%02d", i), GROUP_ID, "Task " + i, null, false,
+                    "u" + (i % 3), "User " + (i % 3), "2025-06-" + String.format("%02d", i + 1)));
+        }
+        return tasks;
+    }
+
+    /**
+     * A separate Firebase app pointed at the emulators, signed in anonymously so the
+     * "auth != null" rules pass; the app's default instance is left alone.
+     */
+    private static synchronized FirebaseDatabase emulatorDatabase() throws Exception {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        FirebaseApp app;
+        boolean fresh = false;
+        try {
+            app = FirebaseApp.getInstance(APP_NAME);
+        } catch (IllegalStateException notInitialized) {
+            app = FirebaseApp.initializeApp(context, new FirebaseOptions.Builder()
+                    .setProjectId(PROJECT_ID)
+                    .setApplicationId("1:000000000000:android:0000000000000000")
+                    .setApiKey("emulator-api-key")
+                    .setDatabaseUrl("http://" + HOST + ":9000?ns=" + PROJECT_ID)
+                    .build(), APP_NAME);
+            fresh = true;
+        }
+        FirebaseAuth auth = FirebaseAuth.getInstance(app);
+        FirebaseDatabase database = FirebaseDatabase.getInstance(app);
+        if (fresh) {
+            auth.useEmulator(HOST, 9099);
+            database.useEmulator(HOST, 9000);
+        }
+        if (auth.getCurrentUser() == null) Tasks.await(auth.signInAnonymously(), TIMEOUT_S, TimeUnit.SECONDS);
+        return database;
+    }
+}
@@ -0,0 +1,200 @@
+package com.matey.disciteomnesapp.data;
+
+import android.content.Context;
+import android.net.TrafficStats;
+import android.os.Process;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.FirebaseApp;
+import com.google.firebase.FirebaseOptions;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.FirebaseDatabase;
+import com.matey.disciteomnesapp.models.Group;
+import com.matey.disciteomnesapp.models.Task;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Opens the startup paths (userGroups entry, the group, its stats and its first task
+ * page) twice against the Realtime Database emulator, once with the app's database
+ * configuration and {@link HotPathSync} and once with a default client, and compares
+ * the bytes the app received for the second open.
+ *
+ * Needs the emulators running on the host: firebase emulators:start --only auth,database
+ */
+@RunWith(AndroidJUnit4.class)
+public class HotPathSyncEmulatorTest {
+
+    private static final String TAG = "HotPathSyncEmulatorTest";
+    private static final String HOST = "10.0.2.2"; // the host machine, seen from the Android emulator
+    private static final String PROJECT_ID = "demo-discite-omnes";
+    private static final String USER = "hotPathUser";
+    private static final String GROUP_ID = "hotPathGroup";
+    private static final int TASK_COUNT = 200;
+    private static final int PAGE_SIZE = TaskPager.DEFAULT_PAGE_SIZE;
+    private static final long SETTLE_MS = 2_000;
+    private static final long TIMEOUT_S = 30;
+
+    @Before
+    public void setUp() throws Exception {
+        DatabaseReference root = emulatorDatabase("hotPathSeed", false).getReference();
+        Map<String, Object> seed = new HashMap<>();
+        seed.put("groups/" + GROUP_ID, GroupMapper.toValue(new Group(GROUP_ID, "Hot paths", "Seeded by the test",
+                Group.membersOf(USER))));
+        seed.put(UserGroupIndex.path(USER) + "/" + GROUP_ID, "Hot paths");
+        Map<String, Object> tasks = new HashMap<>();
+        for (int i = 0; i < TASK_COUNT; i++) {
+            Task task = new Task(String.format("t%03d", i), GROUP_ID, "Task " + i, details(i), i % 2 == 0,
+                    USER, "Hot path user", "2025-06-" + String.format("%02d", i % 28 + 1));
+            tasks.put(task.id, TaskMapper.toValue(task));
+        }
+        // Replaces whatever an earlier run left in the group
+        seed.put(GroupTasks.path(GROUP_ID), tasks);
+        seed.putAll(GroupStatsBackfill.buildUpdates(Collections.singletonMap(GROUP_ID, tasks)));
+        Tasks.await(root.updateChildren(seed), TIMEOUT_S, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void secondOpen_readsFewerBytesWithPersistenceAndKeepSynced() throws Exception {
+        assertNotEquals(TrafficStats.UNSUPPORTED, (int) TrafficStats.getUidRxBytes(Process.myUid()));
+
+        DatabaseReference plain = emulatorDatabase("hotPathsOff", false).getReference();
+        open(plain);
+        long without = bytesReceived(() -> open(plain));
+
+        DatabaseReference configured = emulatorDatabase("hotPathsOn", true).getReference();
+        HotPathSync hotPaths = new HotPathSync(FirebaseConfig.syncer(configured), PAGE_SIZE,
+                HotPathSync.MAX_ACTIVE_GROUPS);
+        hotPaths.setUser(USER);
+        hotPaths.setUserGroups(Collections.singletonList(GROUP_ID));
+        hotPaths.groupOpened(GROUP_ID);
+        open(configured);
+        long with = bytesReceived(() -> open(configured));
+        hotPaths.clear();
+
+        Log.i(TAG, "Second open: " + without + " bytes without, " + with + " bytes with hot path sync");
+        assertTrue(with * 4 < without);
+    }
+
+    private interface Open {
+        void run() throws InterruptedException;
+    }
+
+    /**
+     * Bytes the app received while opening, after earlier traffic has settled.
+     */
+    private static long bytesReceived(Open open) throws InterruptedException {
+        Thread.sleep(SETTLE_MS);
+        long before = TrafficStats.getUidRxBytes(Process.myUid());
+        open.run();
+        Thread.sleep(SETTLE_MS);
+        return TrafficStats.getUidRxBytes(Process.myUid()) - before;
+    }
+
+    /**
+     * Loads what the dashboard and the task list load at startup, then closes it again.
+     */
+    private static void open(DatabaseReference root) throws InterruptedException {
+        DataStore store = new FirebaseDataStore(root);
+        CountDownLatch loaded = new CountDownLatch(4);
+        store.read(UserGroupIndex.path(USER), countDown(loaded));
+        DataStore.Registration group = store.listen("groups/" + GROUP_ID, countDown(loaded));
+        DataStore.Registration stats = store.listen(GroupStatsMapper.path(GROUP_ID), countDown(loaded));
+        TaskPageSource.Subscription page = new FirebaseTaskPageSource(root, GROUP_ID).openPage(null, PAGE_SIZE,
+                new TaskPageSource.PageListener() {
+                    @Override
+                    public void onChildAdded(String key, Object value, String previousKey) {
+                    }
+
+                    @Override
+                    public void onChildChanged(String key, Object value) {
+                    }
+
+                    @Override
+                    public void onChildRemoved(String key) {
+                    }
+
+                    @Override
+                    public void onChildMoved(String key, String previousKey) {
+                    }
+
+                    @Override
+                    public void onLoaded(int count) {
+                        loaded.countDown();
+                    }
+
+                    @Override
+                    public void onError(String message) {
+                    }
+                });
+        assertTrue(loaded.await(TIMEOUT_S, TimeUnit.SECONDS));
+        group.remove();
+        stats.remove();
+        page.cancel();
+    }
+
+    private static DataStore.ValueCallback countDown(CountDownLatch latch) {
+        return new DataStore.ValueCallback() {
+            @Override
+            public void onValue(Object value) {
+                latch.countDown();
+            }
+
+            @Override
+            public void onError(String message) {
+            }
+        };
+    }
+
+    private static String details(int index) {
+        StringBuilder details = new StringBuilder();
+        while (details.length() < 500) details.append("Details for task ").append(index).append(". ");
+        return details.toString();
+    }
+
+    /**
+     * A separate Firebase app pointed at the emulators and signed in anonymously; with
+     * {@code configured} it gets the app's database configuration before first use.
+     */
+    private static synchronized FirebaseDatabase emulatorDatabase(String name, boolean configured) throws Exception {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        FirebaseApp app;
+        boolean fresh = false;
+        try {
+            app = FirebaseApp.getInstance(name);
+        } catch (IllegalStateException notInitialized) {
+            app = FirebaseApp.initializeApp(context, new FirebaseOptions.Builder()
+                    .setProjectId(PROJECT_ID)
+                    .setApplicationId("1:000000000000:android:0000000000000000")
+                    .setApiKey("emulator-api-key")
+                    .setDatabaseUrl("http://" + HOST + ":9000?ns=" + PROJECT_ID)
+                    .build(), name);
+            fresh = true;
+        }
+        FirebaseAuth auth = FirebaseAuth.getInstance(app);
+        FirebaseDatabase database = FirebaseDatabase.getInstance(app);
+        if (fresh) {
+            auth.useEmulator(HOST, 9099);
+            database.useEmulator(HOST, 9000);
+            if (configured) FirebaseConfig.configure(database);
+        }
+        if (auth.getCurrentUser() == null) Tasks.await(auth.signInAnonymously(), TIMEOUT_S, TimeUnit.SECONDS);
+        return database;
+    }
+}
@@ -0,0 +1,61 @@
+package com.matey.disciteomnesapp.data;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.google.firebase.database.core.utilities.encoding.CustomClassMapper;
+import com.matey.disciteomnesapp.models.Task;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Maps task value trees with Firebase's reflective mapper (what
+ * snapshot.getValue(Task.class) uses) and with TaskMapper, and checks they read the same
+ * Task. How much faster TaskMapper is gets measured in :jvmbenchmark (TaskMappingBenchmark).
+ */
+@RunWith(AndroidJUnit4.class)
+public class TaskMapperEquivalenceTest {
+
+    private static final int TASK_COUNT = 1_000;
+
+    @Test
+    public void handWrittenMapper_matchesReflectiveMapper() {
+        for (Map.Entry<String, Object> entry : tasks().entrySet()) {
+            Task reflective = CustomClassMapper.convertToCustomClass(entry.getValue(), Task.class);
+            reflective.id = entry.getKey();
+            Task handWritten = TaskMapper.fromValue(entry.getKey(), entry.getValue());
+
+            assertEquals(reflective.id, handWritten.id);
+            assertEquals(reflective.groupId, handWritten.groupId);
+            assertEquals(reflective.title, handWritten.title);
+            assertEquals(reflective.description, handWritten.description);
+            assertEquals(reflective.completed, handWritten.completed);
+            assertEquals(reflective.assignedTo, handWritten.assignedTo);
+            assertEquals(reflective.assignedToName, handWritten.assignedToName);
+            assertEquals(reflective.dueDate, handWritten.dueDate);
+        }
+    }
+
+    private static Map<String, Object> tasks() {
+        Map<String, Object> tasks = new HashMap<>();
+        for (int i = 0; i < TASK_COUNT; i++) {
+            Map<String, Object> task = new HashMap<>();
+            task.put("id", "t" + i);
+            task.put("groupId", "g" + (i % 50));
+            task.put("title", "Task " + i);
+            // Optional fields are left out now and then, as in tasks created without them
+            if (i % 7 != 0) task.put("description", "Description " + i);
+            task.put("completed", i % 3 == 0);
+            task.put("assignedTo", "u" + (i % 20));
+            task.put("assignedToName", "User " + (i % 20));
+            if (i % 10 != 0) task.put("dueDate", "2025-06-" + String.format("%02d", i % 28 + 1));
+            tasks.put("t" + i, task);
+        }
+        return tasks;
+    }
+}
@@ -0,0 +1,161 @@
+package com.matey.disciteomnesapp.data;
+
+import android.content.Context;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.FirebaseApp;
+import com.google.firebase.FirebaseOptions;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.FirebaseDatabase;
+import com.matey.disciteomnesapp.models.Task;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs the task migration and the groupStats backfill against the Realtime Database
+ * emulator, with the rules from database.rules.json: legacy tasks/ entries end up under
+ * groupTasks with matching counters, and two runs started at the same time from two
+ * clients copy the tasks only once.
+ *
+ * Needs the emulators running on the host: firebase emulators:start --only auth,database
+ */
+@RunWith(AndroidJUnit4.class)
+public class TaskMigrationEmulatorTest {
+
+    private static final String HOST = "10.0.2.2"; // the host machine, seen from the Android emulator
+    private static final String PROJECT_ID = "demo-discite-omnes";
+    private static final String[] GROUP_IDS = {"migrationGroupA", "migrationGroupB"};
+    private static final int TASKS_PER_GROUP = 600; // more than one chunk
+    private static final long TIMEOUT_S = 60;
+
+    private DatabaseReference root;
+
+    @Before
+    public void setUp() throws Exception {
+        root = emulatorDatabase("taskMigrationA").getReference();
+        Map<String, Object> seed = new HashMap<>();
+        seed.put("tasks", null);
+        seed.put(TaskMigration.FLAG_PATH, null);
+        seed.put(GroupStatsBackfill.FLAG_PATH, null);
+        for (String groupId : GROUP_IDS) {
+            seed.put(GroupTasks.path(groupId), null);
+            seed.put(GroupStatsMapper.path(groupId), null);
+        }
+        Tasks.await(root.updateChildren(seed), TIMEOUT_S, TimeUnit.SECONDS);
+
+        Map<String, Object> legacy = new HashMap<>();
+        for (String groupId : GROUP_IDS) {
+            for (int i = 0; i < TASKS_PER_GROUP; i++) {
+                Task task = new Task(groupId + "_" + i, groupId, "Task " + i, null, i % 4 == 0, "u" + (i % 3),
+                        "User " + (i % 3), "2025-06-" + String.format("%02d", i % 28 + 1));
+                legacy.put(task.id, TaskMapper.toValue(task));
+            }
+        }
+        Tasks.await(root.child("tasks").setValue(legacy), TIMEOUT_S, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void concurrentRuns_moveEveryTaskOnce() throws Exception {
+        DataStore first = new FirebaseDataStore(root);
+        DataStore second = new FirebaseDataStore(emulatorDatabase("taskMigrationB").getReference());
+        CountDownLatch finished = new CountDownLatch(2);
+        AtomicInteger succeeded = new AtomicInteger();
+        for (DataStore client : new DataStore[]{first, second}) {
+            new TaskMigration(client).runIfNeeded(() -> {
+                succeeded.incrementAndGet();
+                finished.countDown();
+            }, finished::countDown);
+        }
+        assertTrue(finished.await(TIMEOUT_S, TimeUnit.SECONDS));
+
+        // One run copied; the other found the flag claimed or already set
+        assertTrue(succeeded.get() >= 1);
+        assertEquals(Boolean.TRUE, read(first, TaskMigration.FLAG_PATH));
+        assertNull(read(first, "tasks"));
+        for (String groupId : GROUP_IDS) {
+            assertEquals(TASKS_PER_GROUP, ((Map<?, ?>) read(first, GroupTasks.path(groupId))).size());
+        }
+    }
+
+    @Test
+    public void backfill_afterMigration_countsTheMovedTasks() throws Exception {
+        DataStore dataStore = new FirebaseDataStore(root);
+        CountDownLatch migrated = new CountDownLatch(1);
+        new TaskMigration(dataStore).runIfNeeded(migrated::countDown, () -> { });
+        assertTrue(migrated.await(TIMEOUT_S, TimeUnit.SECONDS));
+        CountDownLatch built = new CountDownLatch(1);
+        new GroupStatsBackfill(dataStore).runIfNeeded(built::countDown, () -> { });
+        assertTrue(built.await(TIMEOUT_S, TimeUnit.SECONDS));
+
+        for (String groupId : GROUP_IDS) {
+            Map<?, ?> stats = (Map<?, ?>) read(dataStore, GroupStatsMapper.path(groupId));
+            assertEquals((long) TASKS_PER_GROUP, stats.get("total"));
+            assertEquals((long) TASKS_PER_GROUP / 4, stats.get("completed"));
+        }
+    }
+
+    private static Object read(DataStore dataStore, String path) throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        AtomicReference<Object> result = new AtomicReference<>();
+        dataStore.read(path, new DataStore.ValueCallback() {
+            @Override
+            public void onValue(Object value) {
+                result.set(value);
+                latch.countDown();
+            }
+
+            @Override
+            public void onError(String message) {
+                latch.countDown();
+            }
+        });
+        assertTrue(latch.await(TIMEOUT_S, TimeUnit.SECONDS));
+        return result.get();
+    }
+
+    /**
+     * A separate Firebase app pointed at the emulators, signed in anonymously so the
+     * "auth != null" rules pass; the app's default instance is left alone.
+     */
+    private static synchronized FirebaseDatabase emulatorDatabase(String name) throws Exception {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        FirebaseApp app;
+        boolean fresh = false;
+        try {
+            app = FirebaseApp.getInstance(name);
+        } catch (IllegalStateException notInitialized) {
+            app = FirebaseApp.initializeApp(context, new FirebaseOptions.Builder()
+                    .setProjectId(PROJECT_ID)
+                    .setApplicationId("1:000000000000:android:0000000000000000")
+                    .setApiKey("emulator-api-key")
+                    .setDatabaseUrl("http://" + HOST + ":9000?ns=" + PROJECT_ID)
+                    .build(), name);
+            fresh = true;
+        }
+        FirebaseAuth auth = FirebaseAuth.getInstance(app);
+        FirebaseDatabase database = FirebaseDatabase.getInstance(app);
+        if (fresh) {
+            auth.useEmulator(HOST, 9099);
+            database.useEmulator(HOST, 9000);
+        }
+        if (auth.getCurrentUser() == null) Tasks.await(auth.signInAnonymously(), TIMEOUT_S, TimeUnit.SECONDS);
+        return database;
+    }
+}
@@ -0,0 +1,139 @@
+package com.matey.disciteomnesapp.ui.adapters;
+
+import android.app.Instrumentation;
+import android.content.Context;
+import android.util.Log;
+import android.view.View;
+
+import androidx.appcompat.view.ContextThemeWrapper;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.matey.disciteomnesapp.R;
+import com.matey.disciteomnesapp.data.DataStore;
+import com.matey.disciteomnesapp.models.Group;
+import com.matey.disciteomnesapp.utils.GroupService;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Counts row inflations and binds per live update for a 5,000-group list, comparing
+ * the old "new adapter per update" approach with submitList() diffing.
+ */
+@RunWith(AndroidJUnit4.class)
+public class GroupAdapterUpdateTest {
+
+    private static final String TAG = "GroupAdapterUpdateTest";
+    private static final int GROUP_COUNT = 5_000;
+    private static final int UPDATES = 10;
+
+    private final Instrumentation instrumentation = InstrumentationRegistry.getInstrumentation();
+    private final GroupService groupService = new GroupService(new NoOpDataStore(), "u1");
+    private RecyclerView recyclerView;
+
+    @Before
+    public void setUp() {
+        Context context = new ContextThemeWrapper(instrumentation.getTargetContext(), R.style.Theme_DisciteOmnesApp);
+        instrumentation.runOnMainSync(() -> {
+            recyclerView = new RecyclerView(context);
+            recyclerView.setLayoutManager(new LinearLayoutManager(context));
+        });
+    }
+
+    @Test
+    public void submitList_rebindsOnlyChangedRows() throws Exception {
+        GroupAdapter adapter = new GroupAdapter(groupService, "u1");
+        instrumentation.runOnMainSync(() -> recyclerView.setAdapter(adapter));
+        submitAndLayout(adapter, groups(-1));
+
+        int inflatesBefore = adapter.getInflateCount();
+        int bindsBefore = adapter.getBindCount();
+        for (int i = 0; i < UPDATES; i++) {
+            submitAndLayout(adapter, groups(i % 3));
+        }
+        double inflatesPerUpdate = (adapter.getInflateCount() - inflatesBefore) / (double) UPDATES;
+        double bindsPerUpdate = (adapter.getBindCount() - bindsBefore) / (double) UPDATES;
+        Log.i(TAG, "submitList: inflations/update=" + inflatesPerUpdate + " binds/update=" + bindsPerUpdate);
+
+        assertEquals(0, inflatesPerUpdate, 0);
+        assertTrue(bindsPerUpdate <= 2);
+    }
+
+    @Test
+    public void recreatingAdapter_reinflatesVisibleRows() throws Exception {
+        int inflates = 0;
+        int binds = 0;
+        for (int i = 0; i < UPDATES; i++) {
+            GroupAdapter adapter = new GroupAdapter(groupService, "u1");
+            instrumentation.runOnMainSync(() -> recyclerView.setAdapter(adapter));
+            submitAndLayout(adapter, groups(i % 3));
+            inflates += adapter.getInflateCount();
+            binds += adapter.getBindCount();
+        }
+        Log.i(TAG, "new adapter: inflations/update=" + (inflates / (double) UPDATES)
+                + " binds/update=" + (binds / (double) UPDATES));
+
+        assertTrue(inflates / UPDATES > 2);
+    }
+
+    private void submitAndLayout(GroupAdapter adapter, List<Group> list) throws InterruptedException {
+        CountDownLatch committed = new CountDownLatch(1);
+        instrumentation.runOnMainSync(() -> adapter.submitList(list, committed::countDown));
+        assertTrue(committed.await(10, TimeUnit.SECONDS));
+        instrumentation.runOnMainSync(() -> {
+            recyclerView.measure(
+                    View.MeasureSpec.makeMeasureSpec(1080, View.MeasureSpec.EXACTLY),
+                    View.MeasureSpec.makeMeasureSpec(1920, View.MeasureSpec.EXACTLY));
+            recyclerView.layout(0, 0, 1080, 1920);
+        });
+    }
+
+    /**
+     * Builds a fresh list of groups, renaming the group at {@code changed} (-1 for none).
+     */
+    private static List<Group> groups(int changed) {
+        List<Group> groups = new ArrayList<>(GROUP_COUNT);
+        for (int i = 0; i < GROUP_COUNT; i++) {
+            String name = i == changed ? "Group " + i + " (renamed " + System.nanoTime() + ")" : "Group " + i;
+            groups.add(new Group("g" + i, name, "Description " + i, Group.membersOf("u" + (i % 7))));
+        }
+        return groups;
+    }
+
+    private static class NoOpDataStore implements DataStore {
+        @Override
+        public void read(String path, ValueCallback callback) {
+        }
+
+        @Override
+        public Registration listen(String path, ValueCallback callback) {
+            return () -> { };
+        }
+
+        @Override
+        public void update(Map<String, Object> updates, Runnable onSuccess, Runnable onFailure) {
+        }
+
+        @Override
+        public void transaction(String path, Mutation mutation, TransactionCallback callback) {
+        }
+
+        @Override
+        public String newKey(String path) {
+            return null;
+        }
+    }
+}
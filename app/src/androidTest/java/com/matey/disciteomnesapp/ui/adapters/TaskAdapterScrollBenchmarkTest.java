@@ -0,0 +1,137 @@
+package com.matey.disciteomnesapp.ui.adapters;
+
+import android.app.Instrumentation;
+import android.content.Context;
+import android.os.Debug;
+import android.util.Log;
+import android.view.View;
+
+import androidx.appcompat.view.ContextThemeWrapper;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.matey.disciteomnesapp.R;
+import com.matey.disciteomnesapp.models.Task;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Scrolls a 10,000-task list through a laid-out RecyclerView one frame-sized step at a
+ * time and reports the time per frame (scroll + layout + binds) and the allocations
+ * per bind.
+ */
+@RunWith(AndroidJUnit4.class)
+public class TaskAdapterScrollBenchmarkTest {
+
+    private static final String TAG = "TaskAdapterScroll";
+    private static final int TASK_COUNT = 10_000;
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 1920;
+    private static final int STEP_PX = 60;
+    private static final int WARMUP_FRAMES = 200;
+    private static final int FRAMES = 2_000;
+
+    private final Instrumentation instrumentation = InstrumentationRegistry.getInstrumentation();
+    private RecyclerView recyclerView;
+
+    @Before
+    public void setUp() {
+        Context context = new ContextThemeWrapper(instrumentation.getTargetContext(), R.style.Theme_DisciteOmnesApp);
+        instrumentation.runOnMainSync(() -> {
+            recyclerView = new RecyclerView(context);
+            recyclerView.setLayoutManager(new LinearLayoutManager(context));
+        });
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void scrolling10kRows_reportsFrameTimesAndAllocationsPerBind() {
+        TaskAdapter adapter = new TaskAdapter("Math", (task, completed) -> { });
+        adapter.submitList(tasks()); // the first list is applied at once, without a diff
+        long[] frames = new long[FRAMES];
+        int[] allocations = new int[1];
+        int[] binds = new int[1];
+
+        instrumentation.runOnMainSync(() -> {
+            recyclerView.setAdapter(adapter);
+            layout();
+            for (int i = 0; i < WARMUP_FRAMES; i++) frame();
+
+            int bindsBefore = adapter.getBindCount();
+            Debug.resetThreadAllocCount();
+            Debug.startAllocCounting();
+            for (int i = 0; i < FRAMES; i++) {
+                long start = System.nanoTime();
+                frame();
+                frames[i] = System.nanoTime() - start;
+            }
+            Debug.stopAllocCounting();
+            allocations[0] = Debug.getThreadAllocCount();
+            binds[0] = adapter.getBindCount() - bindsBefore;
+        });
+
+        Arrays.sort(frames);
+        long p50 = frames[FRAMES / 2];
+        long p90 = frames[FRAMES * 9 / 10];
+        long p99 = frames[FRAMES * 99 / 100];
+        double allocationsPerBind = binds[0] > 0 ? allocations[0] / (double) binds[0] : 0;
+        Log.i(TAG, "frames=" + FRAMES + " binds=" + binds[0] + " inflations=" + adapter.getInflateCount()
+                + " p50=" + p50 / 1_000 + "us p90=" + p90 / 1_000 + "us p99=" + p99 / 1_000 + "us"
+                + " allocations/bind=" + allocationsPerBind);
+
+        assertTrue(binds[0] > 0);
+        // Rows are recycled, never re-inflated while scrolling
+        assertTrue(adapter.getInflateCount() < 50);
+        assertTrue(p50 < 16_000_000L);
+    }
+
+    @Test
+    public void toggle_doesNotChangeTheTask() {
+        List<Task> tasks = tasks();
+        TaskAdapter adapter = new TaskAdapter("Math", (task, completed) -> { });
+        adapter.submitList(tasks);
+        instrumentation.runOnMainSync(() -> {
+            recyclerView.setAdapter(adapter);
+            layout();
+            RecyclerView.ViewHolder holder = recyclerView.findViewHolderForAdapterPosition(0);
+            ((TaskAdapter.TaskViewHolder) holder).checkBox.performClick();
+        });
+
+        assertTrue(adapter.rowAt(0).completed);
+        assertFalse(tasks.get(0).completed);
+    }
+
+    private void frame() {
+        recyclerView.scrollBy(0, STEP_PX);
+        if (!recyclerView.canScrollVertically(1)) recyclerView.scrollToPosition(0);
+        layout();
+    }
+
+    private void layout() {
+        recyclerView.measure(
+                View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+        recyclerView.layout(0, 0, WIDTH, HEIGHT);
+    }
+
+    private static List<Task> tasks() {
+        List<Task> tasks = new ArrayList<>(TASK_COUNT);
+        for (int i = 0; i < TASK_COUNT; i++) {
+            tasks.add(new Task("t" + i, "g1", "Task " + i, "Description " + i, false,
+                    "u" + (i % 20), i % 5 == 0 ? null : "User " + (i % 20),
+                    i % 4 == 0 ? null : "2025-06-" + String.format("%02d", i % 28 + 1)));
+        }
+        return tasks;
+    }
+}
@@ -0,0 +1,41 @@
+package com.matey.disciteomnesapp;
+
+import android.app.Application;
+
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseUser;
+import com.matey.disciteomnesapp.data.FirebaseConfig;
+import com.matey.disciteomnesapp.data.QueuedDataStore;
+import com.matey.disciteomnesapp.data.StartupCoordinator;
+import com.matey.disciteomnesapp.metrics.MetricsExporter;
+import com.matey.disciteomnesapp.metrics.MetricsSettings;
+
+/**
+ * Application entry point. The database is configured here first, since Firebase only
+ * takes its settings before the instance is used. If a user is still signed in from an
+ * earlier launch, their data starts loading here, while the first activity is still
+ * being created. Metrics collection is switched on or off here too, before anything is measured, and
+ * writes a previous process left unacknowledged are sent again.
+ */
+public class DisciteOmnesApp extends Application {
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+
+        // 💾 Disk persistence for the database, before anything opens it
+        FirebaseConfig.configureDefault();
+
+        // 📈 Metrics on in debuggable builds unless turned off on the metrics screen
+        MetricsSettings.apply(this);
+        MetricsExporter.getInstance(this).start();
+
+        // 📝 Replay queued writes before any screen adds new ones
+        QueuedDataStore.getInstance(this);
+
+        FirebaseUser user = FirebaseAuth.getInstance().getCurrentUser();
+        if (user != null) {
+            StartupCoordinator.getInstance(this).start(user.getUid());
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.matey.disciteomnesapp.data;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Shared executors for the data layer: a single disk thread, so cache writes apply in
+ * the order they were issued, a separate thread for the pending-write journal, whose
+ * fsyncs would otherwise hold up cache reads, a small bounded pool for turning
+ * snapshots into models, and the main thread for handing results to the UI.
+ */
+public final class AppExecutors {
+
+    private static final Executor DISK_IO = Executors.newSingleThreadExecutor();
+    private static final Executor JOURNAL = Executors.newSingleThreadExecutor();
+    private static final int MAPPING_THREADS = 2;
+    private static final int MAPPING_QUEUE = 64;
+
+    // If the queue is ever full the caller maps the snapshot itself, which only slows it down
+    private static final Executor MAPPING = new ThreadPoolExecutor(MAPPING_THREADS, MAPPING_THREADS,
+            30, TimeUnit.SECONDS, new ArrayBlockingQueue<>(MAPPING_QUEUE), new MappingThreadFactory(),
+            new ThreadPoolExecutor.CallerRunsPolicy());
+
+    private static final Executor MAIN_THREAD = new Executor() {
+        private final Handler handler = new Handler(Looper.getMainLooper());
+
+        @Override
+        public void execute(Runnable command) {
+            handler.post(command);
+        }
+    };
+
+    private AppExecutors() {
+    }
+
+    public static Executor diskIO() {
+        return DISK_IO;
+    }
+
+    public static Executor journal() {
+        return JOURNAL;
+    }
+
+    public static Executor mapping() {
+        return MAPPING;
+    }
+
+    public static Executor mainThread() {
+        return MAIN_THREAD;
+    }
+
+    private static class MappingThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            return new Thread(() -> {
+                Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                runnable.run();
+            }, "snapshot-mapping-" + count.incrementAndGet());
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.matey.disciteomnesapp.data;
+
+/**
+ * Location of the write queue's idempotency keys, stored at appliedWrites/{key} = the
+ * time the update was first issued.
+ *
+ * The rules accept a key only once, and only if it is younger than
+ * {@link #RETENTION_MS} (database.rules.json); see {@link QueuedDataStore}.
+ */
+public final class AppliedWrites {
+
+    public static final String ROOT = "appliedWrites";
+    // Matches the "now - 2592000000" bound on appliedWrites in database.rules.json
+    public static final long RETENTION_MS = 30L * 24 * 60 * 60 * 1000;
+
+    private AppliedWrites() {
+    }
+
+    public static String path(String key) {
+        return ROOT + "/" + key;
+    }
+}
@@ -0,0 +1,82 @@
+package com.matey.disciteomnesapp.data;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Deletes the idempotency keys under appliedWrites/ that can no longer be written.
+ *
+ * A key holds the time its update was first issued, and the rules reject one older
+ * than {@link AppliedWrites#RETENTION_MS}. Once a key is past that age its update
+ * can't be applied again even without the key, so deleting it is safe; keys written
+ * as {@code true} by older versions are past it as well. A day's margin covers a
+ * runner whose clock is ahead of the server's.
+ *
+ * Unlike the one-time jobs it has no flag: it deletes only what is expired, so running
+ * it again, or twice at once, does no harm. Run periodically with the admin tool
+ * (DataMaintenance prune-applied-writes).
+ */
+public class AppliedWritesCleanup {
+
+    static final long CLOCK_MARGIN_MS = 24L * 60 * 60 * 1000;
+    static final int CHUNK_SIZE = 500;
+
+    private final DataStore dataStore;
+    private final LongSupplier clock;
+
+    public AppliedWritesCleanup(DataStore dataStore) {
+        this(dataStore, System::currentTimeMillis);
+    }
+
+    AppliedWritesCleanup(DataStore dataStore, LongSupplier clock) {
+        this.dataStore = dataStore;
+        this.clock = clock;
+    }
+
+    public void run(Runnable onDone, Runnable onFailure) {
+        long cutoff = clock.getAsLong() - AppliedWrites.RETENTION_MS - CLOCK_MARGIN_MS;
+        dataStore.read(AppliedWrites.ROOT, new DataStore.ValueCallback() {
+            @Override
+            public void onValue(Object value) {
+                writeChunk(buildChunks(value, cutoff), 0, onDone, onFailure);
+            }
+
+            @Override
+            public void onError(String message) {
+                onFailure.run();
+            }
+        });
+    }
+
+    static List<Map<String, Object>> buildChunks(Object appliedWrites, long cutoff) {
+        List<Map<String, Object>> chunks = new ArrayList<>();
+        Map<String, Object> chunk = new HashMap<>();
+        if (appliedWrites instanceof Map) {
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) appliedWrites).entrySet()) {
+                Object issuedAt = entry.getValue();
+                if (issuedAt instanceof Number && ((Number) issuedAt).longValue() > cutoff) continue;
+
+                chunk.put(AppliedWrites.path(String.valueOf(entry.getKey())), null);
+                if (chunk.size() >= CHUNK_SIZE) {
+                    chunks.add(chunk);
+                    chunk = new HashMap<>();
+                }
+            }
+        }
+        if (!chunk.isEmpty()) chunks.add(chunk);
+        return chunks;
+    }
+
+    private void writeChunk(List<Map<String, Object>> chunks, int index, Runnable onDone, Runnable onFailure) {
+        if (index == chunks.size()) {
+            onDone.run();
+            return;
+        }
+        dataStore.update(chunks.get(index),
+                () -> writeChunk(chunks, index + 1, onDone, onFailure),
+                onFailure);
+    }
+}
@@ -0,0 +1,254 @@
+package com.matey.disciteomnesapp.data;
+
+import com.matey.disciteomnesapp.models.Task;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Create, complete, reassign or delete many tasks with as few writes as possible.
+ *
+ * Creates and completions are turned into one multi-path update over the tasks'
+ * groupTasks/{groupId}/{taskId} nodes, together with the increments that keep their
+ * groups' counters ({@link GroupStatsMapper}) in step. The rules only accept a
+ * completion that changes the stored value, so those increments always match the
+ * server. Very large selections are split into chunks of {@code chunkSize} tasks,
+ * written one after another; if a chunk fails, the chunks already written are put back
+ * from the tasks as they were passed in, so the selection is either changed as a whole
+ * or not at all.
+ *
+ * Reassigning and deleting depend on more of the stored task than the rules can check
+ * (its completion, due date and assignee all pick counters), so the selected tasks are
+ * read first and the counters are moved from the tasks as stored, not from the caller's
+ * copies. A task that is already gone is left out, so deleting it twice only counts it
+ * once. Their writes are chunked and rolled back the same way, and only touch the
+ * assignee fields, or remove the whole task, so the completion rule never sees them. A
+ * change another client makes between the read and the write is not caught; the
+ * backfill ({@link GroupStatsBackfill}) recounts such counters.
+ */
+public class BulkTaskUpdate {
+
+    public static final int DEFAULT_CHUNK_SIZE = 250;
+
+    public interface Callback {
+        void onSuccess(int taskCount);
+
+        void onFailure();
+    }
+
+    /**
+     * Changes written for one task, and how they move its group's counters.
+     */
+    private interface Change {
+        void write(Task task, Map<String, Object> updates, GroupStatsDelta stats);
+    }
+
+    private interface ChunkFailure {
+        void onFailed(int index);
+    }
+
+    private final DataStore dataStore;
+    private final int chunkSize;
+
+    public BulkTaskUpdate(DataStore dataStore, int chunkSize) {
+        this.dataStore = dataStore;
+        this.chunkSize = chunkSize;
+    }
+
+    public BulkTaskUpdate(DataStore dataStore) {
+        this(dataStore, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * A new push key for a task of the group, generated locally.
+     */
+    public String newTaskId(String groupId) {
+        return dataStore.newKey(GroupTasks.path(groupId));
+    }
+
+    public void create(Collection<Task> tasks, Callback callback) {
+        apply(tasks,
+                (task, updates, stats) -> {
+                    updates.put(path(task), TaskMapper.toValue(task));
+                    stats.add(null, task);
+                },
+                (task, updates, stats) -> {
+                    updates.put(path(task), null);
+                    stats.add(task, null);
+                },
+                callback);
+    }
+
+    /**
+     * Tasks already in the requested state are left out: a completion write must change
+     * the stored value (database.rules.json), which keeps the counters exact.
+     */
+    public void setCompleted(Collection<Task> tasks, boolean completed, Callback callback) {
+        List<Task> changing = new ArrayList<>();
+        for (Task task : tasks) {
+            if (task != null && task.completed != completed) changing.add(task);
+        }
+        apply(changing,
+                (task, updates, stats) -> {
+                    updates.put(path(task) + "/completed", completed);
+                    stats.add(task, withCompleted(task, completed));
+                },
+                (task, updates, stats) -> {
+                    updates.put(path(task) + "/completed", task.completed);
+                    stats.add(withCompleted(task, completed), task);
+                },
+                callback);
+    }
+
+    /**
+     * Reports how many of the tasks were still there and reassigned.
+     */
+    public void reassign(Collection<Task> tasks, String userId, String userName, Callback callback) {
+        applyStored(tasks,
+                (task, updates, stats) -> {
+                    updates.put(path(task) + "/assignedTo", userId);
+                    updates.put(path(task) + "/assignedToName", userName);
+                    stats.add(task, withAssignee(task, userId, userName));
+                },
+                (task, updates, stats) -> {
+                    updates.put(path(task) + "/assignedTo", task.assignedTo);
+                    updates.put(path(task) + "/assignedToName", task.assignedToName);
+                    stats.add(withAssignee(task, userId, userName), task);
+                },
+                callback);
+    }
+
+    /**
+     * Reports how many of the tasks were still there and deleted.
+     */
+    public void delete(Collection<Task> tasks, Callback callback) {
+        applyStored(tasks,
+                (task, updates, stats) -> {
+                    updates.put(path(task), null);
+                    stats.add(task, null);
+                },
+                (task, updates, stats) -> {
+                    updates.put(path(task), TaskMapper.toValue(task));
+                    stats.add(null, task);
+                },
+                callback);
+    }
+
+    private void apply(Collection<Task> tasks, Change change, Change undo, Callback callback) {
+        // Copy the tasks as they are now: they are the state a rollback restores
+        List<Task> selected = new ArrayList<>();
+        for (Task task : tasks) {
+            if (task != null && task.id != null && task.groupId != null) selected.add(copy(task));
+        }
+        if (selected.isEmpty()) {
+            callback.onSuccess(0);
+            return;
+        }
+        List<Map<String, Object>> chunks = chunk(selected, change);
+        writeChunks(chunks, 0, () -> callback.onSuccess(selected.size()), failedIndex -> {
+            // Put back the chunks written before the failing one
+            List<Map<String, Object>> written = chunk(selected, undo).subList(0, failedIndex);
+            writeChunks(written, 0, callback::onFailure, index -> callback.onFailure());
+        });
+    }
+
+    /**
+     * Reads the selected tasks, then applies the change to those still stored, as they
+     * are stored. Fails without writing anything if a read fails.
+     */
+    private void applyStored(Collection<Task> tasks, Change change, Change undo, Callback callback) {
+        List<Task> selected = new ArrayList<>();
+        for (Task task : tasks) {
+            if (task != null && task.id != null && task.groupId != null) selected.add(task);
+        }
+        if (selected.isEmpty()) {
+            callback.onSuccess(0);
+            return;
+        }
+        Task[] stored = new Task[selected.size()];
+        int[] pending = {selected.size()};
+        boolean[] failed = {false};
+        Runnable done = () -> {
+            if (--pending[0] > 0) return;
+            if (failed[0]) {
+                callback.onFailure();
+                return;
+            }
+            List<Task> found = new ArrayList<>();
+            for (Task task : stored) {
+                if (task != null) found.add(task);
+            }
+            apply(found, change, undo, callback);
+        };
+        for (int i = 0; i < selected.size(); i++) {
+            Task task = selected.get(i);
+            int slot = i;
+            dataStore.read(path(task), new DataStore.ValueCallback() {
+                @Override
+                public void onValue(Object value) {
+                    stored[slot] = TaskMapper.fromValue(task.id, value);
+                    if (stored[slot] != null) stored[slot].groupId = task.groupId;
+                    done.run();
+                }
+
+                @Override
+                public void onError(String message) {
+                    failed[0] = true;
+                    done.run();
+                }
+            });
+        }
+    }
+
+    /**
+     * Writes chunks[index..] one after another, stopping at the first failure.
+     */
+    private void writeChunks(List<Map<String, Object>> chunks, int index, Runnable onSuccess, ChunkFailure onFailure) {
+        if (index == chunks.size()) {
+            onSuccess.run();
+            return;
+        }
+        dataStore.update(chunks.get(index),
+                () -> writeChunks(chunks, index + 1, onSuccess, onFailure),
+                () -> onFailure.onFailed(index));
+    }
+
+    private List<Map<String, Object>> chunk(List<Task> tasks, Change change) {
+        List<Map<String, Object>> chunks = new ArrayList<>();
+        for (int start = 0; start < tasks.size(); start += chunkSize) {
+            Map<String, Object> updates = new HashMap<>();
+            GroupStatsDelta stats = new GroupStatsDelta();
+            for (Task task : tasks.subList(start, Math.min(tasks.size(), start + chunkSize))) {
+                change.write(task, updates, stats);
+            }
+            stats.putInto(updates);
+            chunks.add(updates);
+        }
+        return chunks;
+    }
+
+    private static String path(Task task) {
+        return GroupTasks.path(task.groupId, task.id);
+    }
+
+    static Task copy(Task task) {
+        return new Task(task.id, task.groupId, task.title, task.description, task.completed,
+                task.assignedTo, task.assignedToName, task.dueDate);
+    }
+
+    static Task withCompleted(Task task, boolean completed) {
+        Task changed = copy(task);
+        changed.completed = completed;
+        return changed;
+    }
+
+    private static Task withAssignee(Task task, String userId, String userName) {
+        Task changed = copy(task);
+        changed.assignedTo = userId;
+        changed.assignedToName = userName;
+        return changed;
+    }
+}
@@ -0,0 +1,78 @@
+package com.matey.disciteomnesapp.data;
+
+import java.util.Map;
+
+/**
+ * Minimal data-access abstraction over the Realtime Database.
+ *
+ * Values are exchanged as plain trees (Map / List / String / Long / Boolean), the same
+ * shape DataSnapshot.getValue() returns, so the services built on top of it can be
+ * exercised on a plain JVM with an in-memory implementation.
+ */
+public interface DataStore {
+
+    /**
+     * Receives the value stored at a path, or null if nothing is stored there.
+     */
+    interface ValueCallback {
+        void onValue(Object value);
+
+        void onError(String message);
+    }
+
+    /**
+     * Handle for a live listener; removing it stops further callbacks.
+     */
+    interface Registration {
+        void remove();
+    }
+
+    /**
+     * Computes the new value of a node from its current one. It may be called again with
+     * a newer value if the node changed in the meantime, so it must not have side effects.
+     */
+    interface Mutation {
+        /**
+         * Returned to leave the node unchanged and end the transaction uncommitted.
+         */
+        Object ABORT = new Object();
+
+        Object apply(Object current);
+    }
+
+    /**
+     * Receives the outcome of a transaction and the value the node was left with.
+     */
+    interface TransactionCallback {
+        void onComplete(boolean committed, Object value);
+
+        void onError(String message);
+    }
+
+    /**
+     * Reads the value at the given slash-separated path once.
+     */
+    void read(String path, ValueCallback callback);
+
+    /**
+     * Delivers the value at the path now and again after every change, until removed.
+     */
+    Registration listen(String path, ValueCallback callback);
+
+    /**
+     * Applies all updates atomically. Keys are slash-separated paths relative to the root,
+     * a null value removes the node and an {@link Increment} adds to the number stored there.
+     */
+    void update(Map<String, Object> updates, Runnable onSuccess, Runnable onFailure);
+
+    /**
+     * Atomically replaces the value at the path with {@code mutation.apply(current)},
+     * retrying with the newer value when another client wrote the node first.
+     */
+    void transaction(String path, Mutation mutation, TransactionCallback callback);
+
+    /**
+     * Generates a new unique push key under the given path.
+     */
+    String newKey(String path);
+}
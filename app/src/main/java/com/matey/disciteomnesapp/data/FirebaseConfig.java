@@ -0,0 +1,56 @@
+package com.matey.disciteomnesapp.data;
+
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.FirebaseDatabase;
+
+/**
+ * Settings of the app's FirebaseDatabase instance, applied once in the Application
+ * before anything else touches the database (Firebase refuses them afterwards).
+ *
+ * Disk persistence keeps what listeners received across restarts, so a reopened screen
+ * starts from the cached tree and the server only sends what changed since. The cache
+ * is an LRU over paths that are not kept synced; {@link HotPathSync} decides which
+ * paths stay pinned and synced in the background.
+ */
+public final class FirebaseConfig {
+
+    /**
+     * Room for the hot paths with headroom: the groups and groupStats trees a large
+     * deployment lists are a few MB, the synced task pages and userGroups entries are
+     * small. The default 10 MB would evict the group list between launches there.
+     */
+    public static final long CACHE_SIZE_BYTES = 32L * 1024 * 1024;
+
+    private FirebaseConfig() {
+    }
+
+    public static void configure(FirebaseDatabase database) {
+        database.setPersistenceEnabled(true);
+        database.setPersistenceCacheSizeBytes(CACHE_SIZE_BYTES);
+    }
+
+    /**
+     * Configures the default instance; must run before its first use.
+     */
+    public static void configureDefault() {
+        configure(FirebaseDatabase.getInstance());
+    }
+
+    /**
+     * Pins paths under the given root with keepSynced. A first task page is pinned through
+     * the same query the task list opens, so that query is answered from the sync.
+     */
+    public static HotPathSync.Syncer syncer(DatabaseReference root) {
+        return new HotPathSync.Syncer() {
+            @Override
+            public void keepSynced(String path, boolean keep) {
+                root.child(path).keepSynced(keep);
+            }
+
+            @Override
+            public void keepFirstPageSynced(String groupId, int pageSize, boolean keep) {
+                FirebaseTaskPageSource.page(root, groupId, null, pageSize).keepSynced(keep);
+            }
+        };
+    }
+}
@@ -0,0 +1,158 @@
+package com.matey.disciteomnesapp.data;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.MutableData;
+import com.google.firebase.database.ServerValue;
+import com.google.firebase.database.Transaction;
+import com.google.firebase.database.ValueEventListener;
+import com.matey.disciteomnesapp.metrics.Metrics;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/**
+ * DataStore backed by the Firebase Realtime Database.
+ *
+ * Snapshots are converted to value trees on the mapping executor, not in the Firebase
+ * callback; callbacks still receive the value on the main thread. Both steps are timed
+ * in {@link Metrics} when it is enabled.
+ *
+ * This, {@link FirebaseTaskPageSource} and {@link FirebaseConfig} are the only classes
+ * that reach the FirebaseDatabase instance; everything else goes through a DataStore.
+ */
+public class FirebaseDataStore implements DataStore {
+
+    private final DatabaseReference root;
+    private final Executor mapping;
+    private final Executor mainThread;
+
+    public FirebaseDataStore() {
+        this(defaultRoot());
+    }
+
+    public FirebaseDataStore(DatabaseReference root) {
+        this(root, AppExecutors.mapping(), AppExecutors.mainThread());
+    }
+
+    public FirebaseDataStore(DatabaseReference root, Executor mapping, Executor mainThread) {
+        this.root = root;
+        this.mapping = mapping;
+        this.mainThread = mainThread;
+    }
+
+    @Override
+    public void read(String path, ValueCallback callback) {
+        root.child(path).addListenerForSingleValueEvent(new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot snapshot) {
+                mapping.execute(() -> {
+                    Object value = map(snapshot);
+                    mainThread.execute(() -> deliver(callback, value));
+                });
+            }
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                callback.onError(error.getMessage());
+            }
+        });
+    }
+
+    @Override
+    public Registration listen(String path, ValueCallback callback) {
+        DatabaseReference ref = root.child(path);
+        // Snapshots that arrive while one is still being converted supersede each other
+        SnapshotPipeline<DataSnapshot, Object> pipeline =
+                new SnapshotPipeline<>(mapping, mainThread, FirebaseDataStore::map, value -> deliver(callback, value),
+                        error -> callback.onError(String.valueOf(error.getMessage())));
+        ValueEventListener listener = ref.addValueEventListener(new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot snapshot) {
+                pipeline.submit(snapshot);
+            }
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                callback.onError(error.getMessage());
+            }
+        });
+        return () -> {
+            ref.removeEventListener(listener);
+            pipeline.close();
+        };
+    }
+
+    @Override
+    public void update(Map<String, Object> updates, Runnable onSuccess, Runnable onFailure) {
+        Map<String, Object> values = new HashMap<>(updates);
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+            if (entry.getValue() instanceof Increment) {
+                entry.setValue(ServerValue.increment(((Increment) entry.getValue()).delta));
+            }
+        }
+        root.updateChildren(values)
+                .addOnSuccessListener(unused -> onSuccess.run())
+                .addOnFailureListener(e -> onFailure.run());
+    }
+
+    @Override
+    public void transaction(String path, Mutation mutation, TransactionCallback callback) {
+        root.child(path).runTransaction(new Transaction.Handler() {
+            @NonNull
+            @Override
+            public Transaction.Result doTransaction(@NonNull MutableData data) {
+                // Runs on Firebase's thread, first against the locally cached value (often null)
+                Object next = mutation.apply(data.getValue());
+                if (next == Mutation.ABORT) return Transaction.abort();
+                data.setValue(next);
+                return Transaction.success(data);
+            }
+
+            @Override
+            public void onComplete(@Nullable DatabaseError error, boolean committed, @Nullable DataSnapshot snapshot) {
+                if (error != null) {
+                    callback.onError(error.getMessage());
+                    return;
+                }
+                mapping.execute(() -> {
+                    Object value = snapshot != null ? map(snapshot) : null;
+                    mainThread.execute(() -> {
+                        long start = Metrics.begin(Metrics.DATA_CALLBACK);
+                        callback.onComplete(committed, value);
+                        Metrics.end(Metrics.DATA_CALLBACK, start);
+                    });
+                });
+            }
+        });
+    }
+
+    @Override
+    public String newKey(String path) {
+        return root.child(path).push().getKey();
+    }
+
+    private static Object map(DataSnapshot snapshot) {
+        Metrics.count(Metrics.SNAPSHOTS, 1);
+        long start = Metrics.begin(Metrics.SNAPSHOT_MAPPING);
+        Object value = snapshot.getValue();
+        Metrics.end(Metrics.SNAPSHOT_MAPPING, start);
+        return value;
+    }
+
+    private static void deliver(ValueCallback callback, Object value) {
+        long start = Metrics.begin(Metrics.DATA_CALLBACK);
+        callback.onValue(value);
+        Metrics.end(Metrics.DATA_CALLBACK, start);
+    }
+
+    static DatabaseReference defaultRoot() {
+        return FirebaseDatabase.getInstance().getReference();
+    }
+}
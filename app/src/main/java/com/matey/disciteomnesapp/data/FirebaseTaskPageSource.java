@@ -0,0 +1,88 @@
+package com.matey.disciteomnesapp.data;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.google.firebase.database.ChildEventListener;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.Query;
+import com.google.firebase.database.ValueEventListener;
+import com.matey.disciteomnesapp.metrics.Metrics;
+
+/**
+ * TaskPageSource over groupTasks/{groupId}, paged by key with startAfter/limitToFirst.
+ */
+public class FirebaseTaskPageSource implements TaskPageSource {
+
+    private final DatabaseReference root;
+    private final String groupId;
+
+    public FirebaseTaskPageSource(String groupId) {
+        this(FirebaseDataStore.defaultRoot(), groupId);
+    }
+
+    public FirebaseTaskPageSource(DatabaseReference root, String groupId) {
+        this.root = root;
+        this.groupId = groupId;
+    }
+
+    @Override
+    public Subscription openPage(String afterKey, int limit, PageListener listener) {
+        Query query = page(root, groupId, afterKey, limit);
+
+        ChildEventListener children = query.addChildEventListener(new ChildEventListener() {
+            @Override
+            public void onChildAdded(@NonNull DataSnapshot snapshot, @Nullable String previousChildName) {
+                Metrics.count(Metrics.SNAPSHOTS, 1);
+                listener.onChildAdded(snapshot.getKey(), snapshot.getValue(), previousChildName);
+            }
+
+            @Override
+            public void onChildChanged(@NonNull DataSnapshot snapshot, @Nullable String previousChildName) {
+                Metrics.count(Metrics.SNAPSHOTS, 1);
+                listener.onChildChanged(snapshot.getKey(), snapshot.getValue());
+            }
+
+            @Override
+            public void onChildRemoved(@NonNull DataSnapshot snapshot) {
+                listener.onChildRemoved(snapshot.getKey());
+            }
+
+            @Override
+            public void onChildMoved(@NonNull DataSnapshot snapshot, @Nullable String previousChildName) {
+                listener.onChildMoved(snapshot.getKey(), previousChildName);
+            }
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                listener.onError(error.getMessage());
+            }
+        });
+
+        // Same query, so this shares the child listener's sync and fires after its initial children
+        query.addListenerForSingleValueEvent(new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot snapshot) {
+                listener.onLoaded((int) snapshot.getChildrenCount());
+            }
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                listener.onError(error.getMessage());
+            }
+        });
+
+        return () -> query.removeEventListener(children);
+    }
+
+    /**
+     * The query for one page. {@link FirebaseConfig} keeps first pages synced through the
+     * same query, so an opened page is served from that sync.
+     */
+    static Query page(DatabaseReference root, String groupId, String afterKey, int limit) {
+        Query base = root.child(GroupTasks.path(groupId)).orderByKey();
+        return (afterKey == null ? base : base.startAfter(afterKey)).limitToFirst(limit);
+    }
+}
@@ -0,0 +1,77 @@
+package com.matey.disciteomnesapp.data;
+
+import com.matey.disciteomnesapp.models.Group;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads and writes Group value trees.
+ *
+ * Members are stored as members/{uid}: true. Groups written before that change hold a
+ * list of uids (["uidA", "uidB"]), and groups joined after the switch may hold both
+ * forms at once ({"0": "uidA", "uidC": true}); all of them read into the same map.
+ */
+public final class GroupMapper {
+
+    private GroupMapper() {
+    }
+
+    public static Group fromValue(String key, Object value) {
+        if (!(value instanceof Map)) return null;
+        Map<?, ?> map = (Map<?, ?>) value;
+
+        Group group = new Group();
+        group.id = key;
+        group.name = asString(map.get("name"));
+        group.description = asString(map.get("description"));
+        group.members = readMembers(map.get("members"));
+        group.legacyMembers = isLegacy(map.get("members"));
+        return group;
+    }
+
+    public static Map<String, Object> toValue(Group group) {
+        Map<String, Object> value = new HashMap<>();
+        value.put("id", group.id);
+        value.put("name", group.name);
+        value.put("description", group.description);
+        value.put("members", group.members != null ? new HashMap<>(group.members) : null);
+        return value;
+    }
+
+    /**
+     * Normalizes any stored members form into uid -> true.
+     */
+    public static Map<String, Boolean> readMembers(Object value) {
+        Map<String, Boolean> members = new HashMap<>();
+        if (value instanceof List) {
+            for (Object uid : (List<?>) value) {
+                if (uid instanceof String) members.put((String) uid, true);
+            }
+        } else if (value instanceof Map) {
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                if (entry.getValue() instanceof String) {
+                    members.put((String) entry.getValue(), true);
+                } else if (Boolean.TRUE.equals(entry.getValue())) {
+                    members.put(String.valueOf(entry.getKey()), true);
+                }
+            }
+        }
+        return members;
+    }
+
+    private static boolean isLegacy(Object value) {
+        if (value instanceof List) return true;
+        if (value instanceof Map) {
+            for (Object member : ((Map<?, ?>) value).values()) {
+                if (member instanceof String) return true;
+            }
+        }
+        return false;
+    }
+
+    private static String asString(Object value) {
+        return value instanceof String ? (String) value : null;
+    }
+}
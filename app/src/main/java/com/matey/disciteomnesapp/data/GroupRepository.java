@@ -0,0 +1,177 @@
+package com.matey.disciteomnesapp.data;
+
+import android.content.Context;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MediatorLiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import com.matey.disciteomnesapp.data.local.AppDatabase;
+import com.matey.disciteomnesapp.data.local.GroupDao;
+import com.matey.disciteomnesapp.data.local.GroupEntity;
+import com.matey.disciteomnesapp.models.Group;
+import com.matey.disciteomnesapp.models.GroupStats;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+/**
+ * Groups served from the local cache first and kept fresh from Firebase.
+ *
+ * observeGroups() emits the cached rows as soon as the screen subscribes; while a sync
+ * is running, every server snapshot replaces the cache and the observers see the new
+ * rows. The server is the source of truth for groups.
+ *
+ * Snapshots are mapped on the disk thread and cached rows on the mapping executor, so the
+ * main thread only receives finished, unmodifiable lists.
+ *
+ * The sync also follows groupStats, the per-group task counters, which are small enough
+ * to be shown in the list without loading any tasks; they are not cached.
+ */
+public class GroupRepository {
+
+    private static volatile GroupRepository instance;
+
+    /**
+     * Receives the member ids of a group, or a failure.
+     */
+    public interface MembersCallback {
+        void onMembers(Set<String> userIds);
+
+        void onFailure();
+    }
+
+    private final GroupDao groupDao;
+    private final DataStore dataStore;
+    private final Executor diskIO;
+    private final Executor mapping;
+    private final Executor mainThread;
+
+    private DataStore.Registration sync;
+    private DataStore.Registration statsSync;
+    private final MutableLiveData<Map<String, GroupStats>> stats = new MutableLiveData<>(Collections.emptyMap());
+    private final SnapshotPipeline<Object, Map<String, GroupStats>> statsPipeline;
+    private int syncUsers = 0;
+    private Object lastSynced;
+
+    public GroupRepository(GroupDao groupDao, DataStore dataStore,
+                           Executor diskIO, Executor mapping, Executor mainThread) {
+        this.groupDao = groupDao;
+        this.dataStore = dataStore;
+        this.diskIO = diskIO;
+        this.mapping = mapping;
+        this.mainThread = mainThread;
+        this.statsPipeline = new SnapshotPipeline<>(mapping, mainThread,
+                value -> Collections.unmodifiableMap(GroupStatsMapper.fromRoot(value, LocalDate.now().toEpochDay())),
+                stats::setValue);
+    }
+
+    public static GroupRepository getInstance(Context context) {
+        if (instance == null) {
+            synchronized (GroupRepository.class) {
+                if (instance == null) {
+                    instance = new GroupRepository(AppDatabase.getInstance(context).groupDao(),
+                            ListenerRegistry.getInstance(), AppExecutors.diskIO(),
+                            AppExecutors.mapping(), AppExecutors.mainThread());
+                }
+            }
+        }
+        return instance;
+    }
+
+    public LiveData<List<Group>> observeGroups() {
+        MediatorLiveData<List<Group>> groups = new MediatorLiveData<>();
+        SnapshotPipeline<List<GroupEntity>, List<Group>> pipeline =
+                new SnapshotPipeline<>(mapping, mainThread, GroupRepository::toModels, groups::setValue);
+        groups.addSource(groupDao.observeAll(), pipeline::submit);
+        return groups;
+    }
+
+    /**
+     * Task counters by group id, kept current while a sync is running.
+     */
+    public LiveData<Map<String, GroupStats>> observeStats() {
+        return stats;
+    }
+
+    /**
+     * Reads a group's member ids through the app's shared store, so a live listener on
+     * the path serves them without another download.
+     */
+    public void loadMembers(String groupId, MembersCallback callback) {
+        dataStore.read("groups/" + groupId + "/members", new DataStore.ValueCallback() {
+            @Override
+            public void onValue(Object value) {
+                callback.onMembers(GroupMapper.readMembers(value).keySet());
+            }
+
+            @Override
+            public void onError(String message) {
+                callback.onFailure();
+            }
+        });
+    }
+
+    /**
+     * Starts revalidating the cache from Firebase. Calls are counted, the listener is
+     * removed when the last caller stops.
+     */
+    public void startSync(Runnable onError) {
+        if (syncUsers++ > 0) return;
+        sync = dataStore.listen("groups", new DataStore.ValueCallback() {
+            @Override
+            public void onValue(Object value) {
+                // A shared listener hands a resubscriber the snapshot already stored
+                if (value != null && value == lastSynced) return;
+                lastSynced = value;
+                diskIO.execute(() -> groupDao.replaceAll(toEntities(value)));
+            }
+
+            @Override
+            public void onError(String message) {
+                onError.run();
+            }
+        });
+        statsSync = dataStore.listen(GroupStatsMapper.ROOT, new DataStore.ValueCallback() {
+            @Override
+            public void onValue(Object value) {
+                statsPipeline.submit(value);
+            }
+
+            @Override
+            public void onError(String message) {
+                // Counters are extras; the groups are still shown without them
+            }
+        });
+    }
+
+    public void stopSync() {
+        if (syncUsers == 0 || --syncUsers > 0) return;
+        sync.remove();
+        sync = null;
+        statsSync.remove();
+        statsSync = null;
+    }
+
+    private static List<GroupEntity> toEntities(Object value) {
+        List<GroupEntity> entities = new ArrayList<>();
+        if (value instanceof Map) {
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                Group group = GroupMapper.fromValue(String.valueOf(entry.getKey()), entry.getValue());
+                if (group != null) entities.add(GroupEntity.from(group));
+            }
+        }
+        return entities;
+    }
+
+    private static List<Group> toModels(List<GroupEntity> entities) {
+        List<Group> groups = new ArrayList<>(entities.size());
+        for (GroupEntity entity : entities) groups.add(entity.toModel());
+        return Collections.unmodifiableList(groups);
+    }
+}
@@ -0,0 +1,71 @@
+package com.matey.disciteomnesapp.data;
+
+import com.matey.disciteomnesapp.models.Task;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * One-time computation of groupStats/{groupId} for the tasks that existed before the
+ * counters were maintained. Every group's counters are written from scratch in one
+ * update, together with meta/groupStatsBuilt. Runs after {@link TaskMigration}, which
+ * moves the tasks it counts.
+ *
+ * It reads the whole groupTasks tree and overwrites the counters, so an increment that
+ * lands in between would be lost: this is a maintenance job, run once while the app's
+ * writes are paused (see the README), never from app startup. The flag is claimed
+ * first ({@link MaintenanceFlag}), so only one run can count.
+ */
+public class GroupStatsBackfill {
+
+    public static final String FLAG_PATH = "meta/groupStatsBuilt";
+
+    private final DataStore dataStore;
+
+    public GroupStatsBackfill(DataStore dataStore) {
+        this.dataStore = dataStore;
+    }
+
+    /**
+     * Builds the counters unless that was done already; fails if another run holds the flag.
+     */
+    public void runIfNeeded(Runnable onDone, Runnable onFailure) {
+        MaintenanceFlag.claim(dataStore, FLAG_PATH, () -> build(onDone, onFailure), onDone, onFailure);
+    }
+
+    private void build(Runnable onDone, Runnable onFailure) {
+        Runnable failed = () -> MaintenanceFlag.release(dataStore, FLAG_PATH, onFailure);
+        dataStore.read(GroupTasks.ROOT, new DataStore.ValueCallback() {
+            @Override
+            public void onValue(Object value) {
+                dataStore.update(buildUpdates(value), onDone, failed);
+            }
+
+            @Override
+            public void onError(String message) {
+                failed.run();
+            }
+        });
+    }
+
+    static Map<String, Object> buildUpdates(Object groupTasks) {
+        GroupStatsDelta stats = new GroupStatsDelta();
+        if (groupTasks instanceof Map) {
+            for (Map.Entry<?, ?> group : ((Map<?, ?>) groupTasks).entrySet()) {
+                if (!(group.getValue() instanceof Map)) continue;
+                for (Map.Entry<?, ?> entry : ((Map<?, ?>) group.getValue()).entrySet()) {
+                    Task task = TaskMapper.fromValue(String.valueOf(entry.getKey()), entry.getValue());
+                    if (task == null) continue;
+                    task.groupId = String.valueOf(group.getKey()); // where it is stored is what counts
+                    stats.add(null, task);
+                }
+            }
+        }
+        Map<String, Object> updates = new HashMap<>();
+        for (Map.Entry<String, Map<String, Object>> group : stats.toValues().entrySet()) {
+            updates.put(GroupStatsMapper.path(group.getKey()), group.getValue());
+        }
+        updates.put(FLAG_PATH, true);
+        return updates;
+    }
+}
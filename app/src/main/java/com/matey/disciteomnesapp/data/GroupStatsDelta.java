@@ -0,0 +1,86 @@
+package com.matey.disciteomnesapp.data;
+
+import com.matey.disciteomnesapp.models.Task;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Collects how a set of task changes moves their groups' counters, and adds the net
+ * result to a multi-path update as {@link Increment}s, so the tasks and their counters
+ * are written together. See {@link GroupStatsMapper} for the layout.
+ */
+public class GroupStatsDelta {
+
+    private final Map<String, Long> deltas = new HashMap<>();
+
+    /**
+     * Counts a change from {@code before} to {@code after}; null stands for a task that
+     * doesn't exist (created or deleted).
+     */
+    public GroupStatsDelta add(Task before, Task after) {
+        if (before != null) count(before, -1);
+        if (after != null) count(after, 1);
+        return this;
+    }
+
+    /**
+     * Puts one increment per counter that changed into {@code updates}.
+     */
+    public void putInto(Map<String, Object> updates) {
+        for (Map.Entry<String, Long> entry : deltas.entrySet()) {
+            if (entry.getValue() != 0) updates.put(entry.getKey(), Increment.by(entry.getValue()));
+        }
+    }
+
+    /**
+     * The counters as value trees by group id, for writing them from scratch: the
+     * changes counted from nothing are the absolute counts.
+     */
+    public Map<String, Map<String, Object>> toValues() {
+        Map<String, Map<String, Object>> groups = new HashMap<>();
+        for (Map.Entry<String, Long> entry : deltas.entrySet()) {
+            // groupStats/{groupId}/{counter}[/{key}]
+            String[] parts = entry.getKey().split("/", 3);
+            Map<String, Object> node = groups.computeIfAbsent(parts[1], id -> new HashMap<>());
+            String[] counter = parts[2].split("/");
+            for (int i = 0; i < counter.length - 1; i++) {
+                node = castMap(node.computeIfAbsent(counter[i], key -> new HashMap<String, Object>()));
+            }
+            node.put(counter[counter.length - 1], entry.getValue());
+        }
+        return groups;
+    }
+
+    public boolean isEmpty() {
+        for (long delta : deltas.values()) {
+            if (delta != 0) return false;
+        }
+        return true;
+    }
+
+    private void count(Task task, long sign) {
+        if (task.groupId == null) return;
+        String stats = GroupStatsMapper.path(task.groupId);
+        add(stats + "/total", sign);
+        if (task.completed) {
+            add(stats + "/completed", sign);
+        } else {
+            long dueDay = TaskIndex.parseDueDate(task.dueDate);
+            if (dueDay != TaskIndex.NO_DUE_DATE) add(stats + "/openByDue/" + dueDay, sign);
+        }
+        if (task.assignedTo != null && !task.assignedTo.isEmpty()) {
+            add(stats + "/assignedTotal/" + task.assignedTo, sign);
+            if (task.completed) add(stats + "/assignedCompleted/" + task.assignedTo, sign);
+        }
+    }
+
+    private void add(String path, long delta) {
+        deltas.merge(path, delta, Long::sum);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> castMap(Object value) {
+        return (Map<String, Object>) value;
+    }
+}
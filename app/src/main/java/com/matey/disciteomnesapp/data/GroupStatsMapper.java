@@ -0,0 +1,88 @@
+package com.matey.disciteomnesapp.data;
+
+import com.matey.disciteomnesapp.models.GroupStats;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Location and shape of the per-group task counters at groupStats/{groupId}:
+ *
+ * <pre>
+ * total, completed                 all tasks / completed tasks
+ * openByDue/{epochDay}             incomplete tasks due on that day
+ * assignedTotal/{uid}              tasks assigned to uid
+ * assignedCompleted/{uid}          of those, completed
+ * </pre>
+ *
+ * Overdue depends on the current day, so it is stored as incomplete tasks per due day
+ * and summed up when read. The counters are only ever changed through
+ * {@link GroupStatsDelta}, in the same update as the task change they count.
+ */
+public final class GroupStatsMapper {
+
+    public static final String ROOT = "groupStats";
+
+    private GroupStatsMapper() {
+    }
+
+    public static String path(String groupId) {
+        return ROOT + "/" + groupId;
+    }
+
+    public static GroupStats fromValue(String groupId, Object value, long todayEpochDay) {
+        if (!(value instanceof Map)) return null;
+        Map<?, ?> map = (Map<?, ?>) value;
+
+        GroupStats stats = new GroupStats();
+        stats.groupId = groupId;
+        stats.total = asLong(map.get("total"));
+        stats.completed = asLong(map.get("completed"));
+        Object openByDue = map.get("openByDue");
+        if (openByDue instanceof Map) {
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) openByDue).entrySet()) {
+                if (dueDay(entry.getKey()) < todayEpochDay) stats.overdue += asLong(entry.getValue());
+            }
+        }
+        stats.assignedTotal = readCounts(map.get("assignedTotal"));
+        stats.assignedCompleted = readCounts(map.get("assignedCompleted"));
+        return stats;
+    }
+
+    /**
+     * Stats of every group in a groupStats snapshot, by group id.
+     */
+    public static Map<String, GroupStats> fromRoot(Object value, long todayEpochDay) {
+        Map<String, GroupStats> all = new HashMap<>();
+        if (value instanceof Map) {
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                String groupId = String.valueOf(entry.getKey());
+                GroupStats stats = fromValue(groupId, entry.getValue(), todayEpochDay);
+                if (stats != null) all.put(groupId, stats);
+            }
+        }
+        return all;
+    }
+
+    private static Map<String, Long> readCounts(Object value) {
+        Map<String, Long> counts = new HashMap<>();
+        if (value instanceof Map) {
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                counts.put(String.valueOf(entry.getKey()), asLong(entry.getValue()));
+            }
+        }
+        return counts;
+    }
+
+    private static long dueDay(Object key) {
+        try {
+            return Long.parseLong(String.valueOf(key));
+        } catch (NumberFormatException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    private static long asLong(Object value) {
+        return value instanceof Number ? ((Number) value).longValue() : 0;
+    }
+}
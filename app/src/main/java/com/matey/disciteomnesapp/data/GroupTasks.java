@@ -0,0 +1,23 @@
+package com.matey.disciteomnesapp.data;
+
+/**
+ * Locations of tasks, stored per group at groupTasks/{groupId}/{taskId}.
+ *
+ * Keeping each group's tasks under its own node means loading a group reads exactly
+ * that group's tasks, no matter how many tasks exist overall.
+ */
+public final class GroupTasks {
+
+    public static final String ROOT = "groupTasks";
+
+    private GroupTasks() {
+    }
+
+    public static String path(String groupId) {
+        return ROOT + "/" + groupId;
+    }
+
+    public static String path(String groupId, String taskId) {
+        return path(groupId) + "/" + taskId;
+    }
+}
@@ -0,0 +1,132 @@
+package com.matey.disciteomnesapp.data;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Keeps the paths the first screens open synced in the background, so reopening them
+ * costs no download: the user's userGroups entry and indexed flag, their groups with
+ * the groups' stats, and the first task page of the groups they opened most recently.
+ *
+ * A kept-synced path is never evicted from Firebase's disk cache, so only what is still
+ * hot stays pinned. Groups the user is no longer in are released, and only the last
+ * {@link #MAX_ACTIVE_GROUPS} opened groups keep their task page; the least recently
+ * opened one is released when another group is opened. Everything is released when the
+ * user signs out. Meant to be used from the main thread.
+ */
+public class HotPathSync {
+
+    /**
+     * Where keepSynced is actually applied.
+     */
+    public interface Syncer {
+        void keepSynced(String path, boolean keep);
+
+        void keepFirstPageSynced(String groupId, int pageSize, boolean keep);
+    }
+
+    public static final int MAX_ACTIVE_GROUPS = 3;
+
+    private static volatile HotPathSync instance;
+
+    private final Syncer syncer;
+    private final int pageSize;
+    private final int maxActiveGroups;
+
+    private String userId;
+    private final Set<String> userGroups = new HashSet<>();
+    // Least recently opened first
+    private final LinkedHashSet<String> activeGroups = new LinkedHashSet<>();
+
+    public HotPathSync(Syncer syncer, int pageSize, int maxActiveGroups) {
+        this.syncer = syncer;
+        this.pageSize = pageSize;
+        this.maxActiveGroups = maxActiveGroups;
+    }
+
+    public static HotPathSync getInstance() {
+        if (instance == null) {
+            synchronized (HotPathSync.class) {
+                if (instance == null) {
+                    instance = new HotPathSync(FirebaseConfig.syncer(FirebaseDataStore.defaultRoot()),
+                            TaskPager.DEFAULT_PAGE_SIZE, MAX_ACTIVE_GROUPS);
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Pins the signed-in user's userGroups entry and flag; a different user releases the previous
+     * user's paths first.
+     */
+    public void setUser(String userId) {
+        if (userId == null ? this.userId == null : userId.equals(this.userId)) return;
+        clear();
+        this.userId = userId;
+        if (userId != null) {
+            syncer.keepSynced(UserGroupIndex.path(userId), true);
+            syncer.keepSynced(UserGroupIndex.indexedPath(userId), true);
+        }
+    }
+
+    /**
+     * Pins the groups the user is in and releases the ones they left.
+     */
+    public void setUserGroups(Collection<String> groupIds) {
+        Set<String> current = new HashSet<>(groupIds);
+        for (String groupId : new ArrayList<>(userGroups)) {
+            if (!current.contains(groupId)) releaseGroup(groupId);
+        }
+        for (String groupId : current) {
+            if (userGroups.add(groupId)) {
+                syncer.keepSynced("groups/" + groupId, true);
+                syncer.keepSynced(GroupStatsMapper.path(groupId), true);
+            }
+        }
+    }
+
+    /**
+     * Pins the group's first task page, releasing the least recently opened group's
+     * page beyond the limit.
+     */
+    public void groupOpened(String groupId) {
+        if (activeGroups.remove(groupId)) {
+            activeGroups.add(groupId);
+            return;
+        }
+        activeGroups.add(groupId);
+        syncer.keepFirstPageSynced(groupId, pageSize, true);
+        Iterator<String> oldest = activeGroups.iterator();
+        while (activeGroups.size() > maxActiveGroups) {
+            String evicted = oldest.next();
+            oldest.remove();
+            syncer.keepFirstPageSynced(evicted, pageSize, false);
+        }
+    }
+
+    /**
+     * Releases everything, e.g. on logout.
+     */
+    public void clear() {
+        for (String groupId : new ArrayList<>(userGroups)) releaseGroup(groupId);
+        for (String groupId : activeGroups) syncer.keepFirstPageSynced(groupId, pageSize, false);
+        activeGroups.clear();
+        if (userId != null) {
+            syncer.keepSynced(UserGroupIndex.path(userId), false);
+            syncer.keepSynced(UserGroupIndex.indexedPath(userId), false);
+        }
+        userId = null;
+    }
+
+    private void releaseGroup(String groupId) {
+        userGroups.remove(groupId);
+        syncer.keepSynced("groups/" + groupId, false);
+        syncer.keepSynced(GroupStatsMapper.path(groupId), false);
+        if (activeGroups.remove(groupId)) syncer.keepFirstPageSynced(groupId, pageSize, false);
+    }
+}
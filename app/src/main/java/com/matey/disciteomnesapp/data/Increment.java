@@ -0,0 +1,19 @@
+package com.matey.disciteomnesapp.data;
+
+/**
+ * Update value that adds {@code delta} to the number stored at its path (a missing
+ * number counts as 0). The server applies it atomically, so concurrent increments from
+ * different clients never overwrite each other.
+ */
+public final class Increment {
+
+    public final long delta;
+
+    private Increment(long delta) {
+        this.delta = delta;
+    }
+
+    public static Increment by(long delta) {
+        return new Increment(delta);
+    }
+}
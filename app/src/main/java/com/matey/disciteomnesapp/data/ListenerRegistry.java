@@ -0,0 +1,198 @@
+package com.matey.disciteomnesapp.data;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.DefaultLifecycleObserver;
+import androidx.lifecycle.LifecycleOwner;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Shares live listeners between screens.
+ *
+ * Every listen() on the same path is served by one listener on the wrapped store; the
+ * latest value is kept so a new subscriber gets it at once instead of waiting for a
+ * fresh snapshot. When the last subscriber leaves, the shared listener stays attached
+ * for a grace period, so a rotation or quickly reopening a screen reuses it instead of
+ * downloading the path again. Meant to be used from the main thread.
+ */
+public class ListenerRegistry implements DataStore {
+
+    public static final long DEFAULT_GRACE_MS = 5_000;
+
+    private static volatile ListenerRegistry instance;
+
+    private final DataStore dataStore;
+    private final Scheduler scheduler;
+    private final long graceMs;
+
+    private final Map<String, SharedListener> listeners = new HashMap<>();
+    private int attachCount = 0;
+    private int detachCount = 0;
+
+    public ListenerRegistry(DataStore dataStore, Scheduler scheduler, long graceMs) {
+        this.dataStore = dataStore;
+        this.scheduler = scheduler;
+        this.graceMs = graceMs;
+    }
+
+    public static ListenerRegistry getInstance() {
+        if (instance == null) {
+            synchronized (ListenerRegistry.class) {
+                if (instance == null) {
+                    instance = new ListenerRegistry(new FirebaseDataStore(), Scheduler.mainThread(), DEFAULT_GRACE_MS);
+                }
+            }
+        }
+        return instance;
+    }
+
+    @Override
+    public void read(String path, ValueCallback callback) {
+        SharedListener shared = listeners.get(path);
+        if (shared != null && shared.hasValue) {
+            // A live listener already holds the current value
+            callback.onValue(shared.value);
+            return;
+        }
+        dataStore.read(path, callback);
+    }
+
+    @Override
+    public Registration listen(String path, ValueCallback callback) {
+        SharedListener shared = listeners.get(path);
+        if (shared == null) {
+            shared = new SharedListener(path);
+            listeners.put(path, shared);
+            shared.attach();
+        }
+        shared.generation++; // cancels a scheduled detach
+        shared.callbacks.add(callback);
+        if (shared.hasValue) callback.onValue(shared.value);
+
+        SharedListener subscribed = shared;
+        return new Registration() {
+            private boolean removed = false;
+
+            @Override
+            public void remove() {
+                if (removed) return;
+                removed = true;
+                subscribed.unsubscribe(callback);
+            }
+        };
+    }
+
+    /**
+     * Listens while the owner is started. Across a rotation the new screen picks up the
+     * shared listener the old one left behind.
+     */
+    public void bind(LifecycleOwner owner, String path, ValueCallback callback) {
+        owner.getLifecycle().addObserver(new DefaultLifecycleObserver() {
+            private Registration registration;
+
+            @Override
+            public void onStart(@NonNull LifecycleOwner source) {
+                registration = listen(path, callback);
+            }
+
+            @Override
+            public void onStop(@NonNull LifecycleOwner source) {
+                if (registration != null) registration.remove();
+                registration = null;
+            }
+
+            @Override
+            public void onDestroy(@NonNull LifecycleOwner source) {
+                source.getLifecycle().removeObserver(this);
+            }
+        });
+    }
+
+    @Override
+    public void update(Map<String, Object> updates, Runnable onSuccess, Runnable onFailure) {
+        dataStore.update(updates, onSuccess, onFailure);
+    }
+
+    @Override
+    public void transaction(String path, Mutation mutation, TransactionCallback callback) {
+        // Shared listeners on the path see the committed value like any other write
+        dataStore.transaction(path, mutation, callback);
+    }
+
+    @Override
+    public String newKey(String path) {
+        return dataStore.newKey(path);
+    }
+
+    /** Listeners attached to the wrapped store right now. */
+    public int getActiveListenerCount() {
+        return listeners.size();
+    }
+
+    /** Callers currently listening, across all paths. */
+    public int getSubscriberCount() {
+        int count = 0;
+        for (SharedListener shared : listeners.values()) count += shared.callbacks.size();
+        return count;
+    }
+
+    public int getAttachCount() {
+        return attachCount;
+    }
+
+    public int getDetachCount() {
+        return detachCount;
+    }
+
+    private class SharedListener implements ValueCallback {
+        final String path;
+        final List<ValueCallback> callbacks = new ArrayList<>();
+        Registration upstream;
+        Object value;
+        boolean hasValue = false;
+        long generation = 0;
+
+        SharedListener(String path) {
+            this.path = path;
+        }
+
+        void attach() {
+            attachCount++;
+            upstream = dataStore.listen(path, this);
+            if (listeners.get(path) != this) upstream.remove(); // failed while attaching
+        }
+
+        void detach() {
+            if (listeners.get(path) != this) return;
+            listeners.remove(path);
+            detachCount++;
+            if (upstream != null) upstream.remove();
+        }
+
+        void unsubscribe(ValueCallback callback) {
+            callbacks.remove(callback);
+            if (!callbacks.isEmpty()) return;
+            long scheduled = ++generation;
+            scheduler.schedule(() -> {
+                if (scheduled == generation && callbacks.isEmpty()) detach();
+            }, graceMs);
+        }
+
+        @Override
+        public void onValue(Object value) {
+            this.value = value;
+            hasValue = true;
+            for (ValueCallback callback : new ArrayList<>(callbacks)) callback.onValue(value);
+        }
+
+        @Override
+        public void onError(String message) {
+            // The database drops a cancelled listener; the next listen() attaches a new one
+            detach();
+            for (ValueCallback callback : new ArrayList<>(callbacks)) callback.onError(message);
+        }
+    }
+}
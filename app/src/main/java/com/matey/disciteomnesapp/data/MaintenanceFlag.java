@@ -0,0 +1,62 @@
+package com.matey.disciteomnesapp.data;
+
+/**
+ * The meta/ flag of a one-time data job: absent before it ran, {@link #CLAIMED} while a
+ * run is in progress, true once it is done.
+ *
+ * A run claims the flag in a transaction before it reads anything, so two runs started
+ * at the same time can't both copy or count the same data; the one that loses the
+ * claim stops. A run that fails releases its claim so the job can be started again.
+ */
+final class MaintenanceFlag {
+
+    static final String CLAIMED = "claimed";
+
+    private MaintenanceFlag() {
+    }
+
+    /**
+     * Runs {@code onClaimed} if this caller got the flag, {@code onDone} if the job is
+     * already done and {@code onBusy} if another run holds the claim or it couldn't be read.
+     */
+    static void claim(DataStore dataStore, String path, Runnable onClaimed, Runnable onDone, Runnable onBusy) {
+        dataStore.transaction(path, current -> current == null ? CLAIMED : DataStore.Mutation.ABORT,
+                new DataStore.TransactionCallback() {
+                    @Override
+                    public void onComplete(boolean committed, Object value) {
+                        if (committed) {
+                            onClaimed.run();
+                        } else if (Boolean.TRUE.equals(value)) {
+                            onDone.run();
+                        } else {
+                            onBusy.run();
+                        }
+                    }
+
+                    @Override
+                    public void onError(String message) {
+                        onBusy.run();
+                    }
+                });
+    }
+
+    /**
+     * Gives up a claim after a failed run. Not aborted on null: the first run of a
+     * transaction may see null only because nothing is cached yet.
+     */
+    static void release(DataStore dataStore, String path, Runnable then) {
+        dataStore.transaction(path,
+                current -> current == null || CLAIMED.equals(current) ? null : DataStore.Mutation.ABORT,
+                new DataStore.TransactionCallback() {
+                    @Override
+                    public void onComplete(boolean committed, Object value) {
+                        then.run();
+                    }
+
+                    @Override
+                    public void onError(String message) {
+                        then.run();
+                    }
+                });
+    }
+}
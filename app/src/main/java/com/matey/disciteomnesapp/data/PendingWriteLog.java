@@ -0,0 +1,298 @@
+package com.matey.disciteomnesapp.data;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of the updates {@link QueuedDataStore} has sent but the server
+ * has not acknowledged yet.
+ *
+ * Every update is appended as one record before it is sent, and a second record marks
+ * it done once the server answered. Updates issued together are appended with one
+ * sync to disk, so a burst of writes costs one fsync instead of one each. Each record carries its
+ * length and a CRC32, so a record torn by the process dying mid-write is recognized
+ * on the next {@link #open()} and dropped together with anything after it. The file is
+ * emptied whenever nothing is outstanding, and rewritten with only the outstanding
+ * updates when it is opened.
+ *
+ * Values are the DataStore's plain trees plus {@link Increment}s. Meant to be used from
+ * a single thread (the journal executor, see {@link AppExecutors#journal()}).
+ */
+public class PendingWriteLog {
+
+    /**
+     * One queued multi-path update, its idempotency key and when it was first issued.
+     */
+    public static class Entry {
+        public final String key;
+        public final Map<String, Object> updates;
+        public final long createdAt;
+
+        public Entry(String key, Map<String, Object> updates, long createdAt) {
+            this.key = key;
+            this.updates = updates;
+            this.createdAt = createdAt;
+        }
+    }
+
+    // Written by older versions, without createdAt; read back as created at 0 (too old to send)
+    private static final byte APPENDED_LEGACY = 'A';
+    private static final byte APPENDED = 'T';
+    private static final byte DONE = 'D';
+
+    private static final byte NULL = 0;
+    private static final byte STRING = 1;
+    private static final byte LONG = 2;
+    private static final byte DOUBLE = 3;
+    private static final byte BOOLEAN = 4;
+    private static final byte MAP = 5;
+    private static final byte LIST = 6;
+    private static final byte INCREMENT = 7;
+
+    private final File file;
+    private final Map<String, Entry> outstanding = new LinkedHashMap<>();
+
+    public PendingWriteLog(File file) {
+        this.file = file;
+    }
+
+    /**
+     * Reads the journal and returns the updates still outstanding, oldest first.
+     */
+    public List<Entry> open() {
+        outstanding.clear();
+        if (file.exists()) {
+            long fileLength = file.length();
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+                while (true) {
+                    byte[] record = readRecord(in, fileLength);
+                    if (record == null) break;
+                    apply(record);
+                }
+            } catch (IOException e) {
+                // Whatever was read before the failure is kept
+            }
+        }
+        rewrite();
+        return new ArrayList<>(outstanding.values());
+    }
+
+    /**
+     * Durably records an update before it is sent.
+     */
+    public boolean append(Entry entry) {
+        return append(Collections.singletonList(entry));
+    }
+
+    /**
+     * Durably records several updates, in order, with a single sync.
+     */
+    public boolean append(List<Entry> entries) {
+        ByteArrayOutputStream records = new ByteArrayOutputStream();
+        try {
+            for (Entry entry : entries) {
+                outstanding.put(entry.key, entry);
+                records.write(frame(appendedRecord(entry)));
+            }
+            write(records.toByteArray(), true);
+            return true;
+        } catch (IOException | IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Records that the server answered; once nothing is outstanding the file is emptied.
+     */
+    public void complete(String key) {
+        if (outstanding.remove(key) == null) return;
+        try {
+            if (outstanding.isEmpty()) {
+                new FileOutputStream(file, false).close();
+                return;
+            }
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(body);
+            out.writeByte(DONE);
+            out.writeUTF(key);
+            // Not synced: if it is lost the update is sent again and recognized as applied
+            write(frame(body.toByteArray()), false);
+        } catch (IOException e) {
+            // Same as a lost record
+        }
+    }
+
+    public int getOutstandingCount() {
+        return outstanding.size();
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    private void apply(byte[] record) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(record));
+        byte type = in.readByte();
+        String key = in.readUTF();
+        if (type == APPENDED || type == APPENDED_LEGACY) {
+            long createdAt = type == APPENDED ? in.readLong() : 0;
+            @SuppressWarnings("unchecked")
+            Map<String, Object> updates = (Map<String, Object>) readValue(in);
+            outstanding.put(key, new Entry(key, updates, createdAt));
+        } else if (type == DONE) {
+            outstanding.remove(key);
+        } else {
+            throw new IOException("Unknown record type " + type);
+        }
+    }
+
+    /**
+     * The next intact record, or null at the end of the file or at a torn or corrupt one.
+     */
+    private static byte[] readRecord(DataInputStream in, long fileLength) throws IOException {
+        try {
+            int length = in.readInt();
+            long checksum = in.readInt() & 0xFFFFFFFFL;
+            // A torn length may be anything; a real record always fits in the file
+            if (length <= 0 || length > fileLength) return null;
+            byte[] record = new byte[length];
+            in.readFully(record);
+            return crc(record) == checksum ? record : null;
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Replaces the file with just the outstanding updates, dropping done and torn records.
+     */
+    private void rewrite() {
+        File temp = new File(file.getPath() + ".tmp");
+        try {
+            try (FileOutputStream out = new FileOutputStream(temp, false)) {
+                for (Entry entry : outstanding.values()) out.write(frame(appendedRecord(entry)));
+                out.getFD().sync();
+            }
+            if (!temp.renameTo(file)) {
+                temp.delete();
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            temp.delete();
+        }
+    }
+
+    private static byte[] appendedRecord(Entry entry) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(body);
+        out.writeByte(APPENDED);
+        out.writeUTF(entry.key);
+        out.writeLong(entry.createdAt);
+        writeValue(out, entry.updates);
+        return body.toByteArray();
+    }
+
+    private void write(byte[] framed, boolean sync) throws IOException {
+        try (FileOutputStream out = new FileOutputStream(file, true)) {
+            out.write(framed);
+            if (sync) out.getFD().sync();
+        }
+    }
+
+    private static byte[] frame(byte[] record) throws IOException {
+        ByteArrayOutputStream framed = new ByteArrayOutputStream(record.length + 8);
+        DataOutputStream out = new DataOutputStream(framed);
+        out.writeInt(record.length);
+        out.writeInt((int) crc(record));
+        out.write(record);
+        return framed.toByteArray();
+    }
+
+    private static long crc(byte[] bytes) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, bytes.length);
+        return crc.getValue();
+    }
+
+    static void writeValue(DataOutputStream out, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(NULL);
+        } else if (value instanceof String) {
+            out.writeByte(STRING);
+            out.writeUTF((String) value);
+        } else if (value instanceof Long || value instanceof Integer) {
+            out.writeByte(LONG);
+            out.writeLong(((Number) value).longValue());
+        } else if (value instanceof Double || value instanceof Float) {
+            out.writeByte(DOUBLE);
+            out.writeDouble(((Number) value).doubleValue());
+        } else if (value instanceof Boolean) {
+            out.writeByte(BOOLEAN);
+            out.writeBoolean((Boolean) value);
+        } else if (value instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) value;
+            out.writeByte(MAP);
+            out.writeInt(map.size());
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                out.writeUTF(String.valueOf(entry.getKey()));
+                writeValue(out, entry.getValue());
+            }
+        } else if (value instanceof List) {
+            List<?> list = (List<?>) value;
+            out.writeByte(LIST);
+            out.writeInt(list.size());
+            for (Object item : list) writeValue(out, item);
+        } else if (value instanceof Increment) {
+            out.writeByte(INCREMENT);
+            out.writeLong(((Increment) value).delta);
+        } else {
+            throw new IllegalArgumentException("Can't journal a " + value.getClass().getName());
+        }
+    }
+
+    static Object readValue(DataInputStream in) throws IOException {
+        byte type = in.readByte();
+        switch (type) {
+            case NULL:
+                return null;
+            case STRING:
+                return in.readUTF();
+            case LONG:
+                return in.readLong();
+            case DOUBLE:
+                return in.readDouble();
+            case BOOLEAN:
+                return in.readBoolean();
+            case MAP: {
+                int size = in.readInt();
+                Map<String, Object> map = new HashMap<>();
+                for (int i = 0; i < size; i++) map.put(in.readUTF(), readValue(in));
+                return map;
+            }
+            case LIST: {
+                int size = in.readInt();
+                List<Object> list = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) list.add(readValue(in));
+                return list;
+            }
+            case INCREMENT:
+                return Increment.by(in.readLong());
+            default:
+                throw new IOException("Unknown value type " + type);
+        }
+    }
+}
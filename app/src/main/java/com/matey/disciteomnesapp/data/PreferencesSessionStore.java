@@ -0,0 +1,72 @@
+package com.matey.disciteomnesapp.data;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+/**
+ * SessionStore kept in its own SharedPreferences file.
+ *
+ * Older installs stored only the uid, as "userId" in the "prefs" file; it is moved
+ * over the first time the session is read.
+ */
+public class PreferencesSessionStore implements SessionStore {
+
+    private static final String FILE = "session";
+    private static final String KEY_USER_ID = "userId";
+    private static final String KEY_USER_NAME = "userName";
+    private static final String KEY_LAST_GROUP_ID = "lastGroupId";
+
+    private static final String LEGACY_FILE = "prefs";
+    private static final String LEGACY_KEY_USER_ID = "userId";
+
+    private final SharedPreferences prefs;
+    private final SharedPreferences legacyPrefs;
+
+    public PreferencesSessionStore(Context context) {
+        Context app = context.getApplicationContext();
+        this.prefs = app.getSharedPreferences(FILE, Context.MODE_PRIVATE);
+        this.legacyPrefs = app.getSharedPreferences(LEGACY_FILE, Context.MODE_PRIVATE);
+    }
+
+    @Override
+    public String getUserId() {
+        String userId = prefs.getString(KEY_USER_ID, null);
+        if (userId == null) {
+            userId = legacyPrefs.getString(LEGACY_KEY_USER_ID, null);
+            if (userId != null) {
+                prefs.edit().putString(KEY_USER_ID, userId).apply();
+                legacyPrefs.edit().remove(LEGACY_KEY_USER_ID).apply();
+            }
+        }
+        return userId;
+    }
+
+    @Override
+    public String getUserName() {
+        return prefs.getString(KEY_USER_NAME, null);
+    }
+
+    @Override
+    public void save(String userId, String userName) {
+        prefs.edit()
+                .putString(KEY_USER_ID, userId)
+                .putString(KEY_USER_NAME, userName)
+                .apply();
+    }
+
+    @Override
+    public String getLastGroupId() {
+        return prefs.getString(KEY_LAST_GROUP_ID, null);
+    }
+
+    @Override
+    public void setLastGroupId(String groupId) {
+        prefs.edit().putString(KEY_LAST_GROUP_ID, groupId).apply();
+    }
+
+    @Override
+    public void clear() {
+        prefs.edit().clear().apply();
+        legacyPrefs.edit().remove(LEGACY_KEY_USER_ID).apply();
+    }
+}
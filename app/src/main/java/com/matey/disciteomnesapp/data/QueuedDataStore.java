@@ -0,0 +1,225 @@
+package com.matey.disciteomnesapp.data;
+
+import android.content.Context;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.function.LongSupplier;
+
+/**
+ * DataStore whose updates survive process death.
+ *
+ * Firebase already applies a write locally and keeps it queued in memory while offline,
+ * so listeners show it right away; but a write the server hasn't acknowledged when the
+ * process dies is lost. Here every update is first appended to a {@link PendingWriteLog}
+ * on the journal thread and only then sent; updates issued while the previous ones are
+ * being journaled are appended together with one sync. {@link #replay()} sends whatever
+ * the log still holds, in the order it was written, when the app starts again. Firebase
+ * holds the replayed writes until it is connected.
+ *
+ * Each update carries an idempotency key: the same multi-path update also creates
+ * appliedWrites/{key}, which the rules only allow once (database.rules.json). A replayed
+ * update that had already reached the server is therefore rejected as a whole, and is
+ * reported as applied after checking its key exists; counters are never incremented
+ * twice. A rejected update whose key doesn't exist failed for good, and its caller rolls
+ * back its local changes; for a replayed update, whose caller is gone, that is the
+ * {@link RejectedReplayListener}.
+ *
+ * The key's value is the time the update was first issued, and the rules only accept
+ * one from the last {@link AppliedWrites#RETENTION_MS}. An update queued for longer is
+ * rejected like any other, and a key past that age can never be written again, so
+ * {@link AppliedWritesCleanup} deletes it without letting its update apply twice.
+ *
+ * Reads, listeners and transactions go straight to the wrapped store.
+ */
+public class QueuedDataStore implements DataStore {
+
+    private static final String LOG_FILE = "pending-writes.log";
+
+    private static volatile QueuedDataStore instance;
+
+    /**
+     * Told about replayed updates the server rejected for good, so their optimistic
+     * local changes can be undone.
+     */
+    public interface RejectedReplayListener {
+        void onRejected(Map<String, Object> updates);
+    }
+
+    private final DataStore delegate;
+    private final PendingWriteLog log;
+    private final Executor journal;
+    private final Executor mainThread;
+    private final LongSupplier clock;
+
+    // Issued but not journaled yet; the next journal run appends them all with one sync
+    private final List<Queued> unjournaled = new ArrayList<>();
+
+    // Rejected replays that arrived before a listener was set
+    private final List<Map<String, Object>> rejectedReplays = new ArrayList<>();
+    private RejectedReplayListener rejectedReplayListener;
+    private int replayedCount = 0;
+
+    public QueuedDataStore(DataStore delegate, PendingWriteLog log, Executor journal, Executor mainThread) {
+        this(delegate, log, journal, mainThread, System::currentTimeMillis);
+    }
+
+    public QueuedDataStore(DataStore delegate, PendingWriteLog log, Executor journal, Executor mainThread,
+                           LongSupplier clock) {
+        this.delegate = delegate;
+        this.log = log;
+        this.journal = journal;
+        this.mainThread = mainThread;
+        this.clock = clock;
+    }
+
+    /**
+     * The app's queued store; the first call replays what a previous process left behind.
+     */
+    public static QueuedDataStore getInstance(Context context) {
+        if (instance == null) {
+            synchronized (QueuedDataStore.class) {
+                if (instance == null) {
+                    File file = new File(context.getApplicationContext().getFilesDir(), LOG_FILE);
+                    QueuedDataStore store = new QueuedDataStore(new FirebaseDataStore(), new PendingWriteLog(file),
+                            AppExecutors.journal(), AppExecutors.mainThread());
+                    store.replay();
+                    instance = store;
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Sends the updates a previous process left unacknowledged, oldest first. Must run
+     * before the first {@link #update}, so new updates queue up behind the old ones.
+     */
+    public void replay() {
+        journal.execute(() -> {
+            List<PendingWriteLog.Entry> outstanding = log.open();
+            mainThread.execute(() -> {
+                for (PendingWriteLog.Entry entry : outstanding) {
+                    replayedCount++;
+                    send(entry, null, () -> onReplayRejected(entry.updates));
+                }
+            });
+        });
+    }
+
+    /**
+     * Sets who undoes the local changes of rejected replays; those rejected before it
+     * was set are handed over at once. Main thread only.
+     */
+    public void setRejectedReplayListener(RejectedReplayListener listener) {
+        rejectedReplayListener = listener;
+        if (listener == null) return;
+        for (Map<String, Object> updates : rejectedReplays) listener.onRejected(updates);
+        rejectedReplays.clear();
+    }
+
+    @Override
+    public void read(String path, ValueCallback callback) {
+        delegate.read(path, callback);
+    }
+
+    @Override
+    public Registration listen(String path, ValueCallback callback) {
+        return delegate.listen(path, callback);
+    }
+
+    /**
+     * Journals the update, then sends it. {@code onFailure} only runs when the server
+     * rejected it for good; while offline neither callback runs.
+     */
+    @Override
+    public void update(Map<String, Object> updates, Runnable onSuccess, Runnable onFailure) {
+        PendingWriteLog.Entry entry = new PendingWriteLog.Entry(delegate.newKey(AppliedWrites.ROOT),
+                new HashMap<>(updates), clock.getAsLong());
+        boolean first;
+        synchronized (unjournaled) {
+            unjournaled.add(new Queued(entry, onSuccess, onFailure));
+            first = unjournaled.size() == 1;
+        }
+        if (first) journal.execute(this::journalQueued);
+    }
+
+    @Override
+    public void transaction(String path, Mutation mutation, TransactionCallback callback) {
+        delegate.transaction(path, mutation, callback);
+    }
+
+    @Override
+    public String newKey(String path) {
+        return delegate.newKey(path);
+    }
+
+    /** Updates sent again by {@link #replay()}. */
+    public int getReplayedCount() {
+        return replayedCount;
+    }
+
+    private void journalQueued() {
+        List<Queued> batch;
+        synchronized (unjournaled) {
+            batch = new ArrayList<>(unjournaled);
+            unjournaled.clear();
+        }
+        List<PendingWriteLog.Entry> entries = new ArrayList<>(batch.size());
+        for (Queued queued : batch) entries.add(queued.entry);
+        log.append(entries);
+        mainThread.execute(() -> {
+            for (Queued queued : batch) send(queued.entry, queued.onSuccess, queued.onFailure);
+        });
+    }
+
+    private void onReplayRejected(Map<String, Object> updates) {
+        if (rejectedReplayListener != null) {
+            rejectedReplayListener.onRejected(updates);
+        } else {
+            rejectedReplays.add(updates);
+        }
+    }
+
+    private void send(PendingWriteLog.Entry entry, Runnable onSuccess, Runnable onFailure) {
+        Map<String, Object> sent = new HashMap<>(entry.updates);
+        sent.put(AppliedWrites.path(entry.key), entry.createdAt);
+        delegate.update(sent, () -> done(entry, onSuccess), () ->
+                // Rejected: either it was applied before (replay) or it failed for good
+                delegate.read(AppliedWrites.path(entry.key), new ValueCallback() {
+                    @Override
+                    public void onValue(Object value) {
+                        done(entry, value != null ? onSuccess : onFailure);
+                    }
+
+                    @Override
+                    public void onError(String message) {
+                        done(entry, onFailure);
+                    }
+                }));
+    }
+
+    private void done(PendingWriteLog.Entry entry, Runnable callback) {
+        journal.execute(() -> log.complete(entry.key));
+        if (callback != null) callback.run();
+    }
+
+    /**
+     * An update waiting to be journaled, with its caller's callbacks.
+     */
+    private static class Queued {
+        final PendingWriteLog.Entry entry;
+        final Runnable onSuccess;
+        final Runnable onFailure;
+
+        Queued(PendingWriteLog.Entry entry, Runnable onSuccess, Runnable onFailure) {
+            this.entry = entry;
+            this.onSuccess = onSuccess;
+            this.onFailure = onFailure;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.matey.disciteomnesapp.data;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+/**
+ * Delayed work on a single thread, with its own clock so tests can drive time by hand.
+ */
+public interface Scheduler {
+
+    long now();
+
+    void schedule(Runnable task, long delayMs);
+
+    /**
+     * Runs tasks on the main thread, timed with the uptime clock.
+     */
+    static Scheduler mainThread() {
+        Handler handler = new Handler(Looper.getMainLooper());
+        return new Scheduler() {
+            @Override
+            public long now() {
+                return SystemClock.uptimeMillis();
+            }
+
+            @Override
+            public void schedule(Runnable task, long delayMs) {
+                handler.postDelayed(task, delayMs);
+            }
+        };
+    }
+}
@@ -0,0 +1,22 @@
+package com.matey.disciteomnesapp.data;
+
+/**
+ * The signed-in user's session as the app keeps it between launches.
+ */
+public interface SessionStore {
+
+    /** Firebase uid of the signed-in user, or null when signed out. */
+    String getUserId();
+
+    /** Display name last seen for that user, or null if not known yet. */
+    String getUserName();
+
+    void save(String userId, String userName);
+
+    /** Group whose tasks were opened last, so its first page can be prefetched at startup. */
+    String getLastGroupId();
+
+    void setLastGroupId(String groupId);
+
+    void clear();
+}
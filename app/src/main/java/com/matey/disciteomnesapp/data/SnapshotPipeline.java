@@ -0,0 +1,119 @@
+package com.matey.disciteomnesapp.data;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Maps snapshots on a background executor and hands the result to the main thread.
+ *
+ * Only the newest snapshot matters for a live listener, so at most one snapshot waits
+ * while another is being mapped: a newer one replaces it, and a result that was
+ * overtaken before it could be delivered is dropped. Each pipeline therefore keeps a
+ * single task in the background queue no matter how fast snapshots arrive.
+ *
+ * A snapshot the mapper throws on is skipped and reported to the {@link Failure}; the
+ * pipeline goes on with the next one.
+ */
+public class SnapshotPipeline<I, O> {
+
+    public interface Mapper<I, O> {
+        O map(I input);
+    }
+
+    public interface Sink<O> {
+        void onMapped(O result);
+    }
+
+    public interface Failure {
+        void onMapFailed(RuntimeException error);
+    }
+
+    private final Executor background;
+    private final Executor mainThread;
+    private final Mapper<I, O> mapper;
+    private final Sink<O> sink;
+    private final Failure failure;
+
+    private final Object lock = new Object();
+    private I pending;
+    private boolean hasPending = false;
+    private boolean draining = false;
+    private long submitted = 0;
+    private volatile boolean closed = false;
+
+    public SnapshotPipeline(Executor background, Executor mainThread, Mapper<I, O> mapper, Sink<O> sink) {
+        this(background, mainThread, mapper, sink, error -> { });
+    }
+
+    public SnapshotPipeline(Executor background, Executor mainThread, Mapper<I, O> mapper, Sink<O> sink,
+                            Failure failure) {
+        this.background = background;
+        this.mainThread = mainThread;
+        this.mapper = mapper;
+        this.sink = sink;
+        this.failure = failure;
+    }
+
+    public void submit(I input) {
+        synchronized (lock) {
+            pending = input;
+            hasPending = true;
+            submitted++;
+            if (draining) return;
+            draining = true;
+        }
+        background.execute(this::drain);
+    }
+
+    /**
+     * Stops delivering results; anything still queued is discarded.
+     */
+    public void close() {
+        closed = true;
+    }
+
+    private void drain() {
+        boolean finished = false;
+        try {
+            while (true) {
+                I input;
+                long generation;
+                synchronized (lock) {
+                    if (!hasPending || closed) {
+                        draining = false;
+                        pending = null;
+                        finished = true;
+                        return;
+                    }
+                    input = pending;
+                    generation = submitted;
+                    pending = null;
+                    hasPending = false;
+                }
+
+                O result;
+                try {
+                    result = mapper.map(input);
+                } catch (RuntimeException error) {
+                    // Skip the bad snapshot; a newer one may still map
+                    mainThread.execute(() -> {
+                        if (!closed) failure.onMapFailed(error);
+                    });
+                    continue;
+                }
+                mainThread.execute(() -> {
+                    synchronized (lock) {
+                        if (closed || generation != submitted) return;
+                    }
+                    sink.onMapped(result);
+                });
+            }
+        } finally {
+            // Anything else thrown must not leave the pipeline marked as draining forever
+            if (!finished) {
+                synchronized (lock) {
+                    draining = false;
+                }
+            }
+        }
+    }
+}
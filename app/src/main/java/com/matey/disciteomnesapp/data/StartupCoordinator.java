@@ -0,0 +1,217 @@
+package com.matey.disciteomnesapp.data;
+
+import android.content.Context;
+
+import com.google.firebase.database.FirebaseDatabase;
+import com.matey.disciteomnesapp.data.local.AppDatabase;
+import com.matey.disciteomnesapp.models.User;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Starts everything the first screens need as soon as the uid is known, instead of
+ * each activity loading its own data after it opens.
+ *
+ * start() warms up the local cache and the database connection once, then requests the
+ * user's profile, their userGroups index entry and the first task page of the group
+ * they opened last - all at the same time. The results are shared futures in a
+ * {@link Session}; activities take them from there and get finished data if the load
+ * already completed. The same paths are handed to {@link HotPathSync}, which keeps them
+ * synced until the user signs out. Meant to be used from the main thread.
+ */
+public class StartupCoordinator {
+
+    public interface PageSourceFactory {
+        TaskPageSource create(String groupId);
+    }
+
+    /**
+     * Loads started for one signed-in user.
+     */
+    public static class Session {
+        public final String userId;
+        public final CompletableFuture<User> profile = new CompletableFuture<>();
+        public final CompletableFuture<Map<String, String>> userGroups = new CompletableFuture<>();
+        /** Number of tasks prefetched for the last opened group (0 if there is none). */
+        public final CompletableFuture<Integer> firstTaskPage = new CompletableFuture<>();
+
+        private TaskPageSource.Subscription pageSubscription;
+        private boolean pageClosed = false;
+        private boolean userGroupsTaken = false;
+
+        Session(String userId) {
+            this.userId = userId;
+        }
+
+        void closePage() {
+            pageClosed = true;
+            if (pageSubscription != null) pageSubscription.cancel();
+            pageSubscription = null;
+        }
+    }
+
+    private static volatile StartupCoordinator instance;
+
+    private final Runnable warmUp;
+    private final UserProfileCache profileCache;
+    private final UserGroupIndex groupIndex;
+    private final SessionStore sessionStore;
+    private final PageSourceFactory pageSources;
+    private final int pageSize;
+    private final HotPathSync hotPaths;
+
+    private boolean warmedUp = false;
+    private Session current;
+
+    public StartupCoordinator(Runnable warmUp, UserProfileCache profileCache, UserGroupIndex groupIndex,
+                              SessionStore sessionStore, PageSourceFactory pageSources, int pageSize,
+                              HotPathSync hotPaths) {
+        this.warmUp = warmUp;
+        this.profileCache = profileCache;
+        this.groupIndex = groupIndex;
+        this.sessionStore = sessionStore;
+        this.pageSources = pageSources;
+        this.pageSize = pageSize;
+        this.hotPaths = hotPaths;
+    }
+
+    public static StartupCoordinator getInstance(Context context) {
+        if (instance == null) {
+            synchronized (StartupCoordinator.class) {
+                if (instance == null) {
+                    Context app = context.getApplicationContext();
+                    TaskRepository taskRepository = TaskRepository.getInstance(app);
+                    instance = new StartupCoordinator(
+                            () -> warmUp(app),
+                            UserProfileCache.getInstance(app),
+                            new UserGroupIndex(new FirebaseDataStore()),
+                            new PreferencesSessionStore(app),
+                            groupId -> taskRepository.pageSource(groupId, new FirebaseTaskPageSource(groupId)),
+                            TaskPager.DEFAULT_PAGE_SIZE,
+                            HotPathSync.getInstance());
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Starts (or returns the already running) loads for this user.
+     */
+    public Session start(String userId) {
+        if (current != null && current.userId.equals(userId)) return current;
+        if (current != null) current.closePage();
+        if (!warmedUp) {
+            warmedUp = true;
+            warmUp.run();
+        }
+
+        Session session = new Session(userId);
+        current = session;
+        hotPaths.setUser(userId);
+        loadProfile(session);
+        loadUserGroups(userId, session.userGroups);
+        prefetchFirstPage(session);
+        return session;
+    }
+
+    /**
+     * The user's groups: the prefetched result the first time it is asked for, a fresh
+     * load afterwards (memberships may have changed since startup).
+     */
+    public CompletableFuture<Map<String, String>> takeUserGroups(String userId) {
+        Session session = start(userId);
+        if (!session.userGroupsTaken) {
+            session.userGroupsTaken = true;
+            return session.userGroups;
+        }
+        CompletableFuture<Map<String, String>> fresh = new CompletableFuture<>();
+        loadUserGroups(userId, fresh);
+        return fresh;
+    }
+
+    /**
+     * Drops the current session, e.g. on logout.
+     */
+    public void stop() {
+        if (current != null) current.closePage();
+        current = null;
+        hotPaths.clear();
+    }
+
+    private void loadProfile(Session session) {
+        profileCache.getProfile(session.userId, profiles -> session.profile.complete(profiles.get(session.userId)));
+    }
+
+    private void loadUserGroups(String userId, CompletableFuture<Map<String, String>> result) {
+        groupIndex.loadGroups(userId, new UserGroupIndex.Callback() {
+            @Override
+            public void onGroups(Map<String, String> groupNamesById) {
+                if (current != null && current.userId.equals(userId)) hotPaths.setUserGroups(groupNamesById.keySet());
+                result.complete(Collections.unmodifiableMap(new HashMap<>(groupNamesById)));
+            }
+
+            @Override
+            public void onError(String message) {
+                result.completeExceptionally(new IllegalStateException(message));
+            }
+        });
+    }
+
+    /**
+     * Loads the first page of the last opened group once, through the task cache, so the
+     * task list can show it straight from disk. The live window is closed afterwards.
+     */
+    private void prefetchFirstPage(Session session) {
+        String groupId = sessionStore.getLastGroupId();
+        if (groupId == null) {
+            session.firstTaskPage.complete(0);
+            return;
+        }
+        hotPaths.groupOpened(groupId);
+        TaskPageSource.Subscription subscription = pageSources.create(groupId).openPage(null, pageSize,
+                new TaskPageSource.PageListener() {
+                    @Override
+                    public void onChildAdded(String key, Object value, String previousKey) {
+                    }
+
+                    @Override
+                    public void onChildChanged(String key, Object value) {
+                    }
+
+                    @Override
+                    public void onChildRemoved(String key) {
+                    }
+
+                    @Override
+                    public void onChildMoved(String key, String previousKey) {
+                    }
+
+                    @Override
+                    public void onLoaded(int count) {
+                        session.firstTaskPage.complete(count);
+                        session.closePage();
+                    }
+
+                    @Override
+                    public void onError(String message) {
+                        session.firstTaskPage.completeExceptionally(new IllegalStateException(message));
+                        session.closePage();
+                    }
+                });
+        if (session.firstTaskPage.isDone() || session.pageClosed) {
+            subscription.cancel();
+        } else {
+            session.pageSubscription = subscription;
+        }
+    }
+
+    private static void warmUp(Context app) {
+        // Open the cache database and the Firebase connection before the first screen needs them
+        AppExecutors.diskIO().execute(() -> AppDatabase.getInstance(app).getOpenHelper().getWritableDatabase());
+        FirebaseDatabase.getInstance().goOnline();
+    }
+}
@@ -0,0 +1,232 @@
+package com.matey.disciteomnesapp.data;
+
+import com.matey.disciteomnesapp.models.Task;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * In-memory index over the tasks resident in a {@link TaskPager}, for filtering them
+ * without another query.
+ *
+ * Every task gets a slot number. Slots are grouped per assignee and per due date
+ * (the "YYYY-MM-DD" string is parsed to an epoch day once, when the task is put), and
+ * a bitmap marks the completed ones, so each filter is a few bitmap operations plus a
+ * range lookup in the sorted due-date map. The pager puts and removes tasks as its
+ * pages change, so the index holds the same Task objects the list shows.
+ */
+public class TaskIndex {
+
+    public enum Filter {
+        ALL, MINE, OVERDUE, INCOMPLETE
+    }
+
+    /** Epoch day used for tasks without a (valid) due date. */
+    public static final long NO_DUE_DATE = Long.MIN_VALUE;
+
+    private final Map<String, Integer> slotsById = new HashMap<>();
+    private final List<Task> tasks = new ArrayList<>();
+    private final List<String> assigneeOfSlot = new ArrayList<>();
+    private final List<Long> dueDayOfSlot = new ArrayList<>();
+    private final List<Integer> freeSlots = new ArrayList<>();
+
+    private final BitSet live = new BitSet();
+    private final BitSet completed = new BitSet();
+    private final Map<String, BitSet> byAssignee = new HashMap<>();
+    private final TreeMap<Long, BitSet> byDueDay = new TreeMap<>();
+
+    // Slots in key order, so large results need no sort. Tasks mostly arrive in key order
+    // and are appended; anything else marks it dirty and it is rebuilt on the next query.
+    private int[] keyOrder = new int[16];
+    private int keyOrderSize = 0;
+    private String lastOrderedId;
+    private boolean keyOrderDirty = false;
+
+    /**
+     * Adds the task, or re-indexes it if a task with the same id is already present.
+     */
+    public void put(Task task) {
+        if (task == null || task.id == null) return;
+        Integer existing = slotsById.get(task.id);
+        int slot;
+        if (existing != null) {
+            slot = existing;
+            unlink(slot);
+        } else {
+            slot = freeSlots.isEmpty() ? tasks.size() : freeSlots.remove(freeSlots.size() - 1);
+            slotsById.put(task.id, slot);
+            appendToKeyOrder(task.id, slot);
+        }
+        link(slot, task);
+    }
+
+    public void remove(String taskId) {
+        Integer slot = slotsById.remove(taskId);
+        if (slot == null) return;
+        unlink(slot);
+        tasks.set(slot, null);
+        freeSlots.add(slot);
+        keyOrderDirty = true;
+    }
+
+    public Task get(String taskId) {
+        Integer slot = slotsById.get(taskId);
+        return slot != null ? tasks.get(slot) : null;
+    }
+
+    public int size() {
+        return slotsById.size();
+    }
+
+    /**
+     * Tasks matching the filter, in key order.
+     */
+    public List<Task> query(Filter filter, String userId, long todayEpochDay) {
+        switch (filter) {
+            case MINE:
+                return collect(assignedTo(userId));
+            case OVERDUE:
+                BitSet overdue = dueBetween(Long.MIN_VALUE + 1, todayEpochDay - 1);
+                overdue.andNot(completed);
+                return collect(overdue);
+            case INCOMPLETE:
+                return collect(incomplete());
+            case ALL:
+            default:
+                return collect((BitSet) live.clone());
+        }
+    }
+
+    public BitSet assignedTo(String userId) {
+        BitSet slots = byAssignee.get(userId);
+        return slots != null ? (BitSet) slots.clone() : new BitSet();
+    }
+
+    /**
+     * Slots due in [fromEpochDay, toEpochDay]; undated tasks never match.
+     */
+    public BitSet dueBetween(long fromEpochDay, long toEpochDay) {
+        BitSet result = new BitSet();
+        if (fromEpochDay > toEpochDay) return result;
+        for (BitSet slots : byDueDay.subMap(fromEpochDay, true, toEpochDay, true).values()) {
+            result.or(slots);
+        }
+        return result;
+    }
+
+    public BitSet incomplete() {
+        BitSet result = (BitSet) live.clone();
+        result.andNot(completed);
+        return result;
+    }
+
+    public static long parseDueDate(String dueDate) {
+        if (dueDate == null || dueDate.isEmpty()) return NO_DUE_DATE;
+        try {
+            if (dueDate.length() == 10 && dueDate.charAt(4) == '-' && dueDate.charAt(7) == '-') {
+                // Fast path for the "YYYY-MM-DD" form the app writes
+                return LocalDate.of(digits(dueDate, 0, 4), digits(dueDate, 5, 7), digits(dueDate, 8, 10)).toEpochDay();
+            }
+            return LocalDate.parse(dueDate).toEpochDay();
+        } catch (DateTimeException | NumberFormatException e) {
+            return NO_DUE_DATE;
+        }
+    }
+
+    private static int digits(String text, int start, int end) {
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) throw new NumberFormatException(text);
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private void link(int slot, Task task) {
+        long dueDay = parseDueDate(task.dueDate);
+        if (slot == tasks.size()) {
+            tasks.add(task);
+            assigneeOfSlot.add(task.assignedTo);
+            dueDayOfSlot.add(dueDay);
+        } else {
+            tasks.set(slot, task);
+            assigneeOfSlot.set(slot, task.assignedTo);
+            dueDayOfSlot.set(slot, dueDay);
+        }
+
+        live.set(slot);
+        completed.set(slot, task.completed);
+        if (task.assignedTo != null) {
+            byAssignee.computeIfAbsent(task.assignedTo, k -> new BitSet()).set(slot);
+        }
+        if (dueDay != NO_DUE_DATE) {
+            byDueDay.computeIfAbsent(dueDay, k -> new BitSet()).set(slot);
+        }
+    }
+
+    private void unlink(int slot) {
+        live.clear(slot);
+        completed.clear(slot);
+
+        String assignee = assigneeOfSlot.get(slot);
+        BitSet assigned = assignee != null ? byAssignee.get(assignee) : null;
+        if (assigned != null) {
+            assigned.clear(slot);
+            if (assigned.isEmpty()) byAssignee.remove(assignee);
+        }
+        long dueDay = dueDayOfSlot.get(slot);
+        BitSet due = dueDay != NO_DUE_DATE ? byDueDay.get(dueDay) : null;
+        if (due != null) {
+            due.clear(slot);
+            if (due.isEmpty()) byDueDay.remove(dueDay);
+        }
+    }
+
+    private List<Task> collect(BitSet slots) {
+        int count = slots.cardinality();
+        List<Task> result = new ArrayList<>(count);
+        if (count * 8L > slotsById.size()) {
+            // Large result: walk the slots in key order and keep the matching ones
+            if (keyOrderDirty) rebuildKeyOrder();
+            for (int i = 0; i < keyOrderSize; i++) {
+                if (slots.get(keyOrder[i])) result.add(tasks.get(keyOrder[i]));
+            }
+            return result;
+        }
+        for (int slot = slots.nextSetBit(0); slot >= 0; slot = slots.nextSetBit(slot + 1)) {
+            result.add(tasks.get(slot));
+        }
+        Collections.sort(result, (a, b) -> a.id.compareTo(b.id));
+        return result;
+    }
+
+    private void appendToKeyOrder(String id, int slot) {
+        if (keyOrderDirty) return;
+        if (lastOrderedId != null && id.compareTo(lastOrderedId) < 0) {
+            keyOrderDirty = true;
+            return;
+        }
+        if (keyOrderSize == keyOrder.length) keyOrder = Arrays.copyOf(keyOrder, keyOrderSize * 2);
+        keyOrder[keyOrderSize++] = slot;
+        lastOrderedId = id;
+    }
+
+    private void rebuildKeyOrder() {
+        List<String> ids = new ArrayList<>(slotsById.keySet());
+        Collections.sort(ids);
+        keyOrder = new int[Math.max(16, ids.size())];
+        keyOrderSize = 0;
+        for (String id : ids) keyOrder[keyOrderSize++] = slotsById.get(id);
+        lastOrderedId = ids.isEmpty() ? null : ids.get(ids.size() - 1);
+        keyOrderDirty = false;
+    }
+}
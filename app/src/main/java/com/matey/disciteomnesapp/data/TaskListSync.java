@@ -0,0 +1,120 @@
+package com.matey.disciteomnesapp.data;
+
+import com.matey.disciteomnesapp.models.Task;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Applies Firebase child events to a task list in place.
+ *
+ * Each event deserializes only the child it carries and reports the exact position it
+ * touched, so a single checkbox toggle costs one mapping and one row rebind instead of
+ * a full snapshot rebuild. An id -> position index keeps lookups O(1).
+ */
+public class TaskListSync {
+
+    /**
+     * Turns one child value into a Task.
+     */
+    public interface Parser {
+        Task parse(String key, Object value);
+    }
+
+    /**
+     * Receives the precise list changes, typically forwarded to notifyItem* calls.
+     */
+    public interface Listener {
+        void onInserted(int position);
+
+        void onChanged(int position);
+
+        void onRemoved(int position);
+
+        void onMoved(int fromPosition, int toPosition);
+    }
+
+    private final List<Task> tasks;
+    private final Map<String, Integer> positions = new HashMap<>();
+    private final Parser parser;
+    private final Listener listener;
+
+    public TaskListSync(List<Task> tasks, Listener listener) {
+        this(tasks, TaskMapper::fromValue, listener);
+    }
+
+    public TaskListSync(List<Task> tasks, Parser parser, Listener listener) {
+        this.tasks = tasks;
+        this.parser = parser;
+        this.listener = listener;
+        tasks.clear();
+    }
+
+    public void onChildAdded(String key, Object value, String previousKey) {
+        if (positions.containsKey(key)) {
+            onChildChanged(key, value);
+            return;
+        }
+        Task task = parser.parse(key, value);
+        if (task == null) return;
+
+        int position = positionAfter(previousKey);
+        tasks.add(position, task);
+        reindexFrom(position);
+        listener.onInserted(position);
+    }
+
+    public void onChildChanged(String key, Object value) {
+        Integer position = positions.get(key);
+        if (position == null) {
+            onChildAdded(key, value, null);
+            return;
+        }
+        Task task = parser.parse(key, value);
+        if (task == null) return;
+
+        tasks.set(position, task);
+        listener.onChanged(position);
+    }
+
+    public void onChildRemoved(String key) {
+        Integer position = positions.remove(key);
+        if (position == null) return;
+
+        tasks.remove((int) position);
+        reindexFrom(position);
+        listener.onRemoved(position);
+    }
+
+    public void onChildMoved(String key, String previousKey) {
+        Integer from = positions.get(key);
+        if (from == null) return;
+
+        Task task = tasks.remove((int) from);
+        positions.remove(key);
+        int to = positionAfter(previousKey);
+        if (previousKey != null && to - 1 > from) to--; // previous sibling shifted up by the removal
+        tasks.add(to, task);
+        reindexFrom(Math.min(from, to));
+        listener.onMoved(from, to);
+    }
+
+    public int positionOf(String key) {
+        Integer position = positions.get(key);
+        return position != null ? position : -1;
+    }
+
+    // Firebase reports the sibling a child follows; null means it goes first
+    private int positionAfter(String previousKey) {
+        if (previousKey == null) return 0;
+        Integer previous = positions.get(previousKey);
+        return previous != null ? previous + 1 : tasks.size();
+    }
+
+    private void reindexFrom(int position) {
+        for (int i = position; i < tasks.size(); i++) {
+            positions.put(tasks.get(i).id, i);
+        }
+    }
+}
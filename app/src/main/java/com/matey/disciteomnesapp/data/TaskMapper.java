@@ -0,0 +1,48 @@
+package com.matey.disciteomnesapp.data;
+
+import com.matey.disciteomnesapp.models.Task;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reads Task value trees without going through Firebase's reflective mapper.
+ */
+public final class TaskMapper {
+
+    private TaskMapper() {
+    }
+
+    public static Task fromValue(String key, Object value) {
+        if (!(value instanceof Map)) return null;
+        Map<?, ?> map = (Map<?, ?>) value;
+
+        Task task = new Task();
+        task.id = key;
+        task.groupId = asString(map.get("groupId"));
+        task.title = asString(map.get("title"));
+        task.description = asString(map.get("description"));
+        task.completed = Boolean.TRUE.equals(map.get("completed"));
+        task.assignedTo = asString(map.get("assignedTo"));
+        task.assignedToName = asString(map.get("assignedToName"));
+        task.dueDate = asString(map.get("dueDate"));
+        return task;
+    }
+
+    public static Map<String, Object> toValue(Task task) {
+        Map<String, Object> value = new HashMap<>();
+        value.put("id", task.id);
+        value.put("groupId", task.groupId);
+        value.put("title", task.title);
+        value.put("description", task.description);
+        value.put("completed", task.completed);
+        value.put("assignedTo", task.assignedTo);
+        value.put("assignedToName", task.assignedToName);
+        value.put("dueDate", task.dueDate);
+        return value;
+    }
+
+    private static String asString(Object value) {
+        return value instanceof String ? (String) value : null;
+    }
+}
@@ -0,0 +1,87 @@
+package com.matey.disciteomnesapp.data;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One-time move of tasks from the flat tasks/{taskId} node to groupTasks/{groupId}/{taskId}.
+ *
+ * Each task is copied and removed from tasks/ in the same multi-path update, so a task
+ * is never in both places or in neither. Work is split into chunks of CHUNK_SIZE tasks,
+ * and meta/tasksMigrated is set with the last one.
+ *
+ * It copies the tasks as they were when tasks/ was read, so a run racing other writers
+ * could bring back old copies: this is a maintenance job, run once while the app's
+ * writes are paused (see the README), never from app startup. The flag is claimed
+ * first ({@link MaintenanceFlag}), so only one run copies anything.
+ */
+public class TaskMigration {
+
+    public static final String FLAG_PATH = "meta/tasksMigrated";
+    static final int CHUNK_SIZE = 500;
+
+    private final DataStore dataStore;
+
+    public TaskMigration(DataStore dataStore) {
+        this.dataStore = dataStore;
+    }
+
+    /**
+     * Moves the tasks unless that was done already; fails if another run holds the flag.
+     */
+    public void runIfNeeded(Runnable onDone, Runnable onFailure) {
+        MaintenanceFlag.claim(dataStore, FLAG_PATH, () -> migrate(onDone, onFailure), onDone, onFailure);
+    }
+
+    private void migrate(Runnable onDone, Runnable onFailure) {
+        // Chunks already written stay moved; the next run moves the rest
+        Runnable failed = () -> MaintenanceFlag.release(dataStore, FLAG_PATH, onFailure);
+        dataStore.read("tasks", new DataStore.ValueCallback() {
+            @Override
+            public void onValue(Object value) {
+                List<Map<String, Object>> chunks = buildChunks(value);
+                writeChunk(chunks, 0, onDone, failed);
+            }
+
+            @Override
+            public void onError(String message) {
+                failed.run();
+            }
+        });
+    }
+
+    static List<Map<String, Object>> buildChunks(Object tasks) {
+        List<Map<String, Object>> chunks = new ArrayList<>();
+        Map<String, Object> chunk = new HashMap<>();
+        if (tasks instanceof Map) {
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) tasks).entrySet()) {
+                String taskId = String.valueOf(entry.getKey());
+                Object groupId = entry.getValue() instanceof Map ? ((Map<?, ?>) entry.getValue()).get("groupId") : null;
+                if (!(groupId instanceof String)) continue; // never shown in any group, left where it is
+
+                chunk.put(GroupTasks.path((String) groupId, taskId), entry.getValue());
+                chunk.put("tasks/" + taskId, null);
+
+                if (chunk.size() >= 2 * CHUNK_SIZE) {
+                    chunks.add(chunk);
+                    chunk = new HashMap<>();
+                }
+            }
+        }
+        chunk.put(FLAG_PATH, true);
+        chunks.add(chunk);
+        return chunks;
+    }
+
+    private void writeChunk(List<Map<String, Object>> chunks, int index, Runnable onDone, Runnable onFailure) {
+        if (index == chunks.size()) {
+            onDone.run();
+            return;
+        }
+        dataStore.update(chunks.get(index),
+                () -> writeChunk(chunks, index + 1, onDone, onFailure),
+                onFailure);
+    }
+}
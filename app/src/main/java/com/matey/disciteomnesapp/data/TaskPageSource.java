@@ -0,0 +1,35 @@
+package com.matey.disciteomnesapp.data;
+
+/**
+ * Opens live, size-limited windows over a group's tasks, ordered by task key.
+ */
+public interface TaskPageSource {
+
+    /**
+     * Child events for one page window. onLoaded fires once the initial children have
+     * been delivered, with their count.
+     */
+    interface PageListener {
+        void onChildAdded(String key, Object value, String previousKey);
+
+        void onChildChanged(String key, Object value);
+
+        void onChildRemoved(String key);
+
+        void onChildMoved(String key, String previousKey);
+
+        void onLoaded(int count);
+
+        void onError(String message);
+    }
+
+    interface Subscription {
+        void cancel();
+    }
+
+    /**
+     * Opens the window of at most {@code limit} tasks whose keys follow {@code afterKey}
+     * (from the first task when null).
+     */
+    Subscription openPage(String afterKey, int limit, PageListener listener);
+}
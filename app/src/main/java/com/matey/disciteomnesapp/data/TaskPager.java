@@ -0,0 +1,321 @@
+package com.matey.disciteomnesapp.data;
+
+import com.matey.disciteomnesapp.models.Task;
+
+import java.util.AbstractList;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Windowed, live loading of a group's tasks.
+ *
+ * Tasks are loaded one page at a time as the user scrolls, and at most {@code maxPages}
+ * pages stay resident: moving forward drops the first page, moving back reloads it and
+ * drops the last one. Every resident page keeps its own live window, applied through
+ * a TaskListSync, so remote changes still touch only the affected row.
+ *
+ * An optional {@link TaskIndex} is kept to exactly the resident tasks: a task is put
+ * when a page shows it and removed when it leaves its page, whether it was deleted,
+ * slid out of the window or its page was dropped. Filters therefore never show a row
+ * the list no longer holds, and the index is bounded by {@code maxPages} like the list.
+ */
+public class TaskPager {
+
+    public static final int DEFAULT_PAGE_SIZE = 30;
+
+    /**
+     * Range-level changes of the flattened item list, for notifyItemRange* calls.
+     */
+    public interface Listener {
+        void onInserted(int positionStart, int count);
+
+        void onChanged(int position);
+
+        void onRemoved(int positionStart, int count);
+
+        void onMoved(int fromPosition, int toPosition);
+
+        void onError(String message);
+
+        /**
+         * A page finished loading, whether or not it changed the list; the end may now
+         * be reached.
+         */
+        default void onPageLoaded() {
+        }
+    }
+
+    private final TaskPageSource source;
+    private final int pageSize;
+    private final int maxPages;
+    private final Listener listener;
+    private final TaskIndex index;
+
+    private final Deque<Page> pages = new ArrayDeque<>();
+    // Start keys of pages dropped from the front, most recently dropped last (null = first page)
+    private final List<String> droppedFront = new ArrayList<>();
+    private final Map<String, Page> owners = new HashMap<>();
+    private final List<Task> items = new AbstractList<Task>() {
+        @Override
+        public Task get(int index) {
+            for (Page page : pages) {
+                if (index < page.tasks.size()) return page.tasks.get(index);
+                index -= page.tasks.size();
+            }
+            throw new IndexOutOfBoundsException();
+        }
+
+        @Override
+        public int size() {
+            int size = 0;
+            for (Page page : pages) size += page.tasks.size();
+            return size;
+        }
+    };
+
+    private boolean loading = false;
+    private boolean endReached = false;
+    // Set while suspended: the start key of the first page that was resident
+    private boolean suspended = false;
+    private String resumeKey;
+
+    public TaskPager(TaskPageSource source, int pageSize, int maxPages, Listener listener) {
+        this(source, pageSize, maxPages, listener, null);
+    }
+
+    public TaskPager(TaskPageSource source, int pageSize, int maxPages, Listener listener, TaskIndex index) {
+        this.source = source;
+        this.pageSize = pageSize;
+        this.maxPages = maxPages;
+        this.listener = listener;
+        this.index = index;
+    }
+
+    /**
+     * Read-only view over the resident tasks, in key order.
+     */
+    public List<Task> getItems() {
+        return items;
+    }
+
+    public int getResidentPageCount() {
+        return pages.size();
+    }
+
+    public boolean isEndReached() {
+        return endReached;
+    }
+
+    public boolean hasPrevious() {
+        return !droppedFront.isEmpty();
+    }
+
+    public void loadFirst() {
+        if (!pages.isEmpty() || loading || suspended) return;
+        open(null, false);
+    }
+
+    public void loadNext() {
+        if (loading || endReached || pages.isEmpty()) return;
+        Page last = pages.peekLast();
+        if (last.tasks.isEmpty()) return;
+        open(last.tasks.get(last.tasks.size() - 1).id, false);
+    }
+
+    public void loadPrevious() {
+        if (loading || droppedFront.isEmpty()) return;
+        open(droppedFront.remove(droppedFront.size() - 1), true);
+    }
+
+    public boolean isSuspended() {
+        return suspended;
+    }
+
+    /**
+     * Detaches every resident page window and empties the list, but remembers where it
+     * started, so {@link #resume} reopens the same window instead of the first page.
+     */
+    public void suspend() {
+        if (suspended || pages.isEmpty()) return;
+        int count = items.size();
+        resumeKey = pages.peekFirst().afterKey;
+        detachPages();
+        suspended = true;
+        if (count > 0) listener.onRemoved(0, count);
+    }
+
+    public void resume() {
+        if (!suspended) return;
+        suspended = false;
+        open(resumeKey, false);
+    }
+
+    /**
+     * Detaches every resident page window.
+     */
+    public void close() {
+        detachPages();
+        droppedFront.clear();
+        suspended = false;
+    }
+
+    private void detachPages() {
+        for (Page page : pages) {
+            if (page.subscription != null) page.subscription.cancel();
+            unindex(page);
+        }
+        pages.clear();
+        owners.clear();
+        loading = false;
+        endReached = false;
+    }
+
+    private void open(String afterKey, boolean prepend) {
+        loading = true;
+        Page page = new Page(afterKey);
+        if (prepend) {
+            pages.addFirst(page);
+        } else {
+            pages.addLast(page);
+        }
+        TaskPageSource.Subscription subscription = source.openPage(afterKey, pageSize, page);
+        if (pages.contains(page)) {
+            page.subscription = subscription;
+        } else {
+            subscription.cancel(); // came back empty before openPage returned
+        }
+    }
+
+    private void onPageLoaded(Page page, int count) {
+        loading = false;
+        if (pages.peekLast() == page && count < pageSize) endReached = true;
+
+        if (count == 0 && pages.size() > 1) {
+            // Nothing past the previous page: don't keep an empty page resident
+            if (page.subscription != null) page.subscription.cancel();
+            pages.remove(page);
+        } else if (pages.size() > maxPages) {
+            if (pages.peekFirst() == page) {
+                drop(pages.peekLast(), false);
+            } else {
+                drop(pages.peekFirst(), true);
+            }
+        }
+        listener.onPageLoaded();
+    }
+
+    private void drop(Page page, boolean front) {
+        int start = offsetOf(page);
+        int count = page.tasks.size();
+        page.subscription.cancel();
+        for (Task task : page.tasks) owners.remove(task.id);
+        unindex(page);
+        pages.remove(page);
+
+        if (front) {
+            droppedFront.add(page.afterKey);
+        } else {
+            endReached = false;
+        }
+        if (count > 0) listener.onRemoved(start, count);
+    }
+
+    private void unindex(Page page) {
+        if (index == null) return;
+        for (Task task : page.tasks) index.remove(task.id);
+    }
+
+    private int offsetOf(Page page) {
+        int offset = 0;
+        for (Page p : pages) {
+            if (p == page) return offset;
+            offset += p.tasks.size();
+        }
+        return -1;
+    }
+
+    /**
+     * One resident page: its live window and the tasks it currently owns.
+     */
+    private class Page implements TaskPageSource.PageListener, TaskListSync.Listener {
+        final String afterKey;
+        final List<Task> tasks = new ArrayList<>();
+        final TaskListSync sync = new TaskListSync(tasks, this);
+        TaskPageSource.Subscription subscription;
+
+        Page(String afterKey) {
+            this.afterKey = afterKey;
+        }
+
+        // A shrinking window can slide over the next page's first tasks; those stay with their owner
+        private boolean owns(String key) {
+            Page owner = owners.get(key);
+            return owner == null || owner == this;
+        }
+
+        @Override
+        public void onChildAdded(String key, Object value, String previousKey) {
+            if (!owns(key)) return;
+            owners.put(key, this);
+            sync.onChildAdded(key, value, previousKey);
+        }
+
+        @Override
+        public void onChildChanged(String key, Object value) {
+            if (owners.get(key) == this) sync.onChildChanged(key, value);
+        }
+
+        @Override
+        public void onChildRemoved(String key) {
+            if (owners.get(key) != this) return;
+            owners.remove(key);
+            if (index != null) index.remove(key);
+            sync.onChildRemoved(key);
+        }
+
+        @Override
+        public void onChildMoved(String key, String previousKey) {
+            if (owners.get(key) == this) sync.onChildMoved(key, previousKey);
+        }
+
+        @Override
+        public void onLoaded(int count) {
+            onPageLoaded(this, count);
+        }
+
+        @Override
+        public void onError(String message) {
+            loading = false;
+            listener.onError(message);
+        }
+
+        @Override
+        public void onInserted(int position) {
+            // A live window at the end that fills up means there may be more to load again
+            if (pages.peekLast() == this && tasks.size() >= pageSize) endReached = false;
+            if (index != null) index.put(tasks.get(position));
+            listener.onInserted(offsetOf(this) + position, 1);
+        }
+
+        @Override
+        public void onChanged(int position) {
+            if (index != null) index.put(tasks.get(position));
+            listener.onChanged(offsetOf(this) + position);
+        }
+
+        @Override
+        public void onRemoved(int position) {
+            listener.onRemoved(offsetOf(this) + position, 1);
+        }
+
+        @Override
+        public void onMoved(int fromPosition, int toPosition) {
+            int offset = offsetOf(this);
+            listener.onMoved(offset + fromPosition, offset + toPosition);
+        }
+    }
+}
@@ -0,0 +1,351 @@
+package com.matey.disciteomnesapp.data;
+
+import android.content.Context;
+
+import com.matey.disciteomnesapp.data.local.AppDatabase;
+import com.matey.disciteomnesapp.data.local.TaskDao;
+import com.matey.disciteomnesapp.data.local.TaskEntity;
+import com.matey.disciteomnesapp.models.Task;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+/**
+ * Tasks served from the local cache first and reconciled with Firebase.
+ *
+ * {@link #pageSource} wraps a remote TaskPageSource: each page first shows the cached
+ * rows for the same key window, then applies the live remote window on top and drops
+ * cached rows the server no longer has.
+ *
+ * Conflicts: a completion toggle is stored locally as pending until the server
+ * acknowledges it. If the server reports a different value for a pending row (e.g.
+ * after reconnecting from a session that ended offline), the local value wins and is
+ * written again; otherwise the server's row replaces the cached one.
+ *
+ * Writes go through a {@link TaskWriteBatcher}, so quick successive toggles reach
+ * Firebase as one update. A toggle the server rejects is rolled back in the cache and
+ * reported to the caller; a failed re-push after a conflict stays pending.
+ *
+ * All writes go through the {@link QueuedDataStore}, so one the server hasn't answered
+ * yet is sent again after the app restarts. New tasks are cached right away and shown
+ * before the server has them. A replayed write the server rejects has no caller left
+ * to roll it back, so {@link #revertRejected} undoes its pending toggles and new tasks.
+ */
+public class TaskRepository {
+
+    private static volatile TaskRepository instance;
+
+    private final TaskDao taskDao;
+    private final TaskWriteBatcher writeBatcher;
+    private final BulkTaskUpdate bulkUpdate;
+    private final Executor diskIO;
+    private final Executor mainThread;
+
+    public TaskRepository(TaskDao taskDao, TaskWriteBatcher writeBatcher, BulkTaskUpdate bulkUpdate,
+                          Executor diskIO, Executor mainThread) {
+        this.taskDao = taskDao;
+        this.writeBatcher = writeBatcher;
+        this.bulkUpdate = bulkUpdate;
+        this.diskIO = diskIO;
+        this.mainThread = mainThread;
+    }
+
+    public static TaskRepository getInstance(Context context) {
+        if (instance == null) {
+            synchronized (TaskRepository.class) {
+                if (instance == null) {
+                    QueuedDataStore dataStore = QueuedDataStore.getInstance(context);
+                    TaskRepository repository = new TaskRepository(AppDatabase.getInstance(context).taskDao(),
+                            new TaskWriteBatcher(dataStore), new BulkTaskUpdate(dataStore),
+                            AppExecutors.diskIO(), AppExecutors.mainThread());
+                    AppExecutors.mainThread().execute(() -> dataStore.setRejectedReplayListener(repository::revertRejected));
+                    instance = repository;
+                }
+            }
+        }
+        return instance;
+    }
+
+    public TaskPageSource pageSource(String groupId, TaskPageSource remote) {
+        return (afterKey, limit, listener) -> {
+            CachedPage page = new CachedPage(groupId, limit, listener);
+            diskIO.execute(() -> {
+                List<TaskEntity> cached = taskDao.getPage(groupId, afterKey != null ? afterKey : "", limit);
+                mainThread.execute(() -> page.showCached(cached));
+            });
+            TaskPageSource.Subscription subscription = remote.openPage(afterKey, limit, page);
+            return () -> {
+                page.cancelled = true;
+                subscription.cancel();
+            };
+        };
+    }
+
+    /**
+     * Records the new completion state locally as pending and writes it to Firebase.
+     * {@code task} is the task as last read from the server, unchanged.
+     * Must be called on the main thread; the result is reported there as well.
+     */
+    public void setCompleted(Task task, boolean completed, TaskWriteBatcher.WriteCallback callback) {
+        diskIO.execute(() -> taskDao.setCompletedPending(task.id, completed));
+        writeBatcher.setCompleted(task, completed, (id, success) -> {
+            diskIO.execute(() -> {
+                if (success) {
+                    taskDao.clearPending(id, completed);
+                } else {
+                    taskDao.revertPending(id, completed, !completed);
+                }
+            });
+            if (callback != null) callback.onResult(id, success);
+        });
+    }
+
+    public String newTaskId(String groupId) {
+        return bulkUpdate.newTaskId(groupId);
+    }
+
+    /**
+     * Creates a task together with its group's counters. The task is cached at once, so
+     * its page shows it even before the server acknowledges it; if the server rejects
+     * it, it is removed from the cache again before the failure is reported.
+     */
+    public void create(Task task, BulkTaskUpdate.Callback callback) {
+        diskIO.execute(() -> taskDao.upsert(TaskEntity.from(task)));
+        bulkUpdate.create(Collections.singletonList(task), new BulkTaskUpdate.Callback() {
+            @Override
+            public void onSuccess(int taskCount) {
+                callback.onSuccess(taskCount);
+            }
+
+            @Override
+            public void onFailure() {
+                diskIO.execute(() -> taskDao.delete(task.id));
+                callback.onFailure();
+            }
+        });
+    }
+
+    /**
+     * Sets the completion state of all given tasks in one update (per chunk).
+     */
+    public void setCompleted(List<Task> tasks, boolean completed, BulkTaskUpdate.Callback callback) {
+        writeBatcher.flush(); // single toggles issued before this must not land after it
+        bulkUpdate.setCompleted(tasks, completed, cacheAfter(callback, () -> {
+            for (Task task : tasks) taskDao.setCompleted(task.id, completed);
+        }));
+    }
+
+    public void reassign(List<Task> tasks, String userId, String userName, BulkTaskUpdate.Callback callback) {
+        writeBatcher.flush();
+        bulkUpdate.reassign(tasks, userId, userName, cacheAfter(callback, () -> {
+            for (Task task : tasks) taskDao.setAssignee(task.id, userId, userName);
+        }));
+    }
+
+    public void delete(List<Task> tasks, BulkTaskUpdate.Callback callback) {
+        writeBatcher.flush();
+        bulkUpdate.delete(tasks, cacheAfter(callback, () -> {
+            for (Task task : tasks) taskDao.delete(task.id);
+        }));
+    }
+
+    /**
+     * Applies a successful bulk change to the cache before reporting it. A failed one
+     * was rolled back on the server as a whole, so the cache is left as it was.
+     */
+    private BulkTaskUpdate.Callback cacheAfter(BulkTaskUpdate.Callback callback, Runnable cacheChange) {
+        return new BulkTaskUpdate.Callback() {
+            @Override
+            public void onSuccess(int taskCount) {
+                diskIO.execute(cacheChange);
+                callback.onSuccess(taskCount);
+            }
+
+            @Override
+            public void onFailure() {
+                callback.onFailure();
+            }
+        };
+    }
+
+    /**
+     * Undoes the cached effects of a write the server rejected after it was replayed:
+     * a pending toggle goes back to its previous value and a task created offline is
+     * dropped. Other writes only touch the cache once they succeed.
+     */
+    public void revertRejected(Map<String, Object> updates) {
+        diskIO.execute(() -> {
+            for (Map.Entry<String, Object> entry : updates.entrySet()) {
+                String[] parts = entry.getKey().split("/");
+                if (parts.length < 3 || !parts[0].equals(GroupTasks.ROOT)) continue;
+                Object value = entry.getValue();
+                if (parts.length == 4 && parts[3].equals("completed") && value instanceof Boolean) {
+                    boolean attempted = (Boolean) value;
+                    taskDao.revertPending(parts[2], attempted, !attempted);
+                } else if (parts.length == 3 && value instanceof Map) {
+                    taskDao.delete(parts[2]);
+                }
+            }
+        });
+    }
+
+    /**
+     * Writes any batched toggles now, e.g. when the screen goes to the background.
+     */
+    public void flushWrites() {
+        writeBatcher.flush();
+    }
+
+    private void push(Task remote, boolean completed) {
+        mainThread.execute(() -> {
+            // A toggle already on its way settles the pending flag with its own callback
+            if (writeBatcher.isWriting(remote.id)) return;
+            writeBatcher.setCompleted(remote, completed, (id, success) -> {
+                // On failure it stays pending and is pushed again on the next reconcile
+                if (success) diskIO.execute(() -> taskDao.clearPending(id, completed));
+            });
+        });
+    }
+
+    /**
+     * One page window: cached rows first, then remote child events, all delivered
+     * to the pager on the main thread in the order they happened.
+     */
+    private class CachedPage implements TaskPageSource.PageListener {
+        final String groupId;
+        final int limit;
+        final TaskPageSource.PageListener listener;
+        final Set<String> shown = new HashSet<>();
+        final Set<String> remoteKeys = new HashSet<>();
+        boolean remoteLoaded = false;
+        volatile boolean cancelled = false;
+
+        CachedPage(String groupId, int limit, TaskPageSource.PageListener listener) {
+            this.groupId = groupId;
+            this.limit = limit;
+            this.listener = listener;
+        }
+
+        void showCached(List<TaskEntity> cached) {
+            if (cancelled || remoteLoaded) return;
+            String previousKey = null;
+            for (TaskEntity entity : cached) {
+                if (shown.add(entity.id)) {
+                    listener.onChildAdded(entity.id, TaskMapper.toValue(entity.toModel()), previousKey);
+                }
+                previousKey = entity.id;
+            }
+        }
+
+        @Override
+        public void onChildAdded(String key, Object value, String previousKey) {
+            remoteKeys.add(key);
+            resolve(key, value, resolved -> {
+                if (shown.add(key)) {
+                    listener.onChildAdded(key, resolved, previousKey);
+                } else {
+                    listener.onChildChanged(key, resolved);
+                }
+            });
+        }
+
+        @Override
+        public void onChildChanged(String key, Object value) {
+            resolve(key, value, resolved -> listener.onChildChanged(key, resolved));
+        }
+
+        @Override
+        public void onChildRemoved(String key) {
+            remoteKeys.remove(key);
+            diskIO.execute(() -> {
+                taskDao.delete(key);
+                mainThread.execute(() -> {
+                    if (cancelled) return;
+                    shown.remove(key);
+                    listener.onChildRemoved(key);
+                });
+            });
+        }
+
+        @Override
+        public void onChildMoved(String key, String previousKey) {
+            listener.onChildMoved(key, previousKey);
+        }
+
+        @Override
+        public void onLoaded(int count) {
+            Set<String> remote = new HashSet<>(remoteKeys);
+            // Round-trip through the disk queue so this runs after every initial child is delivered
+            diskIO.execute(() -> mainThread.execute(() -> {
+                if (cancelled) return;
+                remoteLoaded = true;
+
+                String lastRemoteKey = null;
+                for (String key : remote) {
+                    if (lastRemoteKey == null || key.compareTo(lastRemoteKey) > 0) lastRemoteKey = key;
+                }
+                List<String> gone = new ArrayList<>();
+                for (String key : new ArrayList<>(shown)) {
+                    if (remote.contains(key)) continue;
+                    shown.remove(key);
+                    listener.onChildRemoved(key);
+                    // Inside the served window (or the window reached the end): deleted on the server.
+                    // Anything past it just belongs to a later page.
+                    if (count < limit || (lastRemoteKey != null && key.compareTo(lastRemoteKey) < 0)) {
+                        gone.add(key);
+                    }
+                }
+                if (!gone.isEmpty()) {
+                    diskIO.execute(() -> {
+                        for (String key : gone) taskDao.delete(key);
+                    });
+                }
+                listener.onLoaded(count);
+            }));
+        }
+
+        @Override
+        public void onError(String message) {
+            listener.onError(message);
+        }
+
+        /**
+         * Stores the remote row unless a pending local change conflicts with it,
+         * in which case the local value is kept and pushed again.
+         */
+        private void resolve(String key, Object value, ValueConsumer deliver) {
+            diskIO.execute(() -> {
+                Task remote = TaskMapper.fromValue(key, value);
+                Object resolved = value;
+                TaskEntity local = taskDao.get(key);
+                if (remote != null && local != null && local.pending) {
+                    if (local.completed != remote.completed) {
+                        Map<String, Object> merged = TaskMapper.toValue(remote);
+                        merged.put("completed", local.completed);
+                        resolved = merged;
+                        if (remote.groupId == null) remote.groupId = groupId;
+                        push(remote, local.completed);
+                    } else {
+                        taskDao.clearPending(key, local.completed);
+                    }
+                } else if (remote != null) {
+                    taskDao.upsert(TaskEntity.from(remote));
+                }
+
+                Object delivered = resolved;
+                mainThread.execute(() -> {
+                    if (!cancelled) deliver.accept(delivered);
+                });
+            });
+        }
+    }
+
+    private interface ValueConsumer {
+        void accept(Object value);
+    }
+}
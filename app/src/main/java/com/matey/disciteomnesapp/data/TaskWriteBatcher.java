@@ -0,0 +1,150 @@
+package com.matey.disciteomnesapp.data;
+
+import com.matey.disciteomnesapp.models.Task;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Collects task completion toggles and writes them to Firebase together.
+ *
+ * Each toggle (re)starts a short quiet window; when it ends - or at the latest
+ * {@code maxDelayMs} after the first pending toggle - every pending task is written in
+ * one multi-path update. Toggling the same task several times inside the window only
+ * writes its final state, and only the last toggle's callback gets the result; a task
+ * toggled back to where it started isn't written at all.
+ *
+ * Each toggle carries the task as last read from the server. While an earlier write of
+ * the same task is still in flight, that copy can't reflect it yet, so the toggle
+ * starts from what was sent instead. The update moves the group's counters by the
+ * difference ({@link GroupStatsDelta}); if another client changed the task in the
+ * meantime, the rules reject the write and it is reported as failed instead of being
+ * counted twice. Meant to be used from the main thread.
+ */
+public class TaskWriteBatcher {
+
+    public static final long DEFAULT_WINDOW_MS = 300;
+    public static final long DEFAULT_MAX_DELAY_MS = 1_000;
+
+    public interface WriteCallback {
+        void onResult(String taskId, boolean success);
+    }
+
+    private static class PendingWrite {
+        final Task before;
+        final boolean completed;
+        final WriteCallback callback;
+
+        PendingWrite(Task before, boolean completed, WriteCallback callback) {
+            this.before = before;
+            this.completed = completed;
+            this.callback = callback;
+        }
+    }
+
+    private final DataStore dataStore;
+    private final Scheduler scheduler;
+    private final long windowMs;
+    private final long maxDelayMs;
+
+    private final Map<String, PendingWrite> pending = new LinkedHashMap<>();
+    // The state each sent write leaves its task in, until the server answers
+    private final Map<String, Task> inFlight = new HashMap<>();
+    private long firstPendingAt;
+    private long generation = 0;
+    private int writeCount = 0;
+
+    public TaskWriteBatcher(DataStore dataStore, Scheduler scheduler, long windowMs, long maxDelayMs) {
+        this.dataStore = dataStore;
+        this.scheduler = scheduler;
+        this.windowMs = windowMs;
+        this.maxDelayMs = maxDelayMs;
+    }
+
+    public TaskWriteBatcher(DataStore dataStore) {
+        this(dataStore, Scheduler.mainThread(), DEFAULT_WINDOW_MS, DEFAULT_MAX_DELAY_MS);
+    }
+
+    /**
+     * @param task the task as last read from the server
+     */
+    public void setCompleted(Task task, boolean completed, WriteCallback callback) {
+        long now = scheduler.now();
+        if (pending.isEmpty()) firstPendingAt = now;
+        // The first toggle's starting point is what the server holds once earlier writes land
+        PendingWrite earlier = pending.get(task.id);
+        Task before = earlier != null ? earlier.before : inFlight.getOrDefault(task.id, task);
+        pending.put(task.id, new PendingWrite(before, completed, callback));
+
+        // Quiet window, but never later than maxDelayMs after the first pending toggle
+        long delay = Math.max(0, Math.min(windowMs, firstPendingAt + maxDelayMs - now));
+        long scheduled = ++generation;
+        scheduler.schedule(() -> {
+            if (scheduled == generation) flush();
+        }, delay);
+    }
+
+    /**
+     * Writes everything pending right away.
+     */
+    public void flush() {
+        if (pending.isEmpty()) return;
+        Map<String, PendingWrite> batch = new LinkedHashMap<>(pending);
+        pending.clear();
+        generation++;
+
+        Map<String, Object> updates = new HashMap<>();
+        GroupStatsDelta stats = new GroupStatsDelta();
+        Map<String, PendingWrite> unchanged = new LinkedHashMap<>();
+        Map<String, Task> sent = new HashMap<>();
+        for (Map.Entry<String, PendingWrite> entry : batch.entrySet()) {
+            PendingWrite write = entry.getValue();
+            if (write.completed == write.before.completed) {
+                unchanged.put(entry.getKey(), write);
+                continue;
+            }
+            Task after = BulkTaskUpdate.withCompleted(write.before, write.completed);
+            updates.put(GroupTasks.path(write.before.groupId, write.before.id) + "/completed", write.completed);
+            stats.add(write.before, after);
+            sent.put(entry.getKey(), after);
+        }
+        batch.keySet().removeAll(unchanged.keySet());
+        report(unchanged, true);
+        if (batch.isEmpty()) return;
+        stats.putInto(updates);
+        inFlight.putAll(sent);
+
+        writeCount++;
+        dataStore.update(updates, () -> landed(sent, batch, true), () -> landed(sent, batch, false));
+    }
+
+    /**
+     * Whether a toggle of the task is waiting to be written or still in flight.
+     */
+    public boolean isWriting(String taskId) {
+        return pending.containsKey(taskId) || inFlight.containsKey(taskId);
+    }
+
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    /** Number of updates sent so far. */
+    public int getWriteCount() {
+        return writeCount;
+    }
+
+    private void landed(Map<String, Task> sent, Map<String, PendingWrite> batch, boolean success) {
+        // A later write of the same task may be in flight already; that one stays
+        for (Map.Entry<String, Task> entry : sent.entrySet()) inFlight.remove(entry.getKey(), entry.getValue());
+        report(batch, success);
+    }
+
+    private static void report(Map<String, PendingWrite> batch, boolean success) {
+        for (Map.Entry<String, PendingWrite> entry : batch.entrySet()) {
+            WriteCallback callback = entry.getValue().callback;
+            if (callback != null) callback.onResult(entry.getKey(), success);
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.matey.disciteomnesapp.data;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Reverse membership index stored at userGroups/{uid}/{groupId} = group name.
+ *
+ * Every membership change writes its index entry in the same multi-path update as the
+ * group itself, so "which groups is this user in" is a single read of the user's own
+ * node instead of a scan over every group and its members.
+ *
+ * userGroupsIndexed/{uid} = true records that the user's index is complete. Until it is
+ * set the index is not trusted, whether or not userGroups/{uid} exists: membership
+ * writes add their entry either way, so a user whose index was never built may have a
+ * node holding only the groups they joined since.
+ */
+public class UserGroupIndex {
+
+    public static final String ROOT = "userGroups";
+    public static final String INDEXED_ROOT = "userGroupsIndexed";
+
+    /**
+     * Receives the user's groups as groupId -> group name.
+     */
+    public interface Callback {
+        void onGroups(Map<String, String> groupNamesById);
+
+        void onError(String message);
+    }
+
+    private final DataStore dataStore;
+
+    public UserGroupIndex(DataStore dataStore) {
+        this.dataStore = dataStore;
+    }
+
+    public static String path(String userId) {
+        return ROOT + "/" + userId;
+    }
+
+    public static String indexedPath(String userId) {
+        return INDEXED_ROOT + "/" + userId;
+    }
+
+    /**
+     * Marks the user's index as complete; written with a new user and with a backfill.
+     */
+    public static void putIndexed(Map<String, Object> updates, String userId) {
+        updates.put(indexedPath(userId), true);
+    }
+
+    /**
+     * Adds the index entry for a membership change to a multi-path update.
+     */
+    public static void putMembership(Map<String, Object> updates, String userId,
+                                     String groupId, String groupName, boolean member) {
+        updates.put(path(userId) + "/" + groupId, member ? groupName : null);
+    }
+
+    /**
+     * Loads the groups the user belongs to by reading userGroups/{uid} and, alongside it,
+     * the user's indexed flag.
+     *
+     * The index only counts once the flag is set: joining or creating a group writes an
+     * entry to userGroups/{uid} whether or not the index was ever built, so for accounts
+     * from before the index existed the node can hold only their newest groups. Those are
+     * resolved once with a scan over /groups, and the result is written back together
+     * with the flag, even when it is empty, so every later call reads the index and the
+     * flag only.
+     */
+    public void loadGroups(String userId, Callback callback) {
+        IndexRead read = new IndexRead(userId, callback);
+        dataStore.read(path(userId), read.part(0));
+        dataStore.read(indexedPath(userId), read.part(1));
+    }
+
+    /**
+     * Waits for the index and the flag, which are read at the same time.
+     */
+    private final class IndexRead {
+        private final String userId;
+        private final Callback callback;
+        private final Object[] values = new Object[2];
+        private int outstanding = 2;
+        private boolean failed = false;
+
+        IndexRead(String userId, Callback callback) {
+            this.userId = userId;
+            this.callback = callback;
+        }
+
+        DataStore.ValueCallback part(int slot) {
+            return new DataStore.ValueCallback() {
+                @Override
+                public void onValue(Object value) {
+                    synchronized (IndexRead.this) {
+                        values[slot] = value;
+                        if (--outstanding > 0 || failed) return;
+                    }
+                    complete(values[0], values[1]);
+                }
+
+                @Override
+                public void onError(String message) {
+                    synchronized (IndexRead.this) {
+                        if (failed) return;
+                        failed = true;
+                    }
+                    callback.onError(message);
+                }
+            };
+        }
+
+        private void complete(Object index, Object indexed) {
+            if (!Boolean.TRUE.equals(indexed)) {
+                backfill(userId, callback);
+                return;
+            }
+            Map<String, String> groups = new LinkedHashMap<>();
+            if (index instanceof Map) {
+                for (Map.Entry<?, ?> entry : ((Map<?, ?>) index).entrySet()) {
+                    if (entry.getValue() instanceof String) {
+                        groups.put(String.valueOf(entry.getKey()), (String) entry.getValue());
+                    }
+                }
+            }
+            callback.onGroups(groups);
+        }
+    }
+
+    private void backfill(String userId, Callback callback) {
+        dataStore.read("groups", new DataStore.ValueCallback() {
+            @Override
+            public void onValue(Object value) {
+                Map<String, String> groups = new LinkedHashMap<>();
+                if (value instanceof Map) {
+                    for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                        if (!(entry.getValue() instanceof Map)) continue;
+                        Map<?, ?> group = (Map<?, ?>) entry.getValue();
+                        Object name = group.get("name");
+                        if (name instanceof String && GroupMapper.readMembers(group.get("members")).containsKey(userId)) {
+                            groups.put(String.valueOf(entry.getKey()), (String) name);
+                        }
+                    }
+                }
+
+                Map<String, Object> updates = new LinkedHashMap<>();
+                for (Map.Entry<String, String> entry : groups.entrySet()) {
+                    putMembership(updates, userId, entry.getKey(), entry.getValue(), true);
+                }
+                putIndexed(updates, userId);
+                dataStore.update(updates, () -> { }, () -> { });
+                callback.onGroups(groups);
+            }
+
+            @Override
+            public void onError(String message) {
+                callback.onError(message);
+            }
+        });
+    }
+}
@@ -0,0 +1,34 @@
+package com.matey.disciteomnesapp.data;
+
+import com.matey.disciteomnesapp.models.User;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reads and writes User value trees without going through Firebase's reflective mapper.
+ */
+public final class UserMapper {
+
+    private UserMapper() {
+    }
+
+    public static User fromValue(String key, Object value) {
+        if (!(value instanceof Map)) return null;
+        Map<?, ?> map = (Map<?, ?>) value;
+
+        User user = new User();
+        user.id = key;
+        user.name = map.get("name") instanceof String ? (String) map.get("name") : null;
+        user.email = map.get("email") instanceof String ? (String) map.get("email") : null;
+        return user;
+    }
+
+    public static Map<String, Object> toValue(User user) {
+        Map<String, Object> value = new HashMap<>();
+        value.put("id", user.id);
+        value.put("name", user.name);
+        value.put("email", user.email);
+        return value;
+    }
+}
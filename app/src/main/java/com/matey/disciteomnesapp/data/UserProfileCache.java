@@ -0,0 +1,205 @@
+package com.matey.disciteomnesapp.data;
+
+import android.content.Context;
+
+import androidx.annotation.Nullable;
+
+import com.matey.disciteomnesapp.data.local.AppDatabase;
+import com.matey.disciteomnesapp.data.local.UserDao;
+import com.matey.disciteomnesapp.data.local.UserEntity;
+import com.matey.disciteomnesapp.models.User;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.function.BiConsumer;
+
+/**
+ * Bounded in-memory LRU of user profiles, backed by the Room users table.
+ *
+ * A lookup costs nothing for profiles already in memory. Misses are looked up on disk
+ * in one query, and whatever is still missing is read from users/{uid} - all reads are
+ * issued at once rather than one after another. A uid that is already being loaded is
+ * not requested twice. Meant to be used from the main thread.
+ */
+public class UserProfileCache {
+
+    public interface Callback {
+        /** Profiles that could be resolved, in the order they were requested. */
+        void onProfiles(Map<String, User> profiles);
+    }
+
+    public static final int DEFAULT_MAX_ENTRIES = 200;
+
+    private static volatile UserProfileCache instance;
+
+    private final DataStore dataStore;
+    @Nullable
+    private final UserDao userDao;
+    private final Executor diskIO;
+    private final Executor mainThread;
+    private final LinkedHashMap<String, User> entries;
+    private final Map<String, List<BiConsumer<String, User>>> inFlight = new HashMap<>();
+
+    private int hitCount = 0;
+    private int missCount = 0;
+
+    public UserProfileCache(DataStore dataStore, @Nullable UserDao userDao,
+                            Executor diskIO, Executor mainThread, int maxEntries) {
+        this.dataStore = dataStore;
+        this.userDao = userDao;
+        this.diskIO = diskIO;
+        this.mainThread = mainThread;
+        // Access order, so the least recently used profile is evicted first
+        this.entries = new LinkedHashMap<String, User>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, User> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    public static UserProfileCache getInstance(Context context) {
+        if (instance == null) {
+            synchronized (UserProfileCache.class) {
+                if (instance == null) {
+                    instance = new UserProfileCache(new FirebaseDataStore(),
+                            AppDatabase.getInstance(context).userDao(),
+                            AppExecutors.diskIO(), AppExecutors.mainThread(), DEFAULT_MAX_ENTRIES);
+                }
+            }
+        }
+        return instance;
+    }
+
+    public void getProfile(String userId, Callback callback) {
+        getProfiles(Collections.singletonList(userId), callback);
+    }
+
+    public void getProfiles(Collection<String> userIds, Callback callback) {
+        Map<String, User> found = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        for (String userId : userIds) {
+            User user = entries.get(userId);
+            if (user != null) {
+                hitCount++;
+                found.put(userId, user);
+            } else {
+                missCount++;
+                missing.add(userId);
+            }
+        }
+        if (missing.isEmpty()) {
+            callback.onProfiles(inOrder(userIds, found));
+            return;
+        }
+
+        int[] remaining = {missing.size()};
+        BiConsumer<String, User> onResolved = (userId, user) -> {
+            if (user != null) found.put(userId, user);
+            if (--remaining[0] == 0) callback.onProfiles(inOrder(userIds, found));
+        };
+
+        List<String> toLoad = new ArrayList<>();
+        for (String userId : missing) {
+            List<BiConsumer<String, User>> waiters = inFlight.get(userId);
+            if (waiters == null) {
+                waiters = new ArrayList<>();
+                inFlight.put(userId, waiters);
+                toLoad.add(userId);
+            }
+            waiters.add(onResolved);
+        }
+        if (!toLoad.isEmpty()) load(toLoad);
+    }
+
+    /**
+     * Adds a profile that was read elsewhere, e.g. right after login.
+     */
+    public void put(User user) {
+        if (user != null && user.id != null) entries.put(user.id, user);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public int getHitCount() {
+        return hitCount;
+    }
+
+    public int getMissCount() {
+        return missCount;
+    }
+
+    public double getHitRate() {
+        int lookups = hitCount + missCount;
+        return lookups == 0 ? 0 : (double) hitCount / lookups;
+    }
+
+    private void load(List<String> userIds) {
+        if (userDao == null) {
+            fetchRemote(userIds);
+            return;
+        }
+        diskIO.execute(() -> {
+            List<UserEntity> rows = userDao.getAll(userIds);
+            mainThread.execute(() -> {
+                Set<String> onDisk = new HashSet<>();
+                for (UserEntity row : rows) {
+                    onDisk.add(row.id);
+                    resolve(row.id, row.toModel());
+                }
+                List<String> remote = new ArrayList<>();
+                for (String userId : userIds) {
+                    if (!onDisk.contains(userId)) remote.add(userId);
+                }
+                fetchRemote(remote);
+            });
+        });
+    }
+
+    private void fetchRemote(List<String> userIds) {
+        for (String userId : userIds) {
+            dataStore.read("users/" + userId, new DataStore.ValueCallback() {
+                @Override
+                public void onValue(Object value) {
+                    User user = UserMapper.fromValue(userId, value);
+                    if (user != null && userDao != null) {
+                        diskIO.execute(() -> userDao.upsert(UserEntity.from(user)));
+                    }
+                    resolve(userId, user);
+                }
+
+                @Override
+                public void onError(String message) {
+                    // Resolved without a profile; the next lookup tries again
+                    resolve(userId, null);
+                }
+            });
+        }
+    }
+
+    private void resolve(String userId, @Nullable User user) {
+        if (user != null) entries.put(userId, user);
+        List<BiConsumer<String, User>> waiters = inFlight.remove(userId);
+        if (waiters == null) return;
+        for (BiConsumer<String, User> waiter : waiters) waiter.accept(userId, user);
+    }
+
+    private static Map<String, User> inOrder(Collection<String> userIds, Map<String, User> found) {
+        Map<String, User> ordered = new LinkedHashMap<>();
+        for (String userId : userIds) {
+            User user = found.get(userId);
+            if (user != null) ordered.put(userId, user);
+        }
+        return ordered;
+    }
+}
@@ -0,0 +1,36 @@
+package com.matey.disciteomnesapp.data.local;
+
+import android.content.Context;
+
+import androidx.room.Database;
+import androidx.room.Room;
+import androidx.room.RoomDatabase;
+
+/**
+ * On-device cache of groups, tasks and user profiles.
+ * Rows are only a copy of Firebase data, so schema changes simply rebuild it.
+ */
+@Database(entities = {GroupEntity.class, TaskEntity.class, UserEntity.class}, version = 1, exportSchema = false)
+public abstract class AppDatabase extends RoomDatabase {
+
+    private static volatile AppDatabase instance;
+
+    public abstract GroupDao groupDao();
+
+    public abstract TaskDao taskDao();
+
+    public abstract UserDao userDao();
+
+    public static AppDatabase getInstance(Context context) {
+        if (instance == null) {
+            synchronized (AppDatabase.class) {
+                if (instance == null) {
+                    instance = Room.databaseBuilder(context.getApplicationContext(), AppDatabase.class, "discite-omnes-cache")
+                            .fallbackToDestructiveMigration()
+                            .build();
+                }
+            }
+        }
+        return instance;
+    }
+}
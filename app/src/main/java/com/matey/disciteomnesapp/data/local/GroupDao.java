@@ -0,0 +1,33 @@
+package com.matey.disciteomnesapp.data.local;
+
+import androidx.lifecycle.LiveData;
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+import androidx.room.Transaction;
+
+import java.util.List;
+
+@Dao
+public interface GroupDao {
+
+    @Query("SELECT * FROM groups ORDER BY id")
+    LiveData<List<GroupEntity>> observeAll();
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void upsertAll(List<GroupEntity> groups);
+
+    @Query("DELETE FROM groups")
+    void deleteAll();
+
+    /**
+     * Replaces the cached groups with the server's list in one transaction,
+     * so observers see a single change.
+     */
+    @Transaction
+    default void replaceAll(List<GroupEntity> groups) {
+        deleteAll();
+        upsertAll(groups);
+    }
+}
@@ -0,0 +1,46 @@
+package com.matey.disciteomnesapp.data.local;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.PrimaryKey;
+
+import com.matey.disciteomnesapp.models.Group;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Cached row for a group. Members are kept as a comma-separated uid list.
+ */
+@Entity(tableName = "groups")
+public class GroupEntity {
+    @PrimaryKey
+    @NonNull
+    public String id = "";
+    public String name;
+    public String description;
+    public String members;
+    public boolean legacyMembers;
+
+    public static GroupEntity from(Group group) {
+        GroupEntity entity = new GroupEntity();
+        entity.id = group.id;
+        entity.name = group.name;
+        entity.description = group.description;
+        entity.members = group.members != null ? String.join(",", group.members.keySet()) : "";
+        entity.legacyMembers = group.legacyMembers;
+        return entity;
+    }
+
+    public Group toModel() {
+        Map<String, Boolean> memberMap = new HashMap<>();
+        if (members != null && !members.isEmpty()) {
+            for (String uid : members.split(",")) {
+                memberMap.put(uid, true);
+            }
+        }
+        Group group = new Group(id, name, description, memberMap);
+        group.legacyMembers = legacyMembers;
+        return group;
+    }
+}
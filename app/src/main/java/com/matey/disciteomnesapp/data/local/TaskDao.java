@@ -0,0 +1,43 @@
+package com.matey.disciteomnesapp.data.local;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+
+import java.util.List;
+
+@Dao
+public interface TaskDao {
+
+    // Same window as the remote page: keys after afterKey, in key order
+    @Query("SELECT * FROM tasks WHERE groupId = :groupId AND id > :afterKey ORDER BY id LIMIT :limit")
+    List<TaskEntity> getPage(String groupId, String afterKey, int limit);
+
+    @Query("SELECT * FROM tasks WHERE id = :id")
+    TaskEntity get(String id);
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void upsert(TaskEntity task);
+
+    @Query("DELETE FROM tasks WHERE id = :id")
+    void delete(String id);
+
+    // Acknowledged by the server (bulk update)
+    @Query("UPDATE tasks SET completed = :completed, pending = 0 WHERE id = :id")
+    void setCompleted(String id, boolean completed);
+
+    @Query("UPDATE tasks SET assignedTo = :assignedTo, assignedToName = :assignedToName WHERE id = :id")
+    void setAssignee(String id, String assignedTo, String assignedToName);
+
+    @Query("UPDATE tasks SET completed = :completed, pending = 1 WHERE id = :id")
+    void setCompletedPending(String id, boolean completed);
+
+    // Only clears the flag if no newer local change replaced the acknowledged value
+    @Query("UPDATE tasks SET pending = 0 WHERE id = :id AND completed = :completed")
+    void clearPending(String id, boolean completed);
+
+    // Rejected write: restore the previous value unless the row changed again meanwhile
+    @Query("UPDATE tasks SET completed = :previous, pending = 0 WHERE id = :id AND pending = 1 AND completed = :attempted")
+    void revertPending(String id, boolean attempted, boolean previous);
+}
@@ -0,0 +1,44 @@
+package com.matey.disciteomnesapp.data.local;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+import com.matey.disciteomnesapp.models.Task;
+
+/**
+ * Cached row for a task. {@code pending} marks a local completion change the server
+ * has not acknowledged yet.
+ */
+@Entity(tableName = "tasks", indices = {@Index(value = {"groupId", "id"})})
+public class TaskEntity {
+    @PrimaryKey
+    @NonNull
+    public String id = "";
+    public String groupId;
+    public String title;
+    public String description;
+    public boolean completed;
+    public String assignedTo;
+    public String assignedToName;
+    public String dueDate;
+    public boolean pending;
+
+    public static TaskEntity from(Task task) {
+        TaskEntity entity = new TaskEntity();
+        entity.id = task.id;
+        entity.groupId = task.groupId;
+        entity.title = task.title;
+        entity.description = task.description;
+        entity.completed = task.completed;
+        entity.assignedTo = task.assignedTo;
+        entity.assignedToName = task.assignedToName;
+        entity.dueDate = task.dueDate;
+        return entity;
+    }
+
+    public Task toModel() {
+        return new Task(id, groupId, title, description, completed, assignedTo, assignedToName, dueDate);
+    }
+}
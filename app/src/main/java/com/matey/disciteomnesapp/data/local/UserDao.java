@@ -0,0 +1,18 @@
+package com.matey.disciteomnesapp.data.local;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+
+import java.util.List;
+
+@Dao
+public interface UserDao {
+
+    @Query("SELECT * FROM users WHERE id IN (:ids)")
+    List<UserEntity> getAll(List<String> ids);
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void upsert(UserEntity user);
+}
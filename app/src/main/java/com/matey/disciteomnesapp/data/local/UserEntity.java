@@ -0,0 +1,31 @@
+package com.matey.disciteomnesapp.data.local;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.PrimaryKey;
+
+import com.matey.disciteomnesapp.models.User;
+
+/**
+ * Cached row for a user profile.
+ */
+@Entity(tableName = "users")
+public class UserEntity {
+    @PrimaryKey
+    @NonNull
+    public String id = "";
+    public String name;
+    public String email;
+
+    public static UserEntity from(User user) {
+        UserEntity entity = new UserEntity();
+        entity.id = user.id;
+        entity.name = user.name;
+        entity.email = user.email;
+        return entity;
+    }
+
+    public User toModel() {
+        return new User(id, name, email);
+    }
+}
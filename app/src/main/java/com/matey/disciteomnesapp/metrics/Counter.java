@@ -0,0 +1,29 @@
+package com.matey.disciteomnesapp.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A running total, e.g. snapshots received or bytes downloaded.
+ */
+public final class Counter {
+
+    public final String name;
+
+    private final AtomicLong value = new AtomicLong();
+
+    Counter(String name) {
+        this.name = name;
+    }
+
+    void add(long delta) {
+        value.addAndGet(delta);
+    }
+
+    public long get() {
+        return value.get();
+    }
+
+    void reset() {
+        value.set(0);
+    }
+}
@@ -0,0 +1,73 @@
+package com.matey.disciteomnesapp.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Latency distribution with power-of-two buckets in microseconds: bucket 0 holds 0 µs,
+ * bucket b holds [2^(b-1), 2^b) µs. Recording is lock-free and allocation-free, so it
+ * can sit on the main thread's hot paths; percentiles are reported as the upper bound
+ * of their bucket.
+ */
+public final class Histogram {
+
+    private static final int BUCKETS = 40;
+
+    public final String name;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    Histogram(String name) {
+        this.name = name;
+    }
+
+    void record(long nanos) {
+        long micros = Math.max(0, nanos) / 1_000;
+        buckets.incrementAndGet(Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros)));
+        count.incrementAndGet();
+        totalNanos.addAndGet(nanos);
+        long max;
+        do {
+            max = maxNanos.get();
+        } while (nanos > max && !maxNanos.compareAndSet(max, nanos));
+    }
+
+    public long count() {
+        return count.get();
+    }
+
+    public long meanMicros() {
+        long n = count.get();
+        return n == 0 ? 0 : totalNanos.get() / n / 1_000;
+    }
+
+    public long maxMicros() {
+        return maxNanos.get() / 1_000;
+    }
+
+    /**
+     * Upper bound in microseconds of the bucket the given fraction (0..1) of recordings
+     * falls in, 0 when nothing was recorded.
+     */
+    public long percentileMicros(double fraction) {
+        long n = count.get();
+        if (n == 0) return 0;
+        long target = Math.max(1, (long) Math.ceil(n * fraction));
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            seen += buckets.get(bucket);
+            if (seen >= target) return bucket == 0 ? 0 : (1L << bucket) - 1;
+        }
+        return maxMicros();
+    }
+
+    void reset() {
+        for (int bucket = 0; bucket < BUCKETS; bucket++) buckets.set(bucket, 0);
+        count.set(0);
+        totalNanos.set(0);
+        maxNanos.set(0);
+    }
+}
@@ -0,0 +1,140 @@
+package com.matey.disciteomnesapp.metrics;
+
+import androidx.tracing.Trace;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * In-app performance metrics: latency histograms and counters for the data and UI hot
+ * paths, each timed section also emitted as an androidx.tracing section so it shows up
+ * in Perfetto and macrobenchmark traces.
+ *
+ * Off by default in release builds. While off, every call returns after reading one
+ * volatile flag, without allocating or touching the clock:
+ *
+ * <pre>
+ * long start = Metrics.begin(Metrics.SNAPSHOT_MAPPING);
+ * ...
+ * Metrics.end(Metrics.SNAPSHOT_MAPPING, start);
+ * </pre>
+ *
+ * Section names are the metric names, which are constants, so enabled calls don't
+ * allocate either.
+ */
+public final class Metrics {
+
+    private static final List<Histogram> HISTOGRAMS = new ArrayList<>();
+    private static final List<Counter> COUNTERS = new ArrayList<>();
+
+    // 🔥 Data layer
+    public static final Histogram SNAPSHOT_MAPPING = histogram("DataStore.mapSnapshot");
+    public static final Histogram DATA_CALLBACK = histogram("DataStore.callback");
+    public static final Counter SNAPSHOTS = counter("firebase.snapshots");
+
+    // 🖥️ Screens
+    public static final Histogram LOGIN_CHAIN = histogram("Login.chain");
+    public static final Histogram DASHBOARD_PROFILE = histogram("Dashboard.profileShown");
+    public static final Histogram GROUP_LIST_UPDATE = histogram("GroupList.update");
+    public static final Histogram TASK_LIST_UPDATE = histogram("TaskList.update");
+    public static final Histogram ADAPTER_BIND = histogram("Adapter.bind");
+    public static final Counter BINDS = counter("adapter.binds");
+
+    // 🌐 Network
+    public static final Counter HTTP_CALLS = counter("http.calls");
+    public static final Counter HTTP_BYTES = counter("http.bytesReceived");
+
+    private static volatile boolean enabled = false;
+
+    private Metrics() {
+    }
+
+    private static Histogram histogram(String name) {
+        Histogram histogram = new Histogram(name);
+        HISTOGRAMS.add(histogram);
+        return histogram;
+    }
+
+    private static Counter counter(String name) {
+        Counter counter = new Counter(name);
+        COUNTERS.add(counter);
+        return counter;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean enabled) {
+        Metrics.enabled = enabled;
+    }
+
+    /**
+     * Starts a section on the current thread; returns 0 while metrics are off.
+     */
+    public static long begin(Histogram histogram) {
+        if (!enabled) return 0;
+        Trace.beginSection(histogram.name);
+        return System.nanoTime();
+    }
+
+    /**
+     * Ends the section started by {@link #begin} on the same thread and records its time.
+     */
+    public static void end(Histogram histogram, long start) {
+        if (start == 0) return;
+        Trace.endSection();
+        histogram.record(System.nanoTime() - start);
+    }
+
+    /**
+     * Starts a section that ends on a later callback, possibly on another thread.
+     */
+    public static long beginAsync(Histogram histogram) {
+        if (!enabled) return 0;
+        long start = System.nanoTime();
+        Trace.beginAsyncSection(histogram.name, (int) start);
+        return start;
+    }
+
+    public static void endAsync(Histogram histogram, long start) {
+        if (start == 0) return;
+        Trace.endAsyncSection(histogram.name, (int) start);
+        histogram.record(System.nanoTime() - start);
+    }
+
+    public static void count(Counter counter, long delta) {
+        if (!enabled) return;
+        counter.add(delta);
+    }
+
+    public static List<Histogram> histograms() {
+        return HISTOGRAMS;
+    }
+
+    public static List<Counter> counters() {
+        return COUNTERS;
+    }
+
+    public static void reset() {
+        for (Histogram histogram : HISTOGRAMS) histogram.reset();
+        for (Counter counter : COUNTERS) counter.reset();
+    }
+
+    /**
+     * One line per metric, for the debug screen and the log export.
+     */
+    public static String report() {
+        StringBuilder report = new StringBuilder();
+        for (Histogram h : HISTOGRAMS) {
+            report.append(String.format(Locale.US, "%-24s n=%d mean=%dus p50<=%dus p90<=%dus p99<=%dus max=%dus%n",
+                    h.name, h.count(), h.meanMicros(), h.percentileMicros(0.5), h.percentileMicros(0.9),
+                    h.percentileMicros(0.99), h.maxMicros()));
+        }
+        for (Counter c : COUNTERS) {
+            report.append(String.format(Locale.US, "%-24s %d%n", c.name, c.get()));
+        }
+        return report.toString();
+    }
+}
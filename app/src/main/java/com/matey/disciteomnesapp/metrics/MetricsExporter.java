@@ -0,0 +1,76 @@
+package com.matey.disciteomnesapp.metrics;
+
+import android.content.Context;
+
+import com.matey.disciteomnesapp.data.AppExecutors;
+import com.matey.disciteomnesapp.data.Scheduler;
+
+import java.io.File;
+import java.util.concurrent.Executor;
+
+/**
+ * Writes {@link Metrics#report()} to a {@link MetricsLog} at a fixed interval while
+ * metrics are enabled. The timer keeps running while they are off but skips the write,
+ * so turning them on from the debug screen needs no restart.
+ */
+public class MetricsExporter {
+
+    public static final long DEFAULT_INTERVAL_MS = 15 * 60 * 1000;
+    private static final long MAX_LOG_BYTES = 256 * 1024;
+    private static final String DIR = "metrics";
+
+    private static volatile MetricsExporter instance;
+
+    private final MetricsLog log;
+    private final Scheduler scheduler;
+    private final Executor diskIO;
+    private final long intervalMs;
+    private boolean started = false;
+
+    public MetricsExporter(MetricsLog log, Scheduler scheduler, Executor diskIO, long intervalMs) {
+        this.log = log;
+        this.scheduler = scheduler;
+        this.diskIO = diskIO;
+        this.intervalMs = intervalMs;
+    }
+
+    public static MetricsExporter getInstance(Context context) {
+        if (instance == null) {
+            synchronized (MetricsExporter.class) {
+                if (instance == null) {
+                    File dir = new File(context.getApplicationContext().getFilesDir(), DIR);
+                    instance = new MetricsExporter(new MetricsLog(dir, MAX_LOG_BYTES), Scheduler.mainThread(),
+                            AppExecutors.diskIO(), DEFAULT_INTERVAL_MS);
+                }
+            }
+        }
+        return instance;
+    }
+
+    public MetricsLog getLog() {
+        return log;
+    }
+
+    /**
+     * Starts the periodic export; later calls do nothing.
+     */
+    public void start() {
+        if (started) return;
+        started = true;
+        scheduler.schedule(this::tick, intervalMs);
+    }
+
+    /**
+     * Writes the current report on the disk thread, whether or not metrics are enabled.
+     */
+    public void exportNow() {
+        String report = Metrics.report();
+        long wallTimeMs = System.currentTimeMillis();
+        diskIO.execute(() -> log.append(wallTimeMs, report));
+    }
+
+    private void tick() {
+        if (Metrics.isEnabled()) exportNow();
+        scheduler.schedule(this::tick, intervalMs);
+    }
+}
@@ -0,0 +1,53 @@
+package com.matey.disciteomnesapp.metrics;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+/**
+ * Metric reports appended to a local text file, for pulling off a test device with
+ * adb. Once the file passes its size limit it is moved to "metrics.log.1" (replacing
+ * the previous one) and a new file is started, so at most twice the limit is kept.
+ */
+public class MetricsLog {
+
+    static final String FILE_NAME = "metrics.log";
+    static final String OLD_FILE_NAME = FILE_NAME + ".1";
+
+    private final File dir;
+    private final long maxBytes;
+
+    public MetricsLog(File dir, long maxBytes) {
+        this.dir = dir;
+        this.maxBytes = maxBytes;
+    }
+
+    public File getFile() {
+        return new File(dir, FILE_NAME);
+    }
+
+    /**
+     * Appends a report under a timestamp header. Returns false if it couldn't be written.
+     */
+    public synchronized boolean append(long wallTimeMs, String report) {
+        File file = getFile();
+        if (!dir.exists() && !dir.mkdirs()) return false;
+        if (file.length() >= maxBytes) {
+            File old = new File(dir, OLD_FILE_NAME);
+            if (old.exists() && !old.delete()) return false;
+            if (!file.renameTo(old)) return false;
+        }
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(file, true), StandardCharsets.UTF_8)) {
+            writer.write("=== " + Instant.ofEpochMilli(wallTimeMs) + "\n");
+            writer.write(report);
+            writer.write("\n");
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.matey.disciteomnesapp.metrics;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.content.pm.ApplicationInfo;
+
+/**
+ * Whether metrics are collected, kept across launches. Debuggable builds collect them
+ * unless turned off on the debug screen; release builds only once turned on there.
+ */
+public final class MetricsSettings {
+
+    private static final String FILE = "metrics";
+    private static final String KEY_ENABLED = "enabled";
+
+    private MetricsSettings() {
+    }
+
+    /**
+     * Applies the saved setting to {@link Metrics}; called once at application start.
+     */
+    public static void apply(Context context) {
+        Metrics.setEnabled(prefs(context).getBoolean(KEY_ENABLED, isDebuggable(context)));
+    }
+
+    public static void setEnabled(Context context, boolean enabled) {
+        prefs(context).edit().putBoolean(KEY_ENABLED, enabled).apply();
+        Metrics.setEnabled(enabled);
+    }
+
+    public static boolean isDebuggable(Context context) {
+        return (context.getApplicationInfo().flags & ApplicationInfo.FLAG_DEBUGGABLE) != 0;
+    }
+
+    private static SharedPreferences prefs(Context context) {
+        return context.getApplicationContext().getSharedPreferences(FILE, Context.MODE_PRIVATE);
+    }
+}
@@ -1,21 +1,37 @@
 package com.matey.disciteomnesapp.models;
 
-import java.util.List;
+import java.util.HashMap;
+import java.util.Map;
 
 public class Group {
     public String id;
     public String name;
     public String description;
-    public List<String> members;
+    public Map<String, Boolean> members; // members/{uid}: true
+
+    // Set when members were read in the old list form and still need rewriting as a map
+    public transient boolean legacyMembers;
 
     public Group() {
 
     }
 
-    public Group(String id, String name, String description, List<String> members) {
+    public Group(String id, String name, String description, Map<String, Boolean> members) {
         this.id = id;
         this.name = name;
         this.description = description;
         this.members = members;
     }
+
+    public boolean isMember(String userId) {
+        return members != null && Boolean.TRUE.equals(members.get(userId));
+    }
+
+    public static Map<String, Boolean> membersOf(String... userIds) {
+        Map<String, Boolean> members = new HashMap<>();
+        for (String userId : userIds) {
+            members.put(userId, true);
+        }
+        return members;
+    }
 }
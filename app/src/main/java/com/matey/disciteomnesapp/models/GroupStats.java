@@ -0,0 +1,21 @@
+package com.matey.disciteomnesapp.models;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Task counters of one group, read from groupStats/{groupId}. The overdue count is
+ * derived for the day the stats were read.
+ */
+public class GroupStats {
+    public String groupId;
+    public long total;
+    public long completed;
+    public long overdue;
+    public Map<String, Long> assignedTotal = new HashMap<>();     // uid -> tasks assigned
+    public Map<String, Long> assignedCompleted = new HashMap<>(); // uid -> of those, completed
+
+    public GroupStats() {
+
+    }
+}
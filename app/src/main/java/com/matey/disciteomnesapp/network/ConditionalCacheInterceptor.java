@@ -0,0 +1,25 @@
+package com.matey.disciteomnesapp.network;
+
+import java.io.IOException;
+
+import okhttp3.Interceptor;
+import okhttp3.Response;
+
+/**
+ * Network interceptor that makes ETag-tagged responses revalidate on every use.
+ *
+ * A response with an ETag but no Cache-Control would otherwise be cached heuristically
+ * and served stale. Marking it no-cache keeps it on disk but sends If-None-Match each
+ * time, so an unchanged resource costs a 304 with no body instead of a full download.
+ */
+public class ConditionalCacheInterceptor implements Interceptor {
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Response response = chain.proceed(chain.request());
+        if (response.header("ETag") == null || response.header("Cache-Control") != null) return response;
+        return response.newBuilder()
+                .header("Cache-Control", "no-cache")
+                .build();
+    }
+}
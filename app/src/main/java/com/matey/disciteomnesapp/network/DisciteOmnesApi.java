@@ -1,14 +1,23 @@
 package com.matey.disciteomnesapp.network;
 
+import com.matey.disciteomnesapp.models.Group;
+import com.matey.disciteomnesapp.models.Task;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+
 import retrofit2.Call;
 import retrofit2.http.GET;
+import retrofit2.http.Path;
+import retrofit2.http.Query;
 
 /**
  * Interface representing API endpoints for the DisciteOmnes application.
  * Used by Retrofit to automatically generate HTTP request implementations.
  *
- * ✅ This mock implementation is used to simulate a welcome message.
- * ✅ The endpoint is hosted on Mocky.io for testing purposes only.
+ * ✅ The welcome message is hosted on Mocky.io; tests serve it from a local fake server.
+ * ✅ Batch endpoints fetch many tasks or groups in one round trip.
  *
  * ⚠️ This design and endpoint usage was suggested via AI, then customized to match
  * the structure of the app and integration flow.
@@ -24,4 +33,28 @@ public interface DisciteOmnesApi {
      */
     @GET("v3/215c5460-1a75-4fef-ae5b-2e8a30c54c79") // Static mock endpoint for testing
     Call<MessageResponse> getWelcomeMessage();
+
+    /**
+     * Several tasks of one group in a single request.
+     *
+     * @param ids task ids joined with {@link #ids(Collection)}
+     */
+    @GET("groups/{groupId}/tasks")
+    Call<List<Task>> getTasks(@Path("groupId") String groupId, @Query("ids") String ids);
+
+    /**
+     * Several groups in a single request.
+     *
+     * @param ids group ids joined with {@link #ids(Collection)}
+     */
+    @GET("groups")
+    Call<List<Group>> getGroups(@Query("ids") String ids);
+
+    /**
+     * Joins ids in sorted order, so the same set always produces the same URL and
+     * therefore hits the same HTTP cache entry.
+     */
+    static String ids(Collection<String> ids) {
+        return String.join(",", new TreeSet<>(ids));
+    }
 }
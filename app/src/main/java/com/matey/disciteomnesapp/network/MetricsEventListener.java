@@ -0,0 +1,33 @@
+package com.matey.disciteomnesapp.network;
+
+import com.matey.disciteomnesapp.metrics.Metrics;
+
+import java.io.IOException;
+
+import okhttp3.Call;
+import okhttp3.EventListener;
+
+/**
+ * Counts finished calls and response body bytes read from the network into
+ * {@link Metrics}. Responses served from the cache never reach the network and
+ * aren't counted as bytes.
+ */
+class MetricsEventListener extends EventListener {
+
+    static final MetricsEventListener INSTANCE = new MetricsEventListener();
+
+    @Override
+    public void responseBodyEnd(Call call, long byteCount) {
+        Metrics.count(Metrics.HTTP_BYTES, byteCount);
+    }
+
+    @Override
+    public void callEnd(Call call) {
+        Metrics.count(Metrics.HTTP_CALLS, 1);
+    }
+
+    @Override
+    public void callFailed(Call call, IOException ioe) {
+        Metrics.count(Metrics.HTTP_CALLS, 1);
+    }
+}
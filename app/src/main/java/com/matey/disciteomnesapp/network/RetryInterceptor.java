@@ -0,0 +1,110 @@
+package com.matey.disciteomnesapp.network;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Random;
+
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Retries idempotent requests that failed on the way (I/O errors) or that the server
+ * asked to retry (429 and 5xx), waiting an exponentially growing, jittered delay between
+ * attempts. A Retry-After header, when present, is used instead of the computed delay.
+ *
+ * Only GET and HEAD are retried: repeating anything else could apply a write twice.
+ */
+public class RetryInterceptor implements Interceptor {
+
+    public static final int DEFAULT_MAX_RETRIES = 3;
+    public static final long DEFAULT_BASE_DELAY_MS = 250;
+    public static final long DEFAULT_MAX_DELAY_MS = 4_000;
+
+    /**
+     * How the interceptor waits; replaced in tests so retries don't actually sleep.
+     */
+    public interface Sleeper {
+        void sleep(long millis) throws InterruptedException;
+    }
+
+    private final int maxRetries;
+    private final long baseDelayMs;
+    private final long maxDelayMs;
+    private final Sleeper sleeper;
+    private final Random random;
+
+    public RetryInterceptor() {
+        this(DEFAULT_MAX_RETRIES, DEFAULT_BASE_DELAY_MS, DEFAULT_MAX_DELAY_MS, Thread::sleep, new Random());
+    }
+
+    public RetryInterceptor(int maxRetries, long baseDelayMs, long maxDelayMs, Sleeper sleeper, Random random) {
+        this.maxRetries = maxRetries;
+        this.baseDelayMs = baseDelayMs;
+        this.maxDelayMs = maxDelayMs;
+        this.sleeper = sleeper;
+        this.random = random;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        if (!isIdempotent(request.method())) return chain.proceed(request);
+
+        for (int attempt = 0; ; attempt++) {
+            Response response = null;
+            IOException error = null;
+            try {
+                response = chain.proceed(request);
+            } catch (IOException e) {
+                error = e;
+            }
+
+            boolean retryable = response == null || isRetryable(response.code());
+            if (!retryable || attempt >= maxRetries || chain.call().isCanceled()) {
+                if (response != null) return response;
+                throw error;
+            }
+
+            long delay = delayMs(attempt, response);
+            if (response != null) response.close();
+            try {
+                sleeper.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting to retry " + request.url());
+            }
+        }
+    }
+
+    /**
+     * base * 2^attempt, capped, scaled by a random factor in [0.5, 1) so clients that
+     * failed together don't all come back at the same moment.
+     */
+    long delayMs(int attempt, Response response) {
+        if (response != null) {
+            long retryAfter = retryAfterMs(response.header("Retry-After"));
+            if (retryAfter >= 0) return Math.min(retryAfter, maxDelayMs);
+        }
+        long exponential = Math.min(maxDelayMs, baseDelayMs << Math.min(attempt, 20));
+        return exponential / 2 + (long) (random.nextDouble() * (exponential / 2));
+    }
+
+    private static long retryAfterMs(String header) {
+        if (header == null) return -1;
+        try {
+            return Long.parseLong(header.trim()) * 1_000L;
+        } catch (NumberFormatException httpDate) {
+            // The HTTP-date form isn't used by our backend; fall back to the backoff
+            return -1;
+        }
+    }
+
+    private static boolean isIdempotent(String method) {
+        return "GET".equals(method) || "HEAD".equals(method);
+    }
+
+    private static boolean isRetryable(int code) {
+        return code == 429 || (code >= 500 && code != 501);
+    }
+}
@@ -2,6 +2,7 @@ package com.matey.disciteomnesapp.ui;
 
 import android.annotation.SuppressLint;
 import android.app.Dialog;
+import android.content.Context;
 import android.os.Bundle;
 import android.text.TextUtils;
 import android.view.LayoutInflater;
@@ -13,14 +14,8 @@ import androidx.appcompat.app.AlertDialog;
 import androidx.fragment.app.DialogFragment;
 
 import com.google.android.material.textfield.TextInputEditText;
-import com.google.firebase.auth.FirebaseAuth;
-import com.google.firebase.database.FirebaseDatabase;
 import com.matey.disciteomnesapp.R;
-
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import com.matey.disciteomnesapp.utils.GroupService;
 
 /**
  * DialogFragment that allows a user to create a new study group.
@@ -59,9 +54,8 @@ public class CreateGroupDialog extends DialogFragment {
     /**
      * Handles the logic for creating a new group:
      * - Validates the group name.
-     * - Generates a unique Firebase ID.
-     * - Adds the current user to the member list.
-     * - Stores the group in Firebase.
+     * - Stores the group in Firebase via GroupService, with the current user
+     *   as its first member.
      */
     private void createGroup() {
         String name = nameInput.getText().toString().trim();
@@ -75,39 +69,14 @@ public class CreateGroupDialog extends DialogFragment {
             return;
         }
 
-        // Generate unique ID and get current user ID
-        String groupId = FirebaseDatabase.getInstance().getReference("groups").push().getKey();
-        String userId = FirebaseAuth.getInstance().getCurrentUser().getUid();
-
-        if (groupId == null || userId == null) {
-            Toast.makeText(requireContext(), "Unexpected error occurred", Toast.LENGTH_SHORT).show();
-            return;
-        }
-
-        // Add current user to the group's member list
-        List<String> members = new ArrayList<>();
-        members.add(userId);
-
-        // Create the group data object
-        Map<String, Object> groupData = new HashMap<>();
-        groupData.put("id", groupId);
-        groupData.put("name", name);
-        groupData.put("description", description);
-        groupData.put("members", members);
-
-        // Save the group to Firebase
-        FirebaseDatabase.getInstance().getReference("groups").child(groupId)
-                .setValue(groupData)
-                .addOnSuccessListener(unused -> {
-                    if (isAdded()) {
-                        Toast.makeText(requireContext(), "Group created", Toast.LENGTH_SHORT).show();
-                    }
+        // Save the group to Firebase together with the creator's userGroups index entry.
+        // Shown as created right away; a rejection arrives after the dialog is gone.
+        Context appContext = requireContext().getApplicationContext();
+        new GroupService(appContext).createGroup(name, description,
+                () -> {
+                    Toast.makeText(appContext, "Group created", Toast.LENGTH_SHORT).show();
                     dismiss(); // Close the dialog
-                })
-                .addOnFailureListener(e -> {
-                    if (isAdded()) {
-                        Toast.makeText(requireContext(), "Failed to create group", Toast.LENGTH_SHORT).show();
-                    }
-                });
+                },
+                () -> Toast.makeText(appContext, "Failed to create group \"" + name + "\"", Toast.LENGTH_SHORT).show());
     }
 }
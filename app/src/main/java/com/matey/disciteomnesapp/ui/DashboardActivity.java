@@ -9,16 +9,17 @@ import androidx.annotation.Nullable;
 import androidx.appcompat.app.AppCompatActivity;
 
 import com.matey.disciteomnesapp.R;
+import com.matey.disciteomnesapp.data.AppExecutors;
+import com.matey.disciteomnesapp.data.StartupCoordinator;
+import com.matey.disciteomnesapp.metrics.Metrics;
+import com.matey.disciteomnesapp.metrics.MetricsSettings;
 import com.matey.disciteomnesapp.network.DisciteOmnesApi;
 import com.matey.disciteomnesapp.network.MessageResponse;
 import com.matey.disciteomnesapp.network.RetrofitClient;
+import com.matey.disciteomnesapp.utils.LoginService;
 
 import com.google.android.material.button.MaterialButton;
 import com.google.firebase.auth.FirebaseAuth;
-import com.google.firebase.database.DataSnapshot;
-import com.google.firebase.database.DatabaseError;
-import com.google.firebase.database.FirebaseDatabase;
-import com.google.firebase.database.ValueEventListener;
 
 import retrofit2.Call;
 import retrofit2.Callback;
@@ -26,7 +27,7 @@ import retrofit2.Response;
 
 /**
  * DashboardActivity serves as the main screen after login.
- * Displays a welcome message using Firebase and integrates
+ * Displays a welcome message (from the startup session) and integrates
  * an API call via Retrofit for demonstration.
  *
  * ✅ Firebase integration and UI logic written manually.
@@ -52,28 +53,23 @@ public class DashboardActivity extends AppCompatActivity {
         tasksBtn = findViewById(R.id.tasksBtn);
         logoutBtn = findViewById(R.id.logoutBtn);
 
-        // ✅ Load username from Firebase Realtime Database
+        // ✅ Username comes from the startup session (already loading since login / app start)
         String uid = FirebaseAuth.getInstance().getCurrentUser().getUid();
-        FirebaseDatabase.getInstance().getReference("users").child(uid)
-                .addListenerForSingleValueEvent(new ValueEventListener() {
-                    @Override
-                    public void onDataChange(DataSnapshot snapshot) {
-                        String name = snapshot.child("name").getValue(String.class);
-                        if (name != null && !name.isEmpty()) {
-                            welcomeText.setText("Welcome, " + name);
-                        } else {
-                            welcomeText.setText("Welcome!");
-                        }
-                    }
-
-                    @Override
-                    public void onCancelled(DatabaseError error) {
-                        welcomeText.setText("Welcome!");
-                    }
-                });
+        long profileStart = Metrics.beginAsync(Metrics.DASHBOARD_PROFILE);
+        StartupCoordinator.getInstance(this).start(uid).profile.thenAcceptAsync(user -> {
+            if (isDestroyed()) return;
+            Metrics.endAsync(Metrics.DASHBOARD_PROFILE, profileStart);
+            if (user != null && user.name != null && !user.name.isEmpty()) {
+                welcomeText.setText("Welcome, " + user.name);
+            } else {
+                welcomeText.setText("Welcome!");
+            }
+            // Startup benchmarks count the dashboard as fully drawn once the name is shown
+            reportFullyDrawn();
+        }, AppExecutors.mainThread());
 
         // ⚙️ Retrofit API test call to show welcome message from remote source
-        DisciteOmnesApi api = RetrofitClient.getClient().create(DisciteOmnesApi.class);
+        DisciteOmnesApi api = RetrofitClient.getClient(this).create(DisciteOmnesApi.class);
         api.getWelcomeMessage().enqueue(new Callback<MessageResponse>() {
             @Override
             public void onResponse(Call<MessageResponse> call, Response<MessageResponse> response) {
@@ -101,9 +97,18 @@ public class DashboardActivity extends AppCompatActivity {
             startActivity(intent);
         });
 
+        // 📈 Hidden metrics screen for debuggable builds
+        if (MetricsSettings.isDebuggable(this)) {
+            welcomeText.setOnLongClickListener(v -> {
+                startActivity(new Intent(this, MetricsActivity.class));
+                return true;
+            });
+        }
+
         // 🔒 Logout logic
         logoutBtn.setOnClickListener(v -> {
-            FirebaseAuth.getInstance().signOut();
+            StartupCoordinator.getInstance(this).stop();
+            new LoginService(this).logout();
             startActivity(new Intent(this, LoginActivity.class));
             finish();
         });
@@ -5,26 +5,24 @@ import android.widget.Toast;
 
 import androidx.annotation.Nullable;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.lifecycle.ViewModelProvider;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.google.android.material.button.MaterialButton;
 import com.google.android.material.floatingactionbutton.FloatingActionButton;
 import com.google.firebase.auth.FirebaseAuth;
-import com.google.firebase.database.DataSnapshot;
-import com.google.firebase.database.DatabaseError;
-import com.google.firebase.database.ValueEventListener;
 import com.matey.disciteomnesapp.R;
-import com.matey.disciteomnesapp.models.Group;
+import com.matey.disciteomnesapp.metrics.Metrics;
 import com.matey.disciteomnesapp.ui.adapters.GroupAdapter;
+import com.matey.disciteomnesapp.ui.adapters.RowViewPool;
 import com.matey.disciteomnesapp.utils.GroupService;
 
-import java.util.ArrayList;
-import java.util.List;
-
 /**
  * GroupListActivity displays a list of all available study groups,
  * with the option to filter the list by groups the user has joined.
+ * The groups and the filter live in a {@link GroupListViewModel}, so a rotation only
+ * re-attaches to them.
  *
  * ✅ Firebase & RecyclerView logic implemented manually.
  * ⚠️ Comments and structural explanations assisted by AI.
@@ -33,14 +31,13 @@ public class GroupListActivity extends AppCompatActivity {
 
     private RecyclerView groupRecyclerView;
     private GroupAdapter groupAdapter;
-    private List<Group> allGroups;
 
     private GroupService groupService;
+    private GroupListViewModel viewModel;
 
     private MaterialButton filterToggleButton;
     private FloatingActionButton addGroupButton;
 
-    private boolean showingMyGroups = false;
     private String currentUserId;
 
     /**
@@ -57,22 +54,25 @@ public class GroupListActivity extends AppCompatActivity {
         filterToggleButton = findViewById(R.id.filterToggleButton);
         addGroupButton = findViewById(R.id.addGroupButton);
 
-        // Set up RecyclerView with empty adapter initially
-        allGroups = new ArrayList<>();
-        groupAdapter = new GroupAdapter(new ArrayList<>());
+        groupService = new GroupService(this);
+
+        // Set up RecyclerView once; later updates are diffed in via submitList()
+        RowViewPool rowViews = new RowViewPool(R.layout.item_group);
+        groupAdapter = new GroupAdapter(groupService, currentUserId);
+        groupAdapter.setRowViews(rowViews);
         groupRecyclerView.setLayoutManager(new LinearLayoutManager(this));
+        rowViews.attach(groupRecyclerView);
         groupRecyclerView.setAdapter(groupAdapter);
 
-        groupService = new GroupService();
-
-        // 🔁 Load and observe group data from Firebase
+        // 🔁 Show cached groups right away and keep them in sync with Firebase
+        viewModel = new ViewModelProvider(this, GroupListViewModel.factory(currentUserId)).get(GroupListViewModel.class);
         loadGroups();
 
         // 🔘 Toggle between all groups and user's groups
+        updateFilterButton();
         filterToggleButton.setOnClickListener(v -> {
-            showingMyGroups = !showingMyGroups;
-            filterToggleButton.setText(showingMyGroups ? "Show All Groups" : "Show My Groups");
-            updateFilteredList();
+            viewModel.toggleShowingMyGroups();
+            updateFilterButton();
         });
 
         // ➕ Button to create a new group
@@ -80,41 +80,43 @@ public class GroupListActivity extends AppCompatActivity {
     }
 
     /**
-     * Fetches group data from Firebase and refreshes UI.
+     * Observes the (filtered) cached groups; they are revalidated from Firebase while
+     * the screen is visible. The adapter diffs each list off the main thread.
+     * Each row also shows its group's progress from the live task counters.
      */
     private void loadGroups() {
-        groupService.getGroupsRef().addValueEventListener(new ValueEventListener() {
-            @Override
-            public void onDataChange(DataSnapshot snapshot) {
-                allGroups.clear();
-                for (DataSnapshot groupSnapshot : snapshot.getChildren()) {
-                    Group group = groupSnapshot.getValue(Group.class);
-                    if (group != null) {
-                        allGroups.add(group);
-                    }
-                }
-                updateFilteredList();
-            }
-
-            @Override
-            public void onCancelled(DatabaseError error) {
-                Toast.makeText(GroupListActivity.this, "Failed to load groups", Toast.LENGTH_SHORT).show();
-            }
+        viewModel.getVisibleGroups().observe(this, groups -> {
+            long start = Metrics.begin(Metrics.GROUP_LIST_UPDATE);
+            groupAdapter.submitList(groups);
+            Metrics.end(Metrics.GROUP_LIST_UPDATE, start);
+        });
+        viewModel.getGroupStats().observe(this, stats -> {
+            long start = Metrics.begin(Metrics.GROUP_LIST_UPDATE);
+            groupAdapter.setStats(stats);
+            Metrics.end(Metrics.GROUP_LIST_UPDATE, start);
+        });
+        viewModel.getSyncFailed().observe(this, failed -> {
+            if (!failed) return;
+            Toast.makeText(GroupListActivity.this, "Failed to load groups", Toast.LENGTH_SHORT).show();
+            viewModel.onSyncErrorShown();
         });
     }
 
-    /**
-     * Applies the filter (if enabled) and updates the RecyclerView.
-     */
-    private void updateFilteredList() {
-        List<Group> filtered = new ArrayList<>();
-        for (Group group : allGroups) {
-            if (!showingMyGroups || (group.members != null && group.members.contains(currentUserId))) {
-                filtered.add(group);
-            }
-        }
-        groupAdapter = new GroupAdapter(filtered);
-        groupRecyclerView.setAdapter(groupAdapter);
+    private void updateFilterButton() {
+        filterToggleButton.setText(viewModel.isShowingMyGroups() ? "Show All Groups" : "Show My Groups");
+    }
+
+    @Override
+    protected void onStart() {
+        super.onStart();
+        viewModel.startSync();
+    }
+
+    @Override
+    protected void onStop() {
+        super.onStop();
+        // The shared listener outlives a rotation by a grace period, see ListenerRegistry
+        viewModel.stopSync();
     }
 
     /**
@@ -0,0 +1,30 @@
+package com.matey.disciteomnesapp.ui;
+
+import com.matey.disciteomnesapp.models.Group;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The group list's "my groups" filter, kept free of Android types so it can be
+ * benchmarked on a plain JVM.
+ */
+public final class GroupListFilter {
+
+    private GroupListFilter() {
+    }
+
+    /**
+     * All groups, or only those the user is a member of; the input list is returned as
+     * is when nothing is filtered out.
+     */
+    public static List<Group> visibleGroups(List<Group> all, String userId, boolean mineOnly) {
+        if (!mineOnly) return all;
+        List<Group> mine = new ArrayList<>();
+        for (Group group : all) {
+            if (group.isMember(userId)) mine.add(group);
+        }
+        return Collections.unmodifiableList(mine);
+    }
+}
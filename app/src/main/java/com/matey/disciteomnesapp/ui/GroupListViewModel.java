@@ -0,0 +1,119 @@
+package com.matey.disciteomnesapp.ui;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MediatorLiveData;
+import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.SavedStateHandle;
+import androidx.lifecycle.SavedStateHandleSupport;
+import androidx.lifecycle.ViewModel;
+import androidx.lifecycle.ViewModelProvider;
+import androidx.lifecycle.viewmodel.CreationExtras;
+
+import com.matey.disciteomnesapp.data.GroupRepository;
+import com.matey.disciteomnesapp.models.Group;
+import com.matey.disciteomnesapp.models.GroupStats;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * State of the group list that outlives the activity: the observed groups, the
+ * "my groups" filter and the Firebase sync.
+ *
+ * A rotation re-attaches to the same LiveData, so nothing is queried or mapped again;
+ * the filter is kept in the SavedStateHandle and survives process death as well.
+ */
+public class GroupListViewModel extends ViewModel {
+
+    static final String KEY_SHOWING_MY_GROUPS = "showingMyGroups";
+
+    private final GroupRepository groupRepository;
+    private final String userId;
+    private final MutableLiveData<Boolean> showingMyGroups;
+    private final MediatorLiveData<List<Group>> visibleGroups = new MediatorLiveData<>();
+    private final MutableLiveData<Boolean> syncFailed = new MutableLiveData<>(false);
+    private final LiveData<List<Group>> groups;
+    private boolean syncing = false;
+
+    public GroupListViewModel(SavedStateHandle state, GroupRepository groupRepository, String userId) {
+        this.groupRepository = groupRepository;
+        this.userId = userId;
+        this.showingMyGroups = state.getLiveData(KEY_SHOWING_MY_GROUPS, false);
+        this.groups = groupRepository.observeGroups();
+
+        visibleGroups.addSource(groups, all -> updateVisibleGroups());
+        visibleGroups.addSource(showingMyGroups, showing -> updateVisibleGroups());
+    }
+
+    public static ViewModelProvider.Factory factory(String userId) {
+        return new ViewModelProvider.Factory() {
+            @NonNull
+            @Override
+            @SuppressWarnings("unchecked")
+            public <T extends ViewModel> T create(@NonNull Class<T> modelClass, @NonNull CreationExtras extras) {
+                Context app = extras.get(ViewModelProvider.AndroidViewModelFactory.APPLICATION_KEY);
+                return (T) new GroupListViewModel(SavedStateHandleSupport.createSavedStateHandle(extras),
+                        GroupRepository.getInstance(app), userId);
+            }
+        };
+    }
+
+    /**
+     * All groups, or only the user's own while the filter is on.
+     */
+    public LiveData<List<Group>> getVisibleGroups() {
+        return visibleGroups;
+    }
+
+    /**
+     * Task counters by group id, for the progress shown on each row.
+     */
+    public LiveData<Map<String, GroupStats>> getGroupStats() {
+        return groupRepository.observeStats();
+    }
+
+    public LiveData<Boolean> getSyncFailed() {
+        return syncFailed;
+    }
+
+    public void onSyncErrorShown() {
+        syncFailed.setValue(false);
+    }
+
+    public boolean isShowingMyGroups() {
+        return Boolean.TRUE.equals(showingMyGroups.getValue());
+    }
+
+    public void toggleShowingMyGroups() {
+        showingMyGroups.setValue(!isShowingMyGroups());
+    }
+
+    /**
+     * Keeps the groups in sync with Firebase while the screen is visible.
+     */
+    public void startSync() {
+        if (syncing) return;
+        syncing = true;
+        groupRepository.startSync(() -> syncFailed.setValue(true));
+    }
+
+    public void stopSync() {
+        if (!syncing) return;
+        syncing = false;
+        groupRepository.stopSync();
+    }
+
+    @Override
+    protected void onCleared() {
+        stopSync();
+    }
+
+    private void updateVisibleGroups() {
+        List<Group> all = groups.getValue();
+        if (all == null) return;
+        visibleGroups.setValue(GroupListFilter.visibleGroups(all, userId, isShowingMyGroups()));
+    }
+}
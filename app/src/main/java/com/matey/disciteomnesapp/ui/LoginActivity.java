@@ -1,7 +1,6 @@
 package com.matey.disciteomnesapp.ui;
 
 import android.content.Intent;
-import android.content.SharedPreferences;
 import android.os.Bundle;
 import android.text.TextUtils;
 import android.widget.Toast;
@@ -12,25 +11,25 @@ import androidx.appcompat.app.AppCompatActivity;
 import com.google.android.material.button.MaterialButton;
 import com.google.android.material.textfield.TextInputEditText;
 import com.google.firebase.auth.FirebaseAuth;
-import com.google.firebase.database.DataSnapshot;
-import com.google.firebase.database.DatabaseError;
-import com.google.firebase.database.FirebaseDatabase;
-import com.google.firebase.database.ValueEventListener;
+import com.google.firebase.auth.FirebaseUser;
 import com.matey.disciteomnesapp.R;
-import com.matey.disciteomnesapp.models.User;
+import com.matey.disciteomnesapp.data.StartupCoordinator;
+import com.matey.disciteomnesapp.metrics.Metrics;
+import com.matey.disciteomnesapp.utils.LoginService;
 
 /**
  * LoginActivity handles the user login flow using Firebase Authentication.
- * It also retrieves and stores the corresponding Firebase `userId` locally.
+ * The Firebase `userId` comes from authentication and is kept in the session store.
  *
  * ⚠️ This class includes logic assisted by AI-generated suggestions (e.g., inline error checks, comment structure).
- * ✅ SharedPreferences logic and Firebase queries were added manually and tested.
+ * ✅ Session handling and Firebase queries were added manually and tested.
  */
 public class LoginActivity extends AppCompatActivity {
 
     private TextInputEditText emailEditText, passwordEditText;
     private MaterialButton loginButton;
     private FirebaseAuth mAuth;
+    private LoginService loginService;
 
     /**
      * Initializes login screen and checks if user is already logged in.
@@ -41,9 +40,13 @@ public class LoginActivity extends AppCompatActivity {
         setContentView(R.layout.activity_login);
 
         mAuth = FirebaseAuth.getInstance();
+        loginService = new LoginService(this);
 
         // 🔐 Skip login screen if already authenticated
-        if (mAuth.getCurrentUser() != null) {
+        FirebaseUser currentUser = mAuth.getCurrentUser();
+        if (currentUser != null) {
+            loginService.resume(currentUser.getUid());
+            StartupCoordinator.getInstance(this).start(currentUser.getUid());
             startActivity(new Intent(this, DashboardActivity.class));
             finish();
             return;
@@ -64,7 +67,7 @@ public class LoginActivity extends AppCompatActivity {
     }
 
     /**
-     * Validates input and performs Firebase login. On success, stores userId in SharedPreferences.
+     * Validates input and performs Firebase login. On success, the session is saved and the dashboard opens.
      */
     private void attemptLogin() {
         String email = emailEditText.getText().toString().trim();
@@ -82,42 +85,26 @@ public class LoginActivity extends AppCompatActivity {
 
         loginButton.setEnabled(false);
 
-        // 🔐 Firebase Authentication
-        mAuth.signInWithEmailAndPassword(email, password)
-                .addOnCompleteListener(this, task -> {
-                    loginButton.setEnabled(true);
-                    if (task.isSuccessful()) {
-                        // 🔍 Look up userId based on email
-                        FirebaseDatabase.getInstance().getReference("users")
-                                .orderByChild("email").equalTo(email)
-                                .addListenerForSingleValueEvent(new ValueEventListener() {
-                                    @Override
-                                    public void onDataChange(DataSnapshot snapshot) {
-                                        for (DataSnapshot snap : snapshot.getChildren()) {
-                                            User user = snap.getValue(User.class);
-                                            if (user != null) {
-                                                // 💾 Save userId for use in other activities
-                                                SharedPreferences prefs = getSharedPreferences("prefs", MODE_PRIVATE);
-                                                prefs.edit().putString("userId", user.id).apply();
-
-                                                Toast.makeText(LoginActivity.this, "Login successful", Toast.LENGTH_SHORT).show();
-                                                startActivity(new Intent(LoginActivity.this, DashboardActivity.class));
-                                                finish();
-                                                return;
-                                            }
-                                        }
-
-                                        Toast.makeText(LoginActivity.this, "User not found in database", Toast.LENGTH_LONG).show();
-                                    }
-
-                                    @Override
-                                    public void onCancelled(DatabaseError error) {
-                                        Toast.makeText(LoginActivity.this, "Database error", Toast.LENGTH_LONG).show();
-                                    }
-                                });
-                    } else {
-                        Toast.makeText(LoginActivity.this, "Login failed: " + task.getException().getMessage(), Toast.LENGTH_LONG).show();
-                    }
-                });
+        // 🔐 Firebase Authentication; the uid comes from auth, the profile loads in the background
+        long start = Metrics.beginAsync(Metrics.LOGIN_CHAIN);
+        loginService.login(email, password, new LoginService.Callback() {
+            @Override
+            public void onLoggedIn(String userId) {
+                Metrics.endAsync(Metrics.LOGIN_CHAIN, start);
+                loginButton.setEnabled(true);
+                // 🚀 Profile, group index and first task page load while the dashboard opens
+                StartupCoordinator.getInstance(LoginActivity.this).start(userId);
+                Toast.makeText(LoginActivity.this, "Login successful", Toast.LENGTH_SHORT).show();
+                startActivity(new Intent(LoginActivity.this, DashboardActivity.class));
+                finish();
+            }
+
+            @Override
+            public void onError(String message) {
+                Metrics.endAsync(Metrics.LOGIN_CHAIN, start);
+                loginButton.setEnabled(true);
+                Toast.makeText(LoginActivity.this, "Login failed: " + message, Toast.LENGTH_LONG).show();
+            }
+        });
     }
 }
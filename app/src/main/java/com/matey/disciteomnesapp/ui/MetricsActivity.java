@@ -0,0 +1,58 @@
+package com.matey.disciteomnesapp.ui;
+
+import android.os.Bundle;
+import android.widget.TextView;
+import android.widget.Toast;
+
+import androidx.annotation.Nullable;
+import androidx.appcompat.app.AppCompatActivity;
+
+import com.google.android.material.switchmaterial.SwitchMaterial;
+import com.matey.disciteomnesapp.R;
+import com.matey.disciteomnesapp.metrics.Metrics;
+import com.matey.disciteomnesapp.metrics.MetricsExporter;
+import com.matey.disciteomnesapp.metrics.MetricsSettings;
+
+/**
+ * Debug screen showing the collected {@link Metrics}: latency percentiles per section
+ * and the counters. Collection can be switched on or off here, and the current report
+ * written to the local metrics log right away.
+ *
+ * Opened by long-pressing the welcome text on the dashboard in debuggable builds.
+ */
+public class MetricsActivity extends AppCompatActivity {
+
+    private TextView reportText;
+
+    @Override
+    protected void onCreate(@Nullable Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_metrics);
+
+        reportText = findViewById(R.id.metricsReport);
+        SwitchMaterial metricsSwitch = findViewById(R.id.metricsSwitch);
+        metricsSwitch.setChecked(Metrics.isEnabled());
+        metricsSwitch.setOnCheckedChangeListener((button, checked) -> MetricsSettings.setEnabled(this, checked));
+
+        findViewById(R.id.refreshBtn).setOnClickListener(v -> showReport());
+        findViewById(R.id.resetBtn).setOnClickListener(v -> {
+            Metrics.reset();
+            showReport();
+        });
+        findViewById(R.id.exportBtn).setOnClickListener(v -> {
+            MetricsExporter exporter = MetricsExporter.getInstance(this);
+            exporter.exportNow();
+            Toast.makeText(this, "Written to " + exporter.getLog().getFile(), Toast.LENGTH_LONG).show();
+        });
+    }
+
+    @Override
+    protected void onResume() {
+        super.onResume();
+        showReport();
+    }
+
+    private void showReport() {
+        reportText.setText(Metrics.report());
+    }
+}
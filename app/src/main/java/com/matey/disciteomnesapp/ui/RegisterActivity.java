@@ -11,11 +11,15 @@ import androidx.appcompat.app.AppCompatActivity;
 import com.google.android.material.button.MaterialButton;
 import com.google.android.material.textfield.TextInputEditText;
 import com.google.firebase.auth.FirebaseAuth;
-import com.google.firebase.database.DatabaseReference;
-import com.google.firebase.database.FirebaseDatabase;
 import com.matey.disciteomnesapp.R;
+import com.matey.disciteomnesapp.data.FirebaseDataStore;
+import com.matey.disciteomnesapp.data.UserGroupIndex;
+import com.matey.disciteomnesapp.data.UserMapper;
 import com.matey.disciteomnesapp.models.User;
 
+import java.util.HashMap;
+import java.util.Map;
+
 /**
  * RegisterActivity is responsible for registering a new user using Firebase Authentication.
  * After registration, the user's data (name + email) is stored in the Firebase Realtime Database.
@@ -81,12 +85,13 @@ public class RegisterActivity extends AppCompatActivity {
                         String userId = mAuth.getCurrentUser().getUid();
                         User newUser = new User(userId, name, email);
 
-                        DatabaseReference userRef = FirebaseDatabase.getInstance()
-                                .getReference("users")
-                                .child(userId);
+                        Map<String, Object> updates = new HashMap<>();
+                        updates.put("users/" + userId, UserMapper.toValue(newUser));
+                        // A new user is in no groups yet; their (empty) group index is complete
+                        UserGroupIndex.putIndexed(updates, userId);
 
-                        userRef.setValue(newUser)
-                                .addOnSuccessListener(unused -> {
+                        new FirebaseDataStore().update(updates,
+                                () -> {
                                     Toast.makeText(this, "Account created & saved", Toast.LENGTH_SHORT).show();
 
                                     // 🔒 Log out newly registered user to force login
@@ -97,10 +102,8 @@ public class RegisterActivity extends AppCompatActivity {
                                     intent.addFlags(Intent.FLAG_ACTIVITY_CLEAR_TOP | Intent.FLAG_ACTIVITY_NEW_TASK);
                                     startActivity(intent);
                                     finish();
-                                })
-                                .addOnFailureListener(e -> {
-                                    Toast.makeText(this, "Failed to save user: " + e.getMessage(), Toast.LENGTH_LONG).show();
-                                });
+                                },
+                                () -> Toast.makeText(this, "Failed to save user", Toast.LENGTH_LONG).show());
 
                     } else {
                         Toast.makeText(this, "Registration failed: " + task.getException().getMessage(), Toast.LENGTH_LONG).show();
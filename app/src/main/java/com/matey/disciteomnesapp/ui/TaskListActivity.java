@@ -1,53 +1,81 @@
 package com.matey.disciteomnesapp.ui;
 
-import android.content.SharedPreferences;
 import android.os.Bundle;
 import android.text.TextUtils;
 import android.view.LayoutInflater;
+import android.view.Menu;
+import android.view.MenuItem;
 import android.view.View;
+import android.widget.AdapterView;
 import android.widget.ArrayAdapter;
 import android.widget.EditText;
 import android.widget.Spinner;
+import android.widget.TextView;
 import android.widget.Toast;
 
+import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.appcompat.view.ActionMode;
+import androidx.lifecycle.ViewModelProvider;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.google.android.material.floatingactionbutton.FloatingActionButton;
-import com.google.firebase.database.DataSnapshot;
-import com.google.firebase.database.DatabaseError;
-import com.google.firebase.database.FirebaseDatabase;
-import com.google.firebase.database.ValueEventListener;
 import com.matey.disciteomnesapp.R;
+import com.matey.disciteomnesapp.data.AppExecutors;
+import com.matey.disciteomnesapp.data.BulkTaskUpdate;
+import com.matey.disciteomnesapp.data.GroupRepository;
+import com.matey.disciteomnesapp.data.HotPathSync;
+import com.matey.disciteomnesapp.data.PreferencesSessionStore;
+import com.matey.disciteomnesapp.data.SessionStore;
+import com.matey.disciteomnesapp.data.TaskIndex;
+import com.matey.disciteomnesapp.data.TaskPager;
+import com.matey.disciteomnesapp.data.TaskRepository;
+import com.matey.disciteomnesapp.data.UserProfileCache;
+import com.matey.disciteomnesapp.metrics.Metrics;
 import com.matey.disciteomnesapp.models.Task;
 import com.matey.disciteomnesapp.models.User;
+import com.matey.disciteomnesapp.ui.adapters.RowViewPool;
 import com.matey.disciteomnesapp.ui.adapters.TaskAdapter;
 
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * TaskListActivity allows users to:
  * 1. Select one of their groups.
- * 2. View all tasks for that group.
+ * 2. View all tasks for that group (loaded in pages as the user scrolls), optionally
+ *    filtered to their own, overdue or incomplete tasks.
  * 3. Create new tasks (with due date and assignee).
+ * 4. Select several tasks (long-press) and complete, reassign or delete them at once.
+ *
+ * The loaded pages, the selected group and the filter live in a {@link TaskListViewModel},
+ * so a rotation only re-attaches the list to them.
  *
  * ✅ Firebase integration is manually implemented.
  * ⚠️ Layout logic and list filtering structure were improved with AI-assisted suggestions.
  */
 public class TaskListActivity extends AppCompatActivity {
 
+    private static final int PREFETCH_DISTANCE = 10;
+
     private RecyclerView taskRecyclerView;
+    private TextView filterPartialText;
     private TaskAdapter taskAdapter;
-    private List<Task> taskList = new ArrayList<>();
+    private RowViewPool rowViews;
+    private TaskListViewModel viewModel;
+    private boolean refreshPosted = false;
 
     private String groupId;
     private String groupName;
+    private SessionStore sessionStore;
+    private ActionMode selectionMode;
     private Map<String, String> memberIdToNameMap = new HashMap<>();
 
     @Override
@@ -55,16 +83,62 @@ public class TaskListActivity extends AppCompatActivity {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_task_list);
 
+        // Load user ID from the session saved at login
+        viewModel = new ViewModelProvider(this, TaskListViewModel.factory()).get(TaskListViewModel.class);
+        sessionStore = new PreferencesSessionStore(this);
+        if (viewModel.getUserId() == null) {
+            Toast.makeText(this, "User ID not found. Please re-login.", Toast.LENGTH_LONG).show();
+            finish();
+            return;
+        }
+
         // Initialize RecyclerView
         taskRecyclerView = findViewById(R.id.taskRecyclerView);
-        taskRecyclerView.setLayoutManager(new LinearLayoutManager(this));
+        LinearLayoutManager layoutManager = new LinearLayoutManager(this);
+        taskRecyclerView.setLayoutManager(layoutManager);
+
+        // Rows inflate in the background while the group is picked and its first page loads
+        rowViews = new RowViewPool(R.layout.item_task);
+        rowViews.attach(taskRecyclerView);
+
+        // Load the next/previous page as the user scrolls close to either end
+        taskRecyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                TaskPager taskPager = viewModel.getPager();
+                if (taskPager == null) return;
+                if (dy > 0 && layoutManager.findLastVisibleItemPosition() >= layoutManager.getItemCount() - PREFETCH_DISTANCE) {
+                    taskPager.loadNext();
+                } else if (dy < 0 && layoutManager.findFirstVisibleItemPosition() <= PREFETCH_DISTANCE) {
+                    taskPager.loadPrevious();
+                }
+            }
+        });
+
+        // Tapping the partial-results hint looks through the next page, then the earlier ones
+        filterPartialText = findViewById(R.id.filterPartialText);
+        filterPartialText.setOnClickListener(v -> {
+            TaskPager taskPager = viewModel.getPager();
+            if (taskPager == null) return;
+            if (!taskPager.isEndReached()) {
+                taskPager.loadNext();
+            } else {
+                taskPager.loadPrevious();
+            }
+        });
+
+        setUpFilter();
 
         // Floating action button to create tasks
         FloatingActionButton addTaskFab = findViewById(R.id.addTaskFab);
         addTaskFab.setOnClickListener(v -> showCreateTaskDialog());
 
-        // Prompt user to select one of their joined groups
-        showGroupSelectionDialog();
+        // Prompt user to select one of their joined groups, unless one is already open
+        if (viewModel.getGroupId() != null) {
+            showTasks();
+        } else {
+            showGroupSelectionDialog();
+        }
     }
 
     /**
@@ -81,42 +155,23 @@ public class TaskListActivity extends AppCompatActivity {
         adapter.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
         groupSpinner.setAdapter(adapter);
 
-        // Load user ID from SharedPreferences
-        SharedPreferences prefs = getSharedPreferences("prefs", MODE_PRIVATE);
-        String userId = prefs.getString("userId", null);
-        if (userId == null) {
-            Toast.makeText(this, "User ID not found. Please re-login.", Toast.LENGTH_LONG).show();
-            finish();
-            return;
-        }
-
-        // Fetch groups from Firebase that include the current user
-        FirebaseDatabase.getInstance().getReference("groups")
-                .addListenerForSingleValueEvent(new ValueEventListener() {
-                    @Override
-                    public void onDataChange(DataSnapshot snapshot) {
-                        for (DataSnapshot groupSnap : snapshot.getChildren()) {
-                            for (DataSnapshot member : groupSnap.child("members").getChildren()) {
-                                String value = member.getValue(String.class);
-                                if (userId.equals(value)) {
-                                    String name = groupSnap.child("name").getValue(String.class);
-                                    String id = groupSnap.getKey();
-                                    if (id != null && name != null) {
-                                        groupIds.add(id);
-                                        groupNamesList.add(name);
-                                    }
-                                    break;
-                                }
-                            }
-                        }
-                        adapter.notifyDataSetChanged();
-                    }
-
-                    @Override
-                    public void onCancelled(DatabaseError error) {
-                        Toast.makeText(TaskListActivity.this, "Failed to load groups", Toast.LENGTH_SHORT).show();
-                    }
-                });
+        // The user's groups (userGroups/{uid} index); the first time, the load started at startup
+        String lastGroupId = sessionStore.getLastGroupId();
+        viewModel.getUserGroups().whenCompleteAsync((groupNamesById, error) -> {
+            if (isDestroyed()) return;
+            if (error != null) {
+                Toast.makeText(TaskListActivity.this, "Failed to load groups", Toast.LENGTH_SHORT).show();
+                return;
+            }
+            for (Map.Entry<String, String> entry : groupNamesById.entrySet()) {
+                groupIds.add(entry.getKey());
+                groupNamesList.add(entry.getValue());
+            }
+            adapter.notifyDataSetChanged();
+            // Preselect the group opened last time; its first page was prefetched
+            int lastIndex = groupIds.indexOf(lastGroupId);
+            if (lastIndex >= 0) groupSpinner.setSelection(lastIndex);
+        }, AppExecutors.mainThread());
 
         // Show dialog
         new AlertDialog.Builder(this)
@@ -126,12 +181,12 @@ public class TaskListActivity extends AppCompatActivity {
                 .setPositiveButton("Continue", (dialog, which) -> {
                     int selectedIndex = groupSpinner.getSelectedItemPosition();
                     if (selectedIndex >= 0 && selectedIndex < groupIds.size()) {
-                        groupId = groupIds.get(selectedIndex);
-                        groupName = groupNamesList.get(selectedIndex);
+                        viewModel.selectGroup(groupIds.get(selectedIndex), groupNamesList.get(selectedIndex));
+                        sessionStore.setLastGroupId(groupIds.get(selectedIndex));
+                        // 📌 Keep this group's first page synced for the next time it is opened
+                        HotPathSync.getInstance().groupOpened(groupIds.get(selectedIndex));
 
-                        taskAdapter = new TaskAdapter(taskList, groupId, groupName);
-                        taskRecyclerView.setAdapter(taskAdapter);
-                        loadTasks();
+                        showTasks();
                     } else {
                         Toast.makeText(this, "Please select a valid group", Toast.LENGTH_SHORT).show();
                     }
@@ -140,27 +195,259 @@ public class TaskListActivity extends AppCompatActivity {
     }
 
     /**
-     * Loads tasks for the selected group from Firebase.
+     * Shows the selected group's tasks, loaded one page at a time by the view model.
+     * Each resident page is a live window applied through child events, and the list
+     * is diffed off the main thread, so a change to a single task only deserializes and
+     * rebinds that task.
      */
-    private void loadTasks() {
-        FirebaseDatabase.getInstance().getReference("tasks")
-                .orderByChild("groupId").equalTo(groupId)
-                .addValueEventListener(new ValueEventListener() {
-                    @Override
-                    public void onDataChange(DataSnapshot snapshot) {
-                        taskList.clear();
-                        for (DataSnapshot snap : snapshot.getChildren()) {
-                            Task task = snap.getValue(Task.class);
-                            if (task != null) taskList.add(task);
-                        }
-                        taskAdapter.notifyDataSetChanged();
-                    }
+    private void showTasks() {
+        groupId = viewModel.getGroupId();
+        groupName = viewModel.getGroupName();
+        TaskRepository taskRepository = TaskRepository.getInstance(this);
+
+        // Toggles are batched; a rejected one is rolled back in the list
+        taskAdapter = new TaskAdapter(groupName,
+                (task, completed) -> taskRepository.setCompleted(task, completed, (taskId, success) -> {
+                    if (taskAdapter == null) return;
+                    taskAdapter.onWriteResult(taskId, completed, success);
+                    if (!success) Toast.makeText(this, "Failed to update task", Toast.LENGTH_SHORT).show();
+                }));
+        taskAdapter.setOnSelectionChangedListener(this::onSelectionChanged);
+        taskAdapter.setRowViews(rowViews);
+        taskRecyclerView.setAdapter(taskAdapter);
+        showVisibleTasks();
 
-                    @Override
-                    public void onCancelled(DatabaseError error) {
-                        Toast.makeText(TaskListActivity.this, "Failed to load tasks", Toast.LENGTH_SHORT).show();
+        // Every pager change may touch the shown rows, whichever filter is active
+        viewModel.attach(new TaskPager.Listener() {
+            @Override
+            public void onInserted(int positionStart, int count) {
+                onTasksChanged();
+            }
+
+            @Override
+            public void onChanged(int position) {
+                onTasksChanged();
+            }
+
+            @Override
+            public void onRemoved(int positionStart, int count) {
+                onTasksChanged();
+            }
+
+            @Override
+            public void onMoved(int fromPosition, int toPosition) {
+                onTasksChanged();
+            }
+
+            @Override
+            public void onError(String message) {
+                Toast.makeText(TaskListActivity.this, "Failed to load tasks", Toast.LENGTH_SHORT).show();
+            }
+
+            @Override
+            public void onPageLoaded() {
+                // A filter may need the next page, or the end was reached
+                onTasksChanged();
+            }
+        });
+    }
+
+    /**
+     * Shows the bulk actions while tasks are selected.
+     */
+    private void onSelectionChanged(int selectedCount) {
+        if (selectedCount == 0) {
+            if (selectionMode != null) selectionMode.finish();
+            return;
+        }
+        if (selectionMode == null) selectionMode = startSupportActionMode(new SelectionCallback());
+        if (selectionMode != null) selectionMode.setTitle(selectedCount + " selected");
+    }
+
+    private class SelectionCallback implements ActionMode.Callback {
+        private static final int COMPLETE = 1;
+        private static final int UNCOMPLETE = 2;
+        private static final int REASSIGN = 3;
+        private static final int DELETE = 4;
+
+        @Override
+        public boolean onCreateActionMode(ActionMode mode, Menu menu) {
+            menu.add(Menu.NONE, COMPLETE, Menu.NONE, "Complete");
+            menu.add(Menu.NONE, UNCOMPLETE, Menu.NONE, "Mark incomplete");
+            menu.add(Menu.NONE, REASSIGN, Menu.NONE, "Reassign");
+            menu.add(Menu.NONE, DELETE, Menu.NONE, "Delete");
+            return true;
+        }
+
+        @Override
+        public boolean onPrepareActionMode(ActionMode mode, Menu menu) {
+            return false;
+        }
+
+        @Override
+        public boolean onActionItemClicked(ActionMode mode, MenuItem item) {
+            List<Task> selected = taskAdapter.getSelectedTasks();
+            TaskRepository taskRepository = TaskRepository.getInstance(TaskListActivity.this);
+            switch (item.getItemId()) {
+                case COMPLETE:
+                case UNCOMPLETE:
+                    taskRepository.setCompleted(selected, item.getItemId() == COMPLETE, bulkResult("updated"));
+                    break;
+                case REASSIGN:
+                    showReassignDialog(selected);
+                    break;
+                case DELETE:
+                    new AlertDialog.Builder(TaskListActivity.this)
+                            .setTitle("Delete " + selected.size() + " tasks?")
+                            .setPositiveButton("Delete", (dialog, which) ->
+                                    taskRepository.delete(selected, bulkResult("deleted")))
+                            .setNegativeButton("Cancel", null)
+                            .show();
+                    break;
+                default:
+                    return false;
+            }
+            return true;
+        }
+
+        @Override
+        public void onDestroyActionMode(ActionMode mode) {
+            selectionMode = null;
+            taskAdapter.clearSelection();
+        }
+    }
+
+    /**
+     * Lets the user pick a group member and assigns all selected tasks to them.
+     */
+    private void showReassignDialog(List<Task> selected) {
+        Spinner memberSpinner = new Spinner(this);
+        ArrayAdapter<String> memberAdapter = new ArrayAdapter<>(this, android.R.layout.simple_spinner_item, new ArrayList<>());
+        memberAdapter.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
+        memberSpinner.setAdapter(memberAdapter);
+        loadMembers(memberAdapter);
+
+        new AlertDialog.Builder(this)
+                .setTitle("Reassign " + selected.size() + " tasks")
+                .setView(memberSpinner)
+                .setPositiveButton("Reassign", (dialog, which) -> {
+                    String name = (String) memberSpinner.getSelectedItem();
+                    if (name == null) return;
+                    TaskRepository.getInstance(this).reassign(selected, memberIdToNameMap.get(name), name,
+                            bulkResult("reassigned"));
+                })
+                .setNegativeButton("Cancel", null)
+                .show();
+    }
+
+    private BulkTaskUpdate.Callback bulkResult(String verb) {
+        return new BulkTaskUpdate.Callback() {
+            @Override
+            public void onSuccess(int taskCount) {
+                if (selectionMode != null) selectionMode.finish();
+                Toast.makeText(TaskListActivity.this, taskCount + " tasks " + verb, Toast.LENGTH_SHORT).show();
+            }
+
+            @Override
+            public void onFailure() {
+                Toast.makeText(TaskListActivity.this, "Failed to update tasks, nothing was changed", Toast.LENGTH_SHORT).show();
+            }
+        };
+    }
+
+    /**
+     * Fills the filter spinner; a new selection swaps the list through the adapter's diff.
+     */
+    private void setUpFilter() {
+        Spinner filterSpinner = findViewById(R.id.taskFilterSpinner);
+        ArrayAdapter<String> filterAdapter = new ArrayAdapter<>(this, android.R.layout.simple_spinner_item,
+                new String[]{"All tasks", "My tasks", "Overdue", "Incomplete"});
+        filterAdapter.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
+        filterSpinner.setAdapter(filterAdapter);
+        filterSpinner.setSelection(viewModel.getFilter().ordinal());
+
+        filterSpinner.setOnItemSelectedListener(new AdapterView.OnItemSelectedListener() {
+            @Override
+            public void onItemSelected(AdapterView<?> parent, View view, int position, long id) {
+                TaskIndex.Filter selected = TaskIndex.Filter.values()[position];
+                if (selected == viewModel.getFilter()) return;
+                viewModel.setFilter(selected);
+                showVisibleTasks();
+            }
+
+            @Override
+            public void onNothingSelected(AdapterView<?> parent) {
+            }
+        });
+    }
+
+    /**
+     * Called for every task event; the shown list is refreshed once per frame at most.
+     */
+    private void onTasksChanged() {
+        if (refreshPosted) return;
+        refreshPosted = true;
+        taskRecyclerView.post(() -> {
+            refreshPosted = false;
+            showVisibleTasks();
+        });
+    }
+
+    private void showVisibleTasks() {
+        if (taskAdapter == null) return;
+        long start = Metrics.begin(Metrics.TASK_LIST_UPDATE);
+        List<Task> visible = viewModel.getVisibleTasks(LocalDate.now().toEpochDay());
+        taskAdapter.submitList(visible, () -> Metrics.end(Metrics.TASK_LIST_UPDATE, start));
+
+        // 🔎 A short filtered list can't be scrolled, so it loads more pages by itself
+        viewModel.fillFilter(visible.size());
+        filterPartialText.setVisibility(viewModel.isFilterPartial() ? View.VISIBLE : View.GONE);
+    }
+
+    @Override
+    protected void onStart() {
+        super.onStart();
+        viewModel.startSync();
+    }
+
+    @Override
+    protected void onStop() {
+        super.onStop();
+        // The pages outlive a rotation by a grace period, like the shared listeners
+        viewModel.stopSync();
+        // Don't leave toggles waiting in the batch window while the app is in the background
+        TaskRepository.getInstance(this).flushWrites();
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        // The pages stay loaded in the view model until the screen is finished for good
+        if (viewModel != null) viewModel.detach();
+    }
+
+    /**
+     * Loads the group's members, then resolves only their profiles through the shared cache.
+     */
+    private void loadMembers(ArrayAdapter<String> memberAdapter) {
+        GroupRepository.getInstance(this).loadMembers(groupId, new GroupRepository.MembersCallback() {
+            @Override
+            public void onMembers(Set<String> userIds) {
+                UserProfileCache.getInstance(TaskListActivity.this).getProfiles(userIds, profiles -> {
+                    for (User user : profiles.values()) {
+                        if (user.name == null) continue;
+                        memberIdToNameMap.put(user.name, user.id);
+                        memberAdapter.add(user.name);
                     }
+                    memberAdapter.notifyDataSetChanged();
                 });
+            }
+
+            @Override
+            public void onFailure() {
+                Toast.makeText(TaskListActivity.this, "Failed to load group members", Toast.LENGTH_SHORT).show();
+            }
+        });
     }
 
     /**
@@ -178,43 +465,7 @@ public class TaskListActivity extends AppCompatActivity {
         memberAdapter.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
         memberSpinner.setAdapter(memberAdapter);
 
-        // Load group members and populate dropdown with their names
-        FirebaseDatabase.getInstance().getReference("groups").child(groupId).child("members")
-                .addListenerForSingleValueEvent(new ValueEventListener() {
-                    @Override
-                    public void onDataChange(DataSnapshot membersSnap) {
-                        List<String> userIds = new ArrayList<>();
-                        for (DataSnapshot member : membersSnap.getChildren()) {
-                            String userId = member.getValue(String.class);
-                            userIds.add(userId);
-                        }
-
-                        FirebaseDatabase.getInstance().getReference("users")
-                                .addListenerForSingleValueEvent(new ValueEventListener() {
-                                    @Override
-                                    public void onDataChange(DataSnapshot usersSnap) {
-                                        for (DataSnapshot userSnap : usersSnap.getChildren()) {
-                                            User user = userSnap.getValue(User.class);
-                                            if (user != null && userIds.contains(user.id)) {
-                                                memberIdToNameMap.put(user.name, user.id);
-                                                memberAdapter.add(user.name);
-                                            }
-                                        }
-                                        memberAdapter.notifyDataSetChanged();
-                                    }
-
-                                    @Override
-                                    public void onCancelled(DatabaseError error) {
-                                        Toast.makeText(TaskListActivity.this, "Failed to load users", Toast.LENGTH_SHORT).show();
-                                    }
-                                });
-                    }
-
-                    @Override
-                    public void onCancelled(DatabaseError error) {
-                        Toast.makeText(TaskListActivity.this, "Failed to load group members", Toast.LENGTH_SHORT).show();
-                    }
-                });
+        loadMembers(memberAdapter);
 
         // Show dialog for task creation
         new AlertDialog.Builder(this)
@@ -232,14 +483,23 @@ public class TaskListActivity extends AppCompatActivity {
                         return;
                     }
 
-                    // Construct Task object and save to DB
-                    String taskId = FirebaseDatabase.getInstance().getReference("tasks").push().getKey();
+                    // Construct Task object and save it together with the group's counters.
+                    // It shows up at once; the write is queued until the server has it.
+                    TaskRepository repository = TaskRepository.getInstance(this);
+                    String taskId = repository.newTaskId(groupId);
                     Task task = new Task(taskId, groupId, title, description, false, assignedToId, assignedToName, dueDate);
 
-                    FirebaseDatabase.getInstance().getReference("tasks")
-                            .child(taskId).setValue(task)
-                            .addOnSuccessListener(unused -> Toast.makeText(this, "Task created", Toast.LENGTH_SHORT).show())
-                            .addOnFailureListener(e -> Toast.makeText(this, "Failed to create task", Toast.LENGTH_SHORT).show());
+                    repository.create(task, new BulkTaskUpdate.Callback() {
+                        @Override
+                        public void onSuccess(int taskCount) {
+                        }
+
+                        @Override
+                        public void onFailure() {
+                            Toast.makeText(getApplicationContext(), "Failed to create task \"" + title + "\"", Toast.LENGTH_SHORT).show();
+                        }
+                    });
+                    Toast.makeText(this, "Task created", Toast.LENGTH_SHORT).show();
                 })
                 .setNegativeButton("Cancel", null)
                 .show();
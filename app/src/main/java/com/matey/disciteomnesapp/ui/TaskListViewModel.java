@@ -0,0 +1,270 @@
+package com.matey.disciteomnesapp.ui;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.lifecycle.SavedStateHandle;
+import androidx.lifecycle.SavedStateHandleSupport;
+import androidx.lifecycle.ViewModel;
+import androidx.lifecycle.ViewModelProvider;
+import androidx.lifecycle.viewmodel.CreationExtras;
+
+import com.matey.disciteomnesapp.data.FirebaseTaskPageSource;
+import com.matey.disciteomnesapp.data.ListenerRegistry;
+import com.matey.disciteomnesapp.data.PreferencesSessionStore;
+import com.matey.disciteomnesapp.data.Scheduler;
+import com.matey.disciteomnesapp.data.StartupCoordinator;
+import com.matey.disciteomnesapp.data.TaskIndex;
+import com.matey.disciteomnesapp.data.TaskPager;
+import com.matey.disciteomnesapp.data.TaskRepository;
+import com.matey.disciteomnesapp.models.Task;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * State of the task list that outlives the activity: the user's groups, the selected
+ * group with its live task pages and index, and the filter.
+ *
+ * The pager's windows stay attached across a rotation; the new activity only attaches
+ * its adapter to the loaded items. While no screen is started they are detached after
+ * the same grace period as the shared listeners in {@link ListenerRegistry}, and
+ * reopened when a screen starts again. The selected group and the filter are kept in the
+ * SavedStateHandle, so after process death the same group is reopened (from the local
+ * cache first) without asking again.
+ */
+public class TaskListViewModel extends ViewModel {
+
+    static final String KEY_GROUP_ID = "groupId";
+    static final String KEY_GROUP_NAME = "groupName";
+    static final String KEY_FILTER = "filter";
+
+    // Tasks are loaded in pages of PAGE_SIZE, with at most MAX_PAGES kept in memory
+    static final int PAGE_SIZE = TaskPager.DEFAULT_PAGE_SIZE;
+    static final int MAX_PAGES = 5;
+    // A filtered list shorter than this loads more pages while the window has room
+    static final int FILTER_MIN_ROWS = PAGE_SIZE;
+
+    public interface UserGroupsLoader {
+        CompletableFuture<Map<String, String>> load(String userId);
+    }
+
+    private final SavedStateHandle state;
+    private final String userId;
+    private final StartupCoordinator.PageSourceFactory pageSources;
+    private final UserGroupsLoader userGroupsLoader;
+    private final Scheduler scheduler;
+    private final long graceMs;
+
+    private CompletableFuture<Map<String, String>> userGroups;
+    private TaskIndex taskIndex;
+    private TaskPager taskPager;
+    private boolean syncing = false;
+    private long syncGeneration = 0;
+
+    // The attached screen; events that arrive while none is attached are picked up on attach
+    private TaskPager.Listener screenListener;
+
+    private final TaskPager.Listener pagerListener = new TaskPager.Listener() {
+        @Override
+        public void onInserted(int positionStart, int count) {
+            if (screenListener != null) screenListener.onInserted(positionStart, count);
+        }
+
+        @Override
+        public void onChanged(int position) {
+            if (screenListener != null) screenListener.onChanged(position);
+        }
+
+        @Override
+        public void onRemoved(int positionStart, int count) {
+            if (screenListener != null) screenListener.onRemoved(positionStart, count);
+        }
+
+        @Override
+        public void onMoved(int fromPosition, int toPosition) {
+            if (screenListener != null) screenListener.onMoved(fromPosition, toPosition);
+        }
+
+        @Override
+        public void onError(String message) {
+            if (screenListener != null) screenListener.onError(message);
+        }
+
+        @Override
+        public void onPageLoaded() {
+            if (screenListener != null) screenListener.onPageLoaded();
+        }
+    };
+
+    public TaskListViewModel(SavedStateHandle state, String userId,
+                             StartupCoordinator.PageSourceFactory pageSources, UserGroupsLoader userGroupsLoader,
+                             Scheduler scheduler, long graceMs) {
+        this.state = state;
+        this.userId = userId;
+        this.pageSources = pageSources;
+        this.userGroupsLoader = userGroupsLoader;
+        this.scheduler = scheduler;
+        this.graceMs = graceMs;
+
+        // Restored after process death: reopen the group that was shown
+        String groupId = state.get(KEY_GROUP_ID);
+        if (groupId != null) openGroup(groupId);
+    }
+
+    public static ViewModelProvider.Factory factory() {
+        return new ViewModelProvider.Factory() {
+            @NonNull
+            @Override
+            @SuppressWarnings("unchecked")
+            public <T extends ViewModel> T create(@NonNull Class<T> modelClass, @NonNull CreationExtras extras) {
+                Context app = extras.get(ViewModelProvider.AndroidViewModelFactory.APPLICATION_KEY);
+                TaskRepository taskRepository = TaskRepository.getInstance(app);
+                StartupCoordinator coordinator = StartupCoordinator.getInstance(app);
+                return (T) new TaskListViewModel(SavedStateHandleSupport.createSavedStateHandle(extras),
+                        new PreferencesSessionStore(app).getUserId(),
+                        groupId -> taskRepository.pageSource(groupId, new FirebaseTaskPageSource(groupId)),
+                        coordinator::takeUserGroups,
+                        Scheduler.mainThread(), ListenerRegistry.DEFAULT_GRACE_MS);
+            }
+        };
+    }
+
+    @Nullable
+    public String getUserId() {
+        return userId;
+    }
+
+    /**
+     * The user's groups, loaded once for the lifetime of this model.
+     */
+    public CompletableFuture<Map<String, String>> getUserGroups() {
+        if (userGroups == null) userGroups = userGroupsLoader.load(userId);
+        return userGroups;
+    }
+
+    @Nullable
+    public String getGroupId() {
+        return state.get(KEY_GROUP_ID);
+    }
+
+    @Nullable
+    public String getGroupName() {
+        return state.get(KEY_GROUP_NAME);
+    }
+
+    /**
+     * Shows the given group's tasks; selecting the group already shown keeps its pages.
+     */
+    public void selectGroup(String groupId, String groupName) {
+        state.set(KEY_GROUP_NAME, groupName);
+        if (groupId.equals(getGroupId()) && taskPager != null) return;
+        state.set(KEY_GROUP_ID, groupId);
+        openGroup(groupId);
+    }
+
+    @Nullable
+    public TaskPager getPager() {
+        return taskPager;
+    }
+
+    public TaskIndex.Filter getFilter() {
+        String name = state.get(KEY_FILTER);
+        return name != null ? TaskIndex.Filter.valueOf(name) : TaskIndex.Filter.ALL;
+    }
+
+    public void setFilter(TaskIndex.Filter filter) {
+        state.set(KEY_FILTER, filter.name());
+    }
+
+    /**
+     * A snapshot of the rows to show for the current filter: the resident tasks, or
+     * those of them that match.
+     */
+    public List<Task> getVisibleTasks(long todayEpochDay) {
+        if (taskPager == null) return Collections.emptyList();
+        TaskIndex.Filter filter = getFilter();
+        if (filter == TaskIndex.Filter.ALL) return new ArrayList<>(taskPager.getItems());
+        return taskIndex.query(filter, userId, todayEpochDay);
+    }
+
+    /**
+     * Loads the next page while a filter shows fewer than {@link #FILTER_MIN_ROWS} rows,
+     * as a short list can't be scrolled to load more. Stops at the end of the group or
+     * once the window is full, so matches already found are never slid out; what lies
+     * beyond is reported by {@link #isFilterPartial}. Called with the shown row count
+     * after every change and after every loaded page.
+     */
+    public void fillFilter(int visibleCount) {
+        if (taskPager == null || getFilter() == TaskIndex.Filter.ALL) return;
+        if (visibleCount >= FILTER_MIN_ROWS || taskPager.isEndReached()) return;
+        if (taskPager.getResidentPageCount() >= MAX_PAGES) return;
+        taskPager.loadNext();
+    }
+
+    /**
+     * Whether the filter has only seen part of the group: it covers the resident tasks,
+     * and pages before or after them exist.
+     */
+    public boolean isFilterPartial() {
+        if (taskPager == null || getFilter() == TaskIndex.Filter.ALL) return false;
+        return taskPager.hasPrevious() || !taskPager.isEndReached();
+    }
+
+    /**
+     * Routes pager changes to the screen until it detaches; the index has already
+     * been updated when they arrive.
+     */
+    public void attach(TaskPager.Listener listener) {
+        screenListener = listener;
+    }
+
+    public void detach() {
+        screenListener = null;
+    }
+
+    /**
+     * Keeps the task pages live while the screen is started; reopens them if they were
+     * detached while it was stopped.
+     */
+    public void startSync() {
+        if (syncing) return;
+        syncing = true;
+        syncGeneration++; // cancels a scheduled suspend
+        if (taskPager != null) taskPager.resume();
+    }
+
+    /**
+     * Detaches the task pages once the grace period passes without the screen starting
+     * again, so a rotation keeps them.
+     */
+    public void stopSync() {
+        if (!syncing) return;
+        syncing = false;
+        long scheduled = ++syncGeneration;
+        scheduler.schedule(() -> {
+            if (scheduled == syncGeneration && taskPager != null) taskPager.suspend();
+        }, graceMs);
+    }
+
+    @Override
+    protected void onCleared() {
+        detach();
+        syncing = false;
+        syncGeneration++;
+        if (taskPager != null) taskPager.close();
+        taskPager = null;
+    }
+
+    private void openGroup(String groupId) {
+        if (taskPager != null) taskPager.close();
+        // A fresh index per group, so the filters never mix groups
+        taskIndex = new TaskIndex();
+        taskPager = new TaskPager(pageSources.create(groupId), PAGE_SIZE, MAX_PAGES, pagerListener, taskIndex);
+        taskPager.loadFirst();
+    }
+}
@@ -8,15 +8,22 @@ import android.widget.TextView;
 import android.widget.Toast;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
-import com.google.firebase.auth.FirebaseAuth;
-import com.google.firebase.database.FirebaseDatabase;
 import com.matey.disciteomnesapp.R;
+import com.matey.disciteomnesapp.metrics.Metrics;
 import com.matey.disciteomnesapp.models.Group;
+import com.matey.disciteomnesapp.models.GroupStats;
+import com.matey.disciteomnesapp.utils.GroupService;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
 /**
  * Adapter for displaying a list of groups with Join/Leave functionality.
@@ -26,95 +33,187 @@ import java.util.List;
  * - Join a group if not already a member
  * - Leave a group if already a member
  *
+ * The adapter lives for the whole screen; new lists are handed over with submitList()
+ * and diffed on a background thread, so only rows that actually changed are rebound.
+ * Progress ("12/40 done") comes from the group's counters and is formatted once per
+ * counter change in setStats(), which rebinds only the rows whose text changed.
+ *
  * ✅ Firebase data manipulation was implemented manually.
  * ⚠️ Button state logic structure and adapter refresh logic were improved with AI assistance.
  */
-public class GroupAdapter extends RecyclerView.Adapter<GroupAdapter.GroupViewHolder> {
+public class GroupAdapter extends ListAdapter<Group, GroupAdapter.GroupViewHolder> {
+
+    private final GroupService groupService;
+    private final String currentUserId;
+
+    // Stable RecyclerView ids handed out per group key
+    private final Map<String, Long> stableIds = new HashMap<>();
+
+    private RowViewPool rowViews;
+
+    // Formatted progress per group id; groups without counters show none
+    private Map<String, String> progressLabels = new HashMap<>();
+
+    // Row work counters, read by the update instrumentation test
+    private int inflateCount = 0;
+    private int bindCount = 0;
+
+    public GroupAdapter(GroupService groupService, String currentUserId) {
+        super(new GroupDiffCallback(currentUserId));
+        this.groupService = groupService;
+        this.currentUserId = currentUserId;
+        setHasStableIds(true);
+    }
+
+    @Override
+    public long getItemId(int position) {
+        String id = getItem(position).id;
+        Long stableId = stableIds.get(id);
+        if (stableId == null) {
+            stableId = (long) stableIds.size();
+            stableIds.put(id, stableId);
+        }
+        return stableId;
+    }
+
+    /**
+     * Replaces the task counters shown under each group.
+     */
+    public void setStats(Map<String, GroupStats> stats) {
+        Map<String, String> labels = new HashMap<>();
+        for (GroupStats groupStats : stats.values()) labels.put(groupStats.groupId, progressLabel(groupStats));
+
+        Map<String, String> previous = progressLabels;
+        progressLabels = labels;
+        for (int position = 0; position < getItemCount(); position++) {
+            String id = getItem(position).id;
+            if (!Objects.equals(previous.get(id), labels.get(id))) notifyItemChanged(position);
+        }
+    }
 
-    private final List<Group> groupList;
-    private final String currentUserId = FirebaseAuth.getInstance().getCurrentUser().getUid();
+    static String progressLabel(GroupStats stats) {
+        String label = stats.completed + "/" + stats.total + " done";
+        return stats.overdue > 0 ? label + " · " + stats.overdue + " overdue" : label;
+    }
 
-    public GroupAdapter(List<Group> groupList) {
-        this.groupList = groupList;
+    /**
+     * Takes new rows from {@code rowViews} instead of inflating them on demand.
+     */
+    public void setRowViews(RowViewPool rowViews) {
+        this.rowViews = rowViews;
     }
 
     @NonNull
     @Override
     public GroupViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
-        // Inflate the layout for each group item
-        View view = LayoutInflater.from(parent.getContext())
+        // Inflate the layout for each group item (a row inflated ahead of time when there is one)
+        View view = rowViews != null ? rowViews.take(parent) : LayoutInflater.from(parent.getContext())
                 .inflate(R.layout.item_group, parent, false);
+        inflateCount++;
         return new GroupViewHolder(view);
     }
 
     @Override
     public void onBindViewHolder(@NonNull GroupViewHolder holder, int position) {
-        Group group = groupList.get(position);
+        long start = Metrics.begin(Metrics.ADAPTER_BIND);
+        Group group = getItem(position);
+        bindCount++;
+        Metrics.count(Metrics.BINDS, 1);
 
         // Set name and description
         holder.nameText.setText(group.name);
         holder.descriptionText.setText(group.description);
 
-        // Ensure the member list is initialized
-        if (group.members == null) {
-            group.members = new ArrayList<>();
-        }
+        // Progress from the group's counters, if it has any yet
+        String progress = progressLabels.get(group.id);
+        holder.progressText.setVisibility(progress != null ? View.VISIBLE : View.GONE);
+        holder.progressText.setText(progress);
 
-        // Determine membership state
-        boolean isMember = group.members.contains(currentUserId);
+        // Determine membership state (keyed lookup)
+        boolean isMember = group.isMember(currentUserId);
         holder.joinButton.setText(isMember ? "Leave" : "Join");
         holder.joinButton.setEnabled(true);
 
-        // Handle Join/Leave logic
+        // Handle Join/Leave logic (group members and userGroups index are written together)
         holder.joinButton.setOnClickListener(v -> {
-            if (isMember) {
-                // ❌ Leave group
-                group.members.remove(currentUserId);
-                FirebaseDatabase.getInstance().getReference("groups")
-                        .child(group.id)
-                        .child("members")
-                        .setValue(group.members)
-                        .addOnSuccessListener(unused -> {
-                            Toast.makeText(holder.itemView.getContext(), "Left group", Toast.LENGTH_SHORT).show();
-                            notifyItemChanged(holder.getAdapterPosition());
-                        })
-                        .addOnFailureListener(e -> {
-                            Toast.makeText(holder.itemView.getContext(), "Error leaving group", Toast.LENGTH_SHORT).show();
-                        });
-            } else {
-                // ✅ Join group
-                group.members.add(currentUserId);
-                FirebaseDatabase.getInstance().getReference("groups")
-                        .child(group.id)
-                        .child("members")
-                        .setValue(group.members)
-                        .addOnSuccessListener(unused -> {
-                            Toast.makeText(holder.itemView.getContext(), "Joined group", Toast.LENGTH_SHORT).show();
-                            notifyItemChanged(holder.getAdapterPosition());
-                        })
-                        .addOnFailureListener(e -> {
-                            Toast.makeText(holder.itemView.getContext(), "Error joining group", Toast.LENGTH_SHORT).show();
-                        });
-            }
+            holder.joinButton.setEnabled(false);
+            groupService.setMembership(group, !isMember, new GroupService.MembershipCallback() {
+                @Override
+                public void onChanged(Group updated) {
+                    Toast.makeText(holder.itemView.getContext(), isMember ? "Left group" : "Joined group",
+                            Toast.LENGTH_SHORT).show();
+                    // 🔁 A changed copy replaces the group, so the diff sees the new membership
+                    replace(updated);
+                }
+
+                @Override
+                public void onFailure() {
+                    Toast.makeText(holder.itemView.getContext(),
+                            isMember ? "Error leaving group" : "Error joining group", Toast.LENGTH_SHORT).show();
+                    holder.joinButton.setEnabled(true);
+                }
+            });
         });
+        Metrics.end(Metrics.ADAPTER_BIND, start);
     }
 
-    @Override
-    public int getItemCount() {
-        return groupList.size();
+    private void replace(Group updated) {
+        List<Group> groups = new ArrayList<>(getCurrentList());
+        for (int i = 0; i < groups.size(); i++) {
+            if (Objects.equals(groups.get(i).id, updated.id)) {
+                groups.set(i, updated);
+                submitList(groups);
+                return;
+            }
+        }
+    }
+
+    @VisibleForTesting
+    public int getInflateCount() {
+        return inflateCount;
+    }
+
+    @VisibleForTesting
+    public int getBindCount() {
+        return bindCount;
+    }
+
+    /**
+     * Groups are the same item when their keys match; contents compare only what a row
+     * displays, including whether the current user is a member.
+     */
+    static class GroupDiffCallback extends DiffUtil.ItemCallback<Group> {
+        private final String currentUserId;
+
+        GroupDiffCallback(String currentUserId) {
+            this.currentUserId = currentUserId;
+        }
+
+        @Override
+        public boolean areItemsTheSame(@NonNull Group oldItem, @NonNull Group newItem) {
+            return Objects.equals(oldItem.id, newItem.id);
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull Group oldItem, @NonNull Group newItem) {
+            return Objects.equals(oldItem.name, newItem.name)
+                    && Objects.equals(oldItem.description, newItem.description)
+                    && oldItem.isMember(currentUserId) == newItem.isMember(currentUserId);
+        }
     }
 
     /**
      * ViewHolder for each group item, holding the views to be updated.
      */
     static class GroupViewHolder extends RecyclerView.ViewHolder {
-        TextView nameText, descriptionText;
+        TextView nameText, descriptionText, progressText;
         Button joinButton;
 
         public GroupViewHolder(@NonNull View itemView) {
             super(itemView);
             nameText = itemView.findViewById(R.id.groupNameText);
             descriptionText = itemView.findViewById(R.id.groupDescriptionText);
+            progressText = itemView.findViewById(R.id.groupProgressText);
             joinButton = itemView.findViewById(R.id.joinGroupButton);
         }
     }
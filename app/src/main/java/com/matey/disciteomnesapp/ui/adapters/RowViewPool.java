@@ -0,0 +1,88 @@
+package com.matey.disciteomnesapp.ui.adapters;
+
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+
+import androidx.annotation.LayoutRes;
+import androidx.annotation.VisibleForTesting;
+import androidx.asynclayoutinflater.view.AsyncLayoutInflater;
+import androidx.recyclerview.widget.RecyclerView;
+
+import java.util.ArrayDeque;
+
+/**
+ * Row views for one list screen, inflated on a background thread as soon as the screen
+ * is created, so the first fling takes ready rows instead of inflating them on the UI
+ * thread. Adapters ask it for a view in onCreateViewHolder and fall back to a regular
+ * inflation once the prepared rows are used up.
+ *
+ * {@link #attach} also applies the list settings both list screens share.
+ */
+public class RowViewPool {
+
+    // About two screens of rows: the first screen plus what the first fling prefetches
+    public static final int DEFAULT_ROW_COUNT = 16;
+
+    // Rows kept bound after they scroll off, so a direction change doesn't rebind them
+    private static final int ITEM_VIEW_CACHE_SIZE = 4;
+
+    @LayoutRes
+    private final int layoutRes;
+    private final int rowCount;
+    private final ArrayDeque<View> ready = new ArrayDeque<>();
+    private int preparedCount = 0;
+    private int takenCount = 0;
+
+    public RowViewPool(@LayoutRes int layoutRes) {
+        this(layoutRes, DEFAULT_ROW_COUNT);
+    }
+
+    public RowViewPool(@LayoutRes int layoutRes, int rowCount) {
+        this.layoutRes = layoutRes;
+        this.rowCount = rowCount;
+    }
+
+    /**
+     * Configures the list and starts inflating its rows. The list's size never depends
+     * on its rows (it fills its parent), and its recycled pool is made large enough to
+     * keep every row when the whole list is rebound at once (e.g. a selection cleared),
+     * instead of dropping all but five of them.
+     */
+    public void attach(RecyclerView recyclerView) {
+        recyclerView.setHasFixedSize(true);
+        recyclerView.setItemViewCacheSize(ITEM_VIEW_CACHE_SIZE);
+        recyclerView.getRecycledViewPool().setMaxRecycledViews(0, rowCount);
+
+        // Inflated with the list as parent so the rows get its layout params
+        AsyncLayoutInflater inflater = new AsyncLayoutInflater(recyclerView.getContext());
+        for (int i = 0; i < rowCount; i++) {
+            inflater.inflate(layoutRes, recyclerView, (view, resid, parent) -> {
+                ready.add(view);
+                preparedCount++;
+            });
+        }
+    }
+
+    /**
+     * A prepared row if one is ready, otherwise a row inflated now.
+     */
+    public View take(ViewGroup parent) {
+        View view = ready.poll();
+        if (view != null) {
+            takenCount++;
+            return view;
+        }
+        return LayoutInflater.from(parent.getContext()).inflate(layoutRes, parent, false);
+    }
+
+    @VisibleForTesting
+    public int getPreparedCount() {
+        return preparedCount;
+    }
+
+    @VisibleForTesting
+    public int getTakenCount() {
+        return takenCount;
+    }
+}
@@ -1,5 +1,6 @@
 package com.matey.disciteomnesapp.ui.adapters;
 
+import android.graphics.Color;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -7,13 +8,23 @@ import android.widget.CheckBox;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
-import com.google.firebase.database.FirebaseDatabase;
 import com.matey.disciteomnesapp.R;
+import com.matey.disciteomnesapp.metrics.Metrics;
 import com.matey.disciteomnesapp.models.Task;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.WeakHashMap;
 
 /**
  * Adapter for displaying tasks inside a RecyclerView.
@@ -25,70 +36,221 @@ import java.util.List;
  * - Due date
  * - Completion checkbox
  *
- * ✅ Firebase completion status updating was implemented manually.
+ * The adapter lives for the whole screen; new lists are handed over with submitList()
+ * and diffed on a background thread, so only rows that actually changed are rebound.
+ *
+ * Long-pressing a row starts multi-select; while anything is selected, tapping a row
+ * adds or removes it, and the selection can be acted on as a whole.
+ *
+ * Every task is formatted into a {@link TaskRow} once per data change (a changed task
+ * arrives as a new Task object), so scrolling only assigns pre-built strings. The
+ * listeners are set once per ViewHolder and the tasks themselves are never modified.
+ *
+ * ✅ Firebase completion status updating was implemented manually (now handed to TaskRepository).
  * ⚠️ Null/empty string formatting and clean checkbox listener reset logic were enhanced with AI assistance.
  */
-public class TaskAdapter extends RecyclerView.Adapter<TaskAdapter.TaskViewHolder> {
+public class TaskAdapter extends ListAdapter<Task, TaskAdapter.TaskViewHolder> {
+
+    /**
+     * Receives completion changes made with a row's checkbox.
+     */
+    public interface OnTaskCheckedListener {
+        void onTaskChecked(Task task, boolean completed);
+    }
+
+    /**
+     * Told whenever the number of selected rows changes.
+     */
+    public interface OnSelectionChangedListener {
+        void onSelectionChanged(int selectedCount);
+    }
+
+    private static final int SELECTED_COLOR = 0x336200EE;
+
+    private final String groupLabel;
+    private final OnTaskCheckedListener checkedListener;
+    private final Set<String> selectedIds = new HashSet<>();
+    private OnSelectionChangedListener selectionListener;
+
+    // Rows by task object; a task replaced by newer data drops its row with it
+    private final Map<Task, TaskRow> rows = new WeakHashMap<>();
+
+    // Stable RecyclerView ids handed out per task key
+    private final Map<String, Long> stableIds = new HashMap<>();
+
+    private RowViewPool rowViews;
 
-    private final List<Task> taskList;
-    private final String groupId;
-    private final String groupName;
+    // Row work counters, read by the scroll instrumentation test
+    private int inflateCount = 0;
+    private int bindCount = 0;
 
     /**
-     * Constructor to initialize task list and associated group info.
+     * Constructor to initialize the associated group info and the checkbox handler.
      */
-    public TaskAdapter(List<Task> taskList, String groupId, String groupName) {
-        this.taskList = taskList;
-        this.groupId = groupId;
-        this.groupName = groupName;
+    public TaskAdapter(String groupName, OnTaskCheckedListener checkedListener) {
+        super(new TaskDiffCallback());
+        this.groupLabel = TaskRow.groupLabel(groupName);
+        this.checkedListener = checkedListener;
+        setHasStableIds(true);
+    }
+
+    public void setOnSelectionChangedListener(OnSelectionChangedListener selectionListener) {
+        this.selectionListener = selectionListener;
+    }
+
+    /**
+     * The selected tasks among the shown rows, in list order.
+     */
+    public List<Task> getSelectedTasks() {
+        List<Task> selected = new ArrayList<>();
+        for (Task task : getCurrentList()) {
+            if (selectedIds.contains(task.id)) selected.add(task);
+        }
+        return selected;
+    }
+
+    public void clearSelection() {
+        if (selectedIds.isEmpty()) return;
+        selectedIds.clear();
+        notifyDataSetChanged();
+        if (selectionListener != null) selectionListener.onSelectionChanged(0);
+    }
+
+    private void toggleSelection(int position) {
+        if (position == RecyclerView.NO_POSITION) return;
+        String id = getItem(position).id;
+        if (!selectedIds.remove(id)) selectedIds.add(id);
+        notifyItemChanged(position);
+        if (selectionListener != null) selectionListener.onSelectionChanged(selectedIds.size());
+    }
+
+    /**
+     * Result of a completion write. A rejected write puts the row's checkbox back,
+     * unless the row has been toggled again since.
+     */
+    public void onWriteResult(String taskId, boolean completed, boolean success) {
+        if (success) return;
+        for (int position = 0; position < getItemCount(); position++) {
+            Task task = getItem(position);
+            if (!Objects.equals(task.id, taskId)) continue;
+            TaskRow row = rowAt(position);
+            if (row.completed == completed) {
+                rows.put(task, row.withCompleted(!completed));
+                notifyItemChanged(position);
+            }
+            return;
+        }
+    }
+
+    /**
+     * The row for the task at {@code position}, built the first time that task object is shown.
+     */
+    TaskRow rowAt(int position) {
+        Task task = getItem(position);
+        TaskRow row = rows.get(task);
+        if (row == null) {
+            row = TaskRow.of(task);
+            rows.put(task, row);
+        }
+        return row;
+    }
+
+    @Override
+    public long getItemId(int position) {
+        String id = getItem(position).id;
+        Long stableId = stableIds.get(id);
+        if (stableId == null) {
+            stableId = (long) stableIds.size();
+            stableIds.put(id, stableId);
+        }
+        return stableId;
+    }
+
+    /**
+     * Takes new rows from {@code rowViews} instead of inflating them on demand.
+     */
+    public void setRowViews(RowViewPool rowViews) {
+        this.rowViews = rowViews;
     }
 
     @NonNull
     @Override
     public TaskViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
-        // Inflate layout for individual task items
-        View view = LayoutInflater.from(parent.getContext())
+        // Inflate layout for individual task items (a row inflated ahead of time when there is one)
+        View view = rowViews != null ? rowViews.take(parent) : LayoutInflater.from(parent.getContext())
                 .inflate(R.layout.item_task, parent, false);
-        return new TaskViewHolder(view);
+        inflateCount++;
+        TaskViewHolder holder = new TaskViewHolder(view);
+
+        // Listeners look the row up by position, so binding doesn't allocate new ones
+        holder.itemView.setOnLongClickListener(v -> {
+            toggleSelection(holder.getBindingAdapterPosition());
+            return true;
+        });
+        holder.itemView.setOnClickListener(v -> {
+            if (!selectedIds.isEmpty()) toggleSelection(holder.getBindingAdapterPosition());
+        });
+
+        // Report completion changes so they can be cached and written to Firebase
+        holder.checkBox.setOnCheckedChangeListener((buttonView, isChecked) -> {
+            int position = holder.getBindingAdapterPosition();
+            if (holder.binding || position == RecyclerView.NO_POSITION) return;
+            TaskRow row = rowAt(position);
+            rows.put(row.task, row.withCompleted(isChecked));
+            checkedListener.onTaskChecked(row.task, isChecked);
+        });
+        return holder;
     }
 
     @Override
     public void onBindViewHolder(@NonNull TaskViewHolder holder, int position) {
-        Task task = taskList.get(position);
-
-        // Set basic text fields
-        holder.titleText.setText(task.title);
-        holder.descriptionText.setText(task.description);
-        holder.groupTextView.setText("Group: " + groupName);
+        long start = Metrics.begin(Metrics.ADAPTER_BIND);
+        TaskRow row = rowAt(position);
+        bindCount++;
+        Metrics.count(Metrics.BINDS, 1);
 
-        // Display assignee name if available
-        holder.assigneeTextView.setText(task.assignedToName != null && !task.assignedToName.isEmpty()
-                ? "Assigned to: " + task.assignedToName
-                : "Assigned to: (none)");
+        holder.titleText.setText(row.title);
+        holder.descriptionText.setText(row.description);
+        holder.groupTextView.setText(groupLabel);
+        holder.assigneeTextView.setText(row.assigneeLabel);
+        holder.dueDateTextView.setText(row.dueLabel);
+        holder.itemView.setBackgroundColor(selectedIds.contains(row.task.id) ? SELECTED_COLOR : Color.TRANSPARENT);
 
-        // Display due date if available
-        holder.dueDateTextView.setText(task.dueDate != null && !task.dueDate.isEmpty()
-                ? "Due: " + task.dueDate
-                : "Due: not set");
+        // Setting the recycled checkbox's state must not count as a user toggle
+        holder.binding = true;
+        holder.checkBox.setChecked(row.completed);
+        holder.binding = false;
+        Metrics.end(Metrics.ADAPTER_BIND, start);
+    }
 
-        // Reset and handle checkbox to prevent unintended reuse behavior
-        holder.checkBox.setOnCheckedChangeListener(null);
-        holder.checkBox.setChecked(task.completed);
+    @VisibleForTesting
+    public int getInflateCount() {
+        return inflateCount;
+    }
 
-        // Update task completion status in Firebase when changed
-        holder.checkBox.setOnCheckedChangeListener((buttonView, isChecked) -> {
-            task.completed = isChecked;
-            FirebaseDatabase.getInstance()
-                    .getReference("tasks")
-                    .child(task.id)
-                    .child("completed")
-                    .setValue(isChecked);
-        });
+    @VisibleForTesting
+    public int getBindCount() {
+        return bindCount;
     }
 
-    @Override
-    public int getItemCount() {
-        return taskList.size();
+    /**
+     * Rows are the same task when ids match; a rebind is needed when anything shown changed.
+     */
+    static class TaskDiffCallback extends DiffUtil.ItemCallback<Task> {
+
+        @Override
+        public boolean areItemsTheSame(@NonNull Task oldTask, @NonNull Task newTask) {
+            return Objects.equals(oldTask.id, newTask.id);
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull Task oldTask, @NonNull Task newTask) {
+            return Objects.equals(oldTask.title, newTask.title)
+                    && Objects.equals(oldTask.description, newTask.description)
+                    && Objects.equals(oldTask.assignedToName, newTask.assignedToName)
+                    && Objects.equals(oldTask.dueDate, newTask.dueDate)
+                    && oldTask.completed == newTask.completed;
+        }
     }
 
     /**
@@ -97,6 +259,7 @@ public class TaskAdapter extends RecyclerView.Adapter<TaskAdapter.TaskViewHolder
     static class TaskViewHolder extends RecyclerView.ViewHolder {
         TextView titleText, descriptionText, groupTextView, assigneeTextView, dueDateTextView;
         CheckBox checkBox;
+        boolean binding = false;
 
         public TaskViewHolder(View itemView) {
             super(itemView);
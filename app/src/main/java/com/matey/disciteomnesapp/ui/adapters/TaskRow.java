@@ -0,0 +1,53 @@
+package com.matey.disciteomnesapp.ui.adapters;
+
+import com.matey.disciteomnesapp.models.Task;
+
+/**
+ * What one task row shows, formatted once when the task's data changes so that a bind
+ * only assigns fields. Rows are immutable; a checkbox toggle produces a new row instead
+ * of changing the task it was built from.
+ */
+public final class TaskRow {
+
+    public final Task task;
+    public final String title;
+    public final String description;
+    public final String assigneeLabel;
+    public final String dueLabel;
+    public final boolean completed;
+
+    private TaskRow(Task task, String title, String description, String assigneeLabel, String dueLabel,
+                    boolean completed) {
+        this.task = task;
+        this.title = title;
+        this.description = description;
+        this.assigneeLabel = assigneeLabel;
+        this.dueLabel = dueLabel;
+        this.completed = completed;
+    }
+
+    public static TaskRow of(Task task) {
+        return new TaskRow(task,
+                task.title,
+                task.description,
+                isSet(task.assignedToName) ? "Assigned to: " + task.assignedToName : "Assigned to: (none)",
+                isSet(task.dueDate) ? "Due: " + task.dueDate : "Due: not set",
+                task.completed);
+    }
+
+    /**
+     * Shared by every row of a list, so it is formatted once per adapter.
+     */
+    public static String groupLabel(String groupName) {
+        return "Group: " + groupName;
+    }
+
+    public TaskRow withCompleted(boolean completed) {
+        if (completed == this.completed) return this;
+        return new TaskRow(task, title, description, assigneeLabel, dueLabel, completed);
+    }
+
+    private static boolean isSet(String value) {
+        return value != null && !value.isEmpty();
+    }
+}
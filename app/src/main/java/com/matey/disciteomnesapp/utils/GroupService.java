@@ -1,36 +1,96 @@
 package com.matey.disciteomnesapp.utils;
 
+import android.content.Context;
+
 import com.google.firebase.auth.FirebaseAuth;
-import com.google.firebase.database.DatabaseReference;
-import com.google.firebase.database.FirebaseDatabase;
+import com.matey.disciteomnesapp.data.DataStore;
+import com.matey.disciteomnesapp.data.GroupMapper;
+import com.matey.disciteomnesapp.data.QueuedDataStore;
+import com.matey.disciteomnesapp.data.UserGroupIndex;
 import com.matey.disciteomnesapp.models.Group;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.HashMap;
+import java.util.Map;
 
 public class GroupService {
-    private final DatabaseReference groupsRef;
+
+    /**
+     * Result of a membership change; {@code updated} is a new Group with the change
+     * applied, the one passed in is left as it was.
+     */
+    public interface MembershipCallback {
+        void onChanged(Group updated);
+
+        void onFailure();
+    }
+
+    private final DataStore dataStore;
     private final String currentUserId;
 
-    public GroupService() {
-        groupsRef = FirebaseDatabase.getInstance().getReference("groups");
-        currentUserId = FirebaseAuth.getInstance().getCurrentUser().getUid();
+    /**
+     * Writes through the app's {@link QueuedDataStore}, so they outlive the process.
+     */
+    public GroupService(Context context) {
+        this(QueuedDataStore.getInstance(context), FirebaseAuth.getInstance().getCurrentUser().getUid());
     }
 
-    public void createGroup(String name, String description, Runnable onSuccess, Runnable onFailure) {
-        String groupId = groupsRef.push().getKey();
+    public GroupService(DataStore dataStore, String currentUserId) {
+        this.dataStore = dataStore;
+        this.currentUserId = currentUserId;
+    }
+
+    /**
+     * Creates a group with the current user as its first member. Optimistic:
+     * {@code onCreated} runs as soon as the write is queued (the group list shows the
+     * group from Firebase's local copy right away), {@code onRejected} only if the
+     * server later refuses it.
+     */
+    public void createGroup(String name, String description, Runnable onCreated, Runnable onRejected) {
+        String groupId = dataStore.newKey("groups");
         if (groupId == null) return;
 
-        List<String> members = new ArrayList<>();
-        members.add(currentUserId);
+        Group newGroup = new Group(groupId, name, description, Group.membersOf(currentUserId));
 
-        Group newGroup = new Group(groupId, name, description, members);
-        groupsRef.child(groupId).setValue(newGroup)
-                .addOnSuccessListener(unused -> onSuccess.run())
-                .addOnFailureListener(e -> onFailure.run());
+        // Group and the creator's index entry are written in one atomic update
+        Map<String, Object> updates = new HashMap<>();
+        updates.put("groups/" + groupId, GroupMapper.toValue(newGroup));
+        UserGroupIndex.putMembership(updates, currentUserId, groupId, name, true);
+
+        dataStore.update(updates, () -> { }, onRejected);
+        onCreated.run();
     }
 
-    public DatabaseReference getGroupsRef() {
-        return groupsRef;
+    /**
+     * Adds or removes the current user from a group, keeping userGroups/{uid} in sync.
+     * Only the user's own members/{uid} child is written, so concurrent joins don't
+     * overwrite each other. The group isn't modified: it may be an item of an adapter's
+     * current list, which DiffUtil compares against, so a changed copy is handed to
+     * {@code callback} once the write succeeds.
+     */
+    public void setMembership(Group group, boolean join, MembershipCallback callback) {
+        Map<String, Object> updates = new HashMap<>();
+        if (group.legacyMembers) {
+            // One-time rewrite of the old list form into members/{uid}: true
+            Map<String, Boolean> members = group.members != null ? new HashMap<>(group.members) : new HashMap<>();
+            if (join) {
+                members.put(currentUserId, true);
+            } else {
+                members.remove(currentUserId);
+            }
+            updates.put("groups/" + group.id + "/members", members);
+        } else {
+            updates.put("groups/" + group.id + "/members/" + currentUserId, join ? true : null);
+        }
+        UserGroupIndex.putMembership(updates, currentUserId, group.id, group.name, join);
+
+        dataStore.update(updates, () -> {
+            Map<String, Boolean> members = group.members != null ? new HashMap<>(group.members) : new HashMap<>();
+            if (join) {
+                members.put(currentUserId, true);
+            } else {
+                members.remove(currentUserId);
+            }
+            callback.onChanged(new Group(group.id, group.name, group.description, members));
+        }, callback::onFailure);
     }
 }
@@ -0,0 +1,109 @@
+package com.matey.disciteomnesapp.utils;
+
+import android.content.Context;
+
+import com.google.firebase.auth.FirebaseAuth;
+import com.matey.disciteomnesapp.data.PreferencesSessionStore;
+import com.matey.disciteomnesapp.data.SessionStore;
+import com.matey.disciteomnesapp.data.UserProfileCache;
+import com.matey.disciteomnesapp.models.User;
+
+/**
+ * Signs the user in and sets up the session.
+ *
+ * The uid comes straight from authentication, so the caller can move on as soon as
+ * sign-in succeeds. The profile is resolved with a single users/{uid} read through the
+ * shared UserProfileCache, running while the next screen opens; that screen's own
+ * lookup joins the same read instead of starting another.
+ */
+public class LoginService {
+
+    public interface Authenticator {
+        void signIn(String email, String password, AuthCallback callback);
+
+        void signOut();
+    }
+
+    public interface AuthCallback {
+        void onSignedIn(String userId);
+
+        void onFailure(String message);
+    }
+
+    public interface Callback {
+        void onLoggedIn(String userId);
+
+        void onError(String message);
+    }
+
+    private final Authenticator authenticator;
+    private final UserProfileCache profileCache;
+    private final SessionStore sessionStore;
+
+    public LoginService(Context context) {
+        this(new FirebaseAuthenticator(), UserProfileCache.getInstance(context), new PreferencesSessionStore(context));
+    }
+
+    public LoginService(Authenticator authenticator, UserProfileCache profileCache, SessionStore sessionStore) {
+        this.authenticator = authenticator;
+        this.profileCache = profileCache;
+        this.sessionStore = sessionStore;
+    }
+
+    public void login(String email, String password, Callback callback) {
+        authenticator.signIn(email, password, new AuthCallback() {
+            @Override
+            public void onSignedIn(String userId) {
+                sessionStore.save(userId, null);
+                callback.onLoggedIn(userId);
+                warmProfile(userId);
+            }
+
+            @Override
+            public void onFailure(String message) {
+                callback.onError(message);
+            }
+        });
+    }
+
+    /**
+     * Makes sure a user who is still signed in from an earlier launch has a session.
+     */
+    public void resume(String userId) {
+        if (!userId.equals(sessionStore.getUserId())) sessionStore.save(userId, null);
+        warmProfile(userId);
+    }
+
+    public void logout() {
+        sessionStore.clear();
+        authenticator.signOut();
+    }
+
+    private void warmProfile(String userId) {
+        profileCache.getProfile(userId, profiles -> {
+            User user = profiles.get(userId);
+            if (user != null && userId.equals(sessionStore.getUserId())) {
+                sessionStore.save(userId, user.name);
+            }
+        });
+    }
+
+    private static class FirebaseAuthenticator implements Authenticator {
+        @Override
+        public void signIn(String email, String password, AuthCallback callback) {
+            FirebaseAuth.getInstance().signInWithEmailAndPassword(email, password)
+                    .addOnCompleteListener(task -> {
+                        if (task.isSuccessful() && task.getResult() != null && task.getResult().getUser() != null) {
+                            callback.onSignedIn(task.getResult().getUser().getUid());
+                        } else {
+                            callback.onFailure(task.getException() != null ? task.getException().getMessage() : "Unknown error");
+                        }
+                    });
+        }
+
+        @Override
+        public void signOut() {
+            FirebaseAuth.getInstance().signOut();
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.matey.disciteomnesapp.data;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class AppliedWritesCleanupTest {
+
+    private static final long NOW = 100L * 24 * 60 * 60 * 1000;
+
+    private final FakeDataStore store = new FakeDataStore();
+    private final List<String> events = new ArrayList<>();
+
+    @Test
+    public void run_deletesOnlyKeysTooOldToBeWrittenAgain() {
+        long expired = NOW - AppliedWrites.RETENTION_MS - AppliedWritesCleanup.CLOCK_MARGIN_MS;
+        store.set(AppliedWrites.path("expired"), expired);
+        store.set(AppliedWrites.path("withinMargin"), expired + 1);
+        store.set(AppliedWrites.path("recent"), NOW);
+        store.set(AppliedWrites.path("legacy"), true);
+
+        run();
+
+        assertEquals(Collections.singletonList("done"), events);
+        assertNull(store.get(AppliedWrites.path("expired")));
+        assertNull(store.get(AppliedWrites.path("legacy")));
+        assertNotNull(store.get(AppliedWrites.path("withinMargin")));
+        assertNotNull(store.get(AppliedWrites.path("recent")));
+    }
+
+    @Test
+    public void run_manyExpiredKeys_areDeletedInChunks() {
+        for (int i = 0; i < 2 * AppliedWritesCleanup.CHUNK_SIZE + 1; i++) {
+            store.set(AppliedWrites.path("k" + i), 0L);
+        }
+
+        run();
+
+        assertEquals(3, store.updates.size());
+        assertNull(store.get(AppliedWrites.ROOT));
+    }
+
+    @Test
+    public void run_nothingExpired_writesNothing() {
+        store.set(AppliedWrites.path("recent"), NOW);
+
+        run();
+
+        assertEquals(Collections.singletonList("done"), events);
+        assertTrue(store.updates.isEmpty());
+    }
+
+    private void run() {
+        new AppliedWritesCleanup(store, () -> NOW).run(() -> events.add("done"), () -> events.add("failed"));
+    }
+}
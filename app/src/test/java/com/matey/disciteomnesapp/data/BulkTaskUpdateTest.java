@@ -0,0 +1,301 @@
+package com.matey.disciteomnesapp.data;
+
+import com.matey.disciteomnesapp.models.Task;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class BulkTaskUpdateTest {
+
+    private static final int CHUNK_SIZE = 100;
+
+    private final FailingStore store = new FailingStore();
+    private final BulkTaskUpdate bulk = new BulkTaskUpdate(store, CHUNK_SIZE);
+    private final List<String> results = new ArrayList<>();
+    private Object initialStats;
+
+    private final BulkTaskUpdate.Callback callback = new BulkTaskUpdate.Callback() {
+        @Override
+        public void onSuccess(int taskCount) {
+            results.add("success " + taskCount);
+        }
+
+        @Override
+        public void onFailure() {
+            results.add("failure");
+        }
+    };
+
+    @Before
+    public void setUp() {
+        for (int i = 0; i < 250; i++) {
+            Task task = task(i);
+            store.set(GroupTasks.path("g1", task.id), TaskMapper.toValue(task));
+        }
+        // Counters as the backfill computes them for the stored tasks
+        for (Map.Entry<String, Object> entry : GroupStatsBackfill.buildUpdates(store.get(GroupTasks.ROOT)).entrySet()) {
+            store.set(entry.getKey(), entry.getValue());
+        }
+        initialStats = store.get(GroupStatsMapper.path("g1"));
+    }
+
+    @Test
+    public void completeSelection_isOneWrite() {
+        bulk.setCompleted(tasks(0, 80), true, callback);
+
+        assertEquals(1, store.updates.size());
+        // 80 tasks plus the completed, assignedCompleted/u1 and openByDue/{day} counters
+        assertEquals(83, store.updates.get(0).size());
+        assertEquals(Boolean.TRUE, store.get(GroupTasks.path("g1", task(79).id) + "/completed"));
+        assertEquals(Boolean.FALSE, store.get(GroupTasks.path("g1", task(80).id) + "/completed"));
+        assertEquals("success 80", results.get(0));
+        assertEquals(80L, store.get(GroupStatsMapper.path("g1") + "/completed"));
+        assertEquals(250L, store.get(GroupStatsMapper.path("g1") + "/total"));
+    }
+
+    @Test
+    public void completeSelection_skipsTasksAlreadyCompleted() {
+        bulk.setCompleted(tasks(0, 10), true, callback);
+        List<Task> selection = tasks(5, 20);
+        for (Task task : selection.subList(0, 5)) task.completed = true; // as shown after the first write
+        bulk.setCompleted(selection, true, callback);
+
+        // The second write only covers t0010..t0019, so the rules accept it
+        assertEquals(2, store.updates.size());
+        assertEquals("success 10", results.get(1));
+        assertEquals(20L, store.get(GroupStatsMapper.path("g1") + "/completed"));
+    }
+
+    @Test
+    public void largeSelection_isWrittenInChunks() {
+        bulk.create(newTasks(250), callback);
+
+        assertEquals(3, store.updates.size());
+        assertEquals(500L, store.get(GroupStatsMapper.path("g1") + "/total"));
+        assertEquals("success 250", results.get(0));
+    }
+
+    @Test
+    public void delete_movesCountersFromTheStoredTasks() {
+        bulk.delete(tasks(0, 250), callback);
+
+        assertNull(store.get(GroupTasks.path("g1")));
+        assertEquals(0L, store.get(GroupStatsMapper.path("g1") + "/total"));
+        assertEquals("success 250", results.get(0));
+    }
+
+    @Test
+    public void sameTaskDeletedTwice_isCountedOnce() {
+        bulk.delete(tasks(0, 1), callback);
+        bulk.delete(tasks(0, 1), callback);
+
+        assertEquals(249L, store.get(GroupStatsMapper.path("g1") + "/total"));
+        assertEquals(249L, store.get(GroupStatsMapper.path("g1") + "/assignedTotal/u1"));
+        assertEquals(Arrays.asList("success 1", "success 0"), results);
+    }
+
+    @Test
+    public void staleCopy_isDeletedFromTheCountersItIsStoredIn() {
+        // Another client completed, re-dated and reassigned the task after this one loaded it
+        Task stored = task(0);
+        stored.completed = true;
+        stored.dueDate = "2025-08-01";
+        stored.assignedTo = "u2";
+        stored.assignedToName = "Bob";
+        store.set(GroupTasks.path("g1", stored.id), TaskMapper.toValue(stored));
+        store.set(GroupStatsMapper.path("g1") + "/completed", 1L);
+        store.set(GroupStatsMapper.path("g1") + "/assignedCompleted/u2", 1L);
+        store.set(GroupStatsMapper.path("g1") + "/assignedTotal/u1", 249L);
+        store.set(GroupStatsMapper.path("g1") + "/assignedTotal/u2", 1L);
+        store.set(GroupStatsMapper.path("g1") + "/openByDue/" + TaskIndex.parseDueDate("2025-07-05"), 249L);
+
+        bulk.delete(tasks(0, 1), callback);
+
+        assertEquals(0L, store.get(GroupStatsMapper.path("g1") + "/completed"));
+        assertEquals(0L, store.get(GroupStatsMapper.path("g1") + "/assignedCompleted/u2"));
+        assertEquals(0L, store.get(GroupStatsMapper.path("g1") + "/assignedTotal/u2"));
+        assertEquals(249L, store.get(GroupStatsMapper.path("g1") + "/assignedTotal/u1"));
+        assertEquals(249L, store.get(GroupStatsMapper.path("g1") + "/openByDue/" + TaskIndex.parseDueDate("2025-07-05")));
+        assertEquals("success 1", results.get(0));
+    }
+
+    @Test
+    public void staleCopy_isReassignedFromItsStoredAssignee() {
+        Task stored = task(0);
+        stored.assignedTo = "u3";
+        store.set(GroupTasks.path("g1", stored.id), TaskMapper.toValue(stored));
+        store.set(GroupStatsMapper.path("g1") + "/assignedTotal/u1", 249L);
+        store.set(GroupStatsMapper.path("g1") + "/assignedTotal/u3", 1L);
+
+        bulk.reassign(tasks(0, 1), "u2", "Bob", callback);
+
+        assertEquals(249L, store.get(GroupStatsMapper.path("g1") + "/assignedTotal/u1"));
+        assertEquals(0L, store.get(GroupStatsMapper.path("g1") + "/assignedTotal/u3"));
+        assertEquals(1L, store.get(GroupStatsMapper.path("g1") + "/assignedTotal/u2"));
+    }
+
+    @Test
+    public void reassign_writesBothAssigneeFields() {
+        bulk.reassign(tasks(0, 10), "u2", "Bob", callback);
+
+        assertEquals("success 10", results.get(0));
+        assertEquals(240L, store.get(GroupStatsMapper.path("g1") + "/assignedTotal/u1"));
+        assertEquals(10L, store.get(GroupStatsMapper.path("g1") + "/assignedTotal/u2"));
+        assertEquals("u2", store.get(GroupTasks.path("g1", task(3).id) + "/assignedTo"));
+        assertEquals("Bob", store.get(GroupTasks.path("g1", task(3).id) + "/assignedToName"));
+    }
+
+    @Test
+    public void reassign_ofACompletedTask_onlyWritesTheAssigneeFields() {
+        bulk.setCompleted(tasks(0, 1), true, callback);
+        String task = GroupTasks.path("g1", task(0).id);
+
+        bulk.reassign(tasks(0, 1), "u2", "Bob", callback);
+
+        // The completion rule only sees writes to completed, which a reassign leaves alone
+        assertEquals(Arrays.asList("success 1", "success 1"), results);
+        assertTrue(store.updates.get(1).containsKey(task + "/assignedTo"));
+        assertFalse(store.updates.get(1).containsKey(task));
+        assertFalse(store.updates.get(1).containsKey(task + "/completed"));
+        assertEquals(1L, store.get(GroupStatsMapper.path("g1") + "/assignedCompleted/u2"));
+    }
+
+    @Test
+    public void reassign_largeSelection_isReadOnceAndWrittenInChunks() {
+        bulk.reassign(tasks(0, 250), "u2", "Bob", callback);
+
+        assertEquals(250, store.reads.size());
+        assertEquals(3, store.updates.size());
+        assertEquals(250L, store.get(GroupStatsMapper.path("g1") + "/assignedTotal/u2"));
+        assertEquals("success 250", results.get(0));
+    }
+
+    @Test
+    public void failedChunk_rollsBackChunksAlreadyWritten() {
+        store.failOnWrite = 3; // the third of three chunks
+
+        bulk.setCompleted(tasks(0, 250), true, callback);
+
+        // Two chunks written, the third rejected, then the two written chunks restored
+        assertEquals(5, store.writes);
+        assertEquals(4, store.updates.size());
+        for (int i = 0; i < 250; i++) {
+            Object value = store.get(GroupTasks.path("g1", task(i).id));
+            assertEquals(TaskMapper.toValue(task(i)), value);
+        }
+        assertEquals(initialStats, store.get(GroupStatsMapper.path("g1")));
+        assertEquals("failure", results.get(0));
+    }
+
+    @Test
+    public void failedChunk_duringReassign_putsBackTheAssignees() {
+        store.failOnWrite = 3;
+
+        bulk.reassign(tasks(0, 250), "u2", "Bob", callback);
+
+        assertEquals(5, store.writes);
+        for (int i = 0; i < 250; i++) {
+            assertEquals(TaskMapper.toValue(task(i)), store.get(GroupTasks.path("g1", task(i).id)));
+        }
+        assertEquals(initialStats, store.get(GroupStatsMapper.path("g1")));
+        assertEquals(Arrays.asList("failure"), results);
+    }
+
+    @Test
+    public void failedChunk_duringDelete_restoresTheDeletedTasks() {
+        store.failOnWrite = 2;
+
+        bulk.delete(tasks(0, 250), callback);
+
+        // The first chunk was deleted and is written back as it was stored
+        assertEquals(3, store.writes);
+        for (int i = 0; i < 250; i++) {
+            assertEquals(TaskMapper.toValue(task(i)), store.get(GroupTasks.path("g1", task(i).id)));
+        }
+        assertEquals(initialStats, store.get(GroupStatsMapper.path("g1")));
+        assertEquals(Arrays.asList("failure"), results);
+    }
+
+    @Test
+    public void failedRead_reassignsNothing() {
+        store.failReads = true;
+
+        bulk.reassign(tasks(0, 10), "u2", "Bob", callback);
+
+        assertEquals(0, store.writes);
+        assertEquals(Arrays.asList("failure"), results);
+    }
+
+    @Test
+    public void failedSingleChunk_writesNothing() {
+        store.failOnWrite = 1;
+
+        bulk.setCompleted(tasks(0, 50), true, callback);
+
+        assertEquals(0, store.updates.size());
+        assertEquals(Boolean.FALSE, store.get(GroupTasks.path("g1", task(0).id) + "/completed"));
+        assertEquals("failure", results.get(0));
+    }
+
+    @Test
+    public void emptySelection_writesNothing() {
+        bulk.delete(new ArrayList<>(), callback);
+
+        assertEquals(0, store.updates.size());
+        assertEquals("success 0", results.get(0));
+    }
+
+    private static Task task(int i) {
+        return new Task(String.format("t%04d", i), "g1", "Task " + i, "", false, "u1", "Alice", "2025-07-05");
+    }
+
+    private static List<Task> newTasks(int count) {
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < count; i++) tasks.add(task(1_000 + i));
+        return tasks;
+    }
+
+    private static List<Task> tasks(int from, int to) {
+        List<Task> tasks = new ArrayList<>();
+        for (int i = from; i < to; i++) tasks.add(task(i));
+        return tasks;
+    }
+
+    /**
+     * Fails the n-th update, like a rejected multi-path write: nothing of it is applied.
+     * Can fail every read as well.
+     */
+    private static class FailingStore extends FakeDataStore {
+        int failOnWrite = -1;
+        int writes = 0;
+        boolean failReads = false;
+
+        @Override
+        public void read(String path, ValueCallback callback) {
+            if (failReads) {
+                callback.onError("Permission denied");
+                return;
+            }
+            super.read(path, callback);
+        }
+
+        @Override
+        public void update(Map<String, Object> updates, Runnable onSuccess, Runnable onFailure) {
+            if (++writes == failOnWrite) {
+                onFailure.run();
+                return;
+            }
+            super.update(updates, onSuccess, onFailure);
+        }
+    }
+}
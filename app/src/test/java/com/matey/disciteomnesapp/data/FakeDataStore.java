@@ -0,0 +1,206 @@
+package com.matey.disciteomnesapp.data;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * In-memory DataStore for JVM tests. Holds a plain value tree and records every
+ * path that was read and every update that was applied. Like snapshots, every value
+ * handed to a callback is a fresh copy. Increments are applied to the stored number,
+ * and like database.rules.json an update that writes a task's completion state without
+ * changing it is rejected as a whole.
+ */
+public class FakeDataStore implements DataStore {
+
+    public final Map<String, Object> root = new TreeMap<>();
+    public final List<String> reads = new ArrayList<>();
+    public final List<Map<String, Object>> updates = new ArrayList<>();
+    public final Map<String, List<ValueCallback>> listeners = new LinkedHashMap<>();
+    public boolean failWrites = false;
+    // While set, updates wait in heldWrites until releaseWrites() applies them
+    public boolean holdWrites = false;
+    private final List<Runnable> heldWrites = new ArrayList<>();
+    // Server clock for the appliedWrites age rule
+    public long now = 0;
+
+    private int keyCounter = 0;
+
+    public void set(String path, Object value) {
+        String[] parts = path.split("/");
+        List<Map<String, Object>> parents = new ArrayList<>();
+        Map<String, Object> node = root;
+        for (int i = 0; i < parts.length - 1; i++) {
+            parents.add(node);
+            Object child = node.get(parts[i]);
+            if (!(child instanceof Map)) {
+                child = new TreeMap<String, Object>();
+                node.put(parts[i], child);
+            }
+            node = castMap(child);
+        }
+        String last = parts[parts.length - 1];
+        if (value == null) {
+            node.remove(last);
+            // Like the Realtime Database, nodes left without children disappear
+            for (int i = parts.length - 2; i >= 0 && node.isEmpty(); i--) {
+                node = parents.get(i);
+                node.remove(parts[i]);
+            }
+        } else {
+            node.put(last, value);
+        }
+    }
+
+    public Object get(String path) {
+        Object node = root;
+        for (String part : path.split("/")) {
+            if (!(node instanceof Map)) return null;
+            node = ((Map<?, ?>) node).get(part);
+        }
+        return node;
+    }
+
+    @Override
+    public void read(String path, ValueCallback callback) {
+        reads.add(path);
+        callback.onValue(copy(get(path)));
+    }
+
+    @Override
+    public Registration listen(String path, ValueCallback callback) {
+        reads.add(path);
+        listeners.computeIfAbsent(path, p -> new ArrayList<>()).add(callback);
+        callback.onValue(copy(get(path)));
+        return () -> {
+            List<ValueCallback> callbacks = listeners.get(path);
+            callbacks.remove(callback);
+            if (callbacks.isEmpty()) listeners.remove(path);
+        };
+    }
+
+    public int listenerCount() {
+        int count = 0;
+        for (List<ValueCallback> callbacks : listeners.values()) count += callbacks.size();
+        return count;
+    }
+
+    public void releaseWrites() {
+        List<Runnable> writes = new ArrayList<>(heldWrites);
+        heldWrites.clear();
+        for (Runnable write : writes) write.run();
+    }
+
+    @Override
+    public void update(Map<String, Object> updates, Runnable onSuccess, Runnable onFailure) {
+        if (holdWrites) {
+            Map<String, Object> held = new LinkedHashMap<>(updates);
+            heldWrites.add(() -> apply(held, onSuccess, onFailure));
+            return;
+        }
+        apply(updates, onSuccess, onFailure);
+    }
+
+    private void apply(Map<String, Object> updates, Runnable onSuccess, Runnable onFailure) {
+        if (failWrites || rejected(updates)) {
+            onFailure.run();
+            return;
+        }
+        this.updates.add(new LinkedHashMap<>(updates));
+        for (Map.Entry<String, Object> entry : updates.entrySet()) {
+            Object value = entry.getValue();
+            if (value instanceof Increment) {
+                Object current = get(entry.getKey());
+                value = (current instanceof Number ? ((Number) current).longValue() : 0) + ((Increment) value).delta;
+            }
+            set(entry.getKey(), value);
+        }
+        notifyListeners(updates.keySet());
+        onSuccess.run();
+    }
+
+    private boolean rejected(Map<String, Object> updates) {
+        for (Map.Entry<String, Object> entry : updates.entrySet()) {
+            String[] parts = entry.getKey().split("/");
+            if (parts.length == 4 && parts[0].equals(GroupTasks.ROOT) && parts[3].equals("completed")) {
+                Object current = get(entry.getKey());
+                if (current != null && current.equals(entry.getValue())) return true;
+            }
+            // Writing a whole task validates its completed child as well
+            if (parts.length == 3 && parts[0].equals(GroupTasks.ROOT) && entry.getValue() instanceof Map) {
+                Object current = get(entry.getKey() + "/completed");
+                if (current != null && current.equals(((Map<?, ?>) entry.getValue()).get("completed"))) return true;
+            }
+            // Idempotency keys can only be written once, and only while they are recent (deletes aren't validated)
+            if (parts.length == 2 && parts[0].equals(AppliedWrites.ROOT) && entry.getValue() != null) {
+                Object issuedAt = entry.getValue();
+                if (get(entry.getKey()) != null || !(issuedAt instanceof Number)
+                        || ((Number) issuedAt).longValue() <= now - AppliedWrites.RETENTION_MS) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private void notifyListeners(Iterable<String> changedPaths) {
+        for (Map.Entry<String, List<ValueCallback>> entry : new ArrayList<>(listeners.entrySet())) {
+            String path = entry.getKey();
+            for (String changed : changedPaths) {
+                if (changed.equals(path) || changed.startsWith(path + "/") || path.startsWith(changed + "/")) {
+                    for (ValueCallback callback : new ArrayList<>(entry.getValue())) {
+                        callback.onValue(copy(get(path)));
+                    }
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs the mutation once against the stored value; there is never a competing writer.
+     */
+    @Override
+    public void transaction(String path, Mutation mutation, TransactionCallback callback) {
+        reads.add(path);
+        Object next = mutation.apply(copy(get(path)));
+        if (next == Mutation.ABORT || failWrites) {
+            callback.onComplete(false, copy(get(path)));
+            return;
+        }
+        Map<String, Object> update = new LinkedHashMap<>();
+        update.put(path, next);
+        this.updates.add(update);
+        set(path, next);
+        notifyListeners(update.keySet());
+        callback.onComplete(true, copy(get(path)));
+    }
+
+    @Override
+    public String newKey(String path) {
+        return String.format("key%05d", keyCounter++);
+    }
+
+    private static Object copy(Object value) {
+        if (value instanceof Map) {
+            Map<String, Object> copy = new TreeMap<>();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                copy.put(String.valueOf(entry.getKey()), copy(entry.getValue()));
+            }
+            return copy;
+        }
+        if (value instanceof List) {
+            List<Object> copy = new ArrayList<>();
+            for (Object item : (List<?>) value) copy.add(copy(item));
+            return copy;
+        }
+        return value;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> castMap(Object value) {
+        return (Map<String, Object>) value;
+    }
+}
@@ -0,0 +1,44 @@
+package com.matey.disciteomnesapp.data;
+
+/**
+ * In-memory SessionStore for JVM tests.
+ */
+public class FakeSessionStore implements SessionStore {
+
+    private String userId;
+    private String userName;
+    private String lastGroupId;
+
+    @Override
+    public String getUserId() {
+        return userId;
+    }
+
+    @Override
+    public String getUserName() {
+        return userName;
+    }
+
+    @Override
+    public void save(String userId, String userName) {
+        this.userId = userId;
+        this.userName = userName;
+    }
+
+    @Override
+    public String getLastGroupId() {
+        return lastGroupId;
+    }
+
+    @Override
+    public void setLastGroupId(String groupId) {
+        lastGroupId = groupId;
+    }
+
+    @Override
+    public void clear() {
+        userId = null;
+        userName = null;
+        lastGroupId = null;
+    }
+}
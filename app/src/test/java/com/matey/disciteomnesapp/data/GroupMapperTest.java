@@ -0,0 +1,63 @@
+package com.matey.disciteomnesapp.data;
+
+import com.matey.disciteomnesapp.models.Group;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class GroupMapperTest {
+
+    private static Map<String, Object> group(Object members) {
+        Map<String, Object> value = new HashMap<>();
+        value.put("name", "Algebra");
+        value.put("description", "Weekly");
+        value.put("members", members);
+        return value;
+    }
+
+    @Test
+    public void fromValue_readsKeyedMembers() {
+        Group group = GroupMapper.fromValue("g1", group(Group.membersOf("u1", "u2")));
+
+        assertEquals("g1", group.id);
+        assertEquals("Algebra", group.name);
+        assertTrue(group.isMember("u1"));
+        assertFalse(group.isMember("u3"));
+        assertFalse(group.legacyMembers);
+    }
+
+    @Test
+    public void fromValue_acceptsLegacyList() {
+        Group group = GroupMapper.fromValue("g1", group(Arrays.asList("u1", "u2")));
+
+        assertTrue(group.isMember("u2"));
+        assertTrue(group.legacyMembers);
+    }
+
+    @Test
+    public void fromValue_acceptsMixedLegacyAndKeyedMembers() {
+        Map<String, Object> members = new HashMap<>();
+        members.put("0", "u1");
+        members.put("u3", true);
+
+        Group group = GroupMapper.fromValue("g1", group(members));
+
+        assertEquals(Group.membersOf("u1", "u3"), group.members);
+        assertTrue(group.legacyMembers);
+    }
+
+    @Test
+    public void fromValue_missingMembersIsEmpty() {
+        Group group = GroupMapper.fromValue("g1", group(null));
+
+        assertTrue(group.members.isEmpty());
+        assertFalse(group.isMember("u1"));
+    }
+}
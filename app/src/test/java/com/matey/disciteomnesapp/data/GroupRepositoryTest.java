@@ -0,0 +1,151 @@
+package com.matey.disciteomnesapp.data;
+
+import androidx.arch.core.executor.testing.InstantTaskExecutorRule;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import com.matey.disciteomnesapp.data.local.GroupDao;
+import com.matey.disciteomnesapp.data.local.GroupEntity;
+import com.matey.disciteomnesapp.models.Group;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class GroupRepositoryTest {
+
+    @Rule
+    public InstantTaskExecutorRule instantTaskExecutorRule = new InstantTaskExecutorRule();
+
+    private final FakeGroupDao dao = new FakeGroupDao();
+    private final FakeDataStore store = new FakeDataStore();
+    private final GroupRepository repository = new GroupRepository(dao, store, Runnable::run, Runnable::run, Runnable::run);
+    private final List<List<Group>> emissions = new ArrayList<>();
+
+    private static Group group(String id, String name) {
+        return new Group(id, name, "", Group.membersOf("u1"));
+    }
+
+    private static Map<String, Object> remote(String name) {
+        Map<String, Object> value = new HashMap<>();
+        value.put("name", name);
+        value.put("members", Group.membersOf("u1"));
+        return value;
+    }
+
+    @Test
+    public void observeGroups_servesCacheWithoutNetwork() {
+        dao.put(group("g1", "Algebra"), group("g2", "Biology"));
+
+        repository.observeGroups().observeForever(emissions::add);
+
+        assertEquals(1, emissions.size());
+        assertEquals("Biology", emissions.get(0).get(1).name);
+        assertTrue(store.reads.isEmpty());
+    }
+
+    @Test
+    public void loadMembers_readsOnlyTheMembersThroughTheInjectedStore() {
+        store.set("groups/g1", remote("Algebra"));
+        List<Object> results = new ArrayList<>();
+
+        repository.loadMembers("g1", new GroupRepository.MembersCallback() {
+            @Override
+            public void onMembers(Set<String> userIds) {
+                results.add(userIds);
+            }
+
+            @Override
+            public void onFailure() {
+                results.add("failed");
+            }
+        });
+
+        assertEquals(Collections.singletonList(Collections.singleton("u1")), results);
+        assertEquals(Collections.singletonList("groups/g1/members"), store.reads);
+    }
+
+    @Test
+    public void startSync_revalidatesCachedRows() {
+        dao.put(group("g1", "Old name"), group("g9", "Deleted on server"));
+        store.set("groups/g1", remote("New name"));
+        store.set("groups/g2", remote("Chemistry"));
+        repository.observeGroups().observeForever(emissions::add);
+
+        repository.startSync(() -> { });
+
+        assertEquals("Old name", emissions.get(0).get(0).name);
+        List<Group> latest = emissions.get(emissions.size() - 1);
+        assertEquals(2, latest.size());
+        assertEquals("New name", latest.get(0).name);
+        assertEquals("g2", latest.get(1).id);
+        assertTrue(latest.get(0).isMember("u1"));
+    }
+
+    @Test
+    public void startSync_appliesLaterServerChanges() {
+        store.set("groups/g1", remote("Algebra"));
+        repository.observeGroups().observeForever(emissions::add);
+        repository.startSync(() -> { });
+
+        Map<String, Object> update = new HashMap<>();
+        update.put("groups/g2", remote("Physics"));
+        store.update(update, () -> { }, () -> { });
+
+        assertEquals(2, emissions.get(emissions.size() - 1).size());
+    }
+
+    @Test
+    public void stopSync_removesListenerAfterLastUser() {
+        repository.startSync(() -> { });
+        repository.startSync(() -> { });
+        assertEquals(2, store.listenerCount()); // groups and groupStats
+
+        repository.stopSync();
+        assertEquals(2, store.listenerCount());
+        repository.stopSync();
+        assertEquals(0, store.listenerCount());
+    }
+
+    static class FakeGroupDao implements GroupDao {
+        final TreeMap<String, GroupEntity> rows = new TreeMap<>();
+        final MutableLiveData<List<GroupEntity>> live = new MutableLiveData<>(new ArrayList<>());
+
+        void put(Group... groups) {
+            for (Group group : groups) rows.put(group.id, GroupEntity.from(group));
+            live.setValue(new ArrayList<>(rows.values()));
+        }
+
+        @Override
+        public LiveData<List<GroupEntity>> observeAll() {
+            return live;
+        }
+
+        @Override
+        public void upsertAll(List<GroupEntity> groups) {
+            for (GroupEntity group : groups) rows.put(group.id, group);
+        }
+
+        @Override
+        public void deleteAll() {
+            rows.clear();
+        }
+
+        @Override
+        public void replaceAll(List<GroupEntity> groups) {
+            deleteAll();
+            upsertAll(groups);
+            live.setValue(new ArrayList<>(rows.values()));
+        }
+    }
+}
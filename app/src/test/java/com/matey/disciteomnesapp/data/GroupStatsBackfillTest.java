@@ -0,0 +1,61 @@
+package com.matey.disciteomnesapp.data;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+public class GroupStatsBackfillTest {
+
+    private final FakeDataStore store = new FakeDataStore();
+    private final List<String> events = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        for (int i = 0; i < 3; i++) {
+            Map<String, Object> task = new HashMap<>();
+            task.put("title", "Task " + i);
+            task.put("completed", i == 0);
+            store.set(GroupTasks.path("g1", "t" + i), task);
+        }
+    }
+
+    @Test
+    public void runIfNeeded_whileAnotherRunHoldsTheFlag_readsNoTasks() {
+        store.set(GroupStatsBackfill.FLAG_PATH, MaintenanceFlag.CLAIMED);
+
+        run();
+
+        assertEquals(Collections.singletonList("failed"), events);
+        assertFalse(store.reads.contains(GroupTasks.ROOT));
+        assertNull(store.get(GroupStatsMapper.ROOT));
+    }
+
+    @Test
+    public void failedRun_releasesTheFlag() {
+        FakeDataStore failing = new FakeDataStore() {
+            @Override
+            public void update(Map<String, Object> updates, Runnable onSuccess, Runnable onFailure) {
+                onFailure.run();
+            }
+        };
+        failing.set(GroupTasks.path("g1", "t0") + "/title", "Task 0");
+
+        new GroupStatsBackfill(failing).runIfNeeded(() -> events.add("done"), () -> events.add("failed"));
+
+        assertEquals(Collections.singletonList("failed"), events);
+        assertNull(failing.get(GroupStatsBackfill.FLAG_PATH));
+    }
+
+    private void run() {
+        new GroupStatsBackfill(store).runIfNeeded(() -> events.add("done"), () -> events.add("failed"));
+    }
+}
@@ -0,0 +1,106 @@
+package com.matey.disciteomnesapp.data;
+
+import com.matey.disciteomnesapp.models.GroupStats;
+import com.matey.disciteomnesapp.models.Task;
+
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class GroupStatsDeltaTest {
+
+    private static final long TODAY = LocalDate.of(2025, 6, 10).toEpochDay();
+
+    private final FakeDataStore store = new FakeDataStore();
+
+    @Test
+    public void createToggleReassignDelete_keepCountersInStep() {
+        Task essay = new Task("t1", "g1", "Essay", null, false, "u1", "Ana", "2025-06-01");
+        Task quiz = new Task("t2", "g1", "Quiz", null, false, "u2", "Ben", "2025-06-20");
+        apply(new GroupStatsDelta().add(null, essay).add(null, quiz));
+
+        GroupStats stats = read();
+        assertEquals(2, stats.total);
+        assertEquals(0, stats.completed);
+        assertEquals(1, stats.overdue); // the essay was due before today
+
+        Task essayDone = BulkTaskUpdate.withCompleted(essay, true);
+        apply(new GroupStatsDelta().add(essay, essayDone));
+        stats = read();
+        assertEquals(1, stats.completed);
+        assertEquals(0, stats.overdue);
+        assertEquals(Long.valueOf(1), stats.assignedCompleted.get("u1"));
+
+        Task quizForAna = BulkTaskUpdate.copy(quiz);
+        quizForAna.assignedTo = "u1";
+        apply(new GroupStatsDelta().add(quiz, quizForAna));
+        stats = read();
+        assertEquals(Long.valueOf(2), stats.assignedTotal.get("u1"));
+        assertEquals(Long.valueOf(0), stats.assignedTotal.get("u2"));
+
+        apply(new GroupStatsDelta().add(essayDone, null));
+        stats = read();
+        assertEquals(1, stats.total);
+        assertEquals(0, stats.completed);
+    }
+
+    @Test
+    public void unchangedTask_addsNoIncrements() {
+        Task task = new Task("t1", "g1", "Essay", null, true, "u1", "Ana", "2025-06-01");
+
+        GroupStatsDelta delta = new GroupStatsDelta().add(task, BulkTaskUpdate.copy(task));
+
+        assertTrue(delta.isEmpty());
+        Map<String, Object> updates = new HashMap<>();
+        delta.putInto(updates);
+        assertTrue(updates.isEmpty());
+    }
+
+    @Test
+    public void unparsableDueDate_isNotCountedAsOverdue() {
+        Task task = new Task("t1", "g1", "Essay", null, false, null, null, "next week");
+
+        GroupStatsDelta delta = new GroupStatsDelta().add(null, task);
+
+        assertFalse(delta.isEmpty());
+        apply(delta);
+        assertEquals(0, read().overdue);
+        assertEquals(1, read().total);
+    }
+
+    @Test
+    public void backfill_countsStoredTasksOnce() {
+        store.set(GroupTasks.path("g1", "t1"), TaskMapper.toValue(new Task("t1", "g1", "A", null, true, "u1", "Ana", null)));
+        store.set(GroupTasks.path("g1", "t2"), TaskMapper.toValue(new Task("t2", "g1", "B", null, false, "u1", "Ana", "2025-06-01")));
+        store.set(GroupTasks.path("g2", "t3"), TaskMapper.toValue(new Task("t3", "g2", "C", null, false, null, null, null)));
+        GroupStatsBackfill backfill = new GroupStatsBackfill(store);
+
+        backfill.runIfNeeded(() -> { }, () -> { });
+        backfill.runIfNeeded(() -> { }, () -> { });
+
+        // The claim of the flag, then the counters; the second run stops at the flag
+        assertEquals(2, store.updates.size());
+        GroupStats stats = read();
+        assertEquals(2, stats.total);
+        assertEquals(1, stats.completed);
+        assertEquals(1, stats.overdue);
+        assertEquals(Long.valueOf(2), stats.assignedTotal.get("u1"));
+        assertEquals(1, GroupStatsMapper.fromValue("g2", store.get(GroupStatsMapper.path("g2")), TODAY).total);
+    }
+
+    private void apply(GroupStatsDelta delta) {
+        Map<String, Object> updates = new HashMap<>();
+        delta.putInto(updates);
+        store.update(updates, () -> { }, () -> { });
+    }
+
+    private GroupStats read() {
+        return GroupStatsMapper.fromValue("g1", store.get(GroupStatsMapper.path("g1")), TODAY);
+    }
+}
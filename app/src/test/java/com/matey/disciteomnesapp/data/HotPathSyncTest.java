@@ -0,0 +1,104 @@
+package com.matey.disciteomnesapp.data;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class HotPathSyncTest {
+
+    private final RecordingSyncer syncer = new RecordingSyncer();
+    private final HotPathSync hotPaths = new HotPathSync(syncer, 30, 2);
+
+    @Test
+    public void usersGroups_areKeptSynced() {
+        hotPaths.setUser("u1");
+        hotPaths.setUserGroups(Arrays.asList("g1", "g2"));
+
+        assertEquals(set("userGroups/u1", "userGroupsIndexed/u1", "groups/g1", "groupStats/g1", "groups/g2", "groupStats/g2"), syncer.synced);
+    }
+
+    @Test
+    public void leftGroup_isReleasedWithItsPage() {
+        hotPaths.setUser("u1");
+        hotPaths.setUserGroups(Arrays.asList("g1", "g2"));
+        hotPaths.groupOpened("g2");
+
+        hotPaths.setUserGroups(Collections.singletonList("g1"));
+
+        assertEquals(set("userGroups/u1", "userGroupsIndexed/u1", "groups/g1", "groupStats/g1"), syncer.synced);
+    }
+
+    @Test
+    public void leastRecentlyOpenedGroup_isEvictedBeyondTheLimit() {
+        hotPaths.groupOpened("g1");
+        hotPaths.groupOpened("g2");
+        hotPaths.groupOpened("g1");
+        hotPaths.groupOpened("g3");
+
+        assertEquals(set("page g1 30", "page g3 30"), syncer.synced);
+        // Reopening a synced group doesn't sync it again
+        assertEquals(3, syncer.pinned);
+    }
+
+    @Test
+    public void otherUser_releasesThePreviousUsersPaths() {
+        hotPaths.setUser("u1");
+        hotPaths.setUserGroups(Collections.singletonList("g1"));
+        hotPaths.groupOpened("g1");
+
+        hotPaths.setUser("u2");
+
+        assertEquals(set("userGroups/u2", "userGroupsIndexed/u2"), syncer.synced);
+    }
+
+    @Test
+    public void clear_releasesEverything() {
+        hotPaths.setUser("u1");
+        hotPaths.setUserGroups(Arrays.asList("g1", "g2"));
+        hotPaths.groupOpened("g1");
+
+        hotPaths.clear();
+
+        assertTrue(syncer.synced.isEmpty());
+        assertFalse(syncer.releasedUnsynced);
+    }
+
+    private static Set<String> set(String... paths) {
+        return new HashSet<>(Arrays.asList(paths));
+    }
+
+    /**
+     * Tracks what is kept synced; a first page shows up as "page {groupId} {pageSize}".
+     */
+    static class RecordingSyncer implements HotPathSync.Syncer {
+        final Set<String> synced = new HashSet<>();
+        int pinned = 0;
+        boolean releasedUnsynced = false;
+
+        @Override
+        public void keepSynced(String path, boolean keep) {
+            record(path, keep);
+        }
+
+        @Override
+        public void keepFirstPageSynced(String groupId, int pageSize, boolean keep) {
+            record("page " + groupId + " " + pageSize, keep);
+        }
+
+        private void record(String path, boolean keep) {
+            if (keep) {
+                synced.add(path);
+                pinned++;
+            } else if (!synced.remove(path)) {
+                releasedUnsynced = true;
+            }
+        }
+    }
+}
@@ -0,0 +1,513 @@
+package com.matey.disciteomnesapp.data;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * DataStore that behaves like the Realtime Database as one client sees it, for load
+ * tests on the JVM.
+ *
+ * Every answer arrives after a simulated round trip plus a transfer time proportional
+ * to its size, on a {@link Scheduler} (a ManualScheduler in tests, so time is virtual).
+ * Sizes are those of the JSON the server would send. A listener gets the full snapshot
+ * once and afterwards only the changed data travels, as with the real protocol, though
+ * the callback still receives the whole value. Transactions are compare-and-set against
+ * the server value and retried on conflict like the SDK does; {@link #pageSource} serves
+ * key-ordered, limited child queries.
+ *
+ * Everything is counted in {@link Stats}. Writes are not applied locally first (no
+ * latency compensation), so what is measured is what crosses the network.
+ */
+public class InMemoryDataStore implements DataStore {
+
+    private static final int MAX_TRANSACTION_ATTEMPTS = 25; // as in the Firebase SDK
+
+    /**
+     * Counters since creation or the last {@link #resetStats()}.
+     */
+    public static class Stats {
+        public long reads;
+        public long listens;
+        public long writes;
+        public long transactions;
+        public long transactionRetries;
+        /** Value and child-event callbacks delivered. */
+        public long callbacks;
+        /** Bytes sent by the server. */
+        public long bytesDown;
+        /** Bytes sent by the client. */
+        public long bytesUp;
+        /** Size of the values handed to callbacks, i.e. what the app had to map. */
+        public long bytesDelivered;
+
+        Stats copy() {
+            Stats copy = new Stats();
+            copy.reads = reads;
+            copy.listens = listens;
+            copy.writes = writes;
+            copy.transactions = transactions;
+            copy.transactionRetries = transactionRetries;
+            copy.callbacks = callbacks;
+            copy.bytesDown = bytesDown;
+            copy.bytesUp = bytesUp;
+            copy.bytesDelivered = bytesDelivered;
+            return copy;
+        }
+
+        @Override
+        public String toString() {
+            return "reads=" + reads + " listens=" + listens + " writes=" + writes
+                    + " transactions=" + transactions + " (retries " + transactionRetries + ")"
+                    + " callbacks=" + callbacks + " down=" + kb(bytesDown) + " up=" + kb(bytesUp)
+                    + " delivered=" + kb(bytesDelivered);
+        }
+
+        private static String kb(long bytes) {
+            return String.format("%.1fKB", bytes / 1024.0);
+        }
+    }
+
+    private final Scheduler scheduler;
+    private final long roundTripMs;
+    private final long bytesPerMs;
+    private final TreeMap<String, Object> root = new TreeMap<>();
+    private final List<Listener> listeners = new ArrayList<>();
+    private final List<Window> windows = new ArrayList<>();
+    private Stats stats = new Stats();
+    private int keyCounter = 0;
+    private long lastWriteArrival = 0;
+    public boolean failWrites = false;
+
+    /**
+     * @param roundTripMs time for a request to reach the server and its answer to come back
+     * @param bytesPerMs  download/upload speed (1,000 bytes/ms is 8 Mbit/s)
+     */
+    public InMemoryDataStore(Scheduler scheduler, long roundTripMs, long bytesPerMs) {
+        this.scheduler = scheduler;
+        this.roundTripMs = roundTripMs;
+        this.bytesPerMs = bytesPerMs;
+    }
+
+    /**
+     * Stores a value directly on the server, without any traffic or callbacks.
+     */
+    public void seed(String path, Object value) {
+        set(path, value);
+    }
+
+    public Object get(String path) {
+        Object node = root;
+        for (String part : path.split("/")) {
+            if (!(node instanceof Map)) return null;
+            node = ((Map<?, ?>) node).get(part);
+        }
+        return node;
+    }
+
+    public Stats stats() {
+        return stats.copy();
+    }
+
+    public void resetStats() {
+        stats = new Stats();
+    }
+
+    public int listenerCount() {
+        return listeners.size() + windows.size();
+    }
+
+    @Override
+    public void read(String path, ValueCallback callback) {
+        stats.reads++;
+        Object value = copy(get(path));
+        long size = sizeOf(value);
+        stats.bytesDown += size;
+        scheduler.schedule(() -> deliver(callback, value, size), roundTripMs + transferMs(size));
+    }
+
+    @Override
+    public Registration listen(String path, ValueCallback callback) {
+        stats.listens++;
+        Listener listener = new Listener(path, callback);
+        listeners.add(listener);
+        Object value = copy(get(path));
+        long size = sizeOf(value);
+        stats.bytesDown += size;
+        scheduler.schedule(() -> {
+            if (listener.active) deliver(callback, value, size);
+        }, roundTripMs + transferMs(size));
+        return () -> {
+            listener.active = false;
+            listeners.remove(listener);
+        };
+    }
+
+    @Override
+    public void update(Map<String, Object> updates, Runnable onSuccess, Runnable onFailure) {
+        stats.writes++;
+        Map<String, Object> sent = new LinkedHashMap<>(updates);
+        long size = sizeOf(sent);
+        stats.bytesUp += size;
+        // Writes share one connection, so they reach the server in the order they were sent
+        long arrival = Math.max(scheduler.now() + roundTripMs / 2 + transferMs(size), lastWriteArrival);
+        lastWriteArrival = arrival;
+        scheduler.schedule(() -> {
+            if (failWrites || rejected(sent)) {
+                scheduler.schedule(onFailure, roundTripMs - roundTripMs / 2);
+                return;
+            }
+            for (Map.Entry<String, Object> entry : sent.entrySet()) {
+                Object value = entry.getValue();
+                if (value instanceof Increment) {
+                    Object current = get(entry.getKey());
+                    value = (current instanceof Number ? ((Number) current).longValue() : 0) + ((Increment) value).delta;
+                }
+                set(entry.getKey(), value);
+            }
+            changed(sent.keySet());
+            scheduler.schedule(onSuccess, roundTripMs - roundTripMs / 2);
+        }, arrival - scheduler.now());
+    }
+
+    /**
+     * The one rule from database.rules.json the queue relies on: idempotency keys can
+     * only be written once.
+     */
+    private boolean rejected(Map<String, Object> updates) {
+        for (Map.Entry<String, Object> entry : updates.entrySet()) {
+            if (entry.getKey().startsWith(AppliedWrites.ROOT + "/") && get(entry.getKey()) != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Like the SDK: the first attempt runs against the value this client last saw (null
+     * when it has none), the server rejects it if the node differs, and the next attempt
+     * runs against the value the server sent back.
+     */
+    @Override
+    public void transaction(String path, Mutation mutation, TransactionCallback callback) {
+        stats.transactions++;
+        attempt(path, mutation, callback, localValue(path), 1);
+    }
+
+    private void attempt(String path, Mutation mutation, TransactionCallback callback, Object expected, int attempt) {
+        Object next = mutation.apply(copy(expected));
+        if (next == Mutation.ABORT) {
+            scheduler.schedule(() -> deliver(callback, false, expected), 0);
+            return;
+        }
+        long size = sizeOf(next);
+        stats.bytesUp += size;
+        scheduler.schedule(() -> {
+            Object current = copy(get(path));
+            if (!Objects.equals(current, normalize(expected))) {
+                // Rejected; the server's value comes back with the answer
+                long currentSize = sizeOf(current);
+                stats.bytesDown += currentSize;
+                scheduler.schedule(() -> {
+                    if (attempt >= MAX_TRANSACTION_ATTEMPTS) {
+                        stats.callbacks++;
+                        callback.onError("maxretries");
+                        return;
+                    }
+                    stats.transactionRetries++;
+                    attempt(path, mutation, callback, current, attempt + 1);
+                }, roundTripMs - roundTripMs / 2 + transferMs(currentSize));
+                return;
+            }
+            set(path, next);
+            List<String> paths = new ArrayList<>();
+            paths.add(path);
+            changed(paths);
+            Object committed = copy(get(path));
+            scheduler.schedule(() -> deliver(callback, true, committed), roundTripMs - roundTripMs / 2);
+        }, roundTripMs / 2 + transferMs(size));
+    }
+
+    @Override
+    public String newKey(String path) {
+        // Push keys sort by creation time
+        return String.format("-N%08d", keyCounter++);
+    }
+
+    /**
+     * Key-ordered, limited windows over groupTasks/{groupId}, like FirebaseTaskPageSource.
+     */
+    public TaskPageSource pageSource(String groupId) {
+        String path = GroupTasks.path(groupId);
+        return (afterKey, limit, pageListener) -> {
+            stats.listens++;
+            Window window = new Window(path, afterKey, limit, pageListener);
+            windows.add(window);
+            NavigableMap<String, Object> initial = window.query();
+            long size = sizeOf(initial);
+            stats.bytesDown += size;
+            scheduler.schedule(() -> {
+                if (!window.active) return;
+                String previous = null;
+                for (Map.Entry<String, Object> child : initial.entrySet()) {
+                    stats.callbacks++;
+                    stats.bytesDelivered += sizeOf(child.getValue());
+                    pageListener.onChildAdded(child.getKey(), child.getValue(), previous);
+                    previous = child.getKey();
+                }
+                window.shown = initial;
+                stats.callbacks++;
+                pageListener.onLoaded(initial.size());
+            }, roundTripMs + transferMs(size));
+            return () -> {
+                window.active = false;
+                windows.remove(window);
+            };
+        };
+    }
+
+    private Object localValue(String path) {
+        for (Listener listener : listeners) {
+            if (path.equals(listener.path) || path.startsWith(listener.path + "/")) return copy(get(path));
+        }
+        return null;
+    }
+
+    /**
+     * Pushes the changes under the given paths to every listener and window they touch.
+     */
+    private void changed(Iterable<String> paths) {
+        for (Listener listener : new ArrayList<>(listeners)) {
+            long delta = 0;
+            for (String changed : paths) {
+                if (changed.equals(listener.path) || changed.startsWith(listener.path + "/")) {
+                    delta += sizeOf(get(changed)) + changed.length();
+                } else if (listener.path.startsWith(changed + "/")) {
+                    delta += sizeOf(get(listener.path));
+                }
+            }
+            if (delta == 0) continue;
+            stats.bytesDown += delta;
+            Object value = copy(get(listener.path));
+            long size = sizeOf(value);
+            scheduler.schedule(() -> {
+                if (listener.active) deliver(listener.callback, value, size);
+            }, roundTripMs / 2 + transferMs(delta));
+        }
+        for (Window window : new ArrayList<>(windows)) {
+            for (String changed : paths) {
+                if (changed.equals(window.path) || changed.startsWith(window.path + "/")
+                        || window.path.startsWith(changed + "/")) {
+                    window.refresh();
+                    break;
+                }
+            }
+        }
+    }
+
+    private void deliver(ValueCallback callback, Object value, long size) {
+        stats.callbacks++;
+        stats.bytesDelivered += size;
+        callback.onValue(value);
+    }
+
+    private void deliver(TransactionCallback callback, boolean committed, Object value) {
+        stats.callbacks++;
+        stats.bytesDelivered += sizeOf(value);
+        callback.onComplete(committed, copy(value));
+    }
+
+    private long transferMs(long bytes) {
+        return bytes / bytesPerMs;
+    }
+
+    private void set(String path, Object value) {
+        String[] parts = path.split("/");
+        List<Map<String, Object>> parents = new ArrayList<>();
+        Map<String, Object> node = root;
+        for (int i = 0; i < parts.length - 1; i++) {
+            parents.add(node);
+            Object child = node.get(parts[i]);
+            if (!(child instanceof Map)) {
+                child = new TreeMap<String, Object>();
+                node.put(parts[i], child);
+            }
+            node = castMap(child);
+        }
+        String last = parts[parts.length - 1];
+        Object stored = normalize(value);
+        if (stored == null) {
+            node.remove(last);
+            // Nodes left without children disappear
+            for (int i = parts.length - 2; i >= 0 && node.isEmpty(); i--) {
+                node = parents.get(i);
+                node.remove(parts[i]);
+            }
+        } else {
+            node.put(last, stored);
+        }
+    }
+
+    /**
+     * The value as the server stores it: sorted maps, whole numbers as Long, no empty maps.
+     */
+    private static Object normalize(Object value) {
+        if (value instanceof Map) {
+            TreeMap<String, Object> map = new TreeMap<>();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                Object child = normalize(entry.getValue());
+                if (child != null) map.put(String.valueOf(entry.getKey()), child);
+            }
+            return map.isEmpty() ? null : map;
+        }
+        if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return ((Number) value).longValue();
+        }
+        return value;
+    }
+
+    private static Object copy(Object value) {
+        if (value instanceof Map) {
+            TreeMap<String, Object> copy = new TreeMap<>();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                copy.put(String.valueOf(entry.getKey()), copy(entry.getValue()));
+            }
+            return copy;
+        }
+        if (value instanceof List) {
+            List<Object> copy = new ArrayList<>();
+            for (Object item : (List<?>) value) copy.add(copy(item));
+            return copy;
+        }
+        return value;
+    }
+
+    /**
+     * Size in bytes of the value written as JSON.
+     */
+    public static long sizeOf(Object value) {
+        if (value == null) return 4;
+        if (value instanceof String) return ((String) value).getBytes(StandardCharsets.UTF_8).length + 2;
+        if (value instanceof Increment) return 26 + String.valueOf(((Increment) value).delta).length();
+        if (value instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) value;
+            long size = 2 + Math.max(0, map.size() - 1);
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                size += sizeOf(String.valueOf(entry.getKey())) + 1 + sizeOf(entry.getValue());
+            }
+            return size;
+        }
+        if (value instanceof List) {
+            List<?> list = (List<?>) value;
+            long size = 2 + Math.max(0, list.size() - 1);
+            for (Object item : list) size += sizeOf(item);
+            return size;
+        }
+        return String.valueOf(value).length();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> castMap(Object value) {
+        return (Map<String, Object>) value;
+    }
+
+    private static class Listener {
+        final String path;
+        final ValueCallback callback;
+        boolean active = true;
+
+        Listener(String path, ValueCallback callback) {
+            this.path = path;
+            this.callback = callback;
+        }
+    }
+
+    /**
+     * One orderByKey().startAfter(afterKey).limitToFirst(limit) query.
+     */
+    private class Window {
+        final String path;
+        final String afterKey;
+        final int limit;
+        final TaskPageSource.PageListener listener;
+        boolean active = true;
+        NavigableMap<String, Object> shown; // null until the initial children were delivered
+
+        Window(String path, String afterKey, int limit, TaskPageSource.PageListener listener) {
+            this.path = path;
+            this.afterKey = afterKey;
+            this.limit = limit;
+            this.listener = listener;
+        }
+
+        NavigableMap<String, Object> query() {
+            NavigableMap<String, Object> result = new TreeMap<>();
+            Object node = get(path);
+            if (!(node instanceof Map)) return result;
+            NavigableMap<String, Object> children = castTree(node);
+            if (afterKey != null) children = children.tailMap(afterKey, false);
+            Iterator<Map.Entry<String, Object>> iterator = children.entrySet().iterator();
+            while (iterator.hasNext() && result.size() < limit) {
+                Map.Entry<String, Object> child = iterator.next();
+                result.put(child.getKey(), copy(child.getValue()));
+            }
+            return result;
+        }
+
+        /**
+         * Sends the child events that turn the shown window into the current one.
+         */
+        void refresh() {
+            if (shown == null) return;
+            NavigableMap<String, Object> before = shown;
+            NavigableMap<String, Object> after = query();
+            shown = after;
+            List<Runnable> events = new ArrayList<>();
+            long bytes = 0;
+            for (String key : before.keySet()) {
+                if (!after.containsKey(key)) {
+                    bytes += key.length() + 4;
+                    events.add(() -> listener.onChildRemoved(key));
+                }
+            }
+            for (Map.Entry<String, Object> child : after.entrySet()) {
+                String key = child.getKey();
+                Object value = child.getValue();
+                if (!before.containsKey(key)) {
+                    String previous = after.lowerKey(key);
+                    bytes += key.length() + sizeOf(value);
+                    events.add(() -> {
+                        stats.bytesDelivered += sizeOf(value);
+                        listener.onChildAdded(key, value, previous);
+                    });
+                } else if (!before.get(key).equals(value)) {
+                    bytes += key.length() + sizeOf(value);
+                    events.add(() -> {
+                        stats.bytesDelivered += sizeOf(value);
+                        listener.onChildChanged(key, value);
+                    });
+                }
+            }
+            if (events.isEmpty()) return;
+            stats.bytesDown += bytes;
+            scheduler.schedule(() -> {
+                if (!active) return;
+                for (Runnable event : events) {
+                    stats.callbacks++;
+                    event.run();
+                }
+            }, roundTripMs / 2 + transferMs(bytes));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static NavigableMap<String, Object> castTree(Object value) {
+        return (NavigableMap<String, Object>) value;
+    }
+}
@@ -0,0 +1,236 @@
+package com.matey.disciteomnesapp.data;
+
+import com.matey.disciteomnesapp.models.Group;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class InMemoryDataStoreTest {
+
+    private static final long ROUND_TRIP_MS = 100;
+    private static final long BYTES_PER_MS = 100;
+
+    private final ManualScheduler scheduler = new ManualScheduler();
+    private final InMemoryDataStore store = new InMemoryDataStore(scheduler, ROUND_TRIP_MS, BYTES_PER_MS);
+    private final List<Object> values = new ArrayList<>();
+
+    private final DataStore.ValueCallback collect = new DataStore.ValueCallback() {
+        @Override
+        public void onValue(Object value) {
+            values.add(value);
+        }
+
+        @Override
+        public void onError(String message) {
+        }
+    };
+
+    @Test
+    public void sizeOf_isTheJsonLength() {
+        Map<String, Object> value = new HashMap<>();
+        value.put("name", "Math");
+        value.put("count", 12L);
+        value.put("done", true);
+
+        // {"name":"Math","count":12,"done":true}
+        assertEquals(38, InMemoryDataStore.sizeOf(value));
+    }
+
+    @Test
+    public void read_arrivesAfterTheRoundTripAndTransfer() {
+        seedGroups(50);
+        long size = InMemoryDataStore.sizeOf(store.get("groups"));
+
+        store.read("groups", collect);
+        scheduler.advance(ROUND_TRIP_MS + size / BYTES_PER_MS - 1);
+        assertTrue(values.isEmpty());
+        scheduler.advance(1);
+
+        assertEquals(1, values.size());
+        assertEquals(size, store.stats().bytesDown);
+        assertEquals(size, store.stats().bytesDelivered);
+    }
+
+    @Test
+    public void listen_afterTheFirstSnapshot_onlyChangesTravel() {
+        seedGroups(50);
+        store.listen("groups", collect);
+        scheduler.advance(10_000);
+        long initial = store.stats().bytesDown;
+        store.resetStats();
+
+        Map<String, Object> updates = new HashMap<>();
+        updates.put("groups/g7/name", "Renamed");
+        store.update(updates, () -> { }, () -> { });
+        scheduler.advance(10_000);
+
+        InMemoryDataStore.Stats stats = store.stats();
+        assertEquals(2, values.size());
+        assertTrue(stats.bytesDown < 100);
+        assertTrue(stats.bytesDelivered > initial - 100);
+        assertEquals("Renamed", ((Map<?, ?>) ((Map<?, ?>) values.get(1)).get("g7")).get("name"));
+    }
+
+    @Test
+    public void update_isAppliedOnTheServerBeforeItIsAcknowledged() {
+        Map<String, Object> updates = new HashMap<>();
+        updates.put("meta/flag", true);
+        boolean[] acknowledged = {false};
+        store.update(updates, () -> acknowledged[0] = true, () -> { });
+
+        scheduler.advance(ROUND_TRIP_MS / 2);
+        assertEquals(true, store.get("meta/flag"));
+        assertFalse(acknowledged[0]);
+        scheduler.advance(ROUND_TRIP_MS / 2);
+        assertTrue(acknowledged[0]);
+    }
+
+    @Test
+    public void transaction_withoutALocalValue_isRetriedAgainstTheServerValue() {
+        store.seed("counters/c", 5L);
+        Object[] result = new Object[1];
+
+        store.transaction("counters/c", increment(), done(result));
+        scheduler.advance(10_000);
+
+        assertEquals(6L, result[0]);
+        assertEquals(6L, store.get("counters/c"));
+        assertEquals(1, store.stats().transactionRetries);
+    }
+
+    @Test
+    public void concurrentTransactions_areAllApplied() {
+        store.seed("counters/c", 5L);
+        store.listen("counters", collect);
+        scheduler.advance(10_000);
+
+        for (int i = 0; i < 10; i++) store.transaction("counters/c", increment(), done(new Object[1]));
+        scheduler.advance(100_000);
+
+        assertEquals(15L, store.get("counters/c"));
+        assertTrue(store.stats().transactionRetries > 0);
+    }
+
+    @Test
+    public void transaction_aborted_leavesTheValue() {
+        store.seed("counters/c", 5L);
+        boolean[] committed = {true};
+
+        store.transaction("counters/c", current -> DataStore.Mutation.ABORT, new DataStore.TransactionCallback() {
+            @Override
+            public void onComplete(boolean wasCommitted, Object value) {
+                committed[0] = wasCommitted;
+            }
+
+            @Override
+            public void onError(String message) {
+            }
+        });
+        scheduler.advance(10_000);
+
+        assertFalse(committed[0]);
+        assertEquals(5L, store.get("counters/c"));
+        assertEquals(0, store.stats().bytesUp);
+    }
+
+    @Test
+    public void pageSource_deliversTheWindowAndChangesInsideIt() {
+        for (int i = 0; i < 10; i++) {
+            store.seed(GroupTasks.path("g1", "t" + i), Collections.singletonMap("title", "Task " + i));
+        }
+        List<String> events = new ArrayList<>();
+        store.pageSource("g1").openPage("t2", 3, recorder(events));
+        scheduler.advance(10_000);
+        assertEquals(Arrays.asList("added t3 after null", "added t4 after t3", "added t5 after t4", "loaded 3"), events);
+        events.clear();
+
+        Map<String, Object> updates = new HashMap<>();
+        updates.put(GroupTasks.path("g1", "t4") + "/title", "Changed");
+        updates.put(GroupTasks.path("g1", "t8") + "/title", "Outside the window");
+        updates.put(GroupTasks.path("g1", "t3"), null);
+        store.update(updates, () -> { }, () -> { });
+        scheduler.advance(10_000);
+
+        assertEquals(Arrays.asList("removed t3", "changed t4", "added t6 after t5"), events);
+    }
+
+    @Test
+    public void removedListeners_getNothingMore() {
+        DataStore.Registration registration = store.listen("groups", collect);
+        registration.remove();
+        scheduler.advance(10_000);
+
+        assertTrue(values.isEmpty());
+        assertEquals(0, store.listenerCount());
+        assertNull(store.get("groups"));
+    }
+
+    private void seedGroups(int count) {
+        for (int i = 0; i < count; i++) {
+            store.seed("groups/g" + i, GroupMapper.toValue(new Group("g" + i, "Group " + i, "", Group.membersOf("u1"))));
+        }
+    }
+
+    private static DataStore.Mutation increment() {
+        return current -> (current instanceof Number ? ((Number) current).longValue() : 0) + 1;
+    }
+
+    private static DataStore.TransactionCallback done(Object[] result) {
+        return new DataStore.TransactionCallback() {
+            @Override
+            public void onComplete(boolean committed, Object value) {
+                result[0] = value;
+            }
+
+            @Override
+            public void onError(String message) {
+                result[0] = message;
+            }
+        };
+    }
+
+    private static TaskPageSource.PageListener recorder(List<String> events) {
+        return new TaskPageSource.PageListener() {
+            @Override
+            public void onChildAdded(String key, Object value, String previousKey) {
+                events.add("added " + key + " after " + previousKey);
+            }
+
+            @Override
+            public void onChildChanged(String key, Object value) {
+                events.add("changed " + key);
+            }
+
+            @Override
+            public void onChildRemoved(String key) {
+                events.add("removed " + key);
+            }
+
+            @Override
+            public void onChildMoved(String key, String previousKey) {
+                events.add("moved " + key);
+            }
+
+            @Override
+            public void onLoaded(int count) {
+                events.add("loaded " + count);
+            }
+
+            @Override
+            public void onError(String message) {
+                events.add("error " + message);
+            }
+        };
+    }
+}
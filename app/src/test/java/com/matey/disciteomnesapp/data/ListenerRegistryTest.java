@@ -0,0 +1,192 @@
+package com.matey.disciteomnesapp.data;
+
+import androidx.lifecycle.DefaultLifecycleObserver;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleObserver;
+import androidx.lifecycle.LifecycleOwner;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class ListenerRegistryTest {
+
+    private static final long GRACE = 5_000;
+
+    private final FakeDataStore store = new FakeDataStore();
+    private final ManualScheduler scheduler = new ManualScheduler();
+    private final ListenerRegistry registry = new ListenerRegistry(store, scheduler, GRACE);
+    private final List<Object> values = new ArrayList<>();
+
+    private final DataStore.ValueCallback callback = new DataStore.ValueCallback() {
+        @Override
+        public void onValue(Object value) {
+            values.add(value);
+        }
+
+        @Override
+        public void onError(String message) {
+        }
+    };
+
+    @Test
+    public void samePath_sharesOneListener() {
+        store.set("groups/g1/name", "Math");
+
+        registry.listen("groups", callback);
+        registry.listen("groups", callback);
+        registry.listen("groupTasks/g1", callback);
+
+        assertEquals(2, store.listenerCount());
+        assertEquals(2, registry.getActiveListenerCount());
+        assertEquals(3, registry.getSubscriberCount());
+        // The second subscriber got the value the shared listener already had
+        assertEquals(3, values.size());
+        assertEquals(2, store.reads.size());
+    }
+
+    @Test
+    public void changes_reachEverySubscriber() {
+        registry.listen("groups", callback);
+        registry.listen("groups", callback);
+        values.clear();
+
+        store.update(Collections.singletonMap("groups/g1/name", "Math"), () -> { }, () -> { });
+
+        assertEquals(2, values.size());
+    }
+
+    @Test
+    public void rotatingRepeatedly_keepsOneListener() {
+        for (int i = 0; i < 20; i++) {
+            FakeLifecycleOwner screen = new FakeLifecycleOwner();
+            registry.bind(screen, "groups", callback);
+            screen.start();
+            assertEquals(1, registry.getActiveListenerCount());
+            assertEquals(1, registry.getSubscriberCount());
+
+            // Rotation: the old screen stops and is destroyed, the new one starts right after
+            screen.stop();
+            screen.destroy();
+            scheduler.advance(100);
+        }
+
+        assertEquals(1, store.listenerCount());
+        assertEquals(1, registry.getAttachCount());
+        assertEquals(0, registry.getDetachCount());
+        assertEquals(0, registry.getSubscriberCount());
+    }
+
+    @Test
+    public void lastSubscriberGone_detachesAfterGracePeriod() {
+        DataStore.Registration registration = registry.listen("groups", callback);
+
+        registration.remove();
+        registration.remove(); // removing twice is harmless
+        scheduler.advance(GRACE - 1);
+        assertEquals(1, store.listenerCount());
+
+        scheduler.advance(1);
+        assertEquals(0, store.listenerCount());
+        assertEquals(0, registry.getActiveListenerCount());
+        assertEquals(1, registry.getDetachCount());
+    }
+
+    @Test
+    public void reopeningAfterGracePeriod_attachesAgain() {
+        FakeLifecycleOwner screen = new FakeLifecycleOwner();
+        registry.bind(screen, "groups", callback);
+
+        for (int i = 0; i < 5; i++) {
+            screen.start();
+            screen.stop();
+            scheduler.advance(GRACE);
+            assertEquals(0, store.listenerCount());
+        }
+
+        assertEquals(5, registry.getAttachCount());
+        assertEquals(5, registry.getDetachCount());
+    }
+
+    @Test
+    public void destroyedScreen_stopsObserving() {
+        FakeLifecycleOwner screen = new FakeLifecycleOwner();
+        registry.bind(screen, "groups", callback);
+        screen.start();
+        screen.stop();
+        screen.destroy();
+
+        screen.start();
+
+        assertEquals(0, registry.getSubscriberCount());
+    }
+
+    @Test
+    public void groupSync_reopenedScreensShareTheRegistryListener() {
+        GroupRepository repository = new GroupRepository(new GroupRepositoryTest.FakeGroupDao(), registry,
+                Runnable::run, Runnable::run, Runnable::run);
+
+        for (int i = 0; i < 10; i++) {
+            repository.startSync(() -> { });
+            repository.stopSync();
+            scheduler.advance(10);
+        }
+
+        // groups and groupStats, each attached once
+        assertEquals(2, registry.getAttachCount());
+        assertEquals(2, store.listenerCount());
+    }
+
+    /**
+     * Lifecycle that only moves when the test says so.
+     */
+    private static class FakeLifecycleOwner extends Lifecycle implements LifecycleOwner {
+        private final List<LifecycleObserver> observers = new ArrayList<>();
+        private State state = State.CREATED;
+
+        @Override
+        public Lifecycle getLifecycle() {
+            return this;
+        }
+
+        @Override
+        public void addObserver(LifecycleObserver observer) {
+            observers.add(observer);
+        }
+
+        @Override
+        public void removeObserver(LifecycleObserver observer) {
+            observers.remove(observer);
+        }
+
+        @Override
+        public State getCurrentState() {
+            return state;
+        }
+
+        void start() {
+            state = State.STARTED;
+            for (LifecycleObserver observer : new ArrayList<>(observers)) {
+                ((DefaultLifecycleObserver) observer).onStart(this);
+            }
+        }
+
+        void stop() {
+            state = State.CREATED;
+            for (LifecycleObserver observer : new ArrayList<>(observers)) {
+                ((DefaultLifecycleObserver) observer).onStop(this);
+            }
+        }
+
+        void destroy() {
+            state = State.DESTROYED;
+            for (LifecycleObserver observer : new ArrayList<>(observers)) {
+                ((DefaultLifecycleObserver) observer).onDestroy(this);
+            }
+        }
+    }
+}
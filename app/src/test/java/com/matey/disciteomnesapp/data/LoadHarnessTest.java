@@ -0,0 +1,221 @@
+package com.matey.disciteomnesapp.data;
+
+import androidx.arch.core.executor.testing.InstantTaskExecutorRule;
+
+import com.matey.disciteomnesapp.models.Group;
+import com.matey.disciteomnesapp.models.Task;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Seeds an in-memory backend with 100,000 tasks in 10,000 groups and opens each screen's
+ * data path against it, checking the bytes, calls and simulated time every screen costs
+ * on an 80 ms / 8 Mbit/s connection.
+ *
+ * Task counts are skewed like real usage: the first 10 groups hold 5,000 tasks each and
+ * the rest share the other half. The measured user is in one of the large groups.
+ */
+public class LoadHarnessTest {
+
+    private static final int GROUPS = 10_000;
+    private static final int TASKS = 100_000;
+    private static final int LARGE_GROUPS = 10;
+    private static final int USERS = 2_000;
+    private static final String USER = "u00001";
+    private static final String HOT_GROUP = groupId(0);
+
+    private static final long ROUND_TRIP_MS = 80;
+    private static final long BYTES_PER_MS = 1_000;
+    private static final long MAX_SETTLE_MS = 600_000;
+
+    @Rule
+    public InstantTaskExecutorRule instantTaskExecutorRule = new InstantTaskExecutorRule();
+
+    private final ManualScheduler scheduler = new ManualScheduler();
+    private final InMemoryDataStore store = new InMemoryDataStore(scheduler, ROUND_TRIP_MS, BYTES_PER_MS);
+
+    @Before
+    public void seed() {
+        for (int u = 0; u < USERS; u++) {
+            Map<String, Object> user = new HashMap<>();
+            user.put("name", "User " + u);
+            user.put("email", "user" + u + "@example.com");
+            store.seed("users/" + userId(u), user);
+            store.seed(UserGroupIndex.indexedPath(userId(u)), true);
+        }
+        for (int g = 0; g < GROUPS; g++) {
+            // The measured user is in the first large group and every 1,000th group after it
+            Group group = new Group(groupId(g), "Group " + g, "Description of group " + g,
+                    Group.membersOf(userId(g % USERS), userId((g * 7 + 3) % USERS), userId((g * 13 + 5) % USERS)));
+            if (g % 1_000 == 0) group.members.put(USER, true);
+            store.seed("groups/" + group.id, GroupMapper.toValue(group));
+            for (String member : group.members.keySet()) {
+                store.seed(UserGroupIndex.path(member) + "/" + group.id, group.name);
+            }
+        }
+
+        LocalDate start = LocalDate.parse("2025-01-01");
+        int largeGroupTasks = TASKS / 2 / LARGE_GROUPS;
+        for (int i = 0; i < TASKS; i++) {
+            int g = i < TASKS / 2 ? i / largeGroupTasks : LARGE_GROUPS + i % (GROUPS - LARGE_GROUPS);
+            Task task = new Task(String.format("t%06d", i), groupId(g), "Task " + i, "Details for task " + i,
+                    i % 3 == 0, userId(i % USERS), "User " + (i % USERS),
+                    i % 5 == 0 ? null : start.plusDays(i % 365).toString());
+            store.seed(GroupTasks.path(task.groupId, task.id), TaskMapper.toValue(task));
+        }
+        for (Map.Entry<String, Object> stats : GroupStatsBackfill.buildUpdates(store.get(GroupTasks.ROOT)).entrySet()) {
+            store.seed(stats.getKey(), stats.getValue());
+        }
+    }
+
+    @Test
+    public void screensOver100kTasksAnd10kGroups() {
+        FakeSessionStore sessionStore = new FakeSessionStore();
+        sessionStore.setLastGroupId(HOT_GROUP);
+        StartupCoordinator coordinator = new StartupCoordinator(() -> { },
+                new UserProfileCache(store, null, Runnable::run, Runnable::run, 100),
+                new UserGroupIndex(store), sessionStore, store::pageSource, TaskPager.DEFAULT_PAGE_SIZE,
+                new HotPathSync(new HotPathSyncTest.RecordingSyncer(), TaskPager.DEFAULT_PAGE_SIZE, HotPathSync.MAX_ACTIVE_GROUPS));
+        StartupCoordinator.Session[] session = new StartupCoordinator.Session[1];
+        Load dashboard = measure(() -> session[0] = coordinator.start(USER));
+        assertEquals(TaskPager.DEFAULT_PAGE_SIZE, (int) session[0].firstTaskPage.join());
+        assertTrue(session[0].userGroups.join().size() >= GROUPS / 1_000);
+
+        GroupRepository groups = new GroupRepository(new GroupRepositoryTest.FakeGroupDao(), store,
+                Runnable::run, Runnable::run, Runnable::run);
+        Load groupList = measure(() -> groups.startSync(() -> { }));
+        groups.stopSync();
+
+        TaskPager pager = new TaskPager(store.pageSource(HOT_GROUP), TaskPager.DEFAULT_PAGE_SIZE, 3, new PagerListener());
+        Load taskList = measure(() -> {
+            pager.loadFirst();
+            settle();
+            pager.loadNext();
+            settle();
+            pager.loadNext();
+        });
+        assertEquals(3 * TaskPager.DEFAULT_PAGE_SIZE, pager.getItems().size());
+
+        Task first = pager.getItems().get(0);
+        Load toggle = measure(() ->
+                new BulkTaskUpdate(store).setCompleted(Collections.singletonList(first), !first.completed, callback()));
+        pager.close();
+
+        Load fullRead = measure(() ->
+                store.read(GroupTasks.ROOT, new DataStore.ValueCallback() {
+                    @Override
+                    public void onValue(Object value) {
+                    }
+
+                    @Override
+                    public void onError(String message) {
+                    }
+                }));
+
+        // The startup loads go out together: the user's groups and their flag, the last group
+        // and its first page
+        assertEquals(3, dashboard.stats.reads);
+        assertEquals(1, dashboard.stats.listens);
+        assertEquals(0, dashboard.stats.writes);
+        assertTrue(dashboard.ms <= 2 * ROUND_TRIP_MS);
+        // The group list listens to groups and groupStats and nothing per group
+        assertEquals(2, groupList.stats.listens);
+        assertEquals(0, groupList.stats.reads);
+        // Each task page is one query that arrives in about one round trip
+        assertEquals(3, taskList.stats.listens);
+        assertEquals(0, taskList.stats.reads);
+        assertEquals(3 * TaskPager.DEFAULT_PAGE_SIZE + 3, taskList.stats.callbacks);
+        assertTrue(taskList.ms <= 4 * ROUND_TRIP_MS);
+        // A screen never downloads more than a small fraction of the tasks
+        assertTrue(dashboard.stats.bytesDown * 100 < fullRead.stats.bytesDown);
+        assertTrue(taskList.stats.bytesDown * 100 < fullRead.stats.bytesDown);
+        assertTrue(dashboard.ms * 100 < fullRead.ms);
+        // The toggle is one write with the flag and the counters, and gets back only the changed child
+        assertEquals(1, toggle.stats.writes);
+        assertEquals(0, toggle.stats.transactions);
+        assertTrue(toggle.stats.bytesUp < 1_024);
+        assertTrue(toggle.stats.bytesDown < 1_024);
+        assertTrue(toggle.ms <= 2 * ROUND_TRIP_MS);
+    }
+
+    /**
+     * What one screen cost: the store's counters and the simulated time until it settled.
+     */
+    private static class Load {
+        final InMemoryDataStore.Stats stats;
+        final long ms;
+
+        Load(InMemoryDataStore.Stats stats, long ms) {
+            this.stats = stats;
+            this.ms = ms;
+        }
+    }
+
+    private Load measure(Runnable open) {
+        store.resetStats();
+        long start = scheduler.now();
+        open.run();
+        settle();
+        return new Load(store.stats(), scheduler.now() - start);
+    }
+
+    /**
+     * Runs simulated time until nothing is in flight.
+     */
+    private void settle() {
+        long limit = scheduler.now() + MAX_SETTLE_MS;
+        while (scheduler.pendingCount() > 0 && scheduler.now() < limit) scheduler.advance(1);
+    }
+
+    private static String groupId(int index) {
+        return String.format("g%05d", index);
+    }
+
+    private static String userId(int index) {
+        return String.format("u%05d", index);
+    }
+
+    private static BulkTaskUpdate.Callback callback() {
+        return new BulkTaskUpdate.Callback() {
+            @Override
+            public void onSuccess(int taskCount) {
+            }
+
+            @Override
+            public void onFailure() {
+            }
+        };
+    }
+
+    private static class PagerListener implements TaskPager.Listener {
+        @Override
+        public void onInserted(int positionStart, int count) {
+        }
+
+        @Override
+        public void onChanged(int position) {
+        }
+
+        @Override
+        public void onRemoved(int positionStart, int count) {
+        }
+
+        @Override
+        public void onMoved(int fromPosition, int toPosition) {
+        }
+
+        @Override
+        public void onError(String message) {
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.matey.disciteomnesapp.data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Scheduler for JVM tests: nothing runs until the test advances the clock.
+ */
+public class ManualScheduler implements Scheduler {
+
+    private final List<Long> times = new ArrayList<>();
+    private final List<Runnable> tasks = new ArrayList<>();
+    private long now = 0;
+
+    @Override
+    public long now() {
+        return now;
+    }
+
+    @Override
+    public void schedule(Runnable task, long delayMs) {
+        times.add(now + delayMs);
+        tasks.add(task);
+    }
+
+    /**
+     * Runs every task due within the next ms milliseconds, earliest first.
+     */
+    public void advance(long ms) {
+        long target = now + ms;
+        while (true) {
+            int next = -1;
+            for (int i = 0; i < times.size(); i++) {
+                if (times.get(i) <= target && (next < 0 || times.get(i) < times.get(next))) next = i;
+            }
+            if (next < 0) break;
+            now = Math.max(now, times.remove(next));
+            tasks.remove(next).run();
+        }
+        now = target;
+    }
+
+    public int pendingCount() {
+        return tasks.size();
+    }
+}
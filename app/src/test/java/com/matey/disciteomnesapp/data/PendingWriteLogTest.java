@@ -0,0 +1,195 @@
+package com.matey.disciteomnesapp.data;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PendingWriteLogTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void open_returnsOutstandingUpdatesInOrder() {
+        File file = new File(folder.getRoot(), "log");
+        PendingWriteLog log = new PendingWriteLog(file);
+        log.open();
+        for (int i = 0; i < 5; i++) log.append(entry("k" + i, i));
+        log.complete("k1");
+        log.complete("k3");
+
+        List<PendingWriteLog.Entry> outstanding = new PendingWriteLog(file).open();
+
+        assertEquals(Arrays.asList("k0", "k2", "k4"), keys(outstanding));
+        assertEquals(4L, outstanding.get(2).updates.get("items/k4"));
+    }
+
+    @Test
+    public void values_surviveTheRoundTrip() {
+        File file = new File(folder.getRoot(), "log");
+        Map<String, Object> members = new HashMap<>();
+        members.put("u1", true);
+        Map<String, Object> group = new HashMap<>();
+        group.put("name", "Algebra");
+        group.put("members", members);
+        group.put("tags", Arrays.asList("math", 3L));
+        Map<String, Object> updates = new HashMap<>();
+        updates.put("groups/g1", group);
+        updates.put("groupStats/g1/total", Increment.by(-2));
+        updates.put("groups/g0", null);
+        updates.put("score", 2.5);
+        PendingWriteLog log = new PendingWriteLog(file);
+        log.open();
+        log.append(new PendingWriteLog.Entry("k", updates, 1_700_000_000_000L));
+
+        PendingWriteLog.Entry entry = new PendingWriteLog(file).open().get(0);
+        Map<String, Object> read = entry.updates;
+
+        assertEquals(1_700_000_000_000L, entry.createdAt);
+
+        assertEquals(group, read.get("groups/g1"));
+        assertEquals(-2L, ((Increment) read.get("groupStats/g1/total")).delta);
+        assertTrue(read.containsKey("groups/g0"));
+        assertEquals(2.5, read.get("score"));
+    }
+
+    @Test
+    public void append_severalEntries_areReadBackInOrder() {
+        File file = new File(folder.getRoot(), "log");
+        PendingWriteLog log = new PendingWriteLog(file);
+        log.open();
+        log.append(entry("k0", 0));
+
+        log.append(Arrays.asList(entry("k1", 1), entry("k2", 2), entry("k3", 3)));
+        log.complete("k2");
+
+        List<PendingWriteLog.Entry> outstanding = new PendingWriteLog(file).open();
+        assertEquals(Arrays.asList("k0", "k1", "k3"), keys(outstanding));
+        assertEquals(3L, outstanding.get(2).createdAt);
+    }
+
+    @Test
+    public void open_readsARecordWithoutCreationTimeAsTooOld() throws IOException {
+        File file = new File(folder.getRoot(), "log");
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(body);
+        out.writeByte('A');
+        out.writeUTF("old");
+        PendingWriteLog.writeValue(out, Collections.singletonMap("items/old", 1L));
+        byte[] record = body.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(record, 0, record.length);
+        try (DataOutputStream stream = new DataOutputStream(new FileOutputStream(file))) {
+            stream.writeInt(record.length);
+            stream.writeInt((int) crc.getValue());
+            stream.write(record);
+        }
+
+        List<PendingWriteLog.Entry> outstanding = new PendingWriteLog(file).open();
+
+        assertEquals(Collections.singletonList("old"), keys(outstanding));
+        assertEquals(0L, outstanding.get(0).createdAt);
+    }
+
+    @Test
+    public void open_dropsARecordTornByACrash() throws IOException {
+        File file = new File(folder.getRoot(), "log");
+        PendingWriteLog log = new PendingWriteLog(file);
+        log.open();
+        log.append(entry("k0", 0));
+        log.append(entry("k1", 1));
+        long intact = file.length();
+        log.append(entry("k2", 2));
+        truncate(file, intact + (file.length() - intact) / 2);
+
+        PendingWriteLog reopened = new PendingWriteLog(file);
+        assertEquals(Arrays.asList("k0", "k1"), keys(reopened.open()));
+
+        // The torn bytes are gone, so later records are readable again
+        reopened.append(entry("k3", 3));
+        assertEquals(Arrays.asList("k0", "k1", "k3"), keys(new PendingWriteLog(file).open()));
+    }
+
+    @Test
+    public void open_stopsAtACorruptRecord() throws IOException {
+        File file = new File(folder.getRoot(), "log");
+        PendingWriteLog log = new PendingWriteLog(file);
+        log.open();
+        log.append(entry("k0", 0));
+        long second = file.length();
+        log.append(entry("k1", 1));
+        log.append(entry("k2", 2));
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(second + 12);
+            raf.write(raf.read() ^ 0xFF);
+        }
+
+        assertEquals(Collections.singletonList("k0"), keys(new PendingWriteLog(file).open()));
+    }
+
+    @Test
+    public void complete_lastOutstanding_emptiesTheFile() {
+        File file = new File(folder.getRoot(), "log");
+        PendingWriteLog log = new PendingWriteLog(file);
+        log.open();
+        log.append(entry("k0", 0));
+        log.append(entry("k1", 1));
+        log.complete("k0");
+        assertTrue(file.length() > 0);
+
+        log.complete("k1");
+
+        assertEquals(0, file.length());
+        assertEquals(0, log.getOutstandingCount());
+    }
+
+    @Test
+    public void open_rewritesTheFileWithoutCompletedRecords() {
+        File file = new File(folder.getRoot(), "log");
+        PendingWriteLog log = new PendingWriteLog(file);
+        log.open();
+        for (int i = 0; i < 20; i++) log.append(entry("k" + i, i));
+        for (int i = 0; i < 19; i++) log.complete("k" + i);
+        long before = file.length();
+
+        new PendingWriteLog(file).open();
+
+        assertTrue(file.length() * 10 < before);
+    }
+
+    private static PendingWriteLog.Entry entry(String key, long value) {
+        Map<String, Object> updates = new HashMap<>();
+        updates.put("items/" + key, value);
+        updates.put("counters/c", Increment.by(1));
+        return new PendingWriteLog.Entry(key, updates, value);
+    }
+
+    private static List<String> keys(List<PendingWriteLog.Entry> entries) {
+        List<String> keys = new ArrayList<>();
+        for (PendingWriteLog.Entry entry : entries) keys.add(entry.key);
+        return keys;
+    }
+
+    private static void truncate(File file, long length) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(length);
+        }
+    }
+}
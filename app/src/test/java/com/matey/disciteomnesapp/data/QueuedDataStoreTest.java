@@ -0,0 +1,253 @@
+package com.matey.disciteomnesapp.data;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class QueuedDataStoreTest {
+
+    private static final long ROUND_TRIP_MS = 80;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final List<String> events = new ArrayList<>();
+
+    @Test
+    public void update_isJournaledBeforeItIsSent() {
+        FakeDataStore server = new FakeDataStore();
+        PendingWriteLog log = new PendingWriteLog(logFile());
+        List<Runnable> disk = new ArrayList<>();
+        QueuedDataStore store = new QueuedDataStore(server, log, disk::add, Runnable::run);
+        store.replay();
+        runAll(disk);
+
+        store.update(mutation(1), () -> events.add("ok"), () -> events.add("failed"));
+        assertTrue(server.updates.isEmpty());
+
+        runAll(disk);
+        assertEquals(1, server.updates.size());
+        assertEquals(Arrays.asList("ok"), events);
+        assertEquals(0, log.getOutstandingCount());
+    }
+
+    @Test
+    public void updatesIssuedWhileJournaling_areAppendedTogether() {
+        FakeDataStore server = new FakeDataStore();
+        List<Runnable> disk = new ArrayList<>();
+        QueuedDataStore store = new QueuedDataStore(server, new PendingWriteLog(logFile()), disk::add, Runnable::run);
+        store.replay();
+        runAll(disk);
+
+        for (int i = 1; i <= 3; i++) store.update(mutation(i), null, null);
+
+        assertEquals(1, disk.size());
+        runAll(disk);
+        assertEquals(Arrays.asList(1L, 2L, 3L), lastValues(server));
+    }
+
+    @Test
+    public void update_createsItsIdempotencyKeyInTheSameWrite() {
+        FakeDataStore server = new FakeDataStore();
+        QueuedDataStore store = new QueuedDataStore(server, new PendingWriteLog(logFile()), Runnable::run,
+                Runnable::run, () -> 1_700_000_000_000L);
+        store.replay();
+
+        store.update(mutation(1), null, null);
+
+        Map<String, Object> sent = server.updates.get(0);
+        String key = null;
+        for (String path : sent.keySet()) {
+            if (path.startsWith(AppliedWrites.ROOT + "/")) key = path;
+        }
+        // Holds when the update was issued, so old keys can be pruned
+        assertEquals(1_700_000_000_000L, server.get(key));
+        assertEquals(1L, server.get("order/last"));
+    }
+
+    @Test
+    public void rejectedReplay_isHandedToTheListenerSetLater() {
+        QueuedDataStore first = queue(new OfflineDataStore(), new PendingWriteLog(logFile()));
+        first.update(mutation(1), null, null);
+
+        FakeDataStore server = new FakeDataStore();
+        server.failWrites = true;
+        QueuedDataStore restarted = queue(server, new PendingWriteLog(logFile()));
+        List<Map<String, Object>> rejected = new ArrayList<>();
+        restarted.setRejectedReplayListener(rejected::add);
+
+        assertEquals(1, rejected.size());
+        assertEquals(1L, rejected.get(0).get("order/last"));
+    }
+
+    @Test
+    public void replayOlderThanTheRetention_isRejectedNotAppliedAgain() {
+        // Queued offline, then the app isn't opened again for longer than the keys are kept
+        QueuedDataStore first = new QueuedDataStore(new OfflineDataStore(), new PendingWriteLog(logFile()),
+                Runnable::run, Runnable::run, () -> 0L);
+        first.replay();
+        first.update(mutation(1), null, null);
+
+        FakeDataStore server = new FakeDataStore();
+        server.now = AppliedWrites.RETENTION_MS;
+        List<Map<String, Object>> rejected = new ArrayList<>();
+        QueuedDataStore restarted = new QueuedDataStore(server, new PendingWriteLog(logFile()), Runnable::run,
+                Runnable::run);
+        restarted.setRejectedReplayListener(rejected::add);
+        restarted.replay();
+
+        assertNull(server.get("counters/total"));
+        assertEquals(1, rejected.size());
+        assertEquals(0, logFile().length());
+    }
+
+    @Test
+    public void rejectedUpdate_isReportedAndDropped() {
+        FakeDataStore server = new FakeDataStore();
+        server.failWrites = true;
+        PendingWriteLog log = new PendingWriteLog(logFile());
+        QueuedDataStore store = queue(server, log);
+
+        store.update(mutation(1), () -> events.add("ok"), () -> events.add("failed"));
+
+        assertEquals(Arrays.asList("failed"), events);
+        assertEquals(0, log.getOutstandingCount());
+        assertTrue(new PendingWriteLog(logFile()).open().isEmpty());
+    }
+
+    @Test
+    public void crashMidQueue_replaysOutstandingWritesInOrder_once() throws IOException {
+        // First process: offline, five writes queued, then it dies while journaling a sixth
+        OfflineDataStore offline = new OfflineDataStore();
+        QueuedDataStore first = queue(offline, new PendingWriteLog(logFile()));
+        for (int i = 1; i <= 5; i++) first.update(mutation(i), () -> events.add("stale callback"), null);
+        long intact = logFile().length();
+        first.update(mutation(6), null, null);
+        truncate(logFile(), intact + (logFile().length() - intact) / 2);
+
+        // ...but the first two had reached the server before it went
+        FakeDataStore server = new FakeDataStore();
+        server.update(offline.sent.get(0), () -> { }, () -> { });
+        server.update(offline.sent.get(1), () -> { }, () -> { });
+
+        PendingWriteLog log = new PendingWriteLog(logFile());
+        QueuedDataStore restarted = queue(server, log);
+        restarted.update(mutation(7), () -> events.add("7 ok"), () -> events.add("7 failed"));
+
+        assertEquals(5, restarted.getReplayedCount());
+        // Two rejected by their idempotency key and not applied again, three applied in order
+        assertEquals(6L, server.get("counters/total"));
+        assertEquals(Arrays.asList(1L, 2L, 3L, 4L, 5L, 7L), lastValues(server));
+        assertEquals(7L, server.get("order/last"));
+        assertEquals(Arrays.asList("7 ok"), events);
+        assertEquals(0, log.getOutstandingCount());
+        assertEquals(0, logFile().length());
+    }
+
+    @Test
+    public void replay_1000QueuedMutations() {
+        OfflineDataStore offline = new OfflineDataStore();
+        QueuedDataStore first = queue(offline, new PendingWriteLog(logFile()));
+        for (int i = 0; i < 1_000; i++) first.update(mutation(i), null, null);
+
+        ManualScheduler scheduler = new ManualScheduler();
+        InMemoryDataStore server = new InMemoryDataStore(scheduler, ROUND_TRIP_MS, 1_000);
+        PendingWriteLog log = new PendingWriteLog(logFile());
+        QueuedDataStore restarted = queue(server, log);
+        restarted.update(mutation(1_000), () -> events.add("new ok"), null);
+        while (scheduler.pendingCount() > 0) scheduler.advance(1);
+
+        assertEquals(1_000, restarted.getReplayedCount());
+        assertEquals(1_001L, server.get("counters/total"));
+        // Every slot holds the last mutation written to it, so they were applied in order
+        assertEquals(1_000L, server.get("order/last"));
+        assertEquals(1_000L, server.get("items/slot0"));
+        for (int slot = 1; slot < 10; slot++) assertEquals((long) (990 + slot), server.get("items/slot" + slot));
+        assertEquals(Arrays.asList("new ok"), events);
+        assertEquals(0, log.getOutstandingCount());
+        // Sent back to back over one connection, not one round trip each
+        assertTrue(scheduler.now() < 10 * ROUND_TRIP_MS);
+    }
+
+    private QueuedDataStore queue(DataStore server, PendingWriteLog log) {
+        QueuedDataStore store = new QueuedDataStore(server, log, Runnable::run, Runnable::run);
+        store.replay();
+        return store;
+    }
+
+    private File logFile() {
+        return new File(folder.getRoot(), "pending-writes.log");
+    }
+
+    /**
+     * Mutation n: bumps a counter and records n in a slot and as the last one applied.
+     */
+    private static Map<String, Object> mutation(long n) {
+        Map<String, Object> updates = new HashMap<>();
+        updates.put("counters/total", Increment.by(1));
+        updates.put("items/slot" + (n % 10), n);
+        updates.put("order/last", n);
+        return updates;
+    }
+
+    private static List<Object> lastValues(FakeDataStore server) {
+        List<Object> values = new ArrayList<>();
+        for (Map<String, Object> update : server.updates) values.add(update.get("order/last"));
+        return values;
+    }
+
+    private static void runAll(List<Runnable> tasks) {
+        while (!tasks.isEmpty()) tasks.remove(0).run();
+    }
+
+    private static void truncate(File file, long length) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(length);
+        }
+    }
+
+    /**
+     * A client without a connection: writes are taken but never answered. Its push keys
+     * differ from the other stores' as real ones would.
+     */
+    private static class OfflineDataStore implements DataStore {
+        final List<Map<String, Object>> sent = new ArrayList<>();
+        private int keyCounter = 0;
+
+        @Override
+        public void read(String path, ValueCallback callback) {
+        }
+
+        @Override
+        public Registration listen(String path, ValueCallback callback) {
+            return () -> { };
+        }
+
+        @Override
+        public void update(Map<String, Object> updates, Runnable onSuccess, Runnable onFailure) {
+            sent.add(new HashMap<>(updates));
+        }
+
+        @Override
+        public void transaction(String path, Mutation mutation, TransactionCallback callback) {
+        }
+
+        @Override
+        public String newKey(String path) {
+            return String.format("-Offline%05d", keyCounter++);
+        }
+    }
+}
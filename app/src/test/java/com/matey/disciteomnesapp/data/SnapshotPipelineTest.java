@@ -0,0 +1,107 @@
+package com.matey.disciteomnesapp.data;
+
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SnapshotPipelineTest {
+
+    private final Queue<Runnable> background = new ArrayDeque<>();
+    private final Queue<Runnable> mainThread = new ArrayDeque<>();
+    private final List<String> mapped = new ArrayList<>();
+    private final List<String> delivered = new ArrayList<>();
+
+    private final SnapshotPipeline<Integer, String> pipeline = new SnapshotPipeline<>(
+            background::add, mainThread::add,
+            input -> {
+                mapped.add("v" + input);
+                return "v" + input;
+            },
+            delivered::add);
+
+    private static void runAll(Queue<Runnable> queue) {
+        while (!queue.isEmpty()) queue.poll().run();
+    }
+
+    @Test
+    public void mapsOffTheMainQueueAndDeliversOnIt() {
+        pipeline.submit(1);
+        assertTrue(mapped.isEmpty());
+
+        runAll(background);
+        assertEquals(Arrays.asList("v1"), mapped);
+        assertTrue(delivered.isEmpty());
+
+        runAll(mainThread);
+        assertEquals(Arrays.asList("v1"), delivered);
+    }
+
+    @Test
+    public void waitingSnapshotsAreReplacedByNewerOnes() {
+        pipeline.submit(1);
+        pipeline.submit(2);
+        pipeline.submit(3);
+
+        assertEquals(1, background.size());
+        runAll(background);
+        runAll(mainThread);
+
+        assertEquals(Arrays.asList("v3"), mapped);
+        assertEquals(Arrays.asList("v3"), delivered);
+    }
+
+    @Test
+    public void overtakenResultIsNotDelivered() {
+        pipeline.submit(1);
+        runAll(background);
+        pipeline.submit(2);
+        runAll(background);
+        runAll(mainThread);
+
+        assertEquals(Arrays.asList("v1", "v2"), mapped);
+        assertEquals(Arrays.asList("v2"), delivered);
+    }
+
+    @Test
+    public void closedPipelineDeliversNothing() {
+        pipeline.submit(1);
+        runAll(background);
+        pipeline.close();
+        runAll(mainThread);
+        pipeline.submit(2);
+        runAll(background);
+        runAll(mainThread);
+
+        assertTrue(delivered.isEmpty());
+    }
+
+    @Test
+    public void snapshotTheMapperThrowsOn_isReportedAndLaterOnesStillArrive() {
+        List<String> failures = new ArrayList<>();
+        SnapshotPipeline<Integer, String> failing = new SnapshotPipeline<>(
+                background::add, mainThread::add,
+                input -> {
+                    if (input == 1) throw new IllegalStateException("bad snapshot");
+                    return "v" + input;
+                },
+                delivered::add,
+                error -> failures.add(error.getMessage()));
+
+        failing.submit(1);
+        runAll(background);
+        runAll(mainThread);
+        failing.submit(2);
+        runAll(background);
+        runAll(mainThread);
+
+        assertEquals(Arrays.asList("bad snapshot"), failures);
+        assertEquals(Arrays.asList("v2"), delivered);
+    }
+}
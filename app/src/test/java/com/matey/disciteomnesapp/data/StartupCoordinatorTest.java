@@ -0,0 +1,146 @@
+package com.matey.disciteomnesapp.data;
+
+import com.matey.disciteomnesapp.models.User;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class StartupCoordinatorTest {
+
+    private final FakeDataStore store = new FakeDataStore();
+    private final FakeSessionStore sessionStore = new FakeSessionStore();
+    private final List<String> opened = new ArrayList<>();
+    private final List<String> cancelled = new ArrayList<>();
+    private final List<TaskPageSource.PageListener> pageListeners = new ArrayList<>();
+    private final HotPathSyncTest.RecordingSyncer syncer = new HotPathSyncTest.RecordingSyncer();
+    private int warmUps = 0;
+
+    private StartupCoordinator coordinator;
+
+    @Before
+    public void setUp() {
+        Map<String, Object> user = new HashMap<>();
+        user.put("name", "Ana");
+        store.set("users/u1", user);
+        store.set("userGroups/u1/g1", "Algebra");
+        store.set(UserGroupIndex.indexedPath("u1"), true);
+
+        coordinator = new StartupCoordinator(
+                () -> warmUps++,
+                new UserProfileCache(store, null, Runnable::run, Runnable::run, 10),
+                new UserGroupIndex(store),
+                sessionStore,
+                groupId -> (afterKey, limit, listener) -> {
+                    opened.add(groupId + " " + limit);
+                    pageListeners.add(listener);
+                    return () -> cancelled.add(groupId);
+                },
+                30,
+                new HotPathSync(syncer, 30, HotPathSync.MAX_ACTIVE_GROUPS));
+    }
+
+    @Test
+    public void start_requestsEverythingAtOnce() {
+        sessionStore.setLastGroupId("g1");
+
+        StartupCoordinator.Session session = coordinator.start("u1");
+
+        assertEquals(1, warmUps);
+        assertEquals(Arrays.asList("users/u1", "userGroups/u1", UserGroupIndex.indexedPath("u1")), store.reads);
+        assertEquals(Arrays.asList("g1 30"), opened);
+        assertEquals("Ana", session.profile.join().name);
+        assertEquals("Algebra", session.userGroups.join().get("g1"));
+        assertFalse(session.firstTaskPage.isDone());
+    }
+
+    @Test
+    public void firstPage_completesAndClosesWindowWhenLoaded() {
+        sessionStore.setLastGroupId("g1");
+        StartupCoordinator.Session session = coordinator.start("u1");
+
+        pageListeners.get(0).onLoaded(12);
+
+        assertEquals(12, (int) session.firstTaskPage.join());
+        assertEquals(Arrays.asList("g1"), cancelled);
+    }
+
+    @Test
+    public void withoutLastGroup_nothingIsPrefetched() {
+        StartupCoordinator.Session session = coordinator.start("u1");
+
+        assertTrue(opened.isEmpty());
+        assertEquals(0, (int) session.firstTaskPage.join());
+    }
+
+    @Test
+    public void repeatedStart_sharesTheSameSession() {
+        StartupCoordinator.Session first = coordinator.start("u1");
+        store.reads.clear();
+
+        StartupCoordinator.Session second = coordinator.start("u1");
+
+        assertSame(first, second);
+        assertTrue(store.reads.isEmpty());
+        assertEquals(1, warmUps);
+    }
+
+    @Test
+    public void takeUserGroups_prefetchedOnceThenFresh() {
+        StartupCoordinator.Session session = coordinator.start("u1");
+
+        assertSame(session.userGroups, coordinator.takeUserGroups("u1"));
+        store.set("userGroups/u1/g2", "Biology");
+        Map<String, String> fresh = coordinator.takeUserGroups("u1").join();
+
+        assertNotSame(session.userGroups.join(), fresh);
+        assertEquals(2, fresh.size());
+    }
+
+    @Test
+    public void stop_closesPendingPrefetchAndNextStartIsNew() {
+        sessionStore.setLastGroupId("g1");
+        StartupCoordinator.Session first = coordinator.start("u1");
+
+        coordinator.stop();
+        StartupCoordinator.Session second = coordinator.start("u1");
+
+        assertEquals(Arrays.asList("g1"), cancelled);
+        assertNotSame(first, second);
+        assertEquals(1, warmUps);
+    }
+
+    @Test
+    public void start_keepsTheUsersPathsSyncedUntilStop() {
+        sessionStore.setLastGroupId("g1");
+        coordinator.start("u1");
+
+        assertEquals(new HashSet<>(Arrays.asList("userGroups/u1", UserGroupIndex.indexedPath("u1"), "groups/g1",
+                "groupStats/g1", "page g1 30")), syncer.synced);
+
+        coordinator.stop();
+
+        assertTrue(syncer.synced.isEmpty());
+    }
+
+    @Test
+    public void profileMissing_completesWithNull() {
+        store.set("users/u1", null);
+
+        User user = coordinator.start("u1").profile.join();
+
+        assertEquals(null, user);
+    }
+}
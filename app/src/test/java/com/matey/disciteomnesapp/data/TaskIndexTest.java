@@ -0,0 +1,128 @@
+package com.matey.disciteomnesapp.data;
+
+import com.matey.disciteomnesapp.models.Task;
+
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TaskIndexTest {
+
+    private static final long TODAY = LocalDate.parse("2025-06-15").toEpochDay();
+
+    private final TaskIndex index = new TaskIndex();
+
+    private static Task task(String id, String assignee, String dueDate, boolean completed) {
+        return new Task(id, "g1", "Task " + id, "", completed, assignee, null, dueDate);
+    }
+
+    private static List<String> ids(List<Task> tasks) {
+        List<String> ids = new ArrayList<>();
+        for (Task task : tasks) ids.add(task.id);
+        return ids;
+    }
+
+    private List<String> query(TaskIndex.Filter filter) {
+        return ids(index.query(filter, "u1", TODAY));
+    }
+
+    @Test
+    public void filtersByAssigneeDueDateAndCompletion() {
+        index.put(task("t3", "u1", "2025-06-01", false));
+        index.put(task("t1", "u2", "2025-06-14", false));
+        index.put(task("t2", "u1", "2025-06-20", true));
+        index.put(task("t4", null, null, false));
+        index.put(task("t5", "u2", "2025-06-10", true));
+
+        assertEquals(Arrays.asList("t1", "t2", "t3", "t4", "t5"), query(TaskIndex.Filter.ALL));
+        assertEquals(Arrays.asList("t2", "t3"), query(TaskIndex.Filter.MINE));
+        assertEquals(Arrays.asList("t1", "t3"), query(TaskIndex.Filter.OVERDUE));
+        assertEquals(Arrays.asList("t1", "t3", "t4"), query(TaskIndex.Filter.INCOMPLETE));
+    }
+
+    @Test
+    public void dueBetween_isInclusiveAndSkipsUndatedTasks() {
+        index.put(task("t1", "u1", "2025-06-10", false));
+        index.put(task("t2", "u1", "2025-06-12", false));
+        index.put(task("t3", "u1", "not a date", false));
+
+        long from = LocalDate.parse("2025-06-10").toEpochDay();
+        assertEquals(1, index.dueBetween(from, from).cardinality());
+        assertEquals(2, index.dueBetween(from, from + 2).cardinality());
+        assertEquals(0, index.dueBetween(from + 3, from + 30).cardinality());
+    }
+
+    @Test
+    public void update_movesTaskBetweenBuckets() {
+        index.put(task("t1", "u1", "2025-06-01", false));
+
+        index.put(task("t1", "u2", "2025-07-01", true));
+
+        assertTrue(query(TaskIndex.Filter.MINE).isEmpty());
+        assertTrue(query(TaskIndex.Filter.OVERDUE).isEmpty());
+        assertTrue(query(TaskIndex.Filter.INCOMPLETE).isEmpty());
+        assertEquals(Arrays.asList("t1"), ids(index.query(TaskIndex.Filter.MINE, "u2", TODAY)));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    public void remove_clearsEveryBucketAndSlotIsReused() {
+        index.put(task("t1", "u1", "2025-06-01", false));
+        index.put(task("t2", "u1", "2025-06-02", false));
+
+        index.remove("t1");
+        index.put(task("t9", "u2", null, true));
+
+        assertNull(index.get("t1"));
+        assertEquals(Arrays.asList("t2"), query(TaskIndex.Filter.MINE));
+        assertEquals(Arrays.asList("t2"), query(TaskIndex.Filter.OVERDUE));
+        assertEquals(Arrays.asList("t2", "t9"), query(TaskIndex.Filter.ALL));
+    }
+
+    @Test
+    public void queriesOver50kTasks_matchALinearScan() {
+        List<Task> tasks = new ArrayList<>();
+        LocalDate start = LocalDate.parse("2025-01-01");
+        for (int i = 0; i < 50_000; i++) {
+            String dueDate = i % 10 == 0 ? null : start.plusDays(i % 365).toString();
+            tasks.add(new Task(String.format("t%06d", i), "g1", "Task " + i, "", i % 4 == 0,
+                    "u" + (i % 40), null, dueDate));
+        }
+        for (Task task : tasks) index.put(task);
+
+        for (TaskIndex.Filter filter : TaskIndex.Filter.values()) {
+            assertEquals(filter.name(), scan(tasks, filter), index.query(filter, "u7", TODAY));
+        }
+    }
+
+    // Filtering without an index: parse every due date on every query
+    private static List<Task> scan(List<Task> tasks, TaskIndex.Filter filter) {
+        List<Task> result = new ArrayList<>();
+        for (Task task : tasks) {
+            boolean match;
+            switch (filter) {
+                case MINE:
+                    match = "u7".equals(task.assignedTo);
+                    break;
+                case OVERDUE:
+                    long due = TaskIndex.parseDueDate(task.dueDate);
+                    match = !task.completed && due != TaskIndex.NO_DUE_DATE && due < TODAY;
+                    break;
+                case INCOMPLETE:
+                    match = !task.completed;
+                    break;
+                default:
+                    match = true;
+            }
+            if (match) result.add(task);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,127 @@
+package com.matey.disciteomnesapp.data;
+
+import com.matey.disciteomnesapp.models.Task;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TaskListSyncTest {
+
+    private static final int TASK_COUNT = 5_000;
+
+    private final List<Task> tasks = new ArrayList<>();
+    private final List<String> events = new ArrayList<>();
+    private int parses = 0;
+    private TaskListSync sync;
+
+    @Before
+    public void setUp() {
+        sync = new TaskListSync(tasks, (key, value) -> {
+            parses++;
+            return TaskMapper.fromValue(key, value);
+        }, new TaskListSync.Listener() {
+            @Override
+            public void onInserted(int position) {
+                events.add("inserted " + position);
+            }
+
+            @Override
+            public void onChanged(int position) {
+                events.add("changed " + position);
+            }
+
+            @Override
+            public void onRemoved(int position) {
+                events.add("removed " + position);
+            }
+
+            @Override
+            public void onMoved(int fromPosition, int toPosition) {
+                events.add("moved " + fromPosition + " " + toPosition);
+            }
+        });
+
+        String previous = null;
+        for (int i = 0; i < TASK_COUNT; i++) {
+            String key = key(i);
+            sync.onChildAdded(key, value(key, false), previous);
+            previous = key;
+        }
+        parses = 0;
+        events.clear();
+    }
+
+    private static String key(int i) {
+        return String.format("t%05d", i);
+    }
+
+    private static Map<String, Object> value(String title, boolean completed) {
+        Map<String, Object> value = new HashMap<>();
+        value.put("groupId", "g1");
+        value.put("title", title);
+        value.put("completed", completed);
+        return value;
+    }
+
+    @Test
+    public void toggle_deserializesAndRebindsOneTask() {
+        sync.onChildChanged(key(2_500), value(key(2_500), true));
+
+        assertEquals(1, parses);
+        assertEquals(Arrays.asList("changed 2500"), events);
+        assertTrue(tasks.get(2_500).completed);
+        assertEquals(TASK_COUNT, tasks.size());
+    }
+
+    @Test
+    public void insertAfterPreviousKey_landsInPlaceAndKeepsIndex() {
+        sync.onChildAdded("t00010a", value("new", false), key(10));
+
+        assertEquals(1, parses);
+        assertEquals(Arrays.asList("inserted 11"), events);
+        assertEquals("t00010a", tasks.get(11).id);
+        assertEquals(12, sync.positionOf(key(11)));
+        assertEquals(TASK_COUNT, sync.positionOf(key(TASK_COUNT - 1)));
+    }
+
+    @Test
+    public void remove_reportsPositionWithoutParsing() {
+        sync.onChildRemoved(key(3));
+
+        assertEquals(0, parses);
+        assertEquals(Arrays.asList("removed 3"), events);
+        assertEquals(-1, sync.positionOf(key(3)));
+        assertEquals(3, sync.positionOf(key(4)));
+        assertEquals(key(4), tasks.get(3).id);
+    }
+
+    @Test
+    public void move_reordersWithoutParsing() {
+        sync.onChildMoved(key(0), key(5));
+
+        assertEquals(0, parses);
+        assertEquals(Arrays.asList("moved 0 5"), events);
+        assertEquals(key(0), tasks.get(5).id);
+        assertEquals(5, sync.positionOf(key(0)));
+        assertEquals(0, sync.positionOf(key(1)));
+    }
+
+    @Test
+    public void manyToggles_costOneParseEach() {
+        for (int i = 0; i < 100; i++) {
+            sync.onChildChanged(key(i * 37), value(key(i * 37), i % 2 == 0));
+        }
+
+        assertEquals(100, parses);
+        assertEquals(100, events.size());
+    }
+}
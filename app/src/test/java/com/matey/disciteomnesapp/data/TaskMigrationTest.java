@@ -0,0 +1,122 @@
+package com.matey.disciteomnesapp.data;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TaskMigrationTest {
+
+    private static FakeDataStore seed(int groupCount, int tasksPerGroup) {
+        FakeDataStore store = new FakeDataStore();
+        for (int g = 0; g < groupCount; g++) {
+            for (int t = 0; t < tasksPerGroup; t++) {
+                Map<String, Object> task = new HashMap<>();
+                task.put("id", "t" + g + "_" + t);
+                task.put("groupId", "g" + g);
+                task.put("title", "Task " + t);
+                store.set("tasks/t" + g + "_" + t, task);
+            }
+        }
+        return store;
+    }
+
+    private static void migrate(FakeDataStore store) {
+        new TaskMigration(store).runIfNeeded(() -> { }, () -> {
+            throw new AssertionError("migration failed");
+        });
+    }
+
+    @Test
+    public void runIfNeeded_movesTasksIntoGroupNodes() {
+        FakeDataStore store = seed(3, 4);
+        store.set("tasks/orphan/title", "No group");
+
+        migrate(store);
+
+        assertEquals(4, ((Map<?, ?>) store.get(GroupTasks.path("g1"))).size());
+        assertEquals("g2", store.get(GroupTasks.path("g2", "t2_3") + "/groupId"));
+        assertNull(store.get("tasks/t0_0"));
+        assertNotNull(store.get("tasks/orphan"));
+        assertEquals(Boolean.TRUE, store.get(TaskMigration.FLAG_PATH));
+    }
+
+    @Test
+    public void runIfNeeded_afterMigrationReadsOnlyTheFlag() {
+        FakeDataStore store = seed(2, 2);
+        migrate(store);
+        store.reads.clear();
+
+        migrate(store);
+
+        assertEquals(Collections.singletonList(TaskMigration.FLAG_PATH), store.reads);
+    }
+
+    @Test
+    public void runIfNeeded_whileAnotherRunHoldsTheFlag_copiesNothing() {
+        FakeDataStore store = seed(2, 2);
+        store.set(TaskMigration.FLAG_PATH, MaintenanceFlag.CLAIMED);
+        List<String> events = new ArrayList<>();
+
+        new TaskMigration(store).runIfNeeded(() -> events.add("done"), () -> events.add("failed"));
+
+        assertEquals(Collections.singletonList("failed"), events);
+        assertFalse(store.reads.contains("tasks"));
+        assertNull(store.get(GroupTasks.ROOT));
+    }
+
+    @Test
+    public void failedRun_releasesTheFlag() {
+        FakeDataStore store = new FakeDataStore() {
+            @Override
+            public void update(Map<String, Object> updates, Runnable onSuccess, Runnable onFailure) {
+                onFailure.run();
+            }
+        };
+        store.set("tasks/t1/groupId", "g1");
+        List<String> events = new ArrayList<>();
+
+        new TaskMigration(store).runIfNeeded(() -> events.add("done"), () -> events.add("failed"));
+
+        assertEquals(Collections.singletonList("failed"), events);
+        assertNull(store.get(TaskMigration.FLAG_PATH));
+        assertNotNull(store.get("tasks/t1"));
+    }
+
+    @Test
+    public void runIfNeeded_splitsLargeMigrationsIntoChunks() {
+        FakeDataStore store = seed(10, 250);
+
+        migrate(store);
+
+        // The claim of the flag, then five chunks and the last one with the flag
+        assertEquals(1 + 5 + 1, store.updates.size());
+        for (Map<String, Object> update : store.updates) {
+            assertTrue(update.size() <= 2 * TaskMigration.CHUNK_SIZE + 1);
+        }
+        assertNull(store.get("tasks"));
+    }
+
+    @Test
+    public void groupRead_sizeDoesNotDependOnGlobalTaskCount() {
+        FakeDataStore small = seed(2, 20);
+        FakeDataStore large = seed(500, 20);
+        migrate(small);
+        migrate(large);
+
+        Map<?, ?> smallGroup = (Map<?, ?>) small.get(GroupTasks.path("g1"));
+        Map<?, ?> largeGroup = (Map<?, ?>) large.get(GroupTasks.path("g1"));
+
+        assertEquals(20, smallGroup.size());
+        assertEquals(smallGroup.size(), largeGroup.size());
+    }
+}
@@ -0,0 +1,293 @@
+package com.matey.disciteomnesapp.data;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class TaskPagerTest {
+
+    private static final int TASK_COUNT = 1_000;
+    private static final int PAGE_SIZE = 20;
+    private static final int MAX_PAGES = 3;
+
+    private FakePageSource source;
+    private TaskPager pager;
+    private final List<String> events = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        source = new FakePageSource();
+        for (int i = 0; i < TASK_COUNT; i++) {
+            source.tasks.put(key(i), value(key(i), false));
+        }
+        pager = new TaskPager(source, PAGE_SIZE, MAX_PAGES, new TaskPager.Listener() {
+            @Override
+            public void onInserted(int positionStart, int count) {
+                events.add("inserted " + positionStart);
+            }
+
+            @Override
+            public void onChanged(int position) {
+                events.add("changed " + position);
+            }
+
+            @Override
+            public void onRemoved(int positionStart, int count) {
+                events.add("removed " + positionStart + " " + count);
+            }
+
+            @Override
+            public void onMoved(int fromPosition, int toPosition) {
+                events.add("moved " + fromPosition + " " + toPosition);
+            }
+
+            @Override
+            public void onError(String message) {
+                throw new AssertionError(message);
+            }
+        });
+    }
+
+    private static String key(int i) {
+        return String.format("t%05d", i);
+    }
+
+    private static Map<String, Object> value(String title, boolean completed) {
+        Map<String, Object> value = new HashMap<>();
+        value.put("groupId", "g1");
+        value.put("title", title);
+        value.put("completed", completed);
+        return value;
+    }
+
+    @Test
+    public void loadFirst_readsOnlyOnePage() {
+        pager.loadFirst();
+
+        assertEquals(PAGE_SIZE, pager.getItems().size());
+        assertEquals(PAGE_SIZE, source.delivered);
+        assertEquals(key(0), pager.getItems().get(0).id);
+        assertEquals(key(PAGE_SIZE - 1), pager.getItems().get(PAGE_SIZE - 1).id);
+    }
+
+    @Test
+    public void loadNext_pagesFollowOnWithoutGapsOrOverlap() {
+        pager.loadFirst();
+        pager.loadNext();
+        pager.loadNext();
+
+        assertEquals(3 * PAGE_SIZE, pager.getItems().size());
+        for (int i = 0; i < pager.getItems().size(); i++) {
+            assertEquals(key(i), pager.getItems().get(i).id);
+        }
+    }
+
+    @Test
+    public void scrolling_keepsAtMostMaxPagesResident() {
+        pager.loadFirst();
+        for (int i = 0; i < 20; i++) {
+            pager.loadNext();
+            assertTrue(pager.getResidentPageCount() <= MAX_PAGES);
+            assertTrue(source.open <= MAX_PAGES);
+            assertTrue(pager.getItems().size() <= MAX_PAGES * PAGE_SIZE);
+        }
+
+        // Pages 18..20 are resident after 21 loads
+        assertEquals(key(18 * PAGE_SIZE), pager.getItems().get(0).id);
+        assertTrue(events.contains("removed 0 " + PAGE_SIZE));
+        assertTrue(pager.hasPrevious());
+    }
+
+    @Test
+    public void loadPrevious_reloadsDroppedPageAndDropsLast() {
+        pager.loadFirst();
+        for (int i = 0; i < 4; i++) pager.loadNext();
+        assertEquals(key(2 * PAGE_SIZE), pager.getItems().get(0).id);
+
+        pager.loadPrevious();
+
+        assertEquals(MAX_PAGES, pager.getResidentPageCount());
+        assertEquals(key(PAGE_SIZE), pager.getItems().get(0).id);
+        assertEquals(key(4 * PAGE_SIZE - 1), pager.getItems().get(pager.getItems().size() - 1).id);
+    }
+
+    @Test
+    public void loadNext_stopsAtEnd() {
+        pager = new TaskPager(source, 400, MAX_PAGES, new NoOpListener());
+        pager.loadFirst();
+        pager.loadNext();
+        assertFalse(pager.isEndReached());
+        pager.loadNext();
+
+        assertTrue(pager.isEndReached());
+        assertEquals(key(TASK_COUNT - 1), pager.getItems().get(pager.getItems().size() - 1).id);
+
+        int opened = source.opened;
+        pager.loadNext();
+        assertEquals(opened, source.opened);
+    }
+
+    @Test
+    public void remoteChange_updatesOnlyThatRow() {
+        pager.loadFirst();
+        pager.loadNext();
+        events.clear();
+
+        source.change(key(PAGE_SIZE + 3), value("done", true));
+
+        assertEquals(1, events.size());
+        assertEquals("changed " + (PAGE_SIZE + 3), events.get(0));
+        assertTrue(pager.getItems().get(PAGE_SIZE + 3).completed);
+    }
+
+    @Test
+    public void close_detachesAllWindows() {
+        pager.loadFirst();
+        pager.loadNext();
+
+        pager.close();
+
+        assertEquals(0, source.open);
+    }
+
+    @Test
+    public void suspend_detachesWindowsAndResumeReopensWhereTheyStarted() {
+        pager.loadFirst();
+        for (int i = 0; i < 4; i++) pager.loadNext();
+        events.clear();
+
+        pager.suspend();
+
+        assertEquals(0, source.open);
+        assertTrue(pager.getItems().isEmpty());
+        assertEquals("removed 0 " + MAX_PAGES * PAGE_SIZE, events.get(0));
+
+        pager.resume();
+
+        assertEquals(1, source.open);
+        assertEquals(key(2 * PAGE_SIZE), pager.getItems().get(0).id);
+        assertTrue(pager.hasPrevious());
+    }
+
+    @Test
+    public void index_holdsOnlyTheResidentTasks() {
+        TaskIndex index = new TaskIndex();
+        pager = new TaskPager(source, PAGE_SIZE, MAX_PAGES, new NoOpListener(), index);
+        pager.loadFirst();
+        for (int i = 0; i < 20; i++) pager.loadNext();
+
+        assertEquals(MAX_PAGES * PAGE_SIZE, index.size());
+        assertNull(index.get(key(0)));
+        assertSame(pager.getItems().get(0), index.get(pager.getItems().get(0).id));
+    }
+
+    @Test
+    public void index_followsRemoteChangesOfShownTasks() {
+        TaskIndex index = new TaskIndex();
+        pager = new TaskPager(source, PAGE_SIZE, MAX_PAGES, new NoOpListener(), index);
+        pager.loadFirst();
+
+        source.change(key(3), value("done", true));
+        source.remove(key(4));
+
+        assertSame(pager.getItems().get(3), index.get(key(3)));
+        assertTrue(index.get(key(3)).completed);
+        assertNull(index.get(key(4)));
+        assertEquals(pager.getItems().size(), index.size());
+    }
+
+    @Test
+    public void index_isEmptiedWhenPagesAreDetached() {
+        TaskIndex index = new TaskIndex();
+        pager = new TaskPager(source, PAGE_SIZE, MAX_PAGES, new NoOpListener(), index);
+        pager.loadFirst();
+        pager.loadNext();
+
+        pager.suspend();
+        assertEquals(0, index.size());
+
+        pager.resume();
+        assertEquals(PAGE_SIZE, index.size());
+        pager.close();
+        assertEquals(0, index.size());
+    }
+
+    /**
+     * Serves pages synchronously from a sorted map and tracks open windows.
+     */
+    private static class FakePageSource implements TaskPageSource {
+        final TreeMap<String, Map<String, Object>> tasks = new TreeMap<>();
+        final Map<PageListener, List<String>> windows = new HashMap<>();
+        int open = 0;
+        int opened = 0;
+        int delivered = 0;
+
+        @Override
+        public Subscription openPage(String afterKey, int limit, PageListener listener) {
+            open++;
+            opened++;
+            List<String> window = new ArrayList<>();
+            Map<String, Map<String, Object>> tail = afterKey == null ? tasks : tasks.tailMap(afterKey, false);
+            String previous = null;
+            for (Map.Entry<String, Map<String, Object>> entry : tail.entrySet()) {
+                if (window.size() == limit) break;
+                window.add(entry.getKey());
+                delivered++;
+                listener.onChildAdded(entry.getKey(), entry.getValue(), previous);
+                previous = entry.getKey();
+            }
+            windows.put(listener, window);
+            listener.onLoaded(window.size());
+            return () -> {
+                if (windows.remove(listener) != null) open--;
+            };
+        }
+
+        void change(String key, Map<String, Object> value) {
+            tasks.put(key, value);
+            for (Map.Entry<PageListener, List<String>> entry : new HashMap<>(windows).entrySet()) {
+                if (entry.getValue().contains(key)) entry.getKey().onChildChanged(key, value);
+            }
+        }
+
+        void remove(String key) {
+            tasks.remove(key);
+            for (Map.Entry<PageListener, List<String>> entry : new HashMap<>(windows).entrySet()) {
+                if (entry.getValue().remove(key)) entry.getKey().onChildRemoved(key);
+            }
+        }
+    }
+
+    private static class NoOpListener implements TaskPager.Listener {
+        @Override
+        public void onInserted(int positionStart, int count) {
+        }
+
+        @Override
+        public void onChanged(int position) {
+        }
+
+        @Override
+        public void onRemoved(int positionStart, int count) {
+        }
+
+        @Override
+        public void onMoved(int fromPosition, int toPosition) {
+        }
+
+        @Override
+        public void onError(String message) {
+        }
+    }
+}
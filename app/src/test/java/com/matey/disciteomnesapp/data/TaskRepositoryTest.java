@@ -0,0 +1,410 @@
+package com.matey.disciteomnesapp.data;
+
+import com.matey.disciteomnesapp.data.local.TaskDao;
+import com.matey.disciteomnesapp.data.local.TaskEntity;
+import com.matey.disciteomnesapp.models.Task;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TaskRepositoryTest {
+
+    private final FakeTaskDao dao = new FakeTaskDao();
+    private final FakeDataStore store = new FakeDataStore();
+    private final TaskWriteBatcher batcher = new TaskWriteBatcher(store, new Scheduler() {
+        @Override
+        public long now() {
+            return 0;
+        }
+
+        @Override
+        public void schedule(Runnable task, long delayMs) {
+            task.run();
+        }
+    }, 0, 0);
+    private final TaskRepository repository = new TaskRepository(dao, batcher, new BulkTaskUpdate(store),
+            Runnable::run, Runnable::run);
+    private final RemotePage remote = new RemotePage();
+    private final List<String> events = new ArrayList<>();
+    private final Map<String, Task> shown = new HashMap<>();
+
+    private final TaskPageSource.PageListener ui = new TaskPageSource.PageListener() {
+        @Override
+        public void onChildAdded(String key, Object value, String previousKey) {
+            events.add("added " + key);
+            shown.put(key, TaskMapper.fromValue(key, value));
+        }
+
+        @Override
+        public void onChildChanged(String key, Object value) {
+            events.add("changed " + key);
+            shown.put(key, TaskMapper.fromValue(key, value));
+        }
+
+        @Override
+        public void onChildRemoved(String key) {
+            events.add("removed " + key);
+            shown.remove(key);
+        }
+
+        @Override
+        public void onChildMoved(String key, String previousKey) {
+        }
+
+        @Override
+        public void onLoaded(int count) {
+            events.add("loaded " + count);
+        }
+
+        @Override
+        public void onError(String message) {
+        }
+    };
+
+    @Before
+    public void setUp() {
+        for (String id : Arrays.asList("t1", "t2", "t3")) {
+            dao.upsert(TaskEntity.from(new Task(id, "g1", "Cached " + id, "", false, null)));
+        }
+    }
+
+    private static Map<String, Object> value(String title, boolean completed) {
+        Map<String, Object> value = new HashMap<>();
+        value.put("groupId", "g1");
+        value.put("title", title);
+        value.put("completed", completed);
+        return value;
+    }
+
+    @Test
+    public void openPage_showsCachedRowsBeforeNetwork() {
+        repository.pageSource("g1", remote).openPage(null, 10, ui);
+
+        assertEquals(Arrays.asList("added t1", "added t2", "added t3"), events);
+        assertEquals("Cached t2", shown.get("t2").title);
+        assertNull(remote.lastAfterKey);
+    }
+
+    @Test
+    public void remoteWindow_revalidatesAndDropsDeletedRows() {
+        repository.pageSource("g1", remote).openPage(null, 10, ui);
+        events.clear();
+
+        remote.listener.onChildAdded("t1", value("Fresh t1", false), null);
+        remote.listener.onChildAdded("t3", value("Cached t3", false), "t1");
+        remote.listener.onChildAdded("t4", value("New t4", false), "t3");
+        remote.listener.onLoaded(3);
+
+        assertEquals(Arrays.asList("changed t1", "changed t3", "added t4", "removed t2", "loaded 3"), events);
+        assertEquals("Fresh t1", dao.get("t1").title);
+        assertNull(dao.get("t2"));
+        assertNotNull(dao.get("t4"));
+    }
+
+    @Test
+    public void rowsPastAFullWindowStayCached() {
+        repository.pageSource("g1", remote).openPage(null, 2, ui);
+
+        remote.listener.onChildAdded("t0", value("Earlier", false), null);
+        remote.listener.onChildAdded("t1", value("Cached t1", false), "t0");
+        remote.listener.onLoaded(2);
+
+        assertFalse(shown.containsKey("t2"));
+        assertNotNull(dao.get("t2"));
+    }
+
+    @Test
+    public void reconnect_pendingLocalToggleWinsAndIsPushedAgain() {
+        dao.setCompletedPending("t2", true);
+
+        repository.pageSource("g1", remote).openPage(null, 10, ui);
+        remote.listener.onChildAdded("t2", value("Cached t2", false), null);
+
+        assertTrue(shown.get("t2").completed);
+        assertEquals(Boolean.TRUE, store.get(GroupTasks.path("g1", "t2") + "/completed"));
+        assertFalse(dao.get("t2").pending);
+    }
+
+    @Test
+    public void rejectedReplay_revertsPendingToggleAndDropsTaskCreatedOffline() {
+        dao.setCompletedPending("t2", true);
+        Task created = new Task("t9", "g1", "Created offline", "", false, null);
+        dao.upsert(TaskEntity.from(created));
+        Map<String, Object> toggle = new HashMap<>();
+        toggle.put(GroupTasks.path("g1", "t2") + "/completed", true);
+        Map<String, Object> create = new HashMap<>();
+        create.put(GroupTasks.path("g1", "t9"), TaskMapper.toValue(created));
+        create.put(GroupStatsMapper.path("g1") + "/total", Increment.by(1));
+
+        repository.revertRejected(toggle);
+        repository.revertRejected(create);
+
+        assertFalse(dao.get("t2").completed);
+        assertFalse(dao.get("t2").pending);
+        assertNull(dao.get("t9"));
+        assertNotNull(dao.get("t1"));
+    }
+
+    @Test
+    public void reconnect_serverMatchingPendingValueClearsFlag() {
+        dao.setCompletedPending("t2", true);
+
+        repository.pageSource("g1", remote).openPage(null, 10, ui);
+        remote.listener.onChildAdded("t2", value("Cached t2", true), null);
+
+        assertFalse(dao.get("t2").pending);
+        assertTrue(store.updates.isEmpty());
+    }
+
+    @Test
+    public void setCompleted_failedWriteIsRolledBackAndReported() {
+        store.failWrites = true;
+        List<String> results = new ArrayList<>();
+
+        repository.setCompleted(TaskMapper.fromValue("t1", value("Cached t1", false)), true, (id, success) -> results.add(id + " " + success));
+
+        assertFalse(dao.get("t1").completed);
+        assertFalse(dao.get("t1").pending);
+        assertEquals(Arrays.asList("t1 false"), results);
+    }
+
+    @Test
+    public void setCompleted_acknowledgedWriteClearsPending() {
+        List<String> results = new ArrayList<>();
+
+        repository.setCompleted(TaskMapper.fromValue("t1", value("Cached t1", false)), true, (id, success) -> results.add(id + " " + success));
+
+        assertTrue(dao.get("t1").completed);
+        assertFalse(dao.get("t1").pending);
+        assertEquals(Arrays.asList("t1 true"), results);
+    }
+
+    @Test
+    public void reconnect_whileAToggleIsBatched_keepsTheTogglesCallback() {
+        ManualScheduler scheduler = new ManualScheduler();
+        TaskWriteBatcher batching = new TaskWriteBatcher(store, scheduler, 300, 1_000);
+        TaskRepository repository = new TaskRepository(dao, batching, new BulkTaskUpdate(store),
+                Runnable::run, Runnable::run);
+        List<String> results = new ArrayList<>();
+
+        repository.setCompleted(TaskMapper.fromValue("t2", value("Cached t2", false)), true, (id, success) -> results.add(id + " " + success));
+        repository.pageSource("g1", remote).openPage(null, 10, ui);
+        remote.listener.onChildAdded("t2", value("Cached t2", false), null);
+        scheduler.advance(300);
+
+        assertEquals(Arrays.asList("t2 true"), results);
+        assertEquals(1, store.updates.size());
+        assertFalse(dao.get("t2").pending);
+    }
+
+    @Test
+    public void reconnect_failedPushStaysPending() {
+        dao.setCompletedPending("t2", true);
+        store.failWrites = true;
+
+        repository.pageSource("g1", remote).openPage(null, 10, ui);
+        remote.listener.onChildAdded("t2", value("Cached t2", false), null);
+
+        assertTrue(dao.get("t2").completed);
+        assertTrue(dao.get("t2").pending);
+    }
+
+    @Test
+    public void create_writesTaskAndGroupCountersTogether() {
+        Task task = new Task("t9", "g1", "New", null, false, "u1", "Ana", null);
+
+        repository.create(task, new BulkTaskUpdate.Callback() {
+            @Override
+            public void onSuccess(int taskCount) {
+                events.add("created " + taskCount);
+            }
+
+            @Override
+            public void onFailure() {
+                events.add("failed");
+            }
+        });
+
+        assertEquals(Arrays.asList("created 1"), events);
+        assertEquals(1, store.updates.size());
+        assertEquals("New", store.get(GroupTasks.path("g1", "t9") + "/title"));
+        assertEquals(1L, store.get(GroupStatsMapper.path("g1") + "/total"));
+        assertEquals(1L, store.get(GroupStatsMapper.path("g1") + "/assignedTotal/u1"));
+    }
+
+    @Test
+    public void create_isCachedBeforeTheServerAnswers() {
+        List<Task> cachedWhenSent = new ArrayList<>();
+        TaskRepository repository = new TaskRepository(dao, batcher, new BulkTaskUpdate(new FakeDataStore() {
+            @Override
+            public void update(Map<String, Object> updates, Runnable onSuccess, Runnable onFailure) {
+                TaskEntity cached = dao.get("t9");
+                if (cached != null) cachedWhenSent.add(cached.toModel());
+            }
+        }), Runnable::run, Runnable::run);
+
+        repository.create(new Task("t9", "g1", "New", null, false, "u1", "Ana", null), null);
+
+        assertEquals(1, cachedWhenSent.size());
+        assertEquals("New", cachedWhenSent.get(0).title);
+    }
+
+    @Test
+    public void create_rejectedIsRemovedFromTheCache() {
+        store.failWrites = true;
+
+        repository.create(new Task("t9", "g1", "New", null, false, "u1", "Ana", null), new BulkTaskUpdate.Callback() {
+            @Override
+            public void onSuccess(int taskCount) {
+                events.add("created " + taskCount);
+            }
+
+            @Override
+            public void onFailure() {
+                events.add("failed");
+            }
+        });
+
+        assertEquals(Arrays.asList("failed"), events);
+        assertNull(dao.get("t9"));
+        assertNotNull(dao.get("t1"));
+    }
+
+    @Test
+    public void bulkDelete_removesCachedRowsAfterTheWrite() {
+        List<Task> tasks = Arrays.asList(dao.get("t1").toModel(), dao.get("t2").toModel());
+        for (Task task : tasks) store.set(GroupTasks.path("g1", task.id), TaskMapper.toValue(task));
+
+        repository.delete(tasks, new BulkTaskUpdate.Callback() {
+            @Override
+            public void onSuccess(int taskCount) {
+                events.add("deleted " + taskCount);
+            }
+
+            @Override
+            public void onFailure() {
+                events.add("failed");
+            }
+        });
+
+        assertEquals(Arrays.asList("deleted 2"), events);
+        assertNull(dao.get("t1"));
+        assertNull(dao.get("t2"));
+        assertNotNull(dao.get("t3"));
+    }
+
+    @Test
+    public void failedBulkReassign_leavesTheCacheAlone() {
+        List<Task> tasks = Arrays.asList(dao.get("t1").toModel(), dao.get("t2").toModel());
+        for (Task task : tasks) store.set(GroupTasks.path("g1", task.id), TaskMapper.toValue(task));
+        store.failWrites = true;
+
+        repository.reassign(tasks, "u2", "Bob", new BulkTaskUpdate.Callback() {
+            @Override
+            public void onSuccess(int taskCount) {
+                events.add("reassigned " + taskCount);
+            }
+
+            @Override
+            public void onFailure() {
+                events.add("failed");
+            }
+        });
+
+        assertEquals(Arrays.asList("failed"), events);
+        assertNull(dao.get("t1").assignedTo);
+        assertNull(store.get(GroupTasks.path("g1", "t2") + "/assignedTo"));
+    }
+
+    private static class RemotePage implements TaskPageSource {
+        PageListener listener;
+        String lastAfterKey;
+
+        @Override
+        public Subscription openPage(String afterKey, int limit, PageListener listener) {
+            this.listener = listener;
+            this.lastAfterKey = afterKey;
+            return () -> { };
+        }
+    }
+
+    private static class FakeTaskDao implements TaskDao {
+        final TreeMap<String, TaskEntity> rows = new TreeMap<>();
+
+        @Override
+        public List<TaskEntity> getPage(String groupId, String afterKey, int limit) {
+            List<TaskEntity> page = new ArrayList<>();
+            for (TaskEntity row : rows.tailMap(afterKey, false).values()) {
+                if (page.size() == limit) break;
+                if (groupId.equals(row.groupId)) page.add(row);
+            }
+            return page;
+        }
+
+        @Override
+        public TaskEntity get(String id) {
+            return rows.get(id);
+        }
+
+        @Override
+        public void upsert(TaskEntity task) {
+            rows.put(task.id, task);
+        }
+
+        @Override
+        public void delete(String id) {
+            rows.remove(id);
+        }
+
+        @Override
+        public void setCompleted(String id, boolean completed) {
+            TaskEntity row = rows.get(id);
+            if (row == null) return;
+            row.completed = completed;
+            row.pending = false;
+        }
+
+        @Override
+        public void setAssignee(String id, String assignedTo, String assignedToName) {
+            TaskEntity row = rows.get(id);
+            if (row == null) return;
+            row.assignedTo = assignedTo;
+            row.assignedToName = assignedToName;
+        }
+
+        @Override
+        public void setCompletedPending(String id, boolean completed) {
+            TaskEntity row = rows.get(id);
+            if (row == null) return;
+            row.completed = completed;
+            row.pending = true;
+        }
+
+        @Override
+        public void clearPending(String id, boolean completed) {
+            TaskEntity row = rows.get(id);
+            if (row != null && row.completed == completed) row.pending = false;
+        }
+
+        @Override
+        public void revertPending(String id, boolean attempted, boolean previous) {
+            TaskEntity row = rows.get(id);
+            if (row == null || !row.pending || row.completed != attempted) return;
+            row.completed = previous;
+            row.pending = false;
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.matey.disciteomnesapp.data;
+
+import com.matey.disciteomnesapp.models.Task;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TaskWriteBatcherTest {
+
+    private static final long WINDOW = 300;
+    private static final long MAX_DELAY = 1_000;
+
+    private final FakeDataStore store = new FakeDataStore();
+    private final ManualScheduler scheduler = new ManualScheduler();
+    private final TaskWriteBatcher batcher = new TaskWriteBatcher(store, scheduler, WINDOW, MAX_DELAY);
+    private final List<String> results = new ArrayList<>();
+
+    private final TaskWriteBatcher.WriteCallback callback = (taskId, success) -> results.add(taskId + " " + success);
+
+    @Test
+    public void togglesWithinWindow_produceExactlyOneWrite() {
+        for (int i = 0; i < 10; i++) {
+            batcher.setCompleted(task("g1", "t" + (i % 5), false), i % 2 == 0, callback);
+            scheduler.advance(50);
+        }
+        assertTrue(store.updates.isEmpty());
+
+        scheduler.advance(WINDOW);
+
+        assertEquals(1, store.updates.size());
+        assertEquals(1, batcher.getWriteCount());
+        Map<String, Object> update = store.updates.get(0);
+        // Last toggles: t0 at i = 5, t1 at i = 6, t4 at i = 9; t0, t2 and t4 ended where they started
+        assertEquals(2, taskWrites(update));
+        assertFalse(update.containsKey(GroupTasks.path("g1", "t0") + "/completed"));
+        assertFalse(update.containsKey(GroupTasks.path("g1", "t4") + "/completed"));
+        assertEquals(Boolean.TRUE, update.get(GroupTasks.path("g1", "t1") + "/completed"));
+        assertEquals(2L, store.get(GroupStatsMapper.path("g1") + "/completed"));
+    }
+
+    @Test
+    public void resultIsReportedOncePerTask() {
+        batcher.setCompleted(task("g1", "t1", false), true, callback);
+        batcher.setCompleted(task("g1", "t2", false), true, callback);
+        batcher.setCompleted(task("g1", "t1", false), false, callback);
+
+        scheduler.advance(WINDOW);
+
+        assertEquals(Arrays.asList("t1 true", "t2 true"), results);
+        assertNull(store.get(GroupTasks.path("g1", "t1") + "/completed"));
+    }
+
+    @Test
+    public void failedWrite_isReportedForEveryTaskInTheBatch() {
+        store.failWrites = true;
+
+        batcher.setCompleted(task("g1", "t1", false), true, callback);
+        batcher.setCompleted(task("g2", "t2", true), false, callback);
+        scheduler.advance(WINDOW);
+
+        assertEquals(1, batcher.getWriteCount());
+        assertEquals(Arrays.asList("t1 false", "t2 false"), results);
+    }
+
+    @Test
+    public void steadyToggling_isFlushedAfterMaxDelay() {
+        for (int elapsed = 0; elapsed < MAX_DELAY; elapsed += 100) {
+            batcher.setCompleted(task("g1", "t1", true), elapsed % 200 == 0, callback);
+            scheduler.advance(100);
+        }
+
+        assertEquals(1, store.updates.size());
+        assertEquals(0, batcher.getPendingCount());
+    }
+
+    @Test
+    public void togglesAfterFlush_goToNextBatch() {
+        batcher.setCompleted(task("g1", "t1", false), true, callback);
+        scheduler.advance(WINDOW);
+        batcher.setCompleted(task("g1", "t1", true), false, callback);
+        batcher.setCompleted(task("g1", "t2", false), true, callback);
+        scheduler.advance(WINDOW);
+
+        assertEquals(2, store.updates.size());
+        assertEquals(1, taskWrites(store.updates.get(0)));
+        assertEquals(2, taskWrites(store.updates.get(1)));
+    }
+
+    @Test
+    public void flush_writesImmediately() {
+        batcher.setCompleted(task("g1", "t1", false), true, callback);
+
+        batcher.flush();
+        scheduler.advance(WINDOW);
+
+        assertEquals(1, store.updates.size());
+        assertEquals(Arrays.asList("t1 true"), results);
+    }
+
+    @Test
+    public void toggle_movesGroupCounters() {
+        Task task = new Task("t1", "g1", "Essay", null, false, "u1", "Ana", "2025-06-01");
+
+        batcher.setCompleted(task, true, callback);
+        batcher.flush();
+
+        String stats = GroupStatsMapper.path("g1");
+        assertEquals(1L, store.get(stats + "/completed"));
+        assertEquals(1L, store.get(stats + "/assignedCompleted/u1"));
+        assertEquals(-1L, store.get(stats + "/openByDue/" + TaskIndex.parseDueDate("2025-06-01")));
+        assertNull(store.get(stats + "/total"));
+    }
+
+    @Test
+    public void toggleBasedOnStaleTask_isRejectedAndNotCounted() {
+        store.set(GroupTasks.path("g1", "t1") + "/completed", true); // another client completed it
+
+        batcher.setCompleted(task("g1", "t1", false), true, callback);
+        batcher.flush();
+
+        assertEquals(Arrays.asList("t1 false"), results);
+        assertNull(store.get(GroupStatsMapper.path("g1")));
+    }
+
+    @Test
+    public void toggleBackWhileTheFirstWriteIsInFlight_isWrittenFromWhatWasSent() {
+        store.holdWrites = true;
+        Task row = task("g1", "t1", false); // the row keeps this copy until the server answers
+
+        batcher.setCompleted(row, true, callback);
+        scheduler.advance(WINDOW);
+        batcher.setCompleted(row, false, callback);
+        scheduler.advance(WINDOW);
+        store.releaseWrites();
+
+        assertEquals(2, store.updates.size());
+        assertEquals(Boolean.FALSE, store.updates.get(1).get(GroupTasks.path("g1", "t1") + "/completed"));
+        assertEquals(Boolean.FALSE, store.get(GroupTasks.path("g1", "t1") + "/completed"));
+        assertEquals(0L, store.get(GroupStatsMapper.path("g1") + "/completed"));
+        assertEquals(Arrays.asList("t1 true", "t1 true"), results);
+        assertFalse(batcher.isWriting("t1"));
+    }
+
+    @Test
+    public void answeredWrite_nextToggleStartsFromTheRowAgain() {
+        batcher.setCompleted(task("g1", "t1", false), true, callback);
+        batcher.flush();
+        assertFalse(batcher.isWriting("t1"));
+
+        batcher.setCompleted(task("g1", "t1", true), false, callback);
+        batcher.flush();
+
+        assertEquals(2, store.updates.size());
+        assertEquals(Boolean.FALSE, store.get(GroupTasks.path("g1", "t1") + "/completed"));
+    }
+
+    @Test
+    public void isWriting_coversPendingAndInFlightToggles() {
+        store.holdWrites = true;
+
+        batcher.setCompleted(task("g1", "t1", false), true, callback);
+        assertTrue(batcher.isWriting("t1"));
+        batcher.flush();
+        assertTrue(batcher.isWriting("t1"));
+        store.releaseWrites();
+
+        assertFalse(batcher.isWriting("t1"));
+    }
+
+    private static Task task(String groupId, String id, boolean completed) {
+        return new Task(id, groupId, "Task " + id, null, completed, null, null, null);
+    }
+
+    private static int taskWrites(Map<String, Object> update) {
+        int count = 0;
+        for (String path : update.keySet()) {
+            if (path.startsWith(GroupTasks.ROOT + "/")) count++;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,130 @@
+package com.matey.disciteomnesapp.data;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class UserGroupIndexTest {
+
+    private static FakeDataStore seed(int groupCount) {
+        FakeDataStore store = new FakeDataStore();
+        for (int i = 0; i < groupCount; i++) {
+            Map<String, Object> group = new HashMap<>();
+            group.put("id", "g" + i);
+            group.put("name", "Group " + i);
+            group.put("members", Arrays.asList("other" + i, "another" + i));
+            store.set("groups/g" + i, group);
+        }
+        store.set("userGroups/u1/g1", "Group 1");
+        store.set("userGroups/u1/g2", "Group 2");
+        store.set(UserGroupIndex.indexedPath("u1"), true);
+        return store;
+    }
+
+    private static Map<String, String> load(FakeDataStore store, String userId) {
+        Map<String, String> result = new HashMap<>();
+        new UserGroupIndex(store).loadGroups(userId, new UserGroupIndex.Callback() {
+            @Override
+            public void onGroups(Map<String, String> groupNamesById) {
+                result.putAll(groupNamesById);
+            }
+
+            @Override
+            public void onError(String message) {
+                throw new AssertionError(message);
+            }
+        });
+        return result;
+    }
+
+    @Test
+    public void loadGroups_readsOnlyUserIndexAndFlagRegardlessOfGroupCount() {
+        for (int groupCount : new int[]{10, 10_000}) {
+            FakeDataStore store = seed(groupCount);
+
+            Map<String, String> groups = load(store, "u1");
+
+            assertEquals(Arrays.asList("userGroups/u1", UserGroupIndex.indexedPath("u1")), store.reads);
+            assertEquals(2, groups.size());
+            assertEquals("Group 2", groups.get("g2"));
+        }
+    }
+
+    @Test
+    public void loadGroups_missingIndexIsBackfilledOnce() {
+        FakeDataStore store = seed(100);
+        store.set("groups/g7/members", Arrays.asList("x", "u2"));
+
+        Map<String, String> groups = load(store, "u2");
+        assertEquals(Collections.singletonMap("g7", "Group 7"), groups);
+        assertEquals("Group 7", store.get("userGroups/u2/g7"));
+
+        store.reads.clear();
+        load(store, "u2");
+        assertEquals(Arrays.asList("userGroups/u2", UserGroupIndex.indexedPath("u2")), store.reads);
+    }
+
+    @Test
+    public void loadGroups_legacyUserWhoJoinedAGroup_stillGetsTheirOlderGroups() {
+        FakeDataStore store = seed(100);
+        store.set("groups/g7/members", Arrays.asList("x", "u2"));
+        store.set("groups/g8/members/u2", true);
+        // Joined g8 before the index was ever built for them: one entry, no flag
+        Map<String, Object> updates = new HashMap<>();
+        UserGroupIndex.putMembership(updates, "u2", "g8", "Group 8", true);
+        store.update(updates, () -> { }, () -> { });
+
+        Map<String, String> groups = load(store, "u2");
+
+        Map<String, String> expected = new HashMap<>();
+        expected.put("g7", "Group 7");
+        expected.put("g8", "Group 8");
+        assertEquals(expected, groups);
+        assertEquals("Group 7", store.get("userGroups/u2/g7"));
+        assertEquals(Boolean.TRUE, store.get(UserGroupIndex.indexedPath("u2")));
+    }
+
+    @Test
+    public void loadGroups_userWithoutGroupsScansGroupsOnlyOnce() {
+        FakeDataStore store = seed(100);
+
+        assertTrue(load(store, "u3").isEmpty());
+        assertTrue(load(store, "u3").isEmpty());
+
+        assertEquals(1, Collections.frequency(store.reads, "groups"));
+        assertEquals(Boolean.TRUE, store.get(UserGroupIndex.indexedPath("u3")));
+    }
+
+    @Test
+    public void loadGroups_afterLeavingEveryGroupIsEmptyWithoutAScan() {
+        FakeDataStore store = seed(100);
+        store.set("groups/g7/members", Arrays.asList("x", "u2"));
+        load(store, "u2");
+        Map<String, Object> updates = new HashMap<>();
+        UserGroupIndex.putMembership(updates, "u2", "g7", "Group 7", false);
+        store.update(updates, () -> { }, () -> { });
+        store.reads.clear();
+
+        assertTrue(load(store, "u2").isEmpty());
+        assertEquals(Arrays.asList("userGroups/u2", UserGroupIndex.indexedPath("u2")), store.reads);
+    }
+
+    @Test
+    public void putMembership_leaveRemovesIndexEntry() {
+        FakeDataStore store = seed(3);
+        Map<String, Object> updates = new HashMap<>();
+        UserGroupIndex.putMembership(updates, "u1", "g1", "Group 1", false);
+
+        store.update(updates, () -> { }, () -> { });
+
+        assertNull(store.get("userGroups/u1/g1"));
+        assertEquals("Group 2", store.get("userGroups/u1/g2"));
+    }
+}
@@ -0,0 +1,142 @@
+package com.matey.disciteomnesapp.data;
+
+import com.matey.disciteomnesapp.data.local.UserDao;
+import com.matey.disciteomnesapp.data.local.UserEntity;
+import com.matey.disciteomnesapp.models.User;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class UserProfileCacheTest {
+
+    private final FakeDataStore store = new FakeDataStore();
+    private final List<Map<String, User>> results = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        for (String uid : Arrays.asList("u1", "u2", "u3", "u4")) {
+            Map<String, Object> user = new HashMap<>();
+            user.put("name", "Name " + uid);
+            user.put("email", uid + "@example.com");
+            store.set("users/" + uid, user);
+        }
+    }
+
+    private UserProfileCache memoryOnly(int maxEntries) {
+        return new UserProfileCache(store, null, Runnable::run, Runnable::run, maxEntries);
+    }
+
+    @Test
+    public void getProfiles_readsOnlyRequestedUsers() {
+        UserProfileCache cache = memoryOnly(10);
+
+        cache.getProfiles(Arrays.asList("u2", "u1"), results::add);
+
+        assertEquals(Arrays.asList("users/u2", "users/u1"), store.reads);
+        assertEquals(Arrays.asList("u2", "u1"), new ArrayList<>(results.get(0).keySet()));
+        assertEquals("Name u1", results.get(0).get("u1").name);
+    }
+
+    @Test
+    public void repeatedLookup_isServedFromMemory() {
+        UserProfileCache cache = memoryOnly(10);
+        cache.getProfiles(Arrays.asList("u1", "u2"), results::add);
+        store.reads.clear();
+
+        cache.getProfiles(Arrays.asList("u1", "u2"), results::add);
+
+        assertTrue(store.reads.isEmpty());
+        assertEquals(2, results.get(1).size());
+        assertEquals(2, cache.getHitCount());
+        assertEquals(2, cache.getMissCount());
+        assertEquals(0.5, cache.getHitRate(), 0.0001);
+    }
+
+    @Test
+    public void leastRecentlyUsedProfileIsEvicted() {
+        UserProfileCache cache = memoryOnly(2);
+        cache.getProfiles(Arrays.asList("u1", "u2"), results::add);
+        cache.getProfile("u1", results::add);
+        cache.getProfile("u3", results::add);
+        store.reads.clear();
+
+        cache.getProfiles(Arrays.asList("u1", "u3"), results::add);
+        assertTrue(store.reads.isEmpty());
+
+        cache.getProfile("u2", results::add);
+        assertEquals(Arrays.asList("users/u2"), store.reads);
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void missingUserResolvesWithoutProfile() {
+        UserProfileCache cache = memoryOnly(10);
+
+        cache.getProfiles(Arrays.asList("u1", "ghost"), results::add);
+
+        assertEquals(1, results.size());
+        assertEquals(1, results.get(0).size());
+        assertNull(results.get(0).get("ghost"));
+    }
+
+    @Test
+    public void diskHitsSkipTheNetworkAndRemoteReadsArePersisted() {
+        FakeUserDao dao = new FakeUserDao();
+        dao.upsert(UserEntity.from(new User("u1", "Stored u1", "u1@example.com")));
+        UserProfileCache cache = new UserProfileCache(store, dao, Runnable::run, Runnable::run, 10);
+
+        cache.getProfiles(Arrays.asList("u1", "u2"), results::add);
+
+        assertEquals(Arrays.asList("users/u2"), store.reads);
+        assertEquals("Stored u1", results.get(0).get("u1").name);
+        assertEquals("Name u2", dao.rows.get("u2").name);
+        assertEquals(1, dao.queries);
+    }
+
+    @Test
+    public void concurrentLookupsShareOneLoad() {
+        FakeUserDao dao = new FakeUserDao();
+        Queue<Runnable> diskTasks = new ArrayDeque<>();
+        UserProfileCache cache = new UserProfileCache(store, dao, diskTasks::add, Runnable::run, 10);
+
+        cache.getProfiles(Arrays.asList("u1", "u2"), results::add);
+        cache.getProfiles(Arrays.asList("u2", "u3"), results::add);
+        while (!diskTasks.isEmpty()) diskTasks.poll().run();
+
+        assertEquals(Arrays.asList("users/u1", "users/u2", "users/u3"), store.reads);
+        assertEquals(2, results.size());
+        assertEquals(2, results.get(1).size());
+    }
+
+    private static class FakeUserDao implements UserDao {
+        final Map<String, UserEntity> rows = new HashMap<>();
+        int queries = 0;
+
+        @Override
+        public List<UserEntity> getAll(List<String> ids) {
+            queries++;
+            List<UserEntity> found = new ArrayList<>();
+            for (String id : ids) {
+                if (rows.containsKey(id)) found.add(rows.get(id));
+            }
+            return found;
+        }
+
+        @Override
+        public void upsert(UserEntity user) {
+            rows.put(user.id, user);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.matey.disciteomnesapp.metrics;
+
+import com.matey.disciteomnesapp.data.ManualScheduler;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class MetricsExporterTest {
+
+    private static final long INTERVAL_MS = 1_000;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final ManualScheduler scheduler = new ManualScheduler();
+
+    @After
+    public void tearDown() {
+        Metrics.setEnabled(false);
+        Metrics.reset();
+    }
+
+    @Test
+    public void export_whileEnabled_appendsAReportEveryInterval() throws IOException {
+        MetricsLog log = new MetricsLog(folder.getRoot(), 1_000_000);
+        new MetricsExporter(log, scheduler, Runnable::run, INTERVAL_MS).start();
+        Metrics.setEnabled(true);
+        Metrics.count(Metrics.SNAPSHOTS, 7);
+
+        scheduler.advance(3 * INTERVAL_MS);
+
+        String written = read(log.getFile());
+        assertEquals(3, written.split("=== ", -1).length - 1);
+        assertTrue(written.contains(Metrics.SNAPSHOTS.name));
+    }
+
+    @Test
+    public void export_whileDisabled_writesNothing() {
+        MetricsLog log = new MetricsLog(folder.getRoot(), 1_000_000);
+        new MetricsExporter(log, scheduler, Runnable::run, INTERVAL_MS).start();
+
+        scheduler.advance(3 * INTERVAL_MS);
+
+        assertFalse(log.getFile().exists());
+        // Still ticking, so enabling later needs no restart
+        assertEquals(1, scheduler.pendingCount());
+    }
+
+    @Test
+    public void log_pastItsLimit_keepsOneOldFile() throws IOException {
+        File dir = folder.getRoot();
+        MetricsLog log = new MetricsLog(dir, 100);
+        String report = new String(new char[80]).replace('\0', 'x');
+
+        for (int i = 0; i < 5; i++) assertTrue(log.append(i, report + i));
+
+        assertTrue(read(log.getFile()).contains(report + 4));
+        assertTrue(read(new File(dir, MetricsLog.OLD_FILE_NAME)).contains(report + 3));
+        assertEquals(2, dir.list().length);
+    }
+
+    private static String read(File file) throws IOException {
+        return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+    }
+}
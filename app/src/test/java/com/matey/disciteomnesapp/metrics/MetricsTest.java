@@ -0,0 +1,125 @@
+package com.matey.disciteomnesapp.metrics;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class MetricsTest {
+
+    private static final int CALLS = 100_000;
+    private static final int WARM_UP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 5;
+
+    @After
+    public void tearDown() {
+        Metrics.setEnabled(false);
+        Metrics.reset();
+    }
+
+    @Test
+    public void disabled_recordsNothing() {
+        Metrics.setEnabled(false);
+
+        long start = Metrics.begin(Metrics.SNAPSHOT_MAPPING);
+        Metrics.end(Metrics.SNAPSHOT_MAPPING, start);
+        Metrics.count(Metrics.SNAPSHOTS, 5);
+
+        assertEquals(0, start);
+        assertEquals(0, Metrics.SNAPSHOT_MAPPING.count());
+        assertEquals(0, Metrics.SNAPSHOTS.get());
+    }
+
+    @Test
+    public void disabled_allocatesNothing() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        Metrics.setEnabled(false);
+
+        // Warm up so class loading and JIT compilation don't count; a round can still see
+        // a few bytes of VM bookkeeping, so the best of several rounds is taken
+        for (int i = 0; i < WARM_UP_ROUNDS; i++) instrumentedCalls();
+        long fewest = Long.MAX_VALUE;
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            long before = threads.getThreadAllocatedBytes(thread);
+            instrumentedCalls();
+            fewest = Math.min(fewest, threads.getThreadAllocatedBytes(thread) - before);
+        }
+
+        assertEquals(0, fewest);
+    }
+
+    @Test
+    public void enabled_recordsEachSection() {
+        Metrics.setEnabled(true);
+
+        for (int i = 0; i < 3; i++) {
+            long start = Metrics.begin(Metrics.ADAPTER_BIND);
+            Metrics.end(Metrics.ADAPTER_BIND, start);
+            Metrics.count(Metrics.BINDS, 1);
+        }
+        Metrics.count(Metrics.HTTP_BYTES, 2_048);
+
+        assertEquals(3, Metrics.ADAPTER_BIND.count());
+        assertEquals(3, Metrics.BINDS.get());
+        assertEquals(2_048, Metrics.HTTP_BYTES.get());
+    }
+
+    @Test
+    public void percentiles_areBucketUpperBounds() {
+        Histogram histogram = new Histogram("test");
+        for (int i = 0; i < 90; i++) histogram.record(100_000);     // 100 µs
+        for (int i = 0; i < 10; i++) histogram.record(10_000_000);  // 10 ms
+
+        assertEquals(127, histogram.percentileMicros(0.5));
+        assertEquals(127, histogram.percentileMicros(0.9));
+        assertEquals(16_383, histogram.percentileMicros(0.99));
+        assertEquals(10_000, histogram.maxMicros());
+        assertEquals(1_090, histogram.meanMicros());
+    }
+
+    @Test
+    public void percentiles_ofAnEmptyHistogram_areZero() {
+        Histogram histogram = new Histogram("test");
+
+        assertEquals(0, histogram.percentileMicros(0.99));
+        assertEquals(0, histogram.meanMicros());
+    }
+
+    @Test
+    public void reset_clearsEveryMetric() {
+        Metrics.setEnabled(true);
+        Metrics.count(Metrics.SNAPSHOTS, 1);
+        Metrics.end(Metrics.DATA_CALLBACK, Metrics.begin(Metrics.DATA_CALLBACK));
+
+        Metrics.reset();
+
+        assertEquals(0, Metrics.SNAPSHOTS.get());
+        assertEquals(0, Metrics.DATA_CALLBACK.count());
+    }
+
+    @Test
+    public void report_listsEveryMetric() {
+        Metrics.setEnabled(true);
+        Metrics.count(Metrics.HTTP_CALLS, 4);
+
+        String report = Metrics.report();
+
+        for (Histogram histogram : Metrics.histograms()) assertTrue(report.contains(histogram.name + " "));
+        assertTrue(report.contains(Metrics.HTTP_CALLS.name + " "));
+        assertTrue(report.matches("(?s).*http\\.calls\\s+4\\s.*"));
+    }
+
+    private static void instrumentedCalls() {
+        for (int i = 0; i < CALLS; i++) {
+            long start = Metrics.begin(Metrics.SNAPSHOT_MAPPING);
+            Metrics.count(Metrics.SNAPSHOTS, 1);
+            Metrics.end(Metrics.SNAPSHOT_MAPPING, start);
+            long async = Metrics.beginAsync(Metrics.LOGIN_CHAIN);
+            Metrics.endAsync(Metrics.LOGIN_CHAIN, async);
+        }
+    }
+}
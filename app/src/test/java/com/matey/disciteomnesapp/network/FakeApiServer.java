@@ -0,0 +1,158 @@
+package com.matey.disciteomnesapp.network;
+
+import com.google.gson.Gson;
+import com.matey.disciteomnesapp.models.Group;
+import com.matey.disciteomnesapp.models.Task;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import okhttp3.HttpUrl;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okhttp3.mockwebserver.SocketPolicy;
+import okio.Buffer;
+import okio.BufferedSink;
+import okio.GzipSink;
+import okio.Okio;
+
+/**
+ * A local stand-in for the backend behind {@link DisciteOmnesApi}, on a MockWebServer.
+ *
+ * Serves the welcome message (cacheable for an hour) and the batch endpoints, which
+ * carry an ETag and answer a matching If-None-Match with an empty 304. Bodies are
+ * gzipped when the client accepts it. {@link #failNext} makes the next requests fail,
+ * to exercise retries.
+ */
+class FakeApiServer {
+
+    static final String WELCOME_MESSAGE = "Hello from mocked API!";
+
+    private final MockWebServer server = new MockWebServer();
+    private final Gson gson = new Gson();
+    private final Map<String, Group> groups = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, Task>> tasks = new ConcurrentHashMap<>();
+    private final AtomicInteger failuresLeft = new AtomicInteger();
+    private final AtomicInteger notModifiedCount = new AtomicInteger();
+    private volatile int failureCode;
+
+    FakeApiServer() {
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                return respond(request);
+            }
+        });
+    }
+
+    void start() throws IOException {
+        server.start();
+    }
+
+    void shutdown() throws IOException {
+        server.shutdown();
+    }
+
+    String baseUrl() {
+        return server.url("/").toString();
+    }
+
+    void putGroup(Group group) {
+        groups.put(group.id, group);
+    }
+
+    void putTask(Task task) {
+        tasks.computeIfAbsent(task.groupId, id -> new ConcurrentHashMap<>()).put(task.id, task);
+    }
+
+    /**
+     * The next {@code count} requests get {@code code} (a 429 with Retry-After: 2), or
+     * lose their connection when {@code code} is 0.
+     */
+    void failNext(int count, int code) {
+        failureCode = code;
+        failuresLeft.set(count);
+    }
+
+    int requestCount() {
+        return server.getRequestCount();
+    }
+
+    int notModifiedCount() {
+        return notModifiedCount.get();
+    }
+
+    RecordedRequest takeRequest() throws InterruptedException {
+        return server.takeRequest();
+    }
+
+    private MockResponse respond(RecordedRequest request) {
+        if (failuresLeft.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+            if (failureCode == 0) return new MockResponse().setSocketPolicy(SocketPolicy.DISCONNECT_AFTER_REQUEST);
+            MockResponse failure = new MockResponse().setResponseCode(failureCode);
+            return failureCode == 429 ? failure.setHeader("Retry-After", "2") : failure;
+        }
+
+        HttpUrl url = request.getRequestUrl();
+        List<String> segments = url.pathSegments();
+        if (segments.size() == 2 && segments.get(0).equals("v3")) {
+            MessageResponse message = new MessageResponse();
+            message.message = WELCOME_MESSAGE;
+            return json(request, gson.toJson(message)).setHeader("Cache-Control", "max-age=3600");
+        }
+        if (segments.size() == 1 && segments.get(0).equals("groups")) {
+            List<Group> result = new ArrayList<>();
+            for (String id : ids(url)) {
+                Group group = groups.get(id);
+                if (group != null) result.add(group);
+            }
+            return tagged(request, gson.toJson(result));
+        }
+        if (segments.size() == 3 && segments.get(0).equals("groups") && segments.get(2).equals("tasks")) {
+            Map<String, Task> groupTasks = tasks.getOrDefault(segments.get(1), new ConcurrentHashMap<>());
+            List<Task> result = new ArrayList<>();
+            for (String id : ids(url)) {
+                Task task = groupTasks.get(id);
+                if (task != null) result.add(task);
+            }
+            return tagged(request, gson.toJson(result));
+        }
+        return new MockResponse().setResponseCode(404);
+    }
+
+    private MockResponse tagged(RecordedRequest request, String body) {
+        String etag = "\"" + Integer.toHexString(body.hashCode()) + "\"";
+        if (etag.equals(request.getHeader("If-None-Match"))) {
+            notModifiedCount.incrementAndGet();
+            return new MockResponse().setResponseCode(304).setHeader("ETag", etag);
+        }
+        return json(request, body).setHeader("ETag", etag);
+    }
+
+    private static MockResponse json(RecordedRequest request, String body) {
+        MockResponse response = new MockResponse().setHeader("Content-Type", "application/json");
+        String acceptEncoding = request.getHeader("Accept-Encoding");
+        if (acceptEncoding == null || !acceptEncoding.contains("gzip")) return response.setBody(body);
+
+        Buffer gzipped = new Buffer();
+        try (BufferedSink sink = Okio.buffer(new GzipSink(gzipped))) {
+            sink.writeUtf8(body);
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+        return response.setHeader("Content-Encoding", "gzip").setBody(gzipped);
+    }
+
+    private static List<String> ids(HttpUrl url) {
+        String ids = url.queryParameter("ids");
+        if (ids == null || ids.isEmpty()) return new ArrayList<>();
+        return Arrays.asList(ids.split(","));
+    }
+}
@@ -0,0 +1,219 @@
+package com.matey.disciteomnesapp.network;
+
+import com.matey.disciteomnesapp.models.Group;
+import com.matey.disciteomnesapp.models.Task;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import okhttp3.Cache;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.mockwebserver.RecordedRequest;
+import retrofit2.Response;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class RetrofitClientTest {
+
+    private static final int MAX_RETRIES = 3;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final FakeApiServer server = new FakeApiServer();
+    private final List<Long> sleeps = new ArrayList<>();
+    private OkHttpClient httpClient;
+    private Cache cache;
+    private DisciteOmnesApi api;
+
+    @Before
+    public void setUp() throws IOException {
+        server.start();
+        server.putGroup(new Group("g1", "Math", "Algebra", Group.membersOf("u1")));
+        server.putGroup(new Group("g2", "Physics", "Optics", Group.membersOf("u1", "u2")));
+        for (int i = 0; i < 10; i++) {
+            server.putTask(new Task("t" + i, "g1", "Task " + i, null, false, "u1"));
+        }
+
+        RetryInterceptor retry = new RetryInterceptor(MAX_RETRIES, 100, 1_000, sleeps::add, new Random(7));
+        httpClient = RetrofitClient.newHttpClient(folder.newFolder("http"), retry);
+        cache = httpClient.cache();
+        api = RetrofitClient.newRetrofit(server.baseUrl(), httpClient).create(DisciteOmnesApi.class);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        cache.close();
+        server.shutdown();
+    }
+
+    @Test
+    public void welcomeMessage_isCachedForItsMaxAge() throws IOException {
+        for (int i = 0; i < 5; i++) {
+            Response<MessageResponse> response = api.getWelcomeMessage().execute();
+            assertEquals(FakeApiServer.WELCOME_MESSAGE, response.body().message);
+        }
+
+        assertEquals(1, server.requestCount());
+        assertEquals(5, cache.requestCount());
+        assertEquals(4, cache.hitCount());
+    }
+
+    @Test
+    public void batchGroups_areRevalidatedWithTheirETag() throws Exception {
+        String ids = DisciteOmnesApi.ids(Arrays.asList("g2", "g1"));
+        assertEquals(2, api.getGroups(ids).execute().body().size());
+        List<Group> again = api.getGroups(ids).execute().body();
+
+        // Served from the cache after a body-less 304
+        assertEquals(2, again.size());
+        assertEquals("Math", again.get(0).name);
+        assertEquals(2, server.requestCount());
+        assertEquals(1, server.notModifiedCount());
+        RecordedRequest first = server.takeRequest();
+        RecordedRequest second = server.takeRequest();
+        assertNull(first.getHeader("If-None-Match"));
+        assertNotNull(second.getHeader("If-None-Match"));
+        assertEquals(1, cache.hitCount());
+    }
+
+    @Test
+    public void batchGroups_changedOnTheServer_areDownloadedAgain() throws IOException {
+        String ids = DisciteOmnesApi.ids(Collections.singletonList("g1"));
+        api.getGroups(ids).execute();
+        server.putGroup(new Group("g1", "Mathematics", "Algebra", Group.membersOf("u1")));
+
+        List<Group> groups = api.getGroups(ids).execute().body();
+
+        assertEquals("Mathematics", groups.get(0).name);
+        assertEquals(0, server.notModifiedCount());
+        assertEquals(0, cache.hitCount());
+    }
+
+    @Test
+    public void batchIds_inAnyOrder_shareOneCacheEntry() throws IOException {
+        api.getTasks("g1", DisciteOmnesApi.ids(Arrays.asList("t3", "t1", "t2"))).execute();
+        List<Task> tasks = api.getTasks("g1", DisciteOmnesApi.ids(Arrays.asList("t2", "t3", "t1"))).execute().body();
+
+        assertEquals(3, tasks.size());
+        assertEquals(1, server.notModifiedCount());
+        assertEquals(1, cache.hitCount());
+    }
+
+    @Test
+    public void repeatedBatchFetches_ofUnchangedTasks_areConditionalHits() throws IOException {
+        List<List<String>> batches = Arrays.asList(
+                Arrays.asList("t0", "t1", "t2"),
+                Arrays.asList("t3", "t4"),
+                Arrays.asList("t5", "t6", "t7", "t8", "t9"));
+        int calls = 0;
+        for (int round = 0; round < 10; round++) {
+            for (List<String> batch : batches) {
+                assertEquals(batch.size(), api.getTasks("g1", DisciteOmnesApi.ids(batch)).execute().body().size());
+                calls++;
+            }
+        }
+
+        // Every call after the first of each batch is a conditional hit: only headers travel
+        int conditionalHits = calls - batches.size();
+        assertEquals(calls, server.requestCount());
+        assertEquals(conditionalHits, server.notModifiedCount());
+        assertEquals(conditionalHits, cache.hitCount());
+        assertEquals(calls, cache.requestCount());
+    }
+
+    @Test
+    public void responses_areRequestedAndDecodedAsGzip() throws Exception {
+        List<Task> tasks = api.getTasks("g1", DisciteOmnesApi.ids(Arrays.asList("t0", "t1"))).execute().body();
+
+        assertEquals("Task 0", tasks.get(0).title);
+        assertEquals("gzip", server.takeRequest().getHeader("Accept-Encoding"));
+    }
+
+    @Test
+    public void serverErrors_areRetriedWithGrowingBackoff() throws IOException {
+        server.failNext(2, 503);
+
+        Response<List<Group>> response = api.getGroups("g1").execute();
+
+        assertTrue(response.isSuccessful());
+        assertEquals(3, server.requestCount());
+        assertEquals(2, sleeps.size());
+        assertTrue(sleeps.get(0) >= 50 && sleeps.get(0) < 100);
+        assertTrue(sleeps.get(1) >= 100 && sleeps.get(1) < 200);
+    }
+
+    @Test
+    public void tooManyRequests_waitsForRetryAfter_cappedAtTheMaxDelay() throws IOException {
+        server.failNext(1, 429);
+
+        assertTrue(api.getGroups("g1").execute().isSuccessful());
+        assertEquals(Collections.singletonList(1_000L), sleeps);
+    }
+
+    @Test
+    public void droppedConnections_areRetried() throws IOException {
+        server.failNext(1, 0);
+
+        Response<List<Group>> response = api.getGroups("g1").execute();
+
+        assertTrue(response.isSuccessful());
+        assertEquals(2, server.requestCount());
+        assertEquals(1, sleeps.size());
+    }
+
+    @Test
+    public void retries_stopAfterTheLimit() throws IOException {
+        server.failNext(10, 503);
+
+        Response<List<Group>> response = api.getGroups("g1").execute();
+
+        assertEquals(503, response.code());
+        assertEquals(MAX_RETRIES + 1, server.requestCount());
+    }
+
+    @Test
+    public void clientErrors_areNotRetried() throws IOException {
+        server.failNext(1, 404);
+
+        assertEquals(404, api.getGroups("g1").execute().code());
+        assertEquals(1, server.requestCount());
+        assertTrue(sleeps.isEmpty());
+    }
+
+    @Test
+    public void writes_areNeverRetried() throws IOException {
+        server.failNext(1, 503);
+        Request post = new Request.Builder()
+                .url(server.baseUrl() + "groups")
+                .post(RequestBody.create("{}", MediaType.get("application/json")))
+                .build();
+
+        try (okhttp3.Response response = httpClient.newCall(post).execute()) {
+            assertEquals(503, response.code());
+        }
+        assertEquals(1, server.requestCount());
+    }
+
+    @Test
+    public void ids_areSortedAndJoined() {
+        assertEquals("a,b,c", DisciteOmnesApi.ids(Arrays.asList("c", "a", "b")));
+        assertEquals("", DisciteOmnesApi.ids(Collections.emptyList()));
+    }
+}
@@ -0,0 +1,136 @@
+package com.matey.disciteomnesapp.ui;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.SavedStateHandle;
+
+import com.matey.disciteomnesapp.data.FakeDataStore;
+import com.matey.disciteomnesapp.data.GroupRepository;
+import com.matey.disciteomnesapp.data.ListenerRegistry;
+import com.matey.disciteomnesapp.data.ManualScheduler;
+import com.matey.disciteomnesapp.data.local.GroupDao;
+import com.matey.disciteomnesapp.data.local.GroupEntity;
+import com.matey.disciteomnesapp.models.Group;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class GroupListViewModelTest {
+
+    private final FakeDataStore store = new FakeDataStore();
+    private final ManualScheduler scheduler = new ManualScheduler();
+    private final ListenerRegistry registry = new ListenerRegistry(store, scheduler, ListenerRegistry.DEFAULT_GRACE_MS);
+    private final CountingGroupDao dao = new CountingGroupDao();
+    private final GroupRepository repository = new GroupRepository(dao, registry, Runnable::run, Runnable::run, Runnable::run);
+    private final List<List<Group>> shown = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        store.set("groups/g1", group("Math", "u1"));
+        store.set("groups/g2", group("Physics", "u2"));
+    }
+
+    @Test
+    public void recreatedScreen_causesNoRefetch() {
+        GroupListViewModel viewModel = new GroupListViewModel(new SavedStateHandle(), repository, "u1");
+
+        for (int i = 0; i < 5; i++) {
+            // A screen instance: observe, start, then stop and go away on rotation
+            viewModel.getVisibleGroups().observeForever(shown::add);
+            viewModel.startSync();
+            assertEquals(2, shown.get(shown.size() - 1).size());
+            viewModel.stopSync();
+            scheduler.advance(100);
+        }
+
+        // One attach each for groups and groupStats
+        assertEquals(2, store.reads.size());
+        assertEquals(2, registry.getAttachCount());
+        assertEquals(1, dao.observeCalls);
+        assertEquals(1, dao.replaceCalls);
+    }
+
+    @Test
+    public void showingMyGroups_filtersToMemberships() {
+        GroupListViewModel viewModel = new GroupListViewModel(new SavedStateHandle(), repository, "u1");
+        viewModel.getVisibleGroups().observeForever(shown::add);
+        viewModel.startSync();
+
+        viewModel.toggleShowingMyGroups();
+
+        List<Group> mine = shown.get(shown.size() - 1);
+        assertEquals(1, mine.size());
+        assertEquals("Math", mine.get(0).name);
+    }
+
+    @Test
+    public void processDeath_restoresFilter() {
+        SavedStateHandle state = new SavedStateHandle();
+        new GroupListViewModel(state, repository, "u1").toggleShowingMyGroups();
+
+        Map<String, Object> saved = new HashMap<>();
+        for (String key : state.keys()) saved.put(key, state.get(key));
+        GroupListViewModel restored = new GroupListViewModel(new SavedStateHandle(saved), repository, "u1");
+
+        assertTrue(restored.isShowingMyGroups());
+    }
+
+    @Test
+    public void cleared_stopsSync() {
+        GroupListViewModel viewModel = new GroupListViewModel(new SavedStateHandle(), repository, "u1");
+        viewModel.startSync();
+        assertFalse(registry.getSubscriberCount() == 0);
+
+        viewModel.onCleared();
+
+        assertEquals(0, registry.getSubscriberCount());
+    }
+
+    private static Map<String, Object> group(String name, String member) {
+        Map<String, Object> value = new HashMap<>();
+        value.put("name", name);
+        value.put("members", new HashMap<>(Collections.singletonMap(member, true)));
+        return value;
+    }
+
+    private static class CountingGroupDao implements GroupDao {
+        final Map<String, GroupEntity> rows = new HashMap<>();
+        final MutableLiveData<List<GroupEntity>> live = new MutableLiveData<>(new ArrayList<>());
+        int observeCalls = 0;
+        int replaceCalls = 0;
+
+        @Override
+        public LiveData<List<GroupEntity>> observeAll() {
+            observeCalls++;
+            return live;
+        }
+
+        @Override
+        public void upsertAll(List<GroupEntity> groups) {
+            for (GroupEntity group : groups) rows.put(group.id, group);
+        }
+
+        @Override
+        public void deleteAll() {
+            rows.clear();
+        }
+
+        @Override
+        public void replaceAll(List<GroupEntity> groups) {
+            replaceCalls++;
+            deleteAll();
+            upsertAll(groups);
+            live.setValue(new ArrayList<>(rows.values()));
+        }
+    }
+}
@@ -0,0 +1,373 @@
+package com.matey.disciteomnesapp.ui;
+
+import androidx.lifecycle.SavedStateHandle;
+
+import com.matey.disciteomnesapp.data.ManualScheduler;
+import com.matey.disciteomnesapp.data.TaskIndex;
+import com.matey.disciteomnesapp.data.TaskPageSource;
+import com.matey.disciteomnesapp.data.TaskPager;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class TaskListViewModelTest {
+
+    private static final long GRACE_MS = 5_000;
+
+    private final ManualScheduler scheduler = new ManualScheduler();
+    private final Map<String, RemotePage> remotes = new HashMap<>();
+    private final List<String> opened = new ArrayList<>();
+    private int groupLoads = 0;
+
+    private TaskListViewModel newViewModel(SavedStateHandle state) {
+        return new TaskListViewModel(state, "u1",
+                groupId -> {
+                    RemotePage remote = new RemotePage();
+                    remotes.put(groupId, remote);
+                    return (afterKey, limit, listener) -> {
+                        opened.add(groupId);
+                        return remote.openPage(afterKey, limit, listener);
+                    };
+                },
+                userId -> {
+                    groupLoads++;
+                    return CompletableFuture.completedFuture(Collections.singletonMap("g1", "Math"));
+                },
+                scheduler, GRACE_MS);
+    }
+
+    private TaskListViewModel newViewModel(TaskPageSource source) {
+        return new TaskListViewModel(new SavedStateHandle(), "u1",
+                groupId -> source,
+                userId -> CompletableFuture.completedFuture(Collections.singletonMap("g1", "Math")),
+                scheduler, GRACE_MS);
+    }
+
+    @Test
+    public void recreatedScreen_reusesLoadedPagesAndGroups() {
+        TaskListViewModel viewModel = newViewModel(new SavedStateHandle());
+        viewModel.getUserGroups();
+        viewModel.selectGroup("g1", "Math");
+        remotes.get("g1").add("t1", "t2", "t3");
+        TaskPager pager = viewModel.getPager();
+
+        // Rotate five times: each new screen detaches the old one and attaches itself
+        List<String> events = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            viewModel.detach();
+            viewModel.attach(new RecordingListener(events));
+            viewModel.getUserGroups();
+            assertEquals("g1", viewModel.getGroupId());
+            assertEquals(3, viewModel.getVisibleTasks(0).size());
+        }
+
+        assertEquals(1, opened.size());
+        assertEquals(1, groupLoads);
+        assertSame(pager, viewModel.getPager());
+        assertEquals(1, remotes.get("g1").openListeners);
+    }
+
+    @Test
+    public void reselectingSameGroup_keepsItsPages() {
+        TaskListViewModel viewModel = newViewModel(new SavedStateHandle());
+        viewModel.selectGroup("g1", "Math");
+
+        viewModel.selectGroup("g1", "Math");
+
+        assertEquals(1, opened.size());
+    }
+
+    @Test
+    public void selectingAnotherGroup_closesThePreviousPages() {
+        TaskListViewModel viewModel = newViewModel(new SavedStateHandle());
+        viewModel.selectGroup("g1", "Math");
+        remotes.get("g1").add("t1");
+
+        viewModel.selectGroup("g2", "Physics");
+        remotes.get("g2").add("t9");
+
+        assertEquals(0, remotes.get("g1").openListeners);
+        assertEquals(1, viewModel.getVisibleTasks(0).size());
+        assertEquals("t9", viewModel.getVisibleTasks(0).get(0).id);
+    }
+
+    @Test
+    public void eventsWhileDetached_areNotDelivered() {
+        TaskListViewModel viewModel = newViewModel(new SavedStateHandle());
+        List<String> events = new ArrayList<>();
+        viewModel.selectGroup("g1", "Math");
+        viewModel.attach(new RecordingListener(events));
+        remotes.get("g1").add("t1");
+        viewModel.detach();
+        remotes.get("g1").add("t2");
+
+        assertEquals(Collections.singletonList("inserted 0"), events);
+        assertEquals(2, viewModel.getVisibleTasks(0).size());
+    }
+
+    @Test
+    public void processDeath_restoresGroupAndFilter() {
+        SavedStateHandle state = new SavedStateHandle();
+        TaskListViewModel before = newViewModel(state);
+        before.selectGroup("g1", "Math");
+        before.setFilter(TaskIndex.Filter.INCOMPLETE);
+
+        // The process is gone: only what the SavedStateHandle held is restored
+        Map<String, Object> saved = new HashMap<>();
+        for (String key : state.keys()) saved.put(key, state.get(key));
+        opened.clear();
+        TaskListViewModel after = newViewModel(new SavedStateHandle(saved));
+
+        assertEquals("g1", after.getGroupId());
+        assertEquals("Math", after.getGroupName());
+        assertEquals(TaskIndex.Filter.INCOMPLETE, after.getFilter());
+        assertEquals(Collections.singletonList("g1"), opened);
+    }
+
+    @Test
+    public void noSavedState_opensNothing() {
+        TaskListViewModel viewModel = newViewModel(new SavedStateHandle());
+
+        assertNull(viewModel.getGroupId());
+        assertNull(viewModel.getPager());
+        assertEquals(0, viewModel.getVisibleTasks(0).size());
+    }
+
+    @Test
+    public void cleared_closesPages() {
+        TaskListViewModel viewModel = newViewModel(new SavedStateHandle());
+        viewModel.selectGroup("g1", "Math");
+
+        viewModel.onCleared();
+
+        assertEquals(0, remotes.get("g1").openListeners);
+    }
+
+    @Test
+    public void stoppedScreen_detachesPagesAfterTheGracePeriod() {
+        TaskListViewModel viewModel = newViewModel(new SavedStateHandle());
+        viewModel.startSync();
+        viewModel.selectGroup("g1", "Math");
+        remotes.get("g1").add("t1", "t2");
+
+        viewModel.stopSync();
+        scheduler.advance(GRACE_MS - 1);
+        assertEquals(1, remotes.get("g1").openListeners);
+        scheduler.advance(1);
+
+        assertEquals(0, remotes.get("g1").openListeners);
+        assertEquals(0, viewModel.getVisibleTasks(0).size());
+    }
+
+    @Test
+    public void rotation_keepsPagesAttached() {
+        TaskListViewModel viewModel = newViewModel(new SavedStateHandle());
+        viewModel.startSync();
+        viewModel.selectGroup("g1", "Math");
+        remotes.get("g1").add("t1");
+
+        viewModel.stopSync();
+        viewModel.startSync();
+        scheduler.advance(GRACE_MS);
+
+        assertEquals(1, opened.size());
+        assertEquals(1, remotes.get("g1").openListeners);
+        assertEquals(1, viewModel.getVisibleTasks(0).size());
+    }
+
+    @Test
+    public void restartedScreen_reopensThePages() {
+        TaskListViewModel viewModel = newViewModel(new SavedStateHandle());
+        viewModel.startSync();
+        viewModel.selectGroup("g1", "Math");
+        remotes.get("g1").add("t1");
+        viewModel.stopSync();
+        scheduler.advance(GRACE_MS);
+
+        viewModel.startSync();
+
+        assertEquals(2, opened.size());
+        assertEquals(1, remotes.get("g1").openListeners);
+    }
+
+    @Test
+    public void filterWithFewMatches_loadsPagesUntilTheEnd() {
+        // 70 tasks, every tenth one the user's: the first page alone shows three rows
+        StoredTasks stored = new StoredTasks(70, 10);
+        TaskListViewModel viewModel = newViewModel(stored);
+        viewModel.setFilter(TaskIndex.Filter.MINE);
+        viewModel.attach(new FillingListener(viewModel));
+        viewModel.selectGroup("g1", "Math");
+
+        assertEquals(7, viewModel.getVisibleTasks(0).size());
+        assertEquals(3, stored.pagesOpened);
+        assertTrue(viewModel.getPager().isEndReached());
+        assertFalse(viewModel.isFilterPartial());
+    }
+
+    @Test
+    public void filterWithFewMatches_stopsOnceTheWindowIsFull_andSaysResultsArePartial() {
+        StoredTasks stored = new StoredTasks(300, 100);
+        TaskListViewModel viewModel = newViewModel(stored);
+        viewModel.setFilter(TaskIndex.Filter.MINE);
+        viewModel.attach(new FillingListener(viewModel));
+        viewModel.selectGroup("g1", "Math");
+
+        // The match on the first page is still shown, and the rest is left for the user
+        assertEquals(TaskListViewModel.MAX_PAGES, viewModel.getPager().getResidentPageCount());
+        assertEquals(2, viewModel.getVisibleTasks(0).size());
+        assertFalse(viewModel.getPager().isEndReached());
+        assertTrue(viewModel.isFilterPartial());
+    }
+
+    @Test
+    public void filterFillingTheScreen_loadsNothingMore() {
+        StoredTasks stored = new StoredTasks(300, 1);
+        TaskListViewModel viewModel = newViewModel(stored);
+        viewModel.setFilter(TaskIndex.Filter.MINE);
+        viewModel.attach(new FillingListener(viewModel));
+        viewModel.selectGroup("g1", "Math");
+
+        assertEquals(1, stored.pagesOpened);
+        assertEquals(TaskListViewModel.PAGE_SIZE, viewModel.getVisibleTasks(0).size());
+        assertTrue(viewModel.isFilterPartial());
+    }
+
+    @Test
+    public void allTasks_areNeverFilledOrPartial() {
+        StoredTasks stored = new StoredTasks(300, 100);
+        TaskListViewModel viewModel = newViewModel(stored);
+        viewModel.attach(new FillingListener(viewModel));
+        viewModel.selectGroup("g1", "Math");
+
+        viewModel.fillFilter(0);
+
+        assertEquals(1, stored.pagesOpened);
+        assertFalse(viewModel.isFilterPartial());
+    }
+
+    /**
+     * Refills the filter after every change and loaded page, as the screen does.
+     */
+    private static class FillingListener extends RecordingListener {
+        final TaskListViewModel viewModel;
+
+        FillingListener(TaskListViewModel viewModel) {
+            super(new ArrayList<>());
+            this.viewModel = viewModel;
+        }
+
+        @Override
+        public void onPageLoaded() {
+            viewModel.fillFilter(viewModel.getVisibleTasks(0).size());
+        }
+    }
+
+    private static class RecordingListener implements TaskPager.Listener {
+        final List<String> events;
+
+        RecordingListener(List<String> events) {
+            this.events = events;
+        }
+
+        @Override
+        public void onInserted(int positionStart, int count) {
+            events.add("inserted " + positionStart);
+        }
+
+        @Override
+        public void onChanged(int position) {
+            events.add("changed " + position);
+        }
+
+        @Override
+        public void onRemoved(int positionStart, int count) {
+            events.add("removed " + positionStart);
+        }
+
+        @Override
+        public void onMoved(int fromPosition, int toPosition) {
+        }
+
+        @Override
+        public void onError(String message) {
+        }
+    }
+
+    /**
+     * A group of stored tasks served page by page as soon as a page is opened; every
+     * {@code mineEvery}-th task, starting with the first, is assigned to the user.
+     */
+    private static class StoredTasks implements TaskPageSource {
+        final List<String> keys = new ArrayList<>();
+        final int mineEvery;
+        int pagesOpened = 0;
+
+        StoredTasks(int count, int mineEvery) {
+            for (int i = 0; i < count; i++) keys.add(String.format("t%03d", i));
+            this.mineEvery = mineEvery;
+        }
+
+        @Override
+        public Subscription openPage(String afterKey, int limit, PageListener listener) {
+            pagesOpened++;
+            int from = afterKey == null ? 0 : keys.indexOf(afterKey) + 1;
+            int to = Math.min(keys.size(), from + limit);
+            String previousKey = null;
+            for (int i = from; i < to; i++) {
+                Map<String, Object> value = new HashMap<>();
+                value.put("title", "Task " + keys.get(i));
+                value.put("completed", false);
+                if (i % mineEvery == 0) value.put("assignedTo", "u1");
+                listener.onChildAdded(keys.get(i), value, previousKey);
+                previousKey = keys.get(i);
+            }
+            listener.onLoaded(to - from);
+            return () -> { };
+        }
+    }
+
+    /**
+     * One live page window whose children the test adds by hand.
+     */
+    private static class RemotePage implements TaskPageSource {
+        TaskPageSource.PageListener listener;
+        String lastKey;
+        boolean loaded = false;
+        int openListeners = 0;
+
+        @Override
+        public Subscription openPage(String afterKey, int limit, PageListener listener) {
+            this.listener = listener;
+            openListeners++;
+            return () -> {
+                openListeners--;
+                this.listener = null;
+            };
+        }
+
+        void add(String... keys) {
+            for (String key : keys) {
+                Map<String, Object> value = new HashMap<>();
+                value.put("title", "Task " + key);
+                value.put("completed", false);
+                listener.onChildAdded(key, value, lastKey);
+                lastKey = key;
+            }
+            if (!loaded) listener.onLoaded(keys.length);
+            loaded = true;
+        }
+    }
+}
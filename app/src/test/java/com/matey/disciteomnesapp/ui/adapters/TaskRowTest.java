@@ -0,0 +1,51 @@
+package com.matey.disciteomnesapp.ui.adapters;
+
+import com.matey.disciteomnesapp.models.Task;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class TaskRowTest {
+
+    @Test
+    public void formatsLabelsOnce() {
+        Task task = new Task("t1", "g1", "Essay", "Draft", false, "u1", "Ana", "2025-06-01");
+
+        TaskRow row = TaskRow.of(task);
+
+        assertEquals("Essay", row.title);
+        assertEquals("Draft", row.description);
+        assertEquals("Assigned to: Ana", row.assigneeLabel);
+        assertEquals("Due: 2025-06-01", row.dueLabel);
+        assertEquals("Group: Math", TaskRow.groupLabel("Math"));
+    }
+
+    @Test
+    public void missingAssigneeAndDueDate_showPlaceholders() {
+        Task task = new Task("t1", "g1", "Essay", "Draft", false, null, "", null);
+
+        TaskRow row = TaskRow.of(task);
+
+        assertEquals("Assigned to: (none)", row.assigneeLabel);
+        assertEquals("Due: not set", row.dueLabel);
+    }
+
+    @Test
+    public void withCompleted_leavesTheTaskUntouched() {
+        Task task = new Task("t1", "g1", "Essay", "Draft", false, "u1", "Ana", "2025-06-01");
+        TaskRow row = TaskRow.of(task);
+
+        TaskRow toggled = row.withCompleted(true);
+
+        assertTrue(toggled.completed);
+        assertFalse(row.completed);
+        assertFalse(task.completed);
+        assertSame(task, toggled.task);
+        assertSame(row.dueLabel, toggled.dueLabel);
+        assertSame(toggled, toggled.withCompleted(true));
+    }
+}
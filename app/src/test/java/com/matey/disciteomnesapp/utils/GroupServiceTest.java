@@ -0,0 +1,151 @@
+package com.matey.disciteomnesapp.utils;
+
+import com.matey.disciteomnesapp.data.FakeDataStore;
+import com.matey.disciteomnesapp.data.GroupMapper;
+import com.matey.disciteomnesapp.models.Group;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class GroupServiceTest {
+
+    @Test
+    public void createGroup_writesGroupAndIndexInOneUpdate() {
+        FakeDataStore store = new FakeDataStore();
+        GroupService service = new GroupService(store, "u1");
+
+        service.createGroup("Algebra", "Study group", () -> { }, () -> { });
+
+        assertEquals(1, store.updates.size());
+        Map<String, Object> update = store.updates.get(0);
+        String groupId = (String) ((Map<?, ?>) update.get("groups/key00000")).get("id");
+        assertEquals("Algebra", update.get("userGroups/u1/" + groupId));
+    }
+
+    @Test
+    public void createGroup_isReportedCreatedAtOnce_andRejectedLater() {
+        List<Runnable> rejections = new ArrayList<>();
+        FakeDataStore store = new FakeDataStore() {
+            @Override
+            public void update(Map<String, Object> updates, Runnable onSuccess, Runnable onFailure) {
+                rejections.add(onFailure); // no answer until the test gives one
+            }
+        };
+        GroupService service = new GroupService(store, "u1");
+        List<String> events = new ArrayList<>();
+
+        service.createGroup("Algebra", "Study group", () -> events.add("created"), () -> events.add("rejected"));
+        assertEquals(Arrays.asList("created"), events);
+
+        rejections.get(0).run();
+        assertEquals(Arrays.asList("created", "rejected"), events);
+    }
+
+    /**
+     * Records the group handed back by setMembership; null until it succeeds.
+     */
+    private static class Result implements GroupService.MembershipCallback {
+        Group updated;
+        boolean failed;
+
+        @Override
+        public void onChanged(Group updated) {
+            this.updated = updated;
+        }
+
+        @Override
+        public void onFailure() {
+            failed = true;
+        }
+    }
+
+    @Test
+    public void setMembership_joinAndLeaveKeepIndexInSync() {
+        FakeDataStore store = new FakeDataStore();
+        GroupService service = new GroupService(store, "u1");
+        Group group = new Group("g1", "Algebra", "", Group.membersOf("u2"));
+
+        Result joined = new Result();
+        service.setMembership(group, true, joined);
+        assertTrue(joined.updated.isMember("u1"));
+        assertEquals("Algebra", store.get("userGroups/u1/g1"));
+
+        Result left = new Result();
+        service.setMembership(joined.updated, false, left);
+        assertFalse(left.updated.isMember("u1"));
+        assertEquals(2, store.updates.get(1).size());
+        assertNull(store.get("userGroups/u1/g1"));
+    }
+
+    @Test
+    public void setMembership_handsBackACopyAndLeavesTheShownGroupAlone() {
+        FakeDataStore store = new FakeDataStore();
+        GroupService service = new GroupService(store, "u1");
+        Group shown = new Group("g1", "Algebra", "Study group", Group.membersOf("u2"));
+        Map<String, Boolean> shownMembers = shown.members;
+
+        Result result = new Result();
+        service.setMembership(shown, true, result);
+
+        assertNotSame(shown, result.updated);
+        assertNotSame(shownMembers, result.updated.members);
+        assertFalse(shown.isMember("u1"));
+        assertEquals(Group.membersOf("u2"), shown.members);
+        assertEquals(Group.membersOf("u1", "u2"), result.updated.members);
+        assertEquals("Study group", result.updated.description);
+    }
+
+    @Test
+    public void setMembership_writesOnlyTheUsersMemberChild() {
+        FakeDataStore store = new FakeDataStore();
+        store.set("groups/g1/members/u2", true);
+        GroupService service = new GroupService(store, "u1");
+        Group group = new Group("g1", "Algebra", "", Group.membersOf("u2"));
+
+        service.setMembership(group, true, new Result());
+
+        assertEquals(Boolean.TRUE, store.updates.get(0).get("groups/g1/members/u1"));
+        assertEquals(Boolean.TRUE, store.get("groups/g1/members/u2"));
+    }
+
+    @Test
+    public void setMembership_rewritesLegacyListOnce() {
+        FakeDataStore store = new FakeDataStore();
+        store.set("groups/g1", new HashMap<>(Collections.singletonMap("members", Arrays.asList("u2", "u1"))));
+        GroupService service = new GroupService(store, "u1");
+        Group group = GroupMapper.fromValue("g1", store.get("groups/g1"));
+
+        Result result = new Result();
+        service.setMembership(group, false, result);
+
+        assertEquals(Collections.singletonMap("u2", true), store.get("groups/g1/members"));
+        assertFalse(result.updated.legacyMembers);
+    }
+
+    @Test
+    public void setMembership_failedWriteHandsBackNothing() {
+        FakeDataStore store = new FakeDataStore();
+        store.failWrites = true;
+        GroupService service = new GroupService(store, "u1");
+        Group group = new Group("g1", "Algebra", "", Group.membersOf());
+
+        Result result = new Result();
+        service.setMembership(group, true, result);
+
+        assertTrue(result.failed);
+        assertNull(result.updated);
+        assertFalse(group.isMember("u1"));
+    }
+}
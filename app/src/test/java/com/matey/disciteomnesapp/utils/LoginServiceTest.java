@@ -0,0 +1,151 @@
+package com.matey.disciteomnesapp.utils;
+
+import com.matey.disciteomnesapp.data.DataStore;
+import com.matey.disciteomnesapp.data.FakeDataStore;
+import com.matey.disciteomnesapp.data.FakeSessionStore;
+import com.matey.disciteomnesapp.data.UserProfileCache;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class LoginServiceTest {
+
+    private static final long ROUND_TRIP_MS = 40;
+
+    private final SlowDataStore store = new SlowDataStore();
+    private final FakeAuthenticator authenticator = new FakeAuthenticator();
+    private final FakeSessionStore session = new FakeSessionStore();
+    private final UserProfileCache profileCache =
+            new UserProfileCache(store, null, Runnable::run, Runnable::run, 10);
+    private final LoginService loginService = new LoginService(authenticator, profileCache, session);
+    private final List<String> events = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        for (int i = 0; i < 500; i++) {
+            Map<String, Object> user = new HashMap<>();
+            user.put("name", "User " + i);
+            user.put("email", "user" + i + "@example.com");
+            store.set("users/u" + i, user);
+        }
+    }
+
+    private long loggedInAt;
+
+    private final LoginService.Callback callback = new LoginService.Callback() {
+        @Override
+        public void onLoggedIn(String userId) {
+            loggedInAt = System.nanoTime();
+            events.add("loggedIn " + userId);
+        }
+
+        @Override
+        public void onError(String message) {
+            events.add("error " + message);
+        }
+    };
+
+    @Test
+    public void login_readsOnlyTheUsersOwnProfile() {
+        long start = System.nanoTime();
+        loginService.login("user42@example.com", "secret", callback);
+        long untilDashboardMs = (loggedInAt - start) / 1_000_000;
+
+        assertEquals(Arrays.asList("loggedIn u42"), events);
+        assertEquals(Arrays.asList("users/u42"), store.reads);
+        assertEquals("u42", session.getUserId());
+        assertEquals("User 42", session.getUserName());
+        // Only the sign-in round trip happens before the dashboard opens; the old
+        // email query added a database round trip on top of it
+        assertTrue(untilDashboardMs < ROUND_TRIP_MS + ROUND_TRIP_MS / 2);
+    }
+
+    @Test
+    public void dashboardLookupAfterLoginCostsNoRead() {
+        loginService.login("user7@example.com", "secret", callback);
+        store.reads.clear();
+
+        profileCache.getProfile("u7", profiles -> events.add("welcome " + profiles.get("u7").name));
+
+        assertTrue(store.reads.isEmpty());
+        assertEquals("welcome User 7", events.get(events.size() - 1));
+    }
+
+    @Test
+    public void failedSignIn_leavesNoSession() {
+        authenticator.fail = true;
+
+        loginService.login("user1@example.com", "wrong", callback);
+
+        assertEquals(Arrays.asList("error bad credentials"), events);
+        assertNull(session.getUserId());
+        assertTrue(store.reads.isEmpty());
+    }
+
+    @Test
+    public void resume_restoresSessionForSignedInUser() {
+        loginService.resume("u3");
+
+        assertEquals("u3", session.getUserId());
+        assertEquals("User 3", session.getUserName());
+    }
+
+    @Test
+    public void logout_clearsSessionAndSignsOut() {
+        loginService.login("user1@example.com", "secret", callback);
+
+        loginService.logout();
+
+        assertNull(session.getUserId());
+        assertTrue(authenticator.signedOut);
+    }
+
+    private static void roundTrip() {
+        try {
+            Thread.sleep(ROUND_TRIP_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * FakeDataStore where every read costs one simulated round trip.
+     */
+    private static class SlowDataStore extends FakeDataStore {
+        @Override
+        public void read(String path, DataStore.ValueCallback callback) {
+            roundTrip();
+            super.read(path, callback);
+        }
+    }
+
+    private static class FakeAuthenticator implements LoginService.Authenticator {
+        boolean fail = false;
+        boolean signedOut = false;
+
+        @Override
+        public void signIn(String email, String password, LoginService.AuthCallback callback) {
+            roundTrip();
+            if (fail) {
+                callback.onFailure("bad credentials");
+            } else {
+                callback.onSignedIn("u" + email.substring(4, email.indexOf('@')));
+            }
+        }
+
+        @Override
+        public void signOut() {
+            signedOut = true;
+        }
+    }
+}
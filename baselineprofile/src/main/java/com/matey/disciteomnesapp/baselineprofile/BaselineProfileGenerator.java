@@ -0,0 +1,45 @@
+package com.matey.disciteomnesapp.baselineprofile;
+
+import androidx.benchmark.macro.junit4.BaselineProfileRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.LargeTest;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import kotlin.Unit;
+
+/**
+ * Generates the app's Baseline Profile from cold start, login, dashboard and task list.
+ *
+ * Run with ./gradlew :app:generateBaselineProfile; the result is written to
+ * app/src/release/generated/baselineProfiles and packaged by profileinstaller.
+ */
+@RunWith(AndroidJUnit4.class)
+@LargeTest
+public class BaselineProfileGenerator {
+
+    @Rule
+    public BaselineProfileRule baselineProfileRule = new BaselineProfileRule();
+
+    @Test
+    public void generate() {
+        baselineProfileRule.collect(
+                Journeys.PACKAGE_NAME,
+                /* maxIterations */ 15,
+                /* stableIterations */ 3,
+                /* outputFilePrefix */ null,
+                /* includeInStartupProfile */ true,
+                /* strictStability */ false,
+                className -> true,
+                scope -> {
+                    scope.pressHome();
+                    scope.startActivityAndWait();
+                    if (Journeys.signInIfNeeded(scope)) {
+                        Journeys.openTasks(scope);
+                    }
+                    return Unit.INSTANCE;
+                });
+    }
+}
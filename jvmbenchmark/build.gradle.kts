@@ -0,0 +1,115 @@
+import groovy.json.JsonSlurper
+
+plugins {
+    `java-library`
+    alias(libs.plugins.jmh)
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_11
+    targetCompatibility = JavaVersion.VERSION_11
+}
+
+// :app is an Android module, so the plain-Java classes under test are compiled in from its sources
+sourceSets {
+    main {
+        java {
+            srcDir(rootProject.file("app/src/main/java"))
+            include(
+                "com/matey/disciteomnesapp/models/Group.java",
+                "com/matey/disciteomnesapp/models/Task.java",
+                "com/matey/disciteomnesapp/data/GroupMapper.java",
+                "com/matey/disciteomnesapp/data/TaskIndex.java",
+                "com/matey/disciteomnesapp/data/TaskMapper.java",
+                "com/matey/disciteomnesapp/data/TaskListSync.java",
+                "com/matey/disciteomnesapp/ui/GroupListFilter.java",
+                "com/matey/disciteomnesapp/ui/adapters/TaskRow.java",
+            )
+        }
+    }
+}
+
+// ./gradlew :jvmbenchmark:jmh [-Pjmh.includes=TaskMapping]
+jmh {
+    jmhVersion.set(libs.versions.jmh)
+    warmupIterations.set(3)
+    iterations.set(5)
+    fork.set(1)
+    // Adds gc.alloc.rate.norm: bytes allocated per operation
+    profilers.add("gc")
+    resultFormat.set("JSON")
+    resultsFile.set(layout.buildDirectory.file("results/jmh/results.json"))
+    providers.gradleProperty("jmh.includes").orNull?.let { includes.add(it) }
+}
+
+val jmhResults = layout.buildDirectory.file("results/jmh/results.json")
+val jmhBaseline = layout.projectDirectory.file("baseline/jmh-baseline.json")
+
+/**
+ * One benchmark run: average time per operation and bytes allocated per operation,
+ * keyed by benchmark name and parameters.
+ */
+data class Score(val time: Double, val unit: String, val allocated: Double?)
+
+@Suppress("UNCHECKED_CAST")
+fun readScores(file: File): Map<String, Score> {
+    val runs = JsonSlurper().parse(file) as List<Map<String, Any?>>
+    return runs.associate { run ->
+        val params = (run["params"] as Map<String, Any?>?).orEmpty().toSortedMap()
+        val name = run["benchmark"].toString().substringAfterLast(".benchmark.") +
+            if (params.isEmpty()) "" else params.entries.joinToString(",", "(", ")") { "${it.key}=${it.value}" }
+        val primary = run["primaryMetric"] as Map<String, Any?>
+        val secondary = (run["secondaryMetrics"] as Map<String, Map<String, Any?>>?).orEmpty()
+        // The key is "·gc.alloc.rate.norm" before JMH 1.36
+        val allocation = secondary["gc.alloc.rate.norm"] ?: secondary["·gc.alloc.rate.norm"]
+        name to Score(
+            (primary["score"] as Number).toDouble(),
+            primary["scoreUnit"].toString(),
+            (allocation?.get("score") as Number?)?.toDouble(),
+        )
+    }
+}
+
+// ./gradlew :jvmbenchmark:jmh :jvmbenchmark:jmhCompare [-PmaxRegression=10]
+tasks.register("jmhCompare") {
+    group = "benchmark"
+    description = "Compares the last JMH run with the stored baseline and fails on regressions."
+    val maxRegression = providers.gradleProperty("maxRegression").map { it.toDouble() }.orElse(10.0)
+    doLast {
+        val resultsFile = jmhResults.get().asFile
+        val baselineFile = jmhBaseline.asFile
+        if (!resultsFile.exists()) throw GradleException("No results yet, run :jvmbenchmark:jmh first")
+        if (!baselineFile.exists()) throw GradleException("No baseline yet, store one with :jvmbenchmark:jmhUpdateBaseline")
+
+        val current = readScores(resultsFile)
+        val baseline = readScores(baselineFile)
+        val regressions = mutableListOf<String>()
+        for ((name, score) in current.toSortedMap()) {
+            val base = baseline[name]
+            if (base == null) {
+                println(String.format("%-60s %12.3f %s (new)", name, score.time, score.unit))
+                continue
+            }
+            val change = (score.time - base.time) / base.time * 100
+            val allocation = if (score.allocated != null && base.allocated != null) {
+                String.format("  alloc %.0f -> %.0f B/op", base.allocated, score.allocated)
+            } else ""
+            println(String.format("%-60s %12.3f -> %12.3f %s (%+.1f%%)%s",
+                name, base.time, score.time, score.unit, change, allocation))
+            if (change > maxRegression.get()) regressions.add(String.format("%s: %+.1f%%", name, change))
+        }
+        if (regressions.isNotEmpty()) {
+            throw GradleException("Slower than the baseline by more than ${maxRegression.get()}%:\n" +
+                regressions.joinToString("\n"))
+        }
+    }
+}
+
+// Run on the reference machine after an intended change in performance
+tasks.register<Copy>("jmhUpdateBaseline") {
+    group = "benchmark"
+    description = "Stores the last JMH run as the baseline."
+    from(jmhResults)
+    into(jmhBaseline.asFile.parentFile)
+    rename { jmhBaseline.asFile.name }
+}
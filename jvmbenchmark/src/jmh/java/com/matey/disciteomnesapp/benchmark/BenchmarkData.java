@@ -0,0 +1,46 @@
+package com.matey.disciteomnesapp.benchmark;
+
+import com.matey.disciteomnesapp.models.Group;
+import com.matey.disciteomnesapp.models.Task;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic groups and tasks shaped like the app's data: a handful of members per
+ * group, 40 users, most tasks assigned and due within the year.
+ */
+final class BenchmarkData {
+
+    static final int USERS = 40;
+    static final String USER = "u7";
+
+    private BenchmarkData() {
+    }
+
+    static List<Group> groups(int count) {
+        Random random = new Random(42);
+        List<Group> groups = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String[] members = new String[2 + random.nextInt(6)];
+            for (int m = 0; m < members.length; m++) members[m] = "u" + random.nextInt(USERS);
+            groups.add(new Group("g" + i, "Group " + i, "Description of group " + i, Group.membersOf(members)));
+        }
+        return groups;
+    }
+
+    static List<Task> tasks(int count) {
+        Random random = new Random(42);
+        LocalDate start = LocalDate.parse("2025-01-01");
+        List<Task> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int user = random.nextInt(USERS);
+            tasks.add(new Task(String.format("t%06d", i), "g1", "Task " + i, "Details for task " + i,
+                    random.nextInt(4) == 0, "u" + user, "User " + user,
+                    random.nextInt(10) == 0 ? null : start.plusDays(random.nextInt(365)).toString()));
+        }
+        return tasks;
+    }
+}
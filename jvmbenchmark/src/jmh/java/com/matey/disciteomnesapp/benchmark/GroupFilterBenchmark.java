@@ -0,0 +1,45 @@
+package com.matey.disciteomnesapp.benchmark;
+
+import com.matey.disciteomnesapp.models.Group;
+import com.matey.disciteomnesapp.ui.GroupListFilter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The group list's "my groups" filter, run on every groups emission and toggle.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class GroupFilterBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int groupCount;
+
+    private List<Group> groups;
+
+    @Setup
+    public void setUp() {
+        groups = BenchmarkData.groups(groupCount);
+    }
+
+    @Benchmark
+    public List<Group> myGroups() {
+        return GroupListFilter.visibleGroups(groups, BenchmarkData.USER, true);
+    }
+
+    @Benchmark
+    public List<Group> allGroups() {
+        return GroupListFilter.visibleGroups(groups, BenchmarkData.USER, false);
+    }
+}
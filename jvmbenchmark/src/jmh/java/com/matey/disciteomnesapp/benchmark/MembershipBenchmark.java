@@ -0,0 +1,57 @@
+package com.matey.disciteomnesapp.benchmark;
+
+import com.matey.disciteomnesapp.models.Group;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * "Is the user a member" over every group: the members map the app stores now against
+ * the member list groups were stored with before.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MembershipBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int groupCount;
+
+    private List<Group> groups;
+    private List<List<String>> legacyMembers;
+
+    @Setup
+    public void setUp() {
+        groups = BenchmarkData.groups(groupCount);
+        legacyMembers = new ArrayList<>(groupCount);
+        for (Group group : groups) legacyMembers.add(new ArrayList<>(group.members.keySet()));
+    }
+
+    @Benchmark
+    public int membersMap() {
+        int count = 0;
+        for (Group group : groups) {
+            if (group.isMember(BenchmarkData.USER)) count++;
+        }
+        return count;
+    }
+
+    @Benchmark
+    public int legacyMemberList() {
+        int count = 0;
+        for (List<String> members : legacyMembers) {
+            if (members.contains(BenchmarkData.USER)) count++;
+        }
+        return count;
+    }
+}
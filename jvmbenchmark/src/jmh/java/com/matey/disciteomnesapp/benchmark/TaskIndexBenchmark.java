@@ -0,0 +1,81 @@
+package com.matey.disciteomnesapp.benchmark;
+
+import com.matey.disciteomnesapp.data.TaskIndex;
+import com.matey.disciteomnesapp.models.Task;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The task list filters: a query on the TaskIndex against a linear scan that parses
+ * every due date, as filtering did without the index, plus building the index.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TaskIndexBenchmark {
+
+    private static final long TODAY = LocalDate.parse("2025-06-15").toEpochDay();
+
+    @Param({"1000", "10000", "100000"})
+    public int taskCount;
+
+    @Param({"MINE", "OVERDUE", "INCOMPLETE"})
+    public TaskIndex.Filter filter;
+
+    private List<Task> tasks;
+    private TaskIndex index;
+
+    @Setup
+    public void setUp() {
+        tasks = BenchmarkData.tasks(taskCount);
+        index = build();
+    }
+
+    @Benchmark
+    public TaskIndex build() {
+        TaskIndex built = new TaskIndex();
+        for (Task task : tasks) built.put(task);
+        return built;
+    }
+
+    @Benchmark
+    public List<Task> query() {
+        return index.query(filter, BenchmarkData.USER, TODAY);
+    }
+
+    @Benchmark
+    public List<Task> scan() {
+        List<Task> result = new ArrayList<>();
+        for (Task task : tasks) {
+            boolean match;
+            switch (filter) {
+                case MINE:
+                    match = BenchmarkData.USER.equals(task.assignedTo);
+                    break;
+                case OVERDUE:
+                    long due = TaskIndex.parseDueDate(task.dueDate);
+                    match = !task.completed && due != TaskIndex.NO_DUE_DATE && due < TODAY;
+                    break;
+                case INCOMPLETE:
+                    match = !task.completed;
+                    break;
+                default:
+                    match = true;
+            }
+            if (match) result.add(task);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,107 @@
+package com.matey.disciteomnesapp.benchmark;
+
+import com.matey.disciteomnesapp.data.TaskListSync;
+import com.matey.disciteomnesapp.data.TaskMapper;
+import com.matey.disciteomnesapp.models.Task;
+import com.matey.disciteomnesapp.ui.adapters.TaskRow;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What a list update costs before it reaches the adapter: loading the whole list
+ * through child events, applying one changed task to a loaded list, and building the
+ * rows the adapter binds from.
+ *
+ * DiffUtil itself only ships inside the RecyclerView AAR, which a plain JVM module
+ * can't use; adapter diffing is measured on a device by GroupAdapterUpdateTest.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TaskListUpdateBenchmark {
+
+    private static final TaskListSync.Listener NO_OP = new TaskListSync.Listener() {
+        @Override
+        public void onInserted(int position) {
+        }
+
+        @Override
+        public void onChanged(int position) {
+        }
+
+        @Override
+        public void onRemoved(int position) {
+        }
+
+        @Override
+        public void onMoved(int fromPosition, int toPosition) {
+        }
+    };
+
+    @Param({"1000", "10000", "100000"})
+    public int taskCount;
+
+    private List<Task> tasks;
+    private List<Map<String, Object>> values;
+    private TaskListSync loaded;
+    private Map<String, Object> toggledOn;
+    private Map<String, Object> toggledOff;
+    private String toggledKey;
+    private boolean toggle;
+
+    @Setup
+    public void setUp() {
+        tasks = BenchmarkData.tasks(taskCount);
+        values = new ArrayList<>(taskCount);
+        for (Task task : tasks) values.add(TaskMapper.toValue(task));
+
+        loaded = load();
+        Task middle = tasks.get(taskCount / 2);
+        toggledKey = middle.id;
+        toggledOn = TaskMapper.toValue(middle);
+        toggledOn.put("completed", true);
+        toggledOff = TaskMapper.toValue(middle);
+        toggledOff.put("completed", false);
+    }
+
+    @Benchmark
+    public TaskListSync initialLoad() {
+        return load();
+    }
+
+    @Benchmark
+    public TaskListSync singleChange() {
+        toggle = !toggle;
+        loaded.onChildChanged(toggledKey, toggle ? toggledOn : toggledOff);
+        return loaded;
+    }
+
+    @Benchmark
+    public void buildRows(Blackhole blackhole) {
+        for (Task task : tasks) blackhole.consume(TaskRow.of(task));
+    }
+
+    private TaskListSync load() {
+        TaskListSync sync = new TaskListSync(new ArrayList<>(taskCount), NO_OP);
+        String previous = null;
+        for (int i = 0; i < taskCount; i++) {
+            String key = tasks.get(i).id;
+            sync.onChildAdded(key, values.get(i), previous);
+            previous = key;
+        }
+        return sync;
+    }
+}
@@ -0,0 +1,78 @@
+package com.matey.disciteomnesapp.benchmark;
+
+import com.matey.disciteomnesapp.data.TaskMapper;
+import com.matey.disciteomnesapp.models.Task;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Turning snapshot value trees into Tasks and back, as every sync and write does.
+ * {@link #fromValueReflective} sets the public fields by name the way
+ * snapshot.getValue(Task.class) does, as the reference TaskMapper has to beat; Firebase's
+ * own mapper only ships in an Android library, so it can't be run here.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TaskMappingBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int taskCount;
+
+    private List<Task> tasks;
+    private List<Map<String, Object>> values;
+    private Map<String, Field> fields;
+
+    @Setup
+    public void setUp() {
+        tasks = BenchmarkData.tasks(taskCount);
+        values = new ArrayList<>(taskCount);
+        for (Task task : tasks) values.add(TaskMapper.toValue(task));
+        // Looked up once, as Firebase caches a mapper per class
+        fields = new HashMap<>();
+        for (Field field : Task.class.getFields()) {
+            if (!Modifier.isStatic(field.getModifiers())) fields.put(field.getName(), field);
+        }
+    }
+
+    @Benchmark
+    public void fromValue(Blackhole blackhole) {
+        for (int i = 0; i < taskCount; i++) {
+            blackhole.consume(TaskMapper.fromValue(tasks.get(i).id, values.get(i)));
+        }
+    }
+
+    @Benchmark
+    public void fromValueReflective(Blackhole blackhole) throws ReflectiveOperationException {
+        for (int i = 0; i < taskCount; i++) {
+            Task task = Task.class.getDeclaredConstructor().newInstance();
+            for (Map.Entry<String, Object> entry : values.get(i).entrySet()) {
+                Field field = fields.get(entry.getKey());
+                if (field != null) field.set(task, entry.getValue());
+            }
+            task.id = tasks.get(i).id;
+            blackhole.consume(task);
+        }
+    }
+
+    @Benchmark
+    public void toValue(Blackhole blackhole) {
+        for (Task task : tasks) blackhole.consume(TaskMapper.toValue(task));
+    }
+}
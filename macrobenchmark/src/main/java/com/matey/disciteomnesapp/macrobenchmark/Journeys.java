@@ -0,0 +1,77 @@
+package com.matey.disciteomnesapp.macrobenchmark;
+
+import android.os.Bundle;
+
+import androidx.benchmark.macro.MacrobenchmarkScope;
+import androidx.test.platform.app.InstrumentationRegistry;
+import androidx.test.uiautomator.By;
+import androidx.test.uiautomator.Direction;
+import androidx.test.uiautomator.UiDevice;
+import androidx.test.uiautomator.UiObject2;
+import androidx.test.uiautomator.Until;
+
+/**
+ * User journeys through the app. Signing in needs a test account passed as
+ * instrumentation arguments, e.g.
+ * -Pandroid.testInstrumentationRunnerArguments.benchmarkEmail=... and benchmarkPassword=...;
+ * without one, the journeys stop at the login screen.
+ */
+final class Journeys {
+
+    static final String PACKAGE_NAME = "com.matey.disciteomnesapp";
+    private static final long TIMEOUT_MS = 10_000;
+
+    private Journeys() {
+    }
+
+    /**
+     * Signs in if the login screen is showing and a test account was given.
+     * Returns true when the dashboard is showing afterwards.
+     */
+    static boolean signInIfNeeded(MacrobenchmarkScope scope) {
+        UiDevice device = scope.getDevice();
+        if (device.wait(Until.hasObject(By.res(PACKAGE_NAME, "welcomeText")), 1_000)) return true;
+
+        Bundle args = InstrumentationRegistry.getArguments();
+        String email = args.getString("benchmarkEmail");
+        String password = args.getString("benchmarkPassword");
+        UiObject2 emailField = device.wait(Until.findObject(By.res(PACKAGE_NAME, "emailEditText")), TIMEOUT_MS);
+        if (emailField == null || email == null || password == null) return false;
+
+        emailField.setText(email);
+        device.findObject(By.res(PACKAGE_NAME, "passwordEditText")).setText(password);
+        device.findObject(By.res(PACKAGE_NAME, "loginButton")).click();
+        return device.wait(Until.hasObject(By.res(PACKAGE_NAME, "welcomeText")), TIMEOUT_MS);
+    }
+
+    /**
+     * From the dashboard: opens the task list, picks the preselected group and scrolls it.
+     */
+    static void openTasks(MacrobenchmarkScope scope) {
+        UiDevice device = scope.getDevice();
+        device.findObject(By.res(PACKAGE_NAME, "tasksBtn")).click();
+        UiObject2 continueButton = device.wait(Until.findObject(By.text("CONTINUE")), TIMEOUT_MS);
+        if (continueButton == null) continueButton = device.findObject(By.text("Continue"));
+        if (continueButton == null) return;
+        continueButton.click();
+
+        scrollList(device, "taskRecyclerView");
+    }
+
+    /**
+     * From the dashboard: opens the group list and scrolls it.
+     */
+    static void openGroups(MacrobenchmarkScope scope) {
+        UiDevice device = scope.getDevice();
+        device.findObject(By.res(PACKAGE_NAME, "groupBtn")).click();
+        scrollList(device, "groupRecyclerView");
+    }
+
+    private static void scrollList(UiDevice device, String listId) {
+        UiObject2 list = device.wait(Until.findObject(By.res(PACKAGE_NAME, listId)), TIMEOUT_MS);
+        if (list == null) return;
+        list.setGestureMargin(device.getDisplayWidth() / 5);
+        list.scroll(Direction.DOWN, 3f);
+        device.waitForIdle();
+    }
+}
@@ -0,0 +1,66 @@
+package com.matey.disciteomnesapp.macrobenchmark;
+
+import androidx.benchmark.macro.BaselineProfileMode;
+import androidx.benchmark.macro.CompilationMode;
+import androidx.benchmark.macro.FrameTimingMetric;
+import androidx.benchmark.macro.junit4.MacrobenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.LargeTest;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Collections;
+
+import kotlin.Unit;
+
+/**
+ * Measures frame times (frameDurationCpuMs, frameOverrunMs) of opening each list screen
+ * from a fresh process and flinging it for the first time, which is when rows get
+ * created. Compare the results with a run on a build without row pre-inflation to see
+ * the frames it saves. Run with ./gradlew :macrobenchmark:pixel6Api34BenchmarkAndroidTest
+ */
+@RunWith(AndroidJUnit4.class)
+@LargeTest
+public class ScrollBenchmark {
+
+    private static final int ITERATIONS = 10;
+
+    @Rule
+    public MacrobenchmarkRule benchmarkRule = new MacrobenchmarkRule();
+
+    @Test
+    public void taskListFirstScroll() {
+        firstScroll(true);
+    }
+
+    @Test
+    public void groupListFirstScroll() {
+        firstScroll(false);
+    }
+
+    private void firstScroll(boolean tasks) {
+        benchmarkRule.measureRepeated(
+                Journeys.PACKAGE_NAME,
+                Collections.singletonList(new FrameTimingMetric()),
+                new CompilationMode.Partial(BaselineProfileMode.Require, 0),
+                null,
+                ITERATIONS,
+                scope -> {
+                    // A fresh process, so no rows exist yet; not StartupMode.COLD, which would kill it after sign-in
+                    scope.killProcess();
+                    scope.startActivityAndWait();
+                    Journeys.signInIfNeeded(scope);
+                    return Unit.INSTANCE;
+                },
+                scope -> {
+                    if (tasks) {
+                        Journeys.openTasks(scope);
+                    } else {
+                        Journeys.openGroups(scope);
+                    }
+                    return Unit.INSTANCE;
+                });
+    }
+}
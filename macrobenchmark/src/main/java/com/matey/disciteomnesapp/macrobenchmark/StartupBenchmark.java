@@ -0,0 +1,68 @@
+package com.matey.disciteomnesapp.macrobenchmark;
+
+import androidx.benchmark.macro.BaselineProfileMode;
+import androidx.benchmark.macro.CompilationMode;
+import androidx.benchmark.macro.StartupMode;
+import androidx.benchmark.macro.StartupTimingMetric;
+import androidx.benchmark.macro.junit4.MacrobenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.LargeTest;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Collections;
+
+import kotlin.Unit;
+
+/**
+ * Measures app startup (time to initial and full display) on the "benchmark" build.
+ *
+ * Cold start is measured without any AOT compilation and with the Baseline Profile, so
+ * the two numbers show what the profile buys. Run on the emulator image with
+ * ./gradlew :macrobenchmark:pixel6Api34BenchmarkAndroidTest
+ */
+@RunWith(AndroidJUnit4.class)
+@LargeTest
+public class StartupBenchmark {
+
+    private static final int ITERATIONS = 10;
+
+    @Rule
+    public MacrobenchmarkRule benchmarkRule = new MacrobenchmarkRule();
+
+    @Test
+    public void coldStartupNoCompilation() {
+        startup(new CompilationMode.None(), StartupMode.COLD);
+    }
+
+    @Test
+    public void coldStartupBaselineProfile() {
+        startup(new CompilationMode.Partial(BaselineProfileMode.Require, 0), StartupMode.COLD);
+    }
+
+    @Test
+    public void warmStartupBaselineProfile() {
+        startup(new CompilationMode.Partial(BaselineProfileMode.Require, 0), StartupMode.WARM);
+    }
+
+    private void startup(CompilationMode compilationMode, StartupMode startupMode) {
+        benchmarkRule.measureRepeated(
+                Journeys.PACKAGE_NAME,
+                Collections.singletonList(new StartupTimingMetric()),
+                compilationMode,
+                startupMode,
+                ITERATIONS,
+                scope -> {
+                    scope.pressHome();
+                    return Unit.INSTANCE;
+                },
+                scope -> {
+                    scope.startActivityAndWait();
+                    // Signs in on the first iteration only; later starts skip the login screen
+                    Journeys.signInIfNeeded(scope);
+                    return Unit.INSTANCE;
+                });
+    }
+}
@@ -21,4 +21,8 @@ dependencyResolutionManagement {
 
 rootProject.name = "DisciteOmnesApp"
 include(":app")
+include(":baselineprofile")
+include(":macrobenchmark")
+include(":jvmbenchmark")
+include(":admin")
  
\ No newline at end of file